@@ -15,6 +15,7 @@
  */
 package io.seata.codec.protobuf.convertor;
 
+import com.google.protobuf.ByteString;
 import io.seata.codec.protobuf.generated.AbstractMessageProto;
 import io.seata.codec.protobuf.generated.AbstractTransactionRequestProto;
 import io.seata.codec.protobuf.generated.BranchRegisterRequestProto;
@@ -41,6 +42,7 @@ public class BranchRegisterRequestConvertor implements PbConvertor<BranchRegiste
         final String applicationData = branchRegisterRequest.getApplicationData();
         final String resourceId = branchRegisterRequest.getResourceId();
         final String lockKey = branchRegisterRequest.getLockKey();
+        final byte[] lockKeyBytes = branchRegisterRequest.getLockKeyBytes();
         BranchRegisterRequestProto result = BranchRegisterRequestProto.newBuilder()
             .setAbstractTransactionRequest(abstractTransactionRequestProto)
             .setApplicationData(applicationData == null ? "" : applicationData)
@@ -48,6 +50,7 @@ public class BranchRegisterRequestConvertor implements PbConvertor<BranchRegiste
             .setLockKey(lockKey == null ? "" : lockKey)
             .setResourceId(resourceId == null ? "" : resourceId)
             .setXid(branchRegisterRequest.getXid())
+            .setBinaryLockKey(lockKeyBytes == null ? ByteString.EMPTY : ByteString.copyFrom(lockKeyBytes))
             .build();
         return result;
     }
@@ -60,6 +63,9 @@ public class BranchRegisterRequestConvertor implements PbConvertor<BranchRegiste
         branchRegisterRequest.setLockKey(branchRegisterRequestProto.getLockKey());
         branchRegisterRequest.setResourceId(branchRegisterRequestProto.getResourceId());
         branchRegisterRequest.setXid(branchRegisterRequestProto.getXid());
+        if (!branchRegisterRequestProto.getBinaryLockKey().isEmpty()) {
+            branchRegisterRequest.setLockKeyBytes(branchRegisterRequestProto.getBinaryLockKey().toByteArray());
+        }
         return branchRegisterRequest;
     }
 }
\ No newline at end of file
@@ -15,6 +15,7 @@
  */
 package io.seata.codec.protobuf.convertor;
 
+import com.google.protobuf.ByteString;
 import io.seata.codec.protobuf.generated.AbstractMessageProto;
 import io.seata.codec.protobuf.generated.AbstractTransactionRequestProto;
 import io.seata.codec.protobuf.generated.BranchRegisterRequestProto;
@@ -42,6 +43,7 @@ public class GlobalLockQueryRequestConvertor
 
         final String applicationData = globalLockQueryRequest.getApplicationData();
         final String lockKey = globalLockQueryRequest.getLockKey();
+        final byte[] lockKeyBytes = globalLockQueryRequest.getLockKeyBytes();
         BranchRegisterRequestProto branchRegisterRequestProto = BranchRegisterRequestProto.newBuilder()
             .setAbstractTransactionRequest(abstractTransactionRequestProto)
             .setApplicationData(applicationData == null ? "" : applicationData)
@@ -49,6 +51,7 @@ public class GlobalLockQueryRequestConvertor
             .setLockKey(lockKey == null ? "" : lockKey)
             .setResourceId(globalLockQueryRequest.getResourceId())
             .setXid(globalLockQueryRequest.getXid())
+            .setBinaryLockKey(lockKeyBytes == null ? ByteString.EMPTY : ByteString.copyFrom(lockKeyBytes))
             .build();
 
         GlobalLockQueryRequestProto result = GlobalLockQueryRequestProto.newBuilder().setBranchRegisterRequest(
@@ -66,6 +69,9 @@ public class GlobalLockQueryRequestConvertor
         branchRegisterRequest.setLockKey(branchRegisterRequestProto.getLockKey());
         branchRegisterRequest.setResourceId(branchRegisterRequestProto.getResourceId());
         branchRegisterRequest.setXid(branchRegisterRequestProto.getXid());
+        if (!branchRegisterRequestProto.getBinaryLockKey().isEmpty()) {
+            branchRegisterRequest.setLockKeyBytes(branchRegisterRequestProto.getBinaryLockKey().toByteArray());
+        }
         return branchRegisterRequest;
     }
 }
\ No newline at end of file
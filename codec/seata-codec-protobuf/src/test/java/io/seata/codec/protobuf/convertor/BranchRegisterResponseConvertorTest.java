@@ -48,4 +48,18 @@ public class BranchRegisterResponseConvertorTest {
         assertThat(real.getMsg()).isEqualTo(branchRegisterResponse.getMsg());
         assertThat(real.getBranchId()).isEqualTo(branchRegisterResponse.getBranchId());
     }
-}
\ No newline at end of file
+
+    @Test
+    public void convert2ProtoServerBusy() {
+        BranchRegisterResponse branchRegisterResponse = new BranchRegisterResponse();
+        branchRegisterResponse.setTransactionExceptionCode(TransactionExceptionCode.ServerBusy);
+        branchRegisterResponse.setResultCode(ResultCode.Failed);
+        branchRegisterResponse.setMsg("server is busy, retry later");
+
+        BranchRegisterResponseConvertor convertor = new BranchRegisterResponseConvertor();
+        BranchRegisterResponse real = convertor.convert2Model(convertor.convert2Proto(branchRegisterResponse));
+
+        assertThat(real.getTransactionExceptionCode()).isEqualTo(TransactionExceptionCode.ServerBusy);
+        assertThat(real.getResultCode()).isEqualTo(ResultCode.Failed);
+    }
+}
@@ -34,6 +34,15 @@ public class SeataCodec implements Codec {
 
     @Override
     public <T> byte[] encode(T t) {
+        ByteBuf out = Unpooled.buffer(1024);
+        encode(t, out);
+        byte[] content = new byte[out.readableBytes()];
+        out.readBytes(content);
+        return content;
+    }
+
+    @Override
+    public <T> void encode(T t, ByteBuf out) {
         if (t == null || !(t instanceof AbstractMessage)) {
             throw new IllegalArgumentException("AbstractMessage isn't available.");
         }
@@ -42,22 +51,9 @@ public class SeataCodec implements Codec {
         short typecode = abstractMessage.getTypeCode();
         //msg codec
         MessageSeataCodec messageCodec = MessageCodecFactory.getMessageCodec(typecode);
-        //get empty ByteBuffer
-        ByteBuf out = Unpooled.buffer(1024);
-        //msg encode
-        messageCodec.encode(t, out);
-        byte[] body = new byte[out.readableBytes()];
-        out.readBytes(body);
-
         //typecode + body
-        ByteBuffer byteBuffer = ByteBuffer.allocate(2 + body.length);
-        byteBuffer.putShort(typecode);
-        byteBuffer.put(body);
-
-        byteBuffer.flip();
-        byte[] content = new byte[byteBuffer.limit()];
-        byteBuffer.get(content);
-        return content;
+        out.writeShort(typecode);
+        messageCodec.encode(t, out);
     }
 
     @Override
@@ -65,16 +61,26 @@ public class SeataCodec implements Codec {
         if (bytes == null || bytes.length == 0) {
             throw new IllegalArgumentException("Nothing to decode.");
         }
-        if (bytes.length < 2) {
+        return decode(ByteBuffer.wrap(bytes));
+    }
+
+    @Override
+    public <T> T decode(ByteBuf in) {
+        if (!in.isReadable()) {
+            throw new IllegalArgumentException("Nothing to decode.");
+        }
+        // a view of the readable bytes, not a copy, unless the buffer is a composite of several
+        T t = decode(in.nioBuffer());
+        in.skipBytes(in.readableBytes());
+        return t;
+    }
+
+    private <T> T decode(ByteBuffer in) {
+        if (in.remaining() < 2) {
             throw new IllegalArgumentException("The byte[] isn't available for decode.");
         }
-        ByteBuffer byteBuffer = ByteBuffer.wrap(bytes);
         //typecode
-        short typecode = byteBuffer.getShort();
-        //msg body
-        byte[] body = new byte[byteBuffer.remaining()];
-        byteBuffer.get(body);
-        ByteBuffer in = ByteBuffer.wrap(body);
+        short typecode = in.getShort();
         //new Messgae
         AbstractMessage abstractMessage = MessageCodecFactory.getMessage(typecode);
         //get messageCodec
@@ -52,8 +52,8 @@ public class MergeResultMessageCodec extends AbstractMessageCodec {
             messageCodec.encode(msg, out);
         }
 
-        int length = out.readableBytes() - 4;
-        out.setInt(writeIndex,length);
+        int length = out.writerIndex() - writeIndex - 4;
+        out.setInt(writeIndex, length);
         if (msgs.length > 20) {
             if (LOGGER.isDebugEnabled()) {
                 LOGGER.debug("msg in one services merge packet:" + msgs.length + ",buffer size:" + length);
@@ -72,10 +72,8 @@ public class MergeResultMessageCodec extends AbstractMessageCodec {
         if (in.remaining() < length) {
             return;
         }
-        byte[] buffer = new byte[length];
-        in.get(buffer);
-        ByteBuffer byteBuffer = ByteBuffer.wrap(buffer);
-        decode(mergeResultMessage, byteBuffer);
+        // the sub messages take exactly the content, decode them in place
+        decode(mergeResultMessage, in);
     }
 
     /**
@@ -20,7 +20,6 @@ import java.util.ArrayList;
 import java.util.List;
 
 import io.netty.buffer.ByteBuf;
-import io.netty.buffer.Unpooled;
 import io.seata.codec.seata.MessageCodecFactory;
 import io.seata.codec.seata.MessageSeataCodec;
 import io.seata.core.protocol.AbstractMessage;
@@ -43,30 +42,25 @@ public class MergedWarpMessageCodec extends AbstractMessageCodec {
         MergedWarpMessage mergedWarpMessage = (MergedWarpMessage)t;
         List<AbstractMessage> msgs = mergedWarpMessage.msgs;
 
-        final ByteBuf buffer = Unpooled.buffer(1024);
-        buffer.writeInt(0); // write placeholder for content length
+        int writeIndex = out.writerIndex();
+        out.writeInt(0); // write placeholder for content length
 
-        buffer.writeShort((short)msgs.size());
+        out.writeShort((short)msgs.size());
         for (final AbstractMessage msg : msgs) {
-            final ByteBuf subBuffer = Unpooled.buffer(1024);
             short typeCode = msg.getTypeCode();
             MessageSeataCodec messageCodec = MessageCodecFactory.getMessageCodec(typeCode);
-            messageCodec.encode(msg, subBuffer);
-            buffer.writeShort(msg.getTypeCode());
-            buffer.writeBytes(subBuffer);
+            out.writeShort(typeCode);
+            messageCodec.encode(msg, out);
         }
 
-        final int length = buffer.readableBytes();
-        final byte[] content = new byte[length];
-        buffer.setInt(0, length - 4);  // minus the placeholder length itself
-        buffer.readBytes(content);
+        int length = out.writerIndex() - writeIndex - 4; // minus the placeholder length itself
+        out.setInt(writeIndex, length);
 
         if (msgs.size() > 20) {
             if (LOGGER.isDebugEnabled()) {
-                LOGGER.debug("msg in one packet:" + msgs.size() + ",buffer size:" + content.length);
+                LOGGER.debug("msg in one packet:" + msgs.size() + ",buffer size:" + length);
             }
         }
-        out.writeBytes(content);
     }
 
     @Override
@@ -80,10 +74,8 @@ public class MergedWarpMessageCodec extends AbstractMessageCodec {
         if (in.remaining() < length) {
             return;
         }
-        byte[] buffer = new byte[length];
-        in.get(buffer);
-        ByteBuffer byteBuffer = ByteBuffer.wrap(buffer);
-        doDecode(mergedWarpMessage, byteBuffer);
+        // the sub messages take exactly the content, decode them in place
+        doDecode(mergedWarpMessage, in);
     }
 
     private void doDecode(MergedWarpMessage mergedWarpMessage, ByteBuffer byteBuffer) {
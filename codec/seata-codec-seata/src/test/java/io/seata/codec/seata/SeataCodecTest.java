@@ -0,0 +1,101 @@
+/*
+ *  Copyright 1999-2019 Seata.io Group.
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+package io.seata.codec.seata;
+
+import io.netty.buffer.ByteBuf;
+import io.netty.buffer.PooledByteBufAllocator;
+import io.seata.core.protocol.AbstractResultMessage;
+import io.seata.core.protocol.MergeResultMessage;
+import io.seata.core.protocol.MergedWarpMessage;
+import io.seata.core.protocol.ResultCode;
+import io.seata.core.protocol.transaction.BranchRegisterRequest;
+import io.seata.core.protocol.transaction.GlobalBeginRequest;
+import io.seata.core.protocol.transaction.GlobalBeginResponse;
+import org.junit.jupiter.api.Test;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * The type Seata codec test.
+ */
+public class SeataCodecTest {
+
+    /**
+     * The Seata codec.
+     */
+    SeataCodec seataCodec = new SeataCodec();
+
+    /**
+     * Encode into a pooled buffer behind a header and decode from a slice of it, as the protocol codec does.
+     */
+    @Test
+    public void test_byteBuf_codec() {
+        MergedWarpMessage mergedWarpMessage = new MergedWarpMessage();
+        GlobalBeginRequest globalBeginRequest = new GlobalBeginRequest();
+        globalBeginRequest.setTransactionName("tx");
+        globalBeginRequest.setTimeout(3000);
+        BranchRegisterRequest branchRegisterRequest = new BranchRegisterRequest();
+        branchRegisterRequest.setXid("127.0.0.1:8091:1");
+        branchRegisterRequest.setResourceId("jdbc:mysql://127.0.0.1/db");
+        branchRegisterRequest.setLockKey("t:1");
+        mergedWarpMessage.msgs.add(globalBeginRequest);
+        mergedWarpMessage.msgs.add(branchRegisterRequest);
+
+        ByteBuf out = PooledByteBufAllocator.DEFAULT.directBuffer(16);
+        try {
+            out.writeLong(-1L);
+            seataCodec.encode(mergedWarpMessage, out);
+            int bodyLength = out.readableBytes() - 8;
+            assertThat(bodyLength).isEqualTo(seataCodec.encode(mergedWarpMessage).length);
+
+            out.skipBytes(8);
+            ByteBuf body = out.readSlice(bodyLength);
+            MergedWarpMessage decoded = seataCodec.decode(body);
+            assertThat(body.isReadable()).isFalse();
+            assertThat(decoded.msgs.size()).isEqualTo(2);
+            assertThat(((GlobalBeginRequest)decoded.msgs.get(0)).getTransactionName()).isEqualTo("tx");
+            BranchRegisterRequest decodedRegister = (BranchRegisterRequest)decoded.msgs.get(1);
+            assertThat(decodedRegister.getXid()).isEqualTo(branchRegisterRequest.getXid());
+            assertThat(decodedRegister.getLockKey()).isEqualTo(branchRegisterRequest.getLockKey());
+        } finally {
+            out.release();
+        }
+    }
+
+    /**
+     * The content length of a merged result counts from its own position in the buffer.
+     */
+    @Test
+    public void test_mergeResult_behind_header() {
+        MergeResultMessage mergeResultMessage = new MergeResultMessage();
+        GlobalBeginResponse globalBeginResponse = new GlobalBeginResponse();
+        globalBeginResponse.setXid("127.0.0.1:8091:1");
+        globalBeginResponse.setResultCode(ResultCode.Success);
+        mergeResultMessage.setMsgs(new AbstractResultMessage[] {globalBeginResponse});
+
+        ByteBuf out = PooledByteBufAllocator.DEFAULT.heapBuffer(16);
+        try {
+            out.writeInt(0);
+            seataCodec.encode(mergeResultMessage, out);
+            out.skipBytes(4);
+            MergeResultMessage decoded = seataCodec.decode(out);
+            assertThat(decoded.getMsgs().length).isEqualTo(1);
+            assertThat(((GlobalBeginResponse)decoded.getMsgs()[0]).getXid()).isEqualTo(globalBeginResponse.getXid());
+        } finally {
+            out.release();
+        }
+    }
+}
@@ -16,6 +16,7 @@
 package io.seata.codec.seata.protocol.transaction;
 
 import io.seata.codec.seata.SeataCodec;
+import io.seata.core.lock.BinaryLockKey;
 import io.seata.core.model.BranchType;
 import io.seata.core.protocol.transaction.BranchRegisterRequest;
 import org.junit.jupiter.api.Test;
@@ -59,4 +60,25 @@ public class BranchRegisterRequestCodecTest {
 
     }
 
-}
\ No newline at end of file
+    /**
+     * Test codec of the binary lock key.
+     */
+    @Test
+    public void test_codec_binary_lock_key(){
+        BranchRegisterRequest branchRegisterRequest = new BranchRegisterRequest();
+        branchRegisterRequest.setBranchType(BranchType.AT);
+        branchRegisterRequest.setApplicationData("abc");
+        branchRegisterRequest.setLockKeyBytes(BinaryLockKey.encode("a:1,2;b:3").getBytes());
+        branchRegisterRequest.setResourceId("124");
+        branchRegisterRequest.setXid("abc134");
+
+        byte[] bytes = seataCodec.encode(branchRegisterRequest);
+
+        BranchRegisterRequest branchRegisterRequest2 = seataCodec.decode(bytes);
+
+        assertThat(branchRegisterRequest2.getLockKey()).isNull();
+        assertThat(branchRegisterRequest2.getLockKeyBytes()).isEqualTo(branchRegisterRequest.getLockKeyBytes());
+        assertThat(branchRegisterRequest2.getApplicationData()).isEqualTo(branchRegisterRequest.getApplicationData());
+        assertThat(new BinaryLockKey(branchRegisterRequest2.getLockKeyBytes()).toText()).isEqualTo("a:1,2;b:3");
+    }
+}
@@ -57,4 +57,20 @@ public class BranchRegisterResponseCodecTest {
         assertThat(branchRegisterResponse2.getTransactionExceptionCode()).isEqualTo(branchRegisterResponse.getTransactionExceptionCode());
     }
 
-}
\ No newline at end of file
+    /**
+     * Test codec of a busy response.
+     */
+    @Test
+    public void test_codec_serverBusy(){
+        BranchRegisterResponse branchRegisterResponse = new BranchRegisterResponse();
+        branchRegisterResponse.setMsg("server is busy, retry later");
+        branchRegisterResponse.setResultCode(ResultCode.Failed);
+        branchRegisterResponse.setTransactionExceptionCode(TransactionExceptionCode.ServerBusy);
+
+        BranchRegisterResponse branchRegisterResponse2 = seataCodec.decode(seataCodec.encode(branchRegisterResponse));
+
+        assertThat(branchRegisterResponse2.getResultCode()).isEqualTo(ResultCode.Failed);
+        assertThat(branchRegisterResponse2.getTransactionExceptionCode()).isEqualTo(TransactionExceptionCode.ServerBusy);
+    }
+
+}
@@ -56,7 +56,7 @@ public class XID {
     }
 
     /**
-     * Gets transaction id.
+     * Gets transaction id, without the substring of it.
      *
      * @param xid the xid
      * @return the transaction id
@@ -66,8 +66,25 @@ public class XID {
             return -1;
         }
 
-        int idx = xid.lastIndexOf(":");
-        return Long.parseLong(xid.substring(idx + 1));
+        int from = xid.lastIndexOf(':') + 1;
+        int length = xid.length();
+        if (from >= length || length - from > 19) {
+            return Long.parseLong(xid.substring(from));
+        }
+        long id = 0;
+        for (int i = from; i < length; i++) {
+            int digit = xid.charAt(i) - '0';
+            if (digit < 0 || digit > 9) {
+                // signs and the like, let the jdk tell
+                return Long.parseLong(xid.substring(from));
+            }
+            id = id * 10 + digit;
+        }
+        if (id < 0) {
+            // overflow of 19 digits
+            return Long.parseLong(xid.substring(from));
+        }
+        return id;
     }
 
     /**
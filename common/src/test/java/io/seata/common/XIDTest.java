@@ -20,6 +20,7 @@ import java.util.Random;
 import org.junit.jupiter.api.Test;
 
 import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
 
 /**
  * The type Xid test.
@@ -65,5 +66,11 @@ public class XIDTest {
     public void testGetTransactionId() {
         assertThat(XID.getTransactionId(null)).isEqualTo(-1);
         assertThat(XID.getTransactionId("127.0.0.1:8080:8577662204289747564")).isEqualTo(8577662204289747564L);
+        assertThat(XID.getTransactionId("127.0.0.1:8080:-5")).isEqualTo(-5L);
+        assertThat(XID.getTransactionId("127.0.0.1:8080:" + Long.MAX_VALUE)).isEqualTo(Long.MAX_VALUE);
+        assertThatThrownBy(() -> XID.getTransactionId("127.0.0.1:8080:9223372036854775808"))
+            .isInstanceOf(NumberFormatException.class);
+        assertThatThrownBy(() -> XID.getTransactionId("127.0.0.1:8080:")).isInstanceOf(NumberFormatException.class);
+        assertThatThrownBy(() -> XID.getTransactionId("127.0.0.1:8080:x1")).isInstanceOf(NumberFormatException.class);
     }
 }
@@ -0,0 +1,50 @@
+/*
+ *  Copyright 1999-2019 Seata.io Group.
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+package io.seata.common.util;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ExecutionException;
+
+import org.junit.jupiter.api.Test;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.catchThrowable;
+
+/**
+ * The type Future utils test.
+ */
+public class FutureUtilsTest {
+
+    @Test
+    public void testFailedFuture() {
+        IllegalStateException ex = new IllegalStateException("failed");
+        CompletableFuture<String> future = FutureUtils.failedFuture(ex);
+        assertThat(future.isCompletedExceptionally()).isTrue();
+        Throwable thrown = catchThrowable(future.thenApply(s -> s + "!")::join);
+        assertThat(thrown).isInstanceOf(CompletionException.class);
+        assertThat(FutureUtils.unwrap(thrown)).isSameAs(ex);
+    }
+
+    @Test
+    public void testUnwrap() {
+        IllegalStateException ex = new IllegalStateException("failed");
+        assertThat(FutureUtils.unwrap(ex)).isSameAs(ex);
+        assertThat(FutureUtils.unwrap(new ExecutionException(new CompletionException(ex)))).isSameAs(ex);
+        CompletionException empty = new CompletionException((Throwable)null);
+        assertThat(FutureUtils.unwrap(empty)).isSameAs(empty);
+    }
+}
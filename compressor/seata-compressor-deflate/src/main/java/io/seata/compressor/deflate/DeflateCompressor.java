@@ -0,0 +1,90 @@
+/*
+ *  Copyright 1999-2019 Seata.io Group.
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+package io.seata.compressor.deflate;
+
+import java.io.ByteArrayOutputStream;
+import java.util.zip.DataFormatException;
+import java.util.zip.Deflater;
+import java.util.zip.Inflater;
+
+import io.seata.common.loader.LoadLevel;
+import io.seata.core.compressor.Compressor;
+import io.seata.core.protocol.ProtocolConstants;
+
+/**
+ * The Deflate compressor, in zlib format. The deflater, the inflater and the buffer of a thread are reused across
+ * calls, as each deflater holds a native zlib stream of a few hundred KB.
+ */
+@LoadLevel(name = "DEFLATE")
+public class DeflateCompressor implements Compressor {
+
+    private static final int BUFFER_SIZE = 4096;
+
+    private static final ThreadLocal<Deflater> DEFLATER = ThreadLocal.withInitial(Deflater::new);
+
+    private static final ThreadLocal<Inflater> INFLATER = ThreadLocal.withInitial(Inflater::new);
+
+    private static final ThreadLocal<byte[]> BUFFER = ThreadLocal.withInitial(() -> new byte[BUFFER_SIZE]);
+
+    @Override
+    public byte[] compress(byte[] bytes) {
+        if (bytes == null) {
+            throw new NullPointerException("bytes is null");
+        }
+        Deflater deflater = DEFLATER.get();
+        byte[] buffer = BUFFER.get();
+        ByteArrayOutputStream out = new ByteArrayOutputStream(Math.max(64, bytes.length / 2));
+        try {
+            deflater.setInput(bytes);
+            deflater.finish();
+            while (!deflater.finished()) {
+                int n = deflater.deflate(buffer);
+                out.write(buffer, 0, n);
+            }
+        } finally {
+            deflater.reset();
+        }
+        return out.toByteArray();
+    }
+
+    @Override
+    public byte[] decompress(byte[] bytes) {
+        if (bytes == null) {
+            throw new NullPointerException("bytes is null");
+        }
+        Inflater inflater = INFLATER.get();
+        byte[] buffer = BUFFER.get();
+        ByteArrayOutputStream out = new ByteArrayOutputStream(bytes.length * 2);
+        try {
+            inflater.setInput(bytes);
+            while (!inflater.finished()) {
+                int n = inflater.inflate(buffer);
+                if (n == 0 && !inflater.finished() && (inflater.needsInput() || inflater.needsDictionary())) {
+                    throw new IllegalArgumentException("truncated deflate body");
+                }
+                if (out.size() + n > ProtocolConstants.MAX_FRAME_LENGTH) {
+                    throw new IllegalArgumentException("decompressed body exceeds " + ProtocolConstants.MAX_FRAME_LENGTH);
+                }
+                out.write(buffer, 0, n);
+            }
+        } catch (DataFormatException e) {
+            throw new IllegalArgumentException("corrupt deflate body", e);
+        } finally {
+            inflater.reset();
+        }
+        return out.toByteArray();
+    }
+}
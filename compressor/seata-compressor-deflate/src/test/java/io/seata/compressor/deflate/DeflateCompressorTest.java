@@ -0,0 +1,81 @@
+/*
+ *  Copyright 1999-2019 Seata.io Group.
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+package io.seata.compressor.deflate;
+
+import java.util.Arrays;
+
+import io.seata.core.codec.CompressorType;
+import io.seata.core.compressor.CompressorFactory;
+import io.seata.core.protocol.ProtocolConstants;
+import org.junit.jupiter.api.Test;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+/**
+ * The type Deflate compressor test.
+ */
+public class DeflateCompressorTest {
+
+    private final DeflateCompressor compressor = new DeflateCompressor();
+
+    @Test
+    public void testDecompressBomb() {
+        byte[] bomb = compressor.compress(new byte[ProtocolConstants.MAX_FRAME_LENGTH + 1]);
+        assertThat(bomb.length).isLessThan(64 * 1024);
+        assertThatThrownBy(() -> compressor.decompress(bomb))
+            .isInstanceOf(IllegalArgumentException.class)
+            .hasMessageContaining("exceeds");
+
+        // the thread local inflater is reset for the next frame
+        byte[] max = new byte[ProtocolConstants.MAX_FRAME_LENGTH];
+        assertThat(compressor.decompress(compressor.compress(max))).isEqualTo(max);
+    }
+
+    @Test
+    public void testDecompressTruncated() {
+        byte[] compressed = compressor.compress("stock_tbl:1,2,3".getBytes());
+        assertThat(compressor.decompress(compressed)).isEqualTo("stock_tbl:1,2,3".getBytes());
+
+        assertThatThrownBy(() -> compressor.decompress(Arrays.copyOf(compressed, compressed.length / 2)))
+            .isInstanceOf(IllegalArgumentException.class)
+            .hasMessage("truncated deflate body");
+        assertThatThrownBy(() -> compressor.decompress(new byte[0]))
+            .isInstanceOf(IllegalArgumentException.class)
+            .hasMessage("truncated deflate body");
+    }
+
+    @Test
+    public void testDecompressCorrupt() {
+        assertThatThrownBy(() -> compressor.decompress("stock_tbl:1,2,3".getBytes()))
+            .isInstanceOf(IllegalArgumentException.class)
+            .hasMessage("corrupt deflate body");
+
+        byte[] compressed = compressor.compress("stock_tbl:1,2,3".getBytes());
+        // a flipped byte in the adler32 trailer
+        compressed[compressed.length - 1] ^= 0xff;
+        assertThatThrownBy(() -> compressor.decompress(compressed))
+            .isInstanceOf(IllegalArgumentException.class)
+            .hasMessage("corrupt deflate body");
+
+        assertThat(compressor.decompress(compressor.compress(new byte[0]))).isEmpty();
+    }
+
+    @Test
+    public void testLoad() {
+        assertThat(CompressorFactory.getCompressor(CompressorType.DEFLATE.getCode())).isInstanceOf(DeflateCompressor.class);
+    }
+}
@@ -0,0 +1,70 @@
+/*
+ *  Copyright 1999-2019 Seata.io Group.
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+package io.seata.compressor.gzip;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.util.zip.GZIPInputStream;
+import java.util.zip.GZIPOutputStream;
+
+import io.seata.common.loader.LoadLevel;
+import io.seata.core.compressor.Compressor;
+import io.seata.core.protocol.ProtocolConstants;
+
+/**
+ * The Gzip compressor.
+ */
+@LoadLevel(name = "GZIP")
+public class GzipCompressor implements Compressor {
+
+    private static final int BUFFER_SIZE = 1024;
+
+    @Override
+    public byte[] compress(byte[] bytes) {
+        if (bytes == null) {
+            throw new NullPointerException("bytes is null");
+        }
+        ByteArrayOutputStream out = new ByteArrayOutputStream(Math.max(64, bytes.length / 2));
+        try (GZIPOutputStream gzip = new GZIPOutputStream(out, BUFFER_SIZE)) {
+            gzip.write(bytes);
+        } catch (IOException e) {
+            throw new RuntimeException("gzip compress error", e);
+        }
+        return out.toByteArray();
+    }
+
+    @Override
+    public byte[] decompress(byte[] bytes) {
+        if (bytes == null) {
+            throw new NullPointerException("bytes is null");
+        }
+        ByteArrayOutputStream out = new ByteArrayOutputStream(bytes.length * 2);
+        try (GZIPInputStream gzip = new GZIPInputStream(new ByteArrayInputStream(bytes), BUFFER_SIZE)) {
+            byte[] buffer = new byte[BUFFER_SIZE];
+            int n;
+            while ((n = gzip.read(buffer)) > -1) {
+                if (out.size() + n > ProtocolConstants.MAX_FRAME_LENGTH) {
+                    throw new IllegalArgumentException("decompressed body exceeds " + ProtocolConstants.MAX_FRAME_LENGTH);
+                }
+                out.write(buffer, 0, n);
+            }
+        } catch (IOException e) {
+            throw new IllegalArgumentException("corrupt gzip body", e);
+        }
+        return out.toByteArray();
+    }
+}
@@ -0,0 +1,78 @@
+/*
+ *  Copyright 1999-2019 Seata.io Group.
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+package io.seata.compressor.gzip;
+
+import java.util.Arrays;
+
+import io.seata.core.codec.CompressorType;
+import io.seata.core.compressor.CompressorFactory;
+import io.seata.core.protocol.ProtocolConstants;
+import org.junit.jupiter.api.Test;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+/**
+ * The type Gzip compressor test.
+ */
+public class GzipCompressorTest {
+
+    private final GzipCompressor compressor = new GzipCompressor();
+
+    @Test
+    public void testDecompressBomb() {
+        // a few KB of zeros that inflate past the frame limit
+        byte[] bomb = compressor.compress(new byte[ProtocolConstants.MAX_FRAME_LENGTH + 1]);
+        assertThat(bomb.length).isLessThan(64 * 1024);
+        assertThatThrownBy(() -> compressor.decompress(bomb))
+            .isInstanceOf(IllegalArgumentException.class)
+            .hasMessageContaining("exceeds");
+
+        byte[] max = new byte[ProtocolConstants.MAX_FRAME_LENGTH];
+        assertThat(compressor.decompress(compressor.compress(max))).isEqualTo(max);
+    }
+
+    @Test
+    public void testDecompressTruncated() {
+        byte[] compressed = compressor.compress("stock_tbl:1,2,3".getBytes());
+        assertThat(compressor.decompress(compressed)).isEqualTo("stock_tbl:1,2,3".getBytes());
+
+        // the trailer with crc and length is cut off
+        assertThatThrownBy(() -> compressor.decompress(Arrays.copyOf(compressed, compressed.length - 4)))
+            .isInstanceOf(IllegalArgumentException.class);
+        assertThatThrownBy(() -> compressor.decompress(Arrays.copyOf(compressed, 5)))
+            .isInstanceOf(IllegalArgumentException.class);
+        assertThatThrownBy(() -> compressor.decompress(new byte[0]))
+            .isInstanceOf(IllegalArgumentException.class);
+    }
+
+    @Test
+    public void testDecompressCorrupt() {
+        assertThatThrownBy(() -> compressor.decompress("stock_tbl:1,2,3".getBytes()))
+            .isInstanceOf(IllegalArgumentException.class);
+
+        byte[] compressed = compressor.compress("stock_tbl:1,2,3".getBytes());
+        // a flipped byte in the crc
+        compressed[compressed.length - 5] ^= 0xff;
+        assertThatThrownBy(() -> compressor.decompress(compressed))
+            .isInstanceOf(IllegalArgumentException.class);
+    }
+
+    @Test
+    public void testLoad() {
+        assertThat(CompressorFactory.getCompressor(CompressorType.GZIP.getCode())).isInstanceOf(GzipCompressor.class);
+    }
+}
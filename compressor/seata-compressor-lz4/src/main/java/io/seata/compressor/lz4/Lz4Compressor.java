@@ -0,0 +1,86 @@
+/*
+ *  Copyright 1999-2019 Seata.io Group.
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+package io.seata.compressor.lz4;
+
+import io.seata.common.loader.LoadLevel;
+import io.seata.core.compressor.Compressor;
+import io.seata.core.protocol.ProtocolConstants;
+import net.jpountz.lz4.LZ4Compressor;
+import net.jpountz.lz4.LZ4Exception;
+import net.jpountz.lz4.LZ4Factory;
+import net.jpountz.lz4.LZ4SafeDecompressor;
+
+/**
+ * The LZ4 compressor. The body is a lz4 block behind its decompressed length, an int of 4 bytes.
+ */
+@LoadLevel(name = "LZ4")
+public class Lz4Compressor implements Compressor {
+
+    private static final int LENGTH_BYTES = 4;
+
+    private final LZ4Compressor compressor = LZ4Factory.fastestInstance().fastCompressor();
+
+    private final LZ4SafeDecompressor decompressor = LZ4Factory.fastestInstance().safeDecompressor();
+
+    @Override
+    public byte[] compress(byte[] bytes) {
+        if (bytes == null) {
+            throw new NullPointerException("bytes is null");
+        }
+        byte[] out = new byte[LENGTH_BYTES + compressor.maxCompressedLength(bytes.length)];
+        writeInt(out, bytes.length);
+        int length = compressor.compress(bytes, 0, bytes.length, out, LENGTH_BYTES);
+        byte[] compressed = new byte[LENGTH_BYTES + length];
+        System.arraycopy(out, 0, compressed, 0, compressed.length);
+        return compressed;
+    }
+
+    @Override
+    public byte[] decompress(byte[] bytes) {
+        if (bytes == null) {
+            throw new NullPointerException("bytes is null");
+        }
+        if (bytes.length < LENGTH_BYTES) {
+            throw new IllegalArgumentException("truncated lz4 body");
+        }
+        int length = readInt(bytes);
+        if (length < 0 || length > ProtocolConstants.MAX_FRAME_LENGTH) {
+            throw new IllegalArgumentException("illegal decompressed length " + length);
+        }
+        byte[] out = new byte[length];
+        int decompressed;
+        try {
+            decompressed = decompressor.decompress(bytes, LENGTH_BYTES, bytes.length - LENGTH_BYTES, out, 0, length);
+        } catch (LZ4Exception e) {
+            throw new IllegalArgumentException("corrupt lz4 body", e);
+        }
+        if (decompressed != length) {
+            throw new IllegalArgumentException("lz4 body decompressed to " + decompressed + " bytes, expected " + length);
+        }
+        return out;
+    }
+
+    private static void writeInt(byte[] bytes, int value) {
+        bytes[0] = (byte)(value >>> 24);
+        bytes[1] = (byte)(value >>> 16);
+        bytes[2] = (byte)(value >>> 8);
+        bytes[3] = (byte)value;
+    }
+
+    private static int readInt(byte[] bytes) {
+        return (bytes[0] & 0xff) << 24 | (bytes[1] & 0xff) << 16 | (bytes[2] & 0xff) << 8 | bytes[3] & 0xff;
+    }
+}
@@ -0,0 +1,92 @@
+/*
+ *  Copyright 1999-2019 Seata.io Group.
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+package io.seata.compressor.lz4;
+
+import java.util.Arrays;
+
+import io.seata.core.codec.CompressorType;
+import io.seata.core.compressor.CompressorFactory;
+import io.seata.core.protocol.ProtocolConstants;
+import org.junit.jupiter.api.Test;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+/**
+ * The type Lz4 compressor test.
+ */
+public class Lz4CompressorTest {
+
+    private final Lz4Compressor compressor = new Lz4Compressor();
+
+    @Test
+    public void testDecompressOversized() {
+        // a header claiming 9MB is refused before anything is allocated
+        byte[] header = new byte[] {0, (byte)0x90, 0, 0, 0};
+        assertThatThrownBy(() -> compressor.decompress(header))
+            .isInstanceOf(IllegalArgumentException.class)
+            .hasMessage("illegal decompressed length " + 9 * 1024 * 1024);
+        assertThatThrownBy(() -> compressor.decompress(compressor.compress(new byte[ProtocolConstants.MAX_FRAME_LENGTH + 1])))
+            .isInstanceOf(IllegalArgumentException.class);
+        assertThatThrownBy(() -> compressor.decompress(new byte[] {(byte)0xff, 0, 0, 0, 0}))
+            .isInstanceOf(IllegalArgumentException.class)
+            .hasMessageStartingWith("illegal decompressed length -");
+
+        byte[] max = new byte[ProtocolConstants.MAX_FRAME_LENGTH];
+        assertThat(compressor.decompress(compressor.compress(max))).isEqualTo(max);
+    }
+
+    @Test
+    public void testDecompressTruncated() {
+        byte[] compressed = compressor.compress("stock_tbl:1,2,3,4,5,6,7,8,9,10".getBytes());
+        assertThat(compressor.decompress(compressed)).isEqualTo("stock_tbl:1,2,3,4,5,6,7,8,9,10".getBytes());
+
+        assertThatThrownBy(() -> compressor.decompress(Arrays.copyOf(compressed, compressed.length - 1)))
+            .isInstanceOf(IllegalArgumentException.class);
+        assertThatThrownBy(() -> compressor.decompress(Arrays.copyOf(compressed, 4)))
+            .isInstanceOf(IllegalArgumentException.class);
+        assertThatThrownBy(() -> compressor.decompress(new byte[3]))
+            .isInstanceOf(IllegalArgumentException.class)
+            .hasMessage("truncated lz4 body");
+    }
+
+    @Test
+    public void testDecompressCorrupt() {
+        byte[] compressed = compressor.compress("stock_tbl:1,2,3,4,5,6,7,8,9,10".getBytes());
+
+        // the header claims more than the block holds
+        byte[] longer = compressed.clone();
+        longer[3]++;
+        assertThatThrownBy(() -> compressor.decompress(longer))
+            .isInstanceOf(IllegalArgumentException.class);
+
+        // the header claims less than the block holds
+        byte[] shorter = compressed.clone();
+        shorter[3]--;
+        assertThatThrownBy(() -> compressor.decompress(shorter))
+            .isInstanceOf(IllegalArgumentException.class);
+
+        // a match offset pointing before the start of the output
+        byte[] offset = new byte[] {0, 0, 0, 20, 0x0f, 0x10, 0x00, 0x05, 0x00};
+        assertThatThrownBy(() -> compressor.decompress(offset))
+            .isInstanceOf(IllegalArgumentException.class);
+    }
+
+    @Test
+    public void testLoad() {
+        assertThat(CompressorFactory.getCompressor(CompressorType.LZ4.getCode())).isInstanceOf(Lz4Compressor.class);
+    }
+}
@@ -0,0 +1,64 @@
+/*
+ *  Copyright 1999-2019 Seata.io Group.
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+package io.seata.compressor.zstd;
+
+import com.github.luben.zstd.Zstd;
+import com.github.luben.zstd.ZstdException;
+import io.seata.common.loader.LoadLevel;
+import io.seata.core.compressor.Compressor;
+import io.seata.core.protocol.ProtocolConstants;
+
+/**
+ * The Zstd compressor. The body is one zstd frame, which carries its decompressed length.
+ */
+@LoadLevel(name = "ZSTD")
+public class ZstdCompressor implements Compressor {
+
+    private static final int LEVEL = 3;
+
+    @Override
+    public byte[] compress(byte[] bytes) {
+        if (bytes == null) {
+            throw new NullPointerException("bytes is null");
+        }
+        return Zstd.compress(bytes, LEVEL);
+    }
+
+    @Override
+    public byte[] decompress(byte[] bytes) {
+        if (bytes == null) {
+            throw new NullPointerException("bytes is null");
+        }
+        if (bytes.length == 0) {
+            throw new IllegalArgumentException("truncated zstd body");
+        }
+        // negative when the frame is corrupt or does not carry its length
+        long length = Zstd.getFrameContentSize(bytes);
+        if (length < 0 || length > ProtocolConstants.MAX_FRAME_LENGTH) {
+            throw new IllegalArgumentException("illegal decompressed length " + length);
+        }
+        byte[] out;
+        try {
+            out = Zstd.decompress(bytes, (int)length);
+        } catch (ZstdException e) {
+            throw new IllegalArgumentException("corrupt zstd body", e);
+        }
+        if (out.length != length) {
+            throw new IllegalArgumentException("zstd body decompressed to " + out.length + " bytes, expected " + length);
+        }
+        return out;
+    }
+}
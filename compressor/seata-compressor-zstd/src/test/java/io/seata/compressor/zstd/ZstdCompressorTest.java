@@ -0,0 +1,95 @@
+/*
+ *  Copyright 1999-2019 Seata.io Group.
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+package io.seata.compressor.zstd;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.util.Arrays;
+
+import com.github.luben.zstd.ZstdOutputStream;
+import io.seata.core.codec.CompressorType;
+import io.seata.core.compressor.CompressorFactory;
+import io.seata.core.protocol.ProtocolConstants;
+import org.junit.jupiter.api.Test;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+/**
+ * The type Zstd compressor test.
+ */
+public class ZstdCompressorTest {
+
+    private final ZstdCompressor compressor = new ZstdCompressor();
+
+    @Test
+    public void testDecompressOversized() throws IOException {
+        byte[] bomb = compressor.compress(new byte[ProtocolConstants.MAX_FRAME_LENGTH + 1]);
+        assertThat(bomb.length).isLessThan(64 * 1024);
+        assertThatThrownBy(() -> compressor.decompress(bomb))
+            .isInstanceOf(IllegalArgumentException.class)
+            .hasMessage("illegal decompressed length " + (ProtocolConstants.MAX_FRAME_LENGTH + 1));
+
+        // a streamed frame does not carry its length
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        try (ZstdOutputStream zstd = new ZstdOutputStream(out)) {
+            zstd.write(new byte[ProtocolConstants.MAX_FRAME_LENGTH + 1]);
+        }
+        assertThatThrownBy(() -> compressor.decompress(out.toByteArray()))
+            .isInstanceOf(IllegalArgumentException.class)
+            .hasMessageStartingWith("illegal decompressed length -");
+
+        byte[] max = new byte[ProtocolConstants.MAX_FRAME_LENGTH];
+        assertThat(compressor.decompress(compressor.compress(max))).isEqualTo(max);
+    }
+
+    @Test
+    public void testDecompressTruncated() {
+        byte[] compressed = compressor.compress("stock_tbl:1,2,3".getBytes());
+        assertThat(compressor.decompress(compressed)).isEqualTo("stock_tbl:1,2,3".getBytes());
+
+        assertThatThrownBy(() -> compressor.decompress(Arrays.copyOf(compressed, compressed.length - 1)))
+            .isInstanceOf(IllegalArgumentException.class);
+        assertThatThrownBy(() -> compressor.decompress(Arrays.copyOf(compressed, 3)))
+            .isInstanceOf(IllegalArgumentException.class);
+        assertThatThrownBy(() -> compressor.decompress(new byte[0]))
+            .isInstanceOf(IllegalArgumentException.class);
+    }
+
+    @Test
+    public void testDecompressCorrupt() {
+        assertThatThrownBy(() -> compressor.decompress("stock_tbl:1,2,3".getBytes()))
+            .isInstanceOf(IllegalArgumentException.class);
+
+        byte[] compressed = compressor.compress("stock_tbl:1,2,3".getBytes());
+        // the frame header claims one more byte than the block holds
+        byte[] longer = compressed.clone();
+        longer[5]++;
+        assertThatThrownBy(() -> compressor.decompress(longer))
+            .isInstanceOf(IllegalArgumentException.class);
+
+        // the block header names the reserved block type
+        byte[] reserved = compressed.clone();
+        reserved[6] |= 0x06;
+        assertThatThrownBy(() -> compressor.decompress(reserved))
+            .isInstanceOf(IllegalArgumentException.class);
+    }
+
+    @Test
+    public void testLoad() {
+        assertThat(CompressorFactory.getCompressor(CompressorType.ZSTD.getCode())).isInstanceOf(ZstdCompressor.class);
+    }
+}
@@ -15,6 +15,8 @@
  */
 package io.seata.core.codec;
 
+import io.netty.buffer.ByteBuf;
+
 /**
  * The interface Codec.
  *
@@ -40,4 +42,30 @@ public interface Codec {
      * @return the t
      */
     <T> T decode(byte[] bytes);
+
+    /**
+     * Encode object into the buffer, at its writer index. A codec writing its own format straight into the buffer
+     * saves the intermediate byte[] of {@link #encode(Object)}.
+     *
+     * @param <T> the type parameter
+     * @param t   the t
+     * @param out the out
+     */
+    default <T> void encode(T t, ByteBuf out) {
+        out.writeBytes(encode(t));
+    }
+
+    /**
+     * Decode t from the readable bytes of the buffer, which are all consumed. A codec reading its own format
+     * straight from the buffer saves the intermediate byte[] of {@link #decode(byte[])}.
+     *
+     * @param <T> the type parameter
+     * @param in  the in
+     * @return the t
+     */
+    default <T> T decode(ByteBuf in) {
+        byte[] bytes = new byte[in.readableBytes()];
+        in.readBytes(bytes);
+        return decode(bytes);
+    }
 }
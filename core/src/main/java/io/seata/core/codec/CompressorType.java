@@ -28,7 +28,22 @@ public enum CompressorType {
     /**
      * The gzip.
      */
-    GZIP((byte) 1);
+    GZIP((byte) 1),
+
+    /**
+     * The deflate, zlib format.
+     */
+    DEFLATE((byte) 2),
+
+    /**
+     * The lz4 block.
+     */
+    LZ4((byte) 3),
+
+    /**
+     * The zstd.
+     */
+    ZSTD((byte) 4);
 
     private final byte code;
 
@@ -48,7 +63,7 @@ public enum CompressorType {
                 return b;
             }
         }
-        throw new IllegalArgumentException("unknown codec:" + code);
+        throw new IllegalArgumentException("unknown compressor:" + code);
     }
 
     /**
@@ -63,7 +78,7 @@ public enum CompressorType {
                 return b;
             }
         }
-        throw new IllegalArgumentException("unknown codec:" + name);
+        throw new IllegalArgumentException("unknown compressor:" + name);
     }
 
     /**
@@ -0,0 +1,39 @@
+/*
+ *  Copyright 1999-2019 Seata.io Group.
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+package io.seata.core.compressor;
+
+/**
+ * The interface Compressor of the rpc bodies. Implementations are loaded by {@link CompressorFactory} with the name
+ * of their {@link io.seata.core.codec.CompressorType}, and must be thread safe.
+ */
+public interface Compressor {
+
+    /**
+     * Compress bytes.
+     *
+     * @param bytes the bytes
+     * @return the compressed bytes
+     */
+    byte[] compress(byte[] bytes);
+
+    /**
+     * Decompress bytes.
+     *
+     * @param bytes the compressed bytes
+     * @return the bytes
+     */
+    byte[] decompress(byte[] bytes);
+}
@@ -87,12 +87,21 @@ public class ConfigurationKeys {
      * The constant CLIENT_LOCK_RETRY_INTERNAL.
      */
     public static final String CLIENT_LOCK_RETRY_INTERNAL = CLIENT_PREFIX + "lock.retry.internal";
+    /**
+     * The constant CLIENT_LOCK_BINARY_ENABLE.
+     */
+    public static final String CLIENT_LOCK_BINARY_ENABLE = CLIENT_PREFIX + "lock.binary.enable";
 
     /**
      * The constant SERVICE_SESSION_RELOAD_READ_SIZE
      */
     public static final String SERVICE_SESSION_RELOAD_READ_SIZE = STORE_FILE_PREFIX + "session.reload.read_size";
 
+    /**
+     * The constant SERVICE_SESSION_RELOAD_PARALLELISM.
+     */
+    public static final String SERVICE_SESSION_RELOAD_PARALLELISM = STORE_FILE_PREFIX + "session.reload.parallelism";
+
     /**
      * The constant CLIENT_REPORT_RETRY_COUNT.
      */
@@ -130,6 +139,11 @@ public class ConfigurationKeys {
      */
     public static final String COMPRESSOR_FOR_RPC = TRANSPORT_PREFIX + "compressor";
 
+    /**
+     * The constant COMPRESSOR_THRESHOLD_FOR_RPC.
+     */
+    public static final String COMPRESSOR_THRESHOLD_FOR_RPC = TRANSPORT_PREFIX + "compressor-threshold";
+
     /**
      * The constant STORE_DB_GLOBAL_TABLE.
      */
@@ -195,6 +209,16 @@ public class ConfigurationKeys {
      */
     public static final String STORE_DB_LOG_QUERY_LIMIT  = "store.db.query-limit";
 
+    /**
+     * The constant STORE_DB_SESSION_CACHE_SIZE.
+     */
+    public static final String STORE_DB_SESSION_CACHE_SIZE  = "store.db.session-cache-size";
+
+    /**
+     * The constant STORE_DB_WRITE_BATCH_SIZE.
+     */
+    public static final String STORE_DB_WRITE_BATCH_SIZE  = "store.db.write-batch-size";
+
     /**
      * The constant LOCK_MODE.
      */
@@ -210,6 +234,11 @@ public class ConfigurationKeys {
      */
     public static final String LOCK_DB_DEFAULT_TABLE  = "lock_table";
 
+    /**
+     * The constant LOCK_DB_BATCH_SIZE.
+     */
+    public static final String LOCK_DB_BATCH_SIZE  = "store.db.lock-batch-size";
+
     /**
      * The constant COMMITING_RETRY_PERIOD.
      */
@@ -230,6 +259,56 @@ public class ConfigurationKeys {
      */
     public static final String TIMEOUT_RETRY_PERIOD = "recovery.timeout-retry-period";
 
+    /**
+     * The constant RETRY_MAX_PERIOD.
+     */
+    public static final String RETRY_MAX_PERIOD = "recovery.retry-max-period";
+
+    /**
+     * The constant TIMEOUT_FULL_SCAN_PERIOD.
+     */
+    public static final String TIMEOUT_FULL_SCAN_PERIOD = "recovery.timeout-full-scan-period";
+
+    /**
+     * The constant RECOVERY_PARTITIONS.
+     */
+    public static final String RECOVERY_PARTITIONS = "recovery.partitions";
+
+    /**
+     * The constant SERVER_PREFIX.
+     */
+    public static final String SERVER_PREFIX = "server.";
+
+    /**
+     * The constant PHASE_TWO_PARALLEL_ENABLE.
+     */
+    public static final String PHASE_TWO_PARALLEL_ENABLE = SERVER_PREFIX + "phase-two.parallel.enable";
+
+    /**
+     * The constant PHASE_TWO_PARALLEL_THREADS.
+     */
+    public static final String PHASE_TWO_PARALLEL_THREADS = SERVER_PREFIX + "phase-two.parallel.threads";
+
+    /**
+     * The constant PHASE_TWO_RM_MAX_CONCURRENCY.
+     */
+    public static final String PHASE_TWO_RM_MAX_CONCURRENCY = SERVER_PREFIX + "phase-two.rm-max-concurrency";
+
+    /**
+     * The constant SERVER_LOCK_WAIT_TIMEOUT.
+     */
+    public static final String SERVER_LOCK_WAIT_TIMEOUT = SERVER_PREFIX + "lock.wait-timeout";
+
+    /**
+     * The constant SERVER_ID_GENERATOR.
+     */
+    public static final String SERVER_ID_GENERATOR = SERVER_PREFIX + "id-generator";
+
+    /**
+     * The constant SERVER_EVENT_BUFFER_SIZE.
+     */
+    public static final String SERVER_EVENT_BUFFER_SIZE = SERVER_PREFIX + "event.buffer-size";
+
     /**
      * The constant TRANSACTION_PREFIX.
      */
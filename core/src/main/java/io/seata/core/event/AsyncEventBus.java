@@ -0,0 +1,205 @@
+/*
+ *  Copyright 1999-2019 Seata.io Group.
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+package io.seata.core.event;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+import java.util.concurrent.locks.LockSupport;
+
+import io.seata.common.thread.NamedThreadFactory;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Event bus delivering events on one consumer thread, so posting threads never wait for subscribers nor for each
+ * other.
+ * <p>
+ * Posted events go into a bounded ring buffer: a producer claims a slot by one CAS of the tail and publishes the
+ * event into it, the consumer takes up to a batch of published events and hands them to the subscribers in posted
+ * order. If the buffer is full the event is dropped and counted, a post never blocks. Subscribers are registered on
+ * a guava event bus only the consumer thread posts to, so the monitor guava takes around a subscriber without
+ * {@link com.google.common.eventbus.AllowConcurrentEvents} is never contended.
+ */
+public class AsyncEventBus implements EventBus {
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(AsyncEventBus.class);
+
+    private static final int BATCH_SIZE = 256;
+
+    private static final long IDLE_PARK_NANOS = TimeUnit.MILLISECONDS.toNanos(100);
+
+    private final com.google.common.eventbus.EventBus delegate;
+
+    private final AtomicReferenceArray<Event> buffer;
+
+    private final int mask;
+
+    /**
+     * The next slot to claim.
+     */
+    private final AtomicLong tail = new AtomicLong();
+
+    /**
+     * The next slot to consume, written by the consumer only.
+     */
+    private final AtomicLong head = new AtomicLong();
+
+    private final AtomicLong delivered = new AtomicLong();
+
+    private final AtomicLong overflow = new AtomicLong();
+
+    private final Thread consumer;
+
+    private volatile boolean consumerParked;
+
+    private volatile boolean running = true;
+
+    /**
+     * Instantiates a new Async event bus.
+     *
+     * @param identifier the identifier
+     * @param bufferSize the buffer size, rounded up to a power of two
+     */
+    public AsyncEventBus(String identifier, int bufferSize) {
+        int capacity = Integer.highestOneBit(Math.max(2, bufferSize) - 1) << 1;
+        this.delegate = new com.google.common.eventbus.EventBus(identifier);
+        this.buffer = new AtomicReferenceArray<>(capacity);
+        this.mask = capacity - 1;
+        this.consumer = new NamedThreadFactory("EventBus_" + identifier, 1, true).newThread(this::consume);
+        this.consumer.start();
+    }
+
+    @Override
+    public void register(Object subscriber) {
+        delegate.register(subscriber);
+    }
+
+    @Override
+    public void unregister(Object subscriber) {
+        delegate.unregister(subscriber);
+    }
+
+    @Override
+    public void post(Event event) {
+        if (event == null || !running) {
+            return;
+        }
+        long t;
+        do {
+            t = tail.get();
+            if (t - head.get() >= buffer.length()) {
+                long dropped = overflow.incrementAndGet();
+                if ((dropped & (dropped - 1)) == 0) {
+                    LOGGER.warn("event buffer is full, {} events dropped so far.", dropped);
+                }
+                return;
+            }
+        } while (!tail.compareAndSet(t, t + 1));
+        buffer.set((int)t & mask, event);
+        if (consumerParked) {
+            LockSupport.unpark(consumer);
+        }
+    }
+
+    /**
+     * Gets the count of the events posted but not delivered yet.
+     *
+     * @return the pending count
+     */
+    public long getPendingCount() {
+        return tail.get() - delivered.get();
+    }
+
+    /**
+     * Gets the count of the events delivered.
+     *
+     * @return the delivered count
+     */
+    public long getDeliveredCount() {
+        return delivered.get();
+    }
+
+    /**
+     * Gets the count of the events dropped as the buffer was full.
+     *
+     * @return the overflow count
+     */
+    public long getOverflowCount() {
+        return overflow.get();
+    }
+
+    /**
+     * Deliver the events posted and stop.
+     */
+    public void shutdown() {
+        running = false;
+        LockSupport.unpark(consumer);
+        try {
+            consumer.join(TimeUnit.SECONDS.toMillis(5));
+        } catch (InterruptedException ignore) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private void consume() {
+        Event[] batch = new Event[BATCH_SIZE];
+        while (true) {
+            int count = takeBatch(batch);
+            if (count == 0) {
+                if (!running && tail.get() == head.get()) {
+                    return;
+                }
+                consumerParked = true;
+                // a post between the take and the flag unparks us, or is seen by this check
+                if (tail.get() == head.get()) {
+                    LockSupport.parkNanos(this, IDLE_PARK_NANOS);
+                }
+                consumerParked = false;
+                continue;
+            }
+            for (int i = 0; i < count; i++) {
+                try {
+                    delegate.post(batch[i]);
+                } catch (Throwable t) {
+                    LOGGER.error("deliver event error:{}", t.getMessage(), t);
+                }
+                batch[i] = null;
+            }
+            delivered.addAndGet(count);
+        }
+    }
+
+    private int takeBatch(Event[] batch) {
+        long h = head.get();
+        int count = 0;
+        while (count < batch.length) {
+            int index = (int)h & mask;
+            Event event = buffer.get(index);
+            if (event == null) {
+                // empty, or the slot is claimed and the event not published yet
+                break;
+            }
+            buffer.lazySet(index, null);
+            batch[count++] = event;
+            h++;
+        }
+        if (count > 0) {
+            head.lazySet(h);
+        }
+        return count;
+    }
+}
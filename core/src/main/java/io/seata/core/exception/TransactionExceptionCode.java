@@ -118,7 +118,12 @@ public enum TransactionExceptionCode {
     /**
      * Failed to store exception code
      */
-    FailedStore
+    FailedStore,
+
+    /**
+     * The server is overloaded and did not take the request, retry later
+     */
+    ServerBusy
     ;
 
     private static final Map<Integer, TransactionExceptionCode> MAP = new HashMap<>(values().length * 2);
@@ -0,0 +1,237 @@
+/*
+ *  Copyright 1999-2019 Seata.io Group.
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+package io.seata.core.lock;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.Charset;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import io.seata.common.util.StringUtils;
+
+/**
+ * The binary form of a lock key, the rows locked by a branch. It is the text form
+ * {@code "table1:pk1,pk2;table2:pk3"} with the table names kept once in a dictionary, so the rows can be read
+ * without splitting strings or making objects per row.
+ * <pre>
+ * version      1 byte
+ * table count  2 bytes, then per table: name length 2 bytes, utf-8 name
+ * row count    4 bytes, then per row: table index 2 bytes, pk length 2 bytes, utf-8 pk
+ * </pre>
+ */
+public final class BinaryLockKey {
+
+    /**
+     * The constant VERSION_1.
+     */
+    public static final byte VERSION_1 = 1;
+
+    private static final Charset UTF8 = StandardCharsets.UTF_8;
+
+    private static final int MAX_UNSIGNED_SHORT = 0xFFFF;
+
+    private final byte[] bytes;
+
+    private final String[] tableNames;
+
+    private final int rowCount;
+
+    private final int rowsOffset;
+
+    /**
+     * Read a binary lock key, the table dictionary is decoded once here.
+     *
+     * @param bytes the bytes
+     * @throws IllegalArgumentException if the bytes are not a lock key of a known version
+     */
+    public BinaryLockKey(byte[] bytes) {
+        if (bytes == null || bytes.length < 7) {
+            throw new IllegalArgumentException("binary lock key is too short");
+        }
+        ByteBuffer buffer = ByteBuffer.wrap(bytes);
+        byte version = buffer.get();
+        if (version != VERSION_1) {
+            throw new IllegalArgumentException("unknown binary lock key version:" + version);
+        }
+        try {
+            String[] tables = new String[buffer.getShort() & MAX_UNSIGNED_SHORT];
+            for (int i = 0; i < tables.length; i++) {
+                int length = buffer.getShort() & MAX_UNSIGNED_SHORT;
+                tables[i] = new String(bytes, buffer.position(), length, UTF8);
+                buffer.position(buffer.position() + length);
+            }
+            this.rowCount = buffer.getInt();
+            this.rowsOffset = buffer.position();
+            this.tableNames = tables;
+        } catch (RuntimeException e) {
+            throw new IllegalArgumentException("binary lock key is damaged", e);
+        }
+        this.bytes = bytes;
+    }
+
+    /**
+     * Encode the text form of a lock key.
+     *
+     * @param lockKey the lock key
+     * @return the binary lock key
+     */
+    public static BinaryLockKey encode(String lockKey) {
+        Map<String, Integer> tableIndexes = new HashMap<>();
+        List<String> tables = new ArrayList<>();
+        List<byte[]> rows = new ArrayList<>();
+        List<Integer> rowTables = new ArrayList<>();
+        int size = 1 + 2 + 4;
+        for (String tableGroupedLockKey : lockKey.split(";")) {
+            int idx = tableGroupedLockKey.indexOf(":");
+            if (idx < 0) {
+                continue;
+            }
+            String tableName = tableGroupedLockKey.substring(0, idx);
+            Integer tableIndex = tableIndexes.get(tableName);
+            for (String pk : tableGroupedLockKey.substring(idx + 1).split(",")) {
+                if (StringUtils.isBlank(pk)) {
+                    continue;
+                }
+                if (tableIndex == null) {
+                    tableIndex = tables.size();
+                    tableIndexes.put(tableName, tableIndex);
+                    tables.add(tableName);
+                    size += 2 + checkLength(tableName.getBytes(UTF8).length);
+                }
+                byte[] pkBytes = pk.getBytes(UTF8);
+                size += 4 + checkLength(pkBytes.length);
+                rows.add(pkBytes);
+                rowTables.add(tableIndex);
+            }
+        }
+        checkLength(tables.size());
+        ByteBuffer buffer = ByteBuffer.allocate(size);
+        buffer.put(VERSION_1);
+        buffer.putShort((short)tables.size());
+        for (String table : tables) {
+            byte[] tableBytes = table.getBytes(UTF8);
+            buffer.putShort((short)tableBytes.length);
+            buffer.put(tableBytes);
+        }
+        buffer.putInt(rows.size());
+        for (int i = 0; i < rows.size(); i++) {
+            byte[] pkBytes = rows.get(i);
+            buffer.putShort(rowTables.get(i).shortValue());
+            buffer.putShort((short)pkBytes.length);
+            buffer.put(pkBytes);
+        }
+        return new BinaryLockKey(buffer.array());
+    }
+
+    private static int checkLength(int length) {
+        if (length > MAX_UNSIGNED_SHORT) {
+            throw new IllegalArgumentException("lock key part is too long:" + length);
+        }
+        return length;
+    }
+
+    /**
+     * Visit the rows in order.
+     *
+     * @param visitor the visitor
+     */
+    public void forEach(RowVisitor visitor) {
+        int position = rowsOffset;
+        for (int i = 0; i < rowCount; i++) {
+            int tableIndex = readUnsignedShort(position);
+            int length = readUnsignedShort(position + 2);
+            position += 4;
+            if (tableIndex >= tableNames.length || position + length > bytes.length) {
+                throw new IllegalArgumentException("binary lock key is damaged at row " + i);
+            }
+            visitor.visit(tableNames[tableIndex], bytes, position, length);
+            position += length;
+        }
+    }
+
+    private int readUnsignedShort(int position) {
+        if (position + 2 > bytes.length) {
+            throw new IllegalArgumentException("binary lock key is damaged at " + position);
+        }
+        return ((bytes[position] & 0xFF) << 8) | (bytes[position + 1] & 0xFF);
+    }
+
+    /**
+     * The text form, rows of one table in a row are grouped.
+     *
+     * @return the text form
+     */
+    public String toText() {
+        StringBuilder appender = new StringBuilder(bytes.length + rowCount);
+        String[] lastTable = new String[1];
+        forEach((tableName, data, offset, length) -> {
+            if (tableName != lastTable[0]) {
+                if (lastTable[0] != null) {
+                    appender.append(';');
+                }
+                appender.append(tableName).append(':');
+                lastTable[0] = tableName;
+            } else {
+                appender.append(',');
+            }
+            appender.append(new String(data, offset, length, UTF8));
+        });
+        return appender.toString();
+    }
+
+    /**
+     * Gets bytes.
+     *
+     * @return the bytes
+     */
+    public byte[] getBytes() {
+        return bytes;
+    }
+
+    /**
+     * Gets row count.
+     *
+     * @return the row count
+     */
+    public int getRowCount() {
+        return rowCount;
+    }
+
+    @Override
+    public String toString() {
+        return toText();
+    }
+
+    /**
+     * Visitor of the rows of a binary lock key.
+     */
+    @FunctionalInterface
+    public interface RowVisitor {
+
+        /**
+         * Visit a row, the pk is the utf-8 bytes in the given range.
+         *
+         * @param tableName the table name
+         * @param data      the data
+         * @param pkOffset  the pk offset
+         * @param pkLength  the pk length
+         */
+        void visit(String tableName, byte[] data, int pkOffset, int pkLength);
+    }
+}
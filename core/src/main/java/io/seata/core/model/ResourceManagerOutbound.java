@@ -15,6 +15,9 @@
  */
 package io.seata.core.model;
 
+import java.util.concurrent.CompletableFuture;
+
+import io.seata.common.util.FutureUtils;
 import io.seata.core.exception.TransactionException;
 
 /**
@@ -63,4 +66,45 @@ public interface ResourceManagerOutbound {
      */
     boolean lockQuery(BranchType branchType, String resourceId, String xid, String lockKeys)
         throws TransactionException;
+
+    /**
+     * Branch register without waiting for it, by the blocking call unless implemented.
+     *
+     * @param branchType the branch type
+     * @param resourceId the resource id
+     * @param clientId   the client id
+     * @param xid        the xid
+     * @param applicationData the context
+     * @param lockKeys   the lock keys
+     * @return the branch id, or failed with the TransactionException branch register throws
+     */
+    default CompletableFuture<Long> branchRegisterAsync(BranchType branchType, String resourceId, String clientId,
+                                                        String xid, String applicationData, String lockKeys) {
+        try {
+            return CompletableFuture.completedFuture(
+                branchRegister(branchType, resourceId, clientId, xid, applicationData, lockKeys));
+        } catch (TransactionException | RuntimeException ex) {
+            return FutureUtils.failedFuture(ex);
+        }
+    }
+
+    /**
+     * Branch report without waiting for it, by the blocking call unless implemented.
+     *
+     * @param branchType      the branch type
+     * @param xid             the xid
+     * @param branchId        the branch id
+     * @param status          the status
+     * @param applicationData the application data
+     * @return the future, failed with the TransactionException branch report throws
+     */
+    default CompletableFuture<Void> branchReportAsync(BranchType branchType, String xid, long branchId,
+                                                      BranchStatus status, String applicationData) {
+        try {
+            branchReport(branchType, xid, branchId, status, applicationData);
+            return CompletableFuture.completedFuture(null);
+        } catch (TransactionException | RuntimeException ex) {
+            return FutureUtils.failedFuture(ex);
+        }
+    }
 }
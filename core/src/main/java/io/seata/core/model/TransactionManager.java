@@ -15,6 +15,10 @@
  */
 package io.seata.core.model;
 
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executor;
+
+import io.seata.common.util.FutureUtils;
 import io.seata.core.exception.TransactionException;
 
 /**
@@ -80,4 +84,62 @@ public interface TransactionManager {
      * out.
      */
     GlobalStatus globalReport(String xid, GlobalStatus globalStatus) throws TransactionException;
+
+    /**
+     * Begin a new global transaction without waiting for it, by the blocking call unless implemented.
+     *
+     * @param applicationId           ID of the application who begins this transaction.
+     * @param transactionServiceGroup ID of the transaction service group.
+     * @param name                    Give a name to the global transaction.
+     * @param timeout                 Timeout of the global transaction.
+     * @return XID of the global transaction, or failed with the TransactionException begin throws.
+     */
+    default CompletableFuture<String> beginAsync(String applicationId, String transactionServiceGroup, String name,
+                                                 int timeout) {
+        try {
+            return CompletableFuture.completedFuture(begin(applicationId, transactionServiceGroup, name, timeout));
+        } catch (TransactionException | RuntimeException ex) {
+            return FutureUtils.failedFuture(ex);
+        }
+    }
+
+    /**
+     * Global commit without waiting for it, by the blocking call unless implemented.
+     *
+     * @param xid XID of the global transaction.
+     * @return Status of the global transaction after committing, or failed with the TransactionException commit
+     * throws.
+     */
+    default CompletableFuture<GlobalStatus> commitAsync(String xid) {
+        try {
+            return CompletableFuture.completedFuture(commit(xid));
+        } catch (TransactionException | RuntimeException ex) {
+            return FutureUtils.failedFuture(ex);
+        }
+    }
+
+    /**
+     * Global rollback without waiting for it, by the blocking call unless implemented.
+     *
+     * @param xid XID of the global transaction
+     * @return Status of the global transaction after rollbacking, or failed with the TransactionException rollback
+     * throws.
+     */
+    default CompletableFuture<GlobalStatus> rollbackAsync(String xid) {
+        try {
+            return CompletableFuture.completedFuture(rollback(xid));
+        } catch (TransactionException | RuntimeException ex) {
+            return FutureUtils.failedFuture(ex);
+        }
+    }
+
+    /**
+     * The executor of the work following an async call that may block, e.g. a retry acquiring a channel, which must
+     * not run on the thread completing the call. The calling thread unless implemented.
+     *
+     * @return the executor
+     */
+    default Executor getAsyncExecutor() {
+        return Runnable::run;
+    }
 }
@@ -15,6 +15,7 @@
  */
 package io.seata.core.protocol;
 
+import io.netty.util.Timeout;
 import io.seata.common.exception.ShouldNeverHappenException;
 
 import java.util.concurrent.CompletableFuture;
@@ -34,6 +35,7 @@ public class MessageFuture {
     private long start = System.currentTimeMillis();
     private static final Object NULL = new Object();
     private transient CompletableFuture origin = new CompletableFuture();
+    private volatile Timeout timeoutTask;
 
     /**
      * Is timeout boolean.
@@ -64,7 +66,9 @@ public class MessageFuture {
             throw new TimeoutException("cost " + (System.currentTimeMillis() - start) + " ms");
         }
 
-        if (result instanceof RuntimeException) {
+        if (result instanceof TimeoutException) {
+            throw new TimeoutException("cost " + (System.currentTimeMillis() - start) + " ms");
+        } else if (result instanceof RuntimeException) {
             throw (RuntimeException)result;
         } else if (result instanceof Throwable) {
             throw new RuntimeException((Throwable)result);
@@ -73,6 +77,29 @@ public class MessageFuture {
         return result;
     }
 
+    /**
+     * A future of the result, completed exceptionally where get would throw. Its dependent stages run on the thread
+     * setting the result, often a netty event loop, unless given an executor.
+     *
+     * @return the future
+     */
+    public CompletableFuture<Object> toCompletableFuture() {
+        CompletableFuture<Object> future = new CompletableFuture<>();
+        origin.whenComplete((result, ex) -> {
+            if (result instanceof TimeoutException) {
+                future.completeExceptionally(
+                    new TimeoutException("cost " + (System.currentTimeMillis() - start) + " ms"));
+            } else if (result instanceof RuntimeException) {
+                future.completeExceptionally((RuntimeException)result);
+            } else if (result instanceof Throwable) {
+                future.completeExceptionally(new RuntimeException((Throwable)result));
+            } else {
+                future.complete(result);
+            }
+        });
+        return future;
+    }
+
     /**
      * Sets result message.
      *
@@ -80,6 +107,23 @@ public class MessageFuture {
      */
     public void setResultMessage(Object obj) {
         origin.complete(obj);
+        Timeout task = timeoutTask;
+        if (task != null) {
+            task.cancel();
+        }
+    }
+
+    /**
+     * Sets the timeout task, cancelled once the result is set.
+     *
+     * @param timeoutTask the timeout task
+     */
+    public void setTimeoutTask(Timeout timeoutTask) {
+        this.timeoutTask = timeoutTask;
+        // the result may have come before the task was set
+        if (origin.isDone()) {
+            timeoutTask.cancel();
+        }
     }
 
     /**
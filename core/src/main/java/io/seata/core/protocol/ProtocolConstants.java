@@ -86,4 +86,15 @@ public class ProtocolConstants {
     public static final byte CONFIGURED_COMPRESSOR = CompressorType.getByName(ConfigurationFactory.getInstance()
             .getConfig(ConfigurationKeys.COMPRESSOR_FOR_RPC, CompressorType.NONE.name())).getCode();
 
+    /**
+     * Default compressor threshold, in bytes
+     */
+    public static final int DEFAULT_COMPRESSOR_THRESHOLD = 4096;
+
+    /**
+     * Configured compressor threshold by user, bodies shorter than it are sent uncompressed
+     */
+    public static final int CONFIGURED_COMPRESSOR_THRESHOLD = ConfigurationFactory.getInstance().getInt(
+            ConfigurationKeys.COMPRESSOR_THRESHOLD_FOR_RPC, DEFAULT_COMPRESSOR_THRESHOLD);
+
 }
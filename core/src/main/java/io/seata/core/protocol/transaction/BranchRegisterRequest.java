@@ -34,6 +34,8 @@ public class BranchRegisterRequest extends AbstractTransactionRequestToTC  {
 
     private String lockKey;
 
+    private byte[] lockKeyBytes;
+
     private String applicationData;
 
     /**
@@ -90,6 +92,25 @@ public class BranchRegisterRequest extends AbstractTransactionRequestToTC  {
         this.lockKey = lockKey;
     }
 
+    /**
+     * Gets the binary form of the lock key, sent instead of the text form when set.
+     *
+     * @return the lock key bytes
+     * @see io.seata.core.lock.BinaryLockKey
+     */
+    public byte[] getLockKeyBytes() {
+        return lockKeyBytes;
+    }
+
+    /**
+     * Sets the binary form of the lock key.
+     *
+     * @param lockKeyBytes the lock key bytes
+     */
+    public void setLockKeyBytes(byte[] lockKeyBytes) {
+        this.lockKeyBytes = lockKeyBytes;
+    }
+
     /**
      * Gets resource id.
      *
@@ -148,8 +169,13 @@ public class BranchRegisterRequest extends AbstractTransactionRequestToTC  {
         result.append("resourceId=");
         result.append(resourceId);
         result.append(",");
-        result.append("lockKey=");
-        result.append(lockKey);
+        if (lockKeyBytes != null) {
+            result.append("lockKeyBytes=");
+            result.append(lockKeyBytes.length);
+        } else {
+            result.append("lockKey=");
+            result.append(lockKey);
+        }
 
         return result.toString();
     }
@@ -17,6 +17,7 @@ package io.seata.core.rpc;
 
 import io.seata.core.protocol.RpcMessage;
 
+import java.util.concurrent.CompletableFuture;
 import java.util.concurrent.TimeoutException;
 
 /**
@@ -56,6 +57,23 @@ public interface ClientMessageSender {
      */
     Object sendMsgWithResponse(Object msg) throws TimeoutException;
 
+    /**
+     * Send msg with a future of the response, without waiting for it.
+     *
+     * @param msg     the msg
+     * @param timeout the timeout
+     * @return the future of the response, failed with a TimeoutException on timeout
+     */
+    CompletableFuture<Object> sendMsgWithResponseAsync(Object msg, long timeout);
+
+    /**
+     * Send msg with a future of the response, without waiting for it.
+     *
+     * @param msg the msg
+     * @return the future of the response, failed with a TimeoutException on timeout
+     */
+    CompletableFuture<Object> sendMsgWithResponseAsync(Object msg);
+
     /**
      * Send response.
      *
@@ -18,10 +18,16 @@ package io.seata.core.rpc;
 import java.util.ArrayList;
 import java.util.List;
 import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.Executor;
 import java.util.concurrent.ExecutorService;
 import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.RejectedExecutionException;
 import java.util.concurrent.ThreadPoolExecutor;
 import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
 
 import io.netty.channel.ChannelHandlerContext;
 import io.seata.common.thread.NamedThreadFactory;
@@ -37,6 +43,7 @@ import io.seata.core.protocol.RegisterTMRequest;
 import io.seata.core.protocol.RegisterTMResponse;
 import io.seata.core.protocol.RpcMessage;
 import io.seata.core.protocol.Version;
+import io.seata.core.rpc.netty.NettyServerConfig;
 import io.seata.core.rpc.netty.RegisterCheckAuthHandler;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
@@ -57,6 +64,8 @@ public class DefaultServerMessageListenerImpl implements ServerMessageListener {
     private static final long KEEP_ALIVE_TIME = 0L;
     private static final String THREAD_PREFIX = "batchLoggerPrint";
     private static final long BUSY_SLEEP_MILLS = 5L;
+    private static final int MERGED_DISPATCH_PARALLELISM = NettyServerConfig.getMergedDispatchParallelism();
+    private Executor mergedMessageExecutor;
 
     /**
      * Instantiates a new Default server message listener.
@@ -70,6 +79,25 @@ public class DefaultServerMessageListenerImpl implements ServerMessageListener {
     @Override
     public void onTrxMessage(RpcMessage request, ChannelHandlerContext ctx, ServerMessageSender sender) {
         Object message = request.getBody();
+        RpcContext rpcContext = received(message, ctx);
+        if (!(message instanceof AbstractMessage)) {
+            return;
+        }
+        if (message instanceof MergedWarpMessage) {
+            respondMerged(request, ctx, sender, rpcContext, null);
+        } else if (message instanceof AbstractResultMessage) {
+            transactionMessageHandler.onResponse((AbstractResultMessage)message, rpcContext);
+        }
+    }
+
+    @Override
+    public CompletableFuture<Void> onMergedMessage(RpcMessage request, ChannelHandlerContext ctx,
+                                                   ServerMessageSender sender, AbstractResultMessage[] answered) {
+        RpcContext rpcContext = received(request.getBody(), ctx);
+        return respondMerged(request, ctx, sender, rpcContext, answered);
+    }
+
+    private RpcContext received(Object message, ChannelHandlerContext ctx) {
         RpcContext rpcContext = ChannelManager.getContextFromIdentified(ctx.channel());
         if (LOGGER.isDebugEnabled()) {
             LOGGER.debug("server received:{},clientIp:{},vgroup:{}", message,
@@ -79,21 +107,107 @@ public class DefaultServerMessageListenerImpl implements ServerMessageListener {
                 message + ",clientIp:" + NetUtil.toIpAddress(ctx.channel().remoteAddress()) + ",vgroup:" + rpcContext
                     .getTransactionServiceGroup());
         }
-        if (!(message instanceof AbstractMessage)) {
-            return;
-        }
-        if (message instanceof MergedWarpMessage) {
-            AbstractResultMessage[] results = new AbstractResultMessage[((MergedWarpMessage)message).msgs.size()];
-            for (int i = 0; i < results.length; i++) {
-                final AbstractMessage subMessage = ((MergedWarpMessage)message).msgs.get(i);
-                results[i] = transactionMessageHandler.onRequest(subMessage, rpcContext);
+        return rpcContext;
+    }
+
+    private CompletableFuture<Void> respondMerged(RpcMessage request, ChannelHandlerContext ctx,
+                                                  ServerMessageSender sender, RpcContext rpcContext,
+                                                  AbstractResultMessage[] answered) {
+        // the sub messages waiting for global locks complete on the thread releasing them
+        return handleMergedMessage((MergedWarpMessage)request.getBody(), rpcContext, answered).handle((results, ex) -> {
+            if (ex != null) {
+                LOGGER.error("handle merged message error: {}", ex.getMessage(), ex);
+                return null;
             }
             MergeResultMessage resultMessage = new MergeResultMessage();
             resultMessage.setMsgs(results);
-            sender.sendResponse(request, ctx.channel(), resultMessage);
-        } else if (message instanceof AbstractResultMessage) {
-            transactionMessageHandler.onResponse((AbstractResultMessage)message, rpcContext);
+            try {
+                sender.sendResponse(request, ctx.channel(), resultMessage);
+            } catch (RuntimeException exx) {
+                LOGGER.error("send response error: {}", exx.getMessage(), exx);
+            }
+            return null;
+        });
+    }
+
+    /**
+     * Handle the sub messages of a merged message. The sub messages come from different client threads and do not
+     * depend on each other, so besides the current thread up to parallelism - 1 threads of the merged message
+     * executor take sub messages from a shared index. The current thread never waits for a sub message that is
+     * still queued: it handles whatever is left itself and only waits for the ones already running. A sub message
+     * may complete later, e.g. a branch register waiting for a conflicting global lock, without holding any thread.
+     *
+     * @param message    the merged message
+     * @param rpcContext the rpc context
+     * @param answered   the results answered already, null for the sub messages to handle
+     * @return the future of the results in the order of the sub messages
+     */
+    CompletableFuture<AbstractResultMessage[]> handleMergedMessage(MergedWarpMessage message, RpcContext rpcContext,
+                                                                   AbstractResultMessage[] answered) {
+        final List<AbstractMessage> subMessages = message.msgs;
+        final int size = subMessages.size();
+        @SuppressWarnings("unchecked")
+        final CompletableFuture<AbstractResultMessage>[] results = new CompletableFuture[size];
+        int helpers = Math.min(size, MERGED_DISPATCH_PARALLELISM) - 1;
+        if (mergedMessageExecutor == null || helpers <= 0) {
+            for (int i = 0; i < size; i++) {
+                results[i] = handleSubMessage(subMessages, i, rpcContext, answered);
+            }
+            return allOf(results);
+        }
+        final AtomicInteger next = new AtomicInteger();
+        final CountDownLatch done = new CountDownLatch(size);
+        final AtomicReference<RuntimeException> error = new AtomicReference<>();
+        Runnable worker = () -> {
+            int i;
+            while ((i = next.getAndIncrement()) < size) {
+                try {
+                    results[i] = handleSubMessage(subMessages, i, rpcContext, answered);
+                } catch (RuntimeException exx) {
+                    error.compareAndSet(null, exx);
+                } finally {
+                    done.countDown();
+                }
+            }
+        };
+        for (int i = 0; i < helpers; i++) {
+            try {
+                mergedMessageExecutor.execute(worker);
+            } catch (RejectedExecutionException exx) {
+                break;
+            }
+        }
+        worker.run();
+        try {
+            done.await();
+        } catch (InterruptedException exx) {
+            Thread.currentThread().interrupt();
+            throw new RuntimeException(exx);
+        }
+        if (error.get() != null) {
+            throw error.get();
         }
+        return allOf(results);
+    }
+
+    private CompletableFuture<AbstractResultMessage> handleSubMessage(List<AbstractMessage> subMessages, int i,
+                                                                       RpcContext rpcContext,
+                                                                       AbstractResultMessage[] answered) {
+        if (answered != null && answered[i] != null) {
+            return CompletableFuture.completedFuture(answered[i]);
+        }
+        return transactionMessageHandler.onRequestAsync(subMessages.get(i), rpcContext);
+    }
+
+    private static CompletableFuture<AbstractResultMessage[]> allOf(
+        CompletableFuture<AbstractResultMessage>[] futures) {
+        return CompletableFuture.allOf(futures).thenApply(v -> {
+            AbstractResultMessage[] results = new AbstractResultMessage[futures.length];
+            for (int i = 0; i < futures.length; i++) {
+                results[i] = futures[i].join();
+            }
+            return results;
+        });
     }
 
     @Override
@@ -163,6 +277,15 @@ public class DefaultServerMessageListenerImpl implements ServerMessageListener {
         mergeSendExecutorService.submit(new BatchLogRunnable());
     }
 
+    /**
+     * Sets the executor that helps handling the sub messages of a merged message, null handles them serially.
+     *
+     * @param mergedMessageExecutor the merged message executor
+     */
+    public void setMergedMessageExecutor(Executor mergedMessageExecutor) {
+        this.mergedMessageExecutor = mergedMessageExecutor;
+    }
+
     /**
      * Gets server message sender.
      *
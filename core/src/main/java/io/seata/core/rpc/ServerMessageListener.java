@@ -15,7 +15,10 @@
  */
 package io.seata.core.rpc;
 
+import java.util.concurrent.CompletableFuture;
+
 import io.netty.channel.ChannelHandlerContext;
+import io.seata.core.protocol.AbstractResultMessage;
 import io.seata.core.protocol.RpcMessage;
 import io.seata.core.rpc.netty.RegisterCheckAuthHandler;
 
@@ -36,6 +39,18 @@ public interface ServerMessageListener {
      */
     void onTrxMessage(RpcMessage request, ChannelHandlerContext ctx, ServerMessageSender sender);
 
+    /**
+     * On merged trx message, of which some sub messages are answered already.
+     *
+     * @param request  the msg id
+     * @param ctx      the ctx
+     * @param sender   the sender
+     * @param answered the results answered already in the order of the sub messages, null for the ones to handle
+     * @return the future completed once all sub messages are handled and the response is sent
+     */
+    CompletableFuture<Void> onMergedMessage(RpcMessage request, ChannelHandlerContext ctx, ServerMessageSender sender,
+                                            AbstractResultMessage[] answered);
+
     /**
      * On reg rm message.
      *
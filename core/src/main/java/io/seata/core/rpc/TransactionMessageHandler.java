@@ -15,6 +15,8 @@
  */
 package io.seata.core.rpc;
 
+import java.util.concurrent.CompletableFuture;
+
 import io.seata.core.protocol.AbstractMessage;
 import io.seata.core.protocol.AbstractResultMessage;
 
@@ -34,6 +36,18 @@ public interface TransactionMessageHandler {
      */
     AbstractResultMessage onRequest(AbstractMessage request, RpcContext context);
 
+    /**
+     * On a request received, for the requests whose response may be completed later by another thread, e.g. a
+     * branch register waiting for a conflicting global lock. Handled by the blocking call unless implemented.
+     *
+     * @param request received request message
+     * @param context context of the RPC
+     * @return future of the response to the request
+     */
+    default CompletableFuture<AbstractResultMessage> onRequestAsync(AbstractMessage request, RpcContext context) {
+        return CompletableFuture.completedFuture(onRequest(request, context));
+    }
+
     /**
      * On a response received.
      *
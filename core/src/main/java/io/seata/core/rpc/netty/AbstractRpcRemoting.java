@@ -22,6 +22,7 @@ import io.netty.channel.ChannelFutureListener;
 import io.netty.channel.ChannelHandler;
 import io.netty.channel.ChannelHandlerContext;
 import io.netty.channel.ChannelPromise;
+import io.netty.util.HashedWheelTimer;
 import io.seata.common.exception.FrameworkErrorCode;
 import io.seata.common.exception.FrameworkException;
 import io.seata.common.thread.NamedThreadFactory;
@@ -38,13 +39,10 @@ import org.slf4j.LoggerFactory;
 import java.io.IOException;
 import java.lang.management.ManagementFactory;
 import java.net.SocketAddress;
-import java.util.ArrayList;
-import java.util.List;
 import java.util.Map;
 import java.util.Random;
-import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CompletableFuture;
 import java.util.concurrent.ConcurrentHashMap;
-import java.util.concurrent.LinkedBlockingQueue;
 import java.util.concurrent.RejectedExecutionException;
 import java.util.concurrent.ScheduledExecutorService;
 import java.util.concurrent.ScheduledThreadPoolExecutor;
@@ -61,6 +59,8 @@ import java.util.concurrent.TimeoutException;
 public abstract class AbstractRpcRemoting extends ChannelDuplexHandler implements Disposable {
 
     private static final Logger LOGGER = LoggerFactory.getLogger(AbstractRpcRemoting.class);
+    private static final long TIMEOUT_TICK_MILLS = 10L;
+    private static final int TIMEOUT_TICKS_PER_WHEEL = 512;
     /**
      * The Timer executor.
      */
@@ -75,29 +75,24 @@ public abstract class AbstractRpcRemoting extends ChannelDuplexHandler implement
     protected final PositiveAtomicCounter idGenerator = new PositiveAtomicCounter();
 
     /**
-     * The Futures.
-     */
-    protected final ConcurrentHashMap<Integer, MessageFuture> futures = new ConcurrentHashMap<>();
-    /**
-     * The Basket map.
+     * The timer of the request timeouts, a timeout is cancelled in O(1) when its response comes.
      */
-    protected final ConcurrentHashMap<String, BlockingQueue<RpcMessage>> basketMap = new ConcurrentHashMap<>();
+    protected final HashedWheelTimer timeoutTimer = new HashedWheelTimer(
+        new NamedThreadFactory("rpcTimeoutTimer", 1, true), TIMEOUT_TICK_MILLS, TimeUnit.MILLISECONDS,
+        TIMEOUT_TICKS_PER_WHEEL);
 
-    private static final long NOT_WRITEABLE_CHECK_MILLS = 10L;
     /**
-     * The Merge lock.
+     * The Futures.
      */
-    protected final Object mergeLock = new Object();
+    protected final MessageFutureTable futures = new MessageFutureTable();
     /**
-     * The Now mills.
+     * The Merged sender, of the clients only.
      */
-    protected volatile long nowMills = 0;
-    private static final int TIMEOUT_CHECK_INTERNAL = 3000;
+    protected MergedSender mergedSender;
+
+    private static final long NOT_WRITEABLE_CHECK_MILLS = 10L;
+    private static final int ONEWAY_FUTURE_LINGER_MILLS = 3000;
     private final Object lock = new Object();
-    /**
-     * The Is sending.
-     */
-    protected volatile boolean isSending = false;
     private String group = "DEFAULT";
     /**
      * The Merge msg map.
@@ -130,25 +125,7 @@ public abstract class AbstractRpcRemoting extends ChannelDuplexHandler implement
      * Init.
      */
     public void init() {
-        timerExecutor.scheduleAtFixedRate(new Runnable() {
-            @Override
-            public void run() {
-                List<MessageFuture> timeoutMessageFutures = new ArrayList<MessageFuture>(futures.size());
-                for (MessageFuture future : futures.values()) {
-                    if (future.isTimeout()) {
-                        timeoutMessageFutures.add(future);
-                    }
-                }
-                for (MessageFuture messageFuture : timeoutMessageFutures) {
-                    futures.remove(messageFuture.getRequestMessage().getId());
-                    messageFuture.setResultMessage(null);
-                    if (LOGGER.isDebugEnabled()) {
-                        LOGGER.debug("timeout clear future : " + messageFuture.getRequestMessage().getBody());
-                    }
-                }
-                nowMills = System.currentTimeMillis();
-            }
-        }, TIMEOUT_CHECK_INTERNAL, TIMEOUT_CHECK_INTERNAL, TimeUnit.MILLISECONDS);
+        timeoutTimer.start();
     }
 
     /**
@@ -157,6 +134,7 @@ public abstract class AbstractRpcRemoting extends ChannelDuplexHandler implement
     @Override
     public void destroy() {
         timerExecutor.shutdown();
+        timeoutTimer.stop();
         messageExecutor.shutdown();
     }
 
@@ -214,12 +192,55 @@ public abstract class AbstractRpcRemoting extends ChannelDuplexHandler implement
         return sendAsyncRequest(null, channel, msg, 0);
     }
 
+    /**
+     * Send async request with a future of the response, the calling thread never waits for the channel nor for the
+     * response.
+     *
+     * @param address the address
+     * @param channel the channel
+     * @param msg     the msg
+     * @param timeout the timeout
+     * @return the future of the response, failed with a TimeoutException on timeout
+     */
+    protected CompletableFuture<Object> sendAsyncRequestWithFuture(String address, Channel channel, Object msg,
+                                                                   long timeout) {
+        if (timeout <= 0) {
+            throw new FrameworkException("timeout should more than 0ms");
+        }
+        if (channel == null) {
+            LOGGER.warn("sendAsyncRequestWithFuture nothing, caused by null channel.");
+            return CompletableFuture.completedFuture(null);
+        }
+        return writeAsyncRequest(address, channel, msg, timeout).toCompletableFuture();
+    }
+
     private Object sendAsyncRequest(String address, Channel channel, Object msg, long timeout)
         throws TimeoutException {
         if (channel == null) {
             LOGGER.warn("sendAsyncRequestWithResponse nothing, caused by null channel.");
             return null;
         }
+        if (address == null || mergedSender == null) {
+            channelWriteableCheck(channel, msg);
+        }
+        MessageFuture messageFuture = writeAsyncRequest(address, channel, msg, timeout);
+        if (timeout > 0) {
+            try {
+                return messageFuture.get(timeout, TimeUnit.MILLISECONDS);
+            } catch (Exception exx) {
+                LOGGER.error("wait response error:" + exx.getMessage() + ",ip:" + address + ",request:" + msg);
+                if (exx instanceof TimeoutException) {
+                    throw (TimeoutException)exx;
+                } else {
+                    throw new RuntimeException(exx);
+                }
+            }
+        } else {
+            return null;
+        }
+    }
+
+    private MessageFuture writeAsyncRequest(String address, Channel channel, Object msg, long timeout) {
         final RpcMessage rpcMessage = new RpcMessage();
         rpcMessage.setId(getNextMessageId());
         rpcMessage.setMessageType(ProtocolConstants.MSGTYPE_RESQUEST_ONEWAY);
@@ -231,27 +252,22 @@ public abstract class AbstractRpcRemoting extends ChannelDuplexHandler implement
         messageFuture.setRequestMessage(rpcMessage);
         messageFuture.setTimeout(timeout);
         futures.put(rpcMessage.getId(), messageFuture);
-
-        if (address != null) {
-            ConcurrentHashMap<String, BlockingQueue<RpcMessage>> map = basketMap;
-            BlockingQueue<RpcMessage> basket = map.get(address);
-            if (basket == null) {
-                map.putIfAbsent(address, new LinkedBlockingQueue<>());
-                basket = map.get(address);
+        messageFuture.setTimeoutTask(timeoutTimer.newTimeout(t -> {
+            if (futures.remove(rpcMessage.getId(), messageFuture)) {
+                messageFuture.setResultMessage(new TimeoutException());
+                if (LOGGER.isDebugEnabled()) {
+                    LOGGER.debug("timeout clear future : " + rpcMessage.getBody());
+                }
             }
-            basket.offer(rpcMessage);
+        }, timeout > 0 ? timeout : ONEWAY_FUTURE_LINGER_MILLS, TimeUnit.MILLISECONDS));
+
+        if (address != null && mergedSender != null) {
             if (LOGGER.isDebugEnabled()) {
                 LOGGER.debug("offer message: " + rpcMessage.getBody());
             }
-            if (!isSending) {
-                synchronized (mergeLock) {
-                    mergeLock.notifyAll();
-                }
-            }
+            mergedSender.offer(channel, rpcMessage);
         } else {
-            ChannelFuture future;
-            channelWriteableCheck(channel, msg);
-            future = channel.writeAndFlush(rpcMessage);
+            ChannelFuture future = channel.writeAndFlush(rpcMessage);
             future.addListener(new ChannelFutureListener() {
                 @Override
                 public void operationComplete(ChannelFuture future) {
@@ -265,20 +281,7 @@ public abstract class AbstractRpcRemoting extends ChannelDuplexHandler implement
                 }
             });
         }
-        if (timeout > 0) {
-            try {
-                return messageFuture.get(timeout, TimeUnit.MILLISECONDS);
-            } catch (Exception exx) {
-                LOGGER.error("wait response error:" + exx.getMessage() + ",ip:" + address + ",request:" + msg);
-                if (exx instanceof TimeoutException) {
-                    throw (TimeoutException)exx;
-                } else {
-                    throw new RuntimeException(exx);
-                }
-            }
-        } else {
-            return null;
-        }
+        return messageFuture;
     }
 
     /**
@@ -17,9 +17,8 @@ package io.seata.core.rpc.netty;
 
 import java.net.InetSocketAddress;
 import java.util.List;
-import java.util.concurrent.BlockingQueue;
-import java.util.concurrent.ExecutorService;
-import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executor;
 import java.util.concurrent.ThreadPoolExecutor;
 import java.util.concurrent.TimeUnit;
 import java.util.concurrent.TimeoutException;
@@ -32,9 +31,8 @@ import io.netty.handler.timeout.IdleStateEvent;
 import io.netty.util.concurrent.EventExecutorGroup;
 import io.seata.common.exception.FrameworkErrorCode;
 import io.seata.common.exception.FrameworkException;
-import io.seata.common.thread.NamedThreadFactory;
+import io.seata.common.util.FutureUtils;
 import io.seata.common.util.NetUtil;
-import io.seata.core.protocol.AbstractMessage;
 import io.seata.core.protocol.HeartbeatMessage;
 import io.seata.core.protocol.MergeResultMessage;
 import io.seata.core.protocol.MergedWarpMessage;
@@ -60,22 +58,13 @@ public abstract class AbstractRpcRemotingClient extends AbstractRpcRemoting
     implements RegisterMsgListener, ClientMessageSender {
 
     private static final Logger LOGGER = LoggerFactory.getLogger(AbstractRpcRemotingClient.class);
-    private static final String MSG_ID_PREFIX = "msgId:";
-    private static final String FUTURES_PREFIX = "futures:";
-    private static final String SINGLE_LOG_POSTFIX = ";";
-    private static final int MAX_MERGE_SEND_MILLS = 1;
-    private static final String THREAD_PREFIX_SPLIT_CHAR = "_";
-    
-    private static final int MAX_MERGE_SEND_THREAD = 1;
-    private static final long KEEP_ALIVE_TIME = Integer.MAX_VALUE;
     private static final int SCHEDULE_INTERVAL_MILLS = 5;
-    private static final String MERGE_THREAD_PREFIX = "rpcMergeMessageSend";
+    private static final int MERGE_STATS_INTERVAL_SECONDS = 60;
     
     private final RpcClientBootstrap clientBootstrap;
     private NettyClientChannelManager clientChannelManager;
     private ClientMessageListener clientMessageListener;
     private final NettyPoolKey.TransactionRole transactionRole;
-    private ExecutorService mergeSendExecutorService;
     
     public AbstractRpcRemotingClient(NettyClientConfig nettyClientConfig, EventExecutorGroup eventExecutorGroup,
                                      ThreadPoolExecutor messageExecutor, NettyPoolKey.TransactionRole transactionRole) {
@@ -84,11 +73,21 @@ public abstract class AbstractRpcRemotingClient extends AbstractRpcRemoting
         clientBootstrap = new RpcClientBootstrap(nettyClientConfig, eventExecutorGroup, this, transactionRole);
         clientChannelManager = new NettyClientChannelManager(
             new NettyPoolableFactory(this, clientBootstrap), getPoolKeyFunction(), nettyClientConfig);
+        mergedSender = new MergedSender(this, NettyClientConfig.getMaxMergeBatchSize());
     }
     
     public NettyClientChannelManager getClientChannelManager() {
         return clientChannelManager;
     }
+
+    /**
+     * Gets merged sender.
+     *
+     * @return the merged sender
+     */
+    public MergedSender getMergedSender() {
+        return mergedSender;
+    }
     
     /**
      * Get pool key function.
@@ -113,19 +112,18 @@ public abstract class AbstractRpcRemotingClient extends AbstractRpcRemoting
                 clientChannelManager.reconnect(getTransactionServiceGroup());
             }
         }, SCHEDULE_INTERVAL_MILLS, SCHEDULE_INTERVAL_MILLS, TimeUnit.SECONDS);
-        mergeSendExecutorService = new ThreadPoolExecutor(MAX_MERGE_SEND_THREAD,
-            MAX_MERGE_SEND_THREAD,
-            KEEP_ALIVE_TIME, TimeUnit.MILLISECONDS,
-            new LinkedBlockingQueue<>(),
-            new NamedThreadFactory(getThreadPrefix(), MAX_MERGE_SEND_THREAD));
-        mergeSendExecutorService.submit(new MergedSendRunnable());
+        timerExecutor.scheduleAtFixedRate(() -> {
+            if (LOGGER.isDebugEnabled()) {
+                LOGGER.debug("{} merged batch sizes: {}, wait micros: {}", transactionRole,
+                    mergedSender.getBatchSizes(), mergedSender.getWaitMicros());
+            }
+        }, MERGE_STATS_INTERVAL_SECONDS, MERGE_STATS_INTERVAL_SECONDS, TimeUnit.SECONDS);
         super.init();
     }
     
     @Override
     public void destroy() {
         clientBootstrap.shutdown();
-        mergeSendExecutorService.shutdown();
     }
     
     @Override
@@ -233,6 +231,22 @@ public abstract class AbstractRpcRemotingClient extends AbstractRpcRemoting
         return sendMsgWithResponse(msg, NettyClientConfig.getRpcRequestTimeout());
     }
     
+    @Override
+    public CompletableFuture<Object> sendMsgWithResponseAsync(Object msg, long timeout) {
+        try {
+            String validAddress = loadBalance(getTransactionServiceGroup());
+            Channel channel = clientChannelManager.acquireChannel(validAddress);
+            return sendAsyncRequestWithFuture(validAddress, channel, msg, timeout);
+        } catch (RuntimeException rex) {
+            return FutureUtils.failedFuture(rex);
+        }
+    }
+    
+    @Override
+    public CompletableFuture<Object> sendMsgWithResponseAsync(Object msg) {
+        return sendMsgWithResponseAsync(msg, NettyClientConfig.getRpcRequestTimeout());
+    }
+    
     @Override
     public Object sendMsgWithResponse(String serverAddress, Object msg, long timeout)
         throws TimeoutException {
@@ -244,6 +258,15 @@ public abstract class AbstractRpcRemotingClient extends AbstractRpcRemoting
         super.sendResponse(request, clientChannelManager.acquireChannel(serverAddress), msg);
     }
     
+    /**
+     * Gets the executor of the client, which the work following an async request may run on.
+     *
+     * @return the message executor
+     */
+    public Executor getMessageExecutor() {
+        return messageExecutor;
+    }
+
     /**
      * Gets client message listener.
      *
@@ -281,78 +304,4 @@ public abstract class AbstractRpcRemotingClient extends AbstractRpcRemoting
         return NetUtil.toStringAddress(address);
     }
     
-    private String getThreadPrefix() {
-        return AbstractRpcRemotingClient.MERGE_THREAD_PREFIX + THREAD_PREFIX_SPLIT_CHAR + transactionRole.name();
-    }
-
-    /**
-     * The type Merged send runnable.
-     */
-    private class MergedSendRunnable implements Runnable {
-
-        @Override
-        public void run() {
-            while (true) {
-                synchronized (mergeLock) {
-                    try {
-                        mergeLock.wait(MAX_MERGE_SEND_MILLS);
-                    } catch (InterruptedException e) {
-                    }
-                }
-                isSending = true;
-                for (String address : basketMap.keySet()) {
-                    BlockingQueue<RpcMessage> basket = basketMap.get(address);
-                    if (basket.isEmpty()) {
-                        continue;
-                    }
-
-                    MergedWarpMessage mergeMessage = new MergedWarpMessage();
-                    while (!basket.isEmpty()) {
-                        RpcMessage msg = basket.poll();
-                        mergeMessage.msgs.add((AbstractMessage) msg.getBody());
-                        mergeMessage.msgIds.add(msg.getId());
-                    }
-                    if (mergeMessage.msgIds.size() > 1) {
-                        printMergeMessageLog(mergeMessage);
-                    }
-                    Channel sendChannel = null;
-                    try {
-                        sendChannel = clientChannelManager.acquireChannel(address);
-                        sendRequest(sendChannel, mergeMessage);
-                    } catch (FrameworkException e) {
-                        if (e.getErrcode() == FrameworkErrorCode.ChannelIsNotWritable && sendChannel != null) {
-                            destroyChannel(address, sendChannel);
-                        }
-                        // fast fail
-                        for (Integer msgId : mergeMessage.msgIds) {
-                            MessageFuture messageFuture = futures.remove(msgId);
-                            if (messageFuture != null) {
-                                messageFuture.setResultMessage(null);
-                            }
-                        }
-                        LOGGER.error("client merge call failed: {}", e.getMessage(), e);
-                    }
-                }
-                isSending = false;
-            }
-        }
-
-        private void printMergeMessageLog(MergedWarpMessage mergeMessage) {
-            if (LOGGER.isDebugEnabled()) {
-                LOGGER.debug("merge msg size:" + mergeMessage.msgIds.size());
-                for (AbstractMessage cm : mergeMessage.msgs) {
-                    LOGGER.debug(cm.toString());
-                }
-                StringBuilder sb = new StringBuilder();
-                for (long l : mergeMessage.msgIds) {
-                    sb.append(MSG_ID_PREFIX).append(l).append(SINGLE_LOG_POSTFIX);
-                }
-                sb.append("\n");
-                for (long l : futures.keySet()) {
-                    sb.append(FUTURES_PREFIX).append(l).append(SINGLE_LOG_POSTFIX);
-                }
-                LOGGER.debug(sb.toString());
-            }
-        }
-    }
 }
@@ -0,0 +1,282 @@
+/*
+ *  Copyright 1999-2019 Seata.io Group.
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+package io.seata.core.rpc.netty;
+
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+
+import io.seata.core.exception.TransactionExceptionCode;
+import io.seata.core.model.GlobalStatus;
+import io.seata.core.protocol.AbstractMessage;
+import io.seata.core.protocol.AbstractResultMessage;
+import io.seata.core.protocol.MergedWarpMessage;
+import io.seata.core.protocol.MessageType;
+import io.seata.core.protocol.ResultCode;
+import io.seata.core.protocol.transaction.AbstractGlobalEndResponse;
+import io.seata.core.protocol.transaction.AbstractTransactionResponse;
+import io.seata.core.protocol.transaction.BranchRegisterResponse;
+import io.seata.core.protocol.transaction.BranchReportResponse;
+import io.seata.core.protocol.transaction.GlobalBeginResponse;
+import io.seata.core.protocol.transaction.GlobalCommitResponse;
+import io.seata.core.protocol.transaction.GlobalLockQueryResponse;
+import io.seata.core.protocol.transaction.GlobalReportResponse;
+import io.seata.core.protocol.transaction.GlobalRollbackResponse;
+import io.seata.core.protocol.transaction.GlobalStatusResponse;
+
+/**
+ * Admission of the transaction requests in front of the server executor. The requests in flight, queued, running or
+ * waiting for a global lock, are kept under a {@link ConcurrencyLimit} estimated from their latency, and a request
+ * over it is answered at once with {@link TransactionExceptionCode#ServerBusy} instead of waiting in the queue until
+ * the client gave up on it. The sub messages of a merged request are admitted one by one.
+ * <p>
+ * Requests finishing transactions outrank the ones starting them: commit, rollback and reports are always admitted,
+ * branch registers and queries up to the limit, and begins only up to a share of it, so under overload new
+ * transactions are turned away first and the ones in flight can still end.
+ * <p>
+ * ServerBusy is a code added after 0.9.0, the clients of that version can not decode a busy response and see the
+ * rejected request time out instead, so the admission limit is off unless enabled once the clients are upgraded.
+ */
+public class AdmissionController {
+
+    private static final double LOW_PRIORITY_SHARE = 0.8;
+
+    private static final String BUSY_MESSAGE = "server is busy, retry later";
+
+    private final ConcurrencyLimit limit;
+
+    private final AtomicInteger inflight = new AtomicInteger();
+
+    private final LongAdder rejected = new LongAdder();
+
+    /**
+     * Instantiates a new Admission controller.
+     *
+     * @param limit the limit
+     */
+    public AdmissionController(ConcurrencyLimit limit) {
+        this.limit = limit;
+    }
+
+    /**
+     * Try to admit a request.
+     *
+     * @param message the request body
+     * @return the permit to release when the request is done, or null if the request is rejected
+     */
+    public Permit tryAcquire(Object message) {
+        return tryAcquire(priorityOf(message), 1);
+    }
+
+    /**
+     * Try to admit the sub messages of a merged request one by one, so the ones ending transactions still get in
+     * when the begins batched with them are turned away.
+     *
+     * @param message the merged request
+     * @return the permits in the order of the sub messages, null for a rejected one
+     */
+    public Permit[] tryAcquireEach(MergedWarpMessage message) {
+        List<AbstractMessage> msgs = message.msgs;
+        Permit[] permits = new Permit[msgs.size()];
+        for (int i = 0; i < permits.length; i++) {
+            permits[i] = tryAcquire(msgs.get(i));
+        }
+        return permits;
+    }
+
+    /**
+     * Try to admit a request.
+     *
+     * @param priority the priority
+     * @param weight   the count of the requests it carries
+     * @return the permit to release when the request is done, or null if the request is rejected
+     */
+    public Permit tryAcquire(Priority priority, int weight) {
+        int bound;
+        switch (priority) {
+            case HIGH:
+                bound = Integer.MAX_VALUE;
+                break;
+            case NORMAL:
+                bound = limit.getLimit();
+                break;
+            default:
+                bound = (int)(limit.getLimit() * LOW_PRIORITY_SHARE);
+                break;
+        }
+        while (true) {
+            int current = inflight.get();
+            // an idle server takes a request of any size
+            if (current > 0 && (long)current + weight > bound) {
+                rejected.increment();
+                return null;
+            }
+            if (inflight.compareAndSet(current, current + weight)) {
+                return new Permit(priority != Priority.HIGH, weight, current + weight);
+            }
+        }
+    }
+
+    /**
+     * The busy response of a request.
+     *
+     * @param message the request body
+     * @return the response
+     */
+    public AbstractResultMessage busyResponse(Object message) {
+        AbstractTransactionResponse response = newResponse(message);
+        if (response == null) {
+            throw new IllegalArgumentException("no busy response of " + message);
+        }
+        response.setResultCode(ResultCode.Failed);
+        response.setTransactionExceptionCode(TransactionExceptionCode.ServerBusy);
+        response.setMsg(BUSY_MESSAGE);
+        if (response instanceof AbstractGlobalEndResponse) {
+            ((AbstractGlobalEndResponse)response).setGlobalStatus(GlobalStatus.UnKnown);
+        }
+        return response;
+    }
+
+    /**
+     * Gets the count of the requests in flight.
+     *
+     * @return the inflight
+     */
+    public int getInflight() {
+        return inflight.get();
+    }
+
+    /**
+     * Gets the current limit.
+     *
+     * @return the limit
+     */
+    public int getLimit() {
+        return limit.getLimit();
+    }
+
+    /**
+     * Gets the count of the requests rejected.
+     *
+     * @return the rejected count
+     */
+    public long getRejectedCount() {
+        return rejected.sum();
+    }
+
+    /**
+     * The priority of a request. Requests without a busy response are never rejected.
+     *
+     * @param message the request body
+     * @return the priority
+     */
+    static Priority priorityOf(Object message) {
+        if (!(message instanceof AbstractMessage)) {
+            return Priority.HIGH;
+        }
+        switch (((AbstractMessage)message).getTypeCode()) {
+            case MessageType.TYPE_GLOBAL_BEGIN:
+                return Priority.LOW;
+            case MessageType.TYPE_BRANCH_REGISTER:
+            case MessageType.TYPE_GLOBAL_LOCK_QUERY:
+            case MessageType.TYPE_GLOBAL_STATUS:
+                return Priority.NORMAL;
+            default:
+                return Priority.HIGH;
+        }
+    }
+
+    private static AbstractTransactionResponse newResponse(Object message) {
+        if (!(message instanceof AbstractMessage)) {
+            return null;
+        }
+        switch (((AbstractMessage)message).getTypeCode()) {
+            case MessageType.TYPE_GLOBAL_BEGIN:
+                return new GlobalBeginResponse();
+            case MessageType.TYPE_GLOBAL_COMMIT:
+                return new GlobalCommitResponse();
+            case MessageType.TYPE_GLOBAL_ROLLBACK:
+                return new GlobalRollbackResponse();
+            case MessageType.TYPE_GLOBAL_STATUS:
+                return new GlobalStatusResponse();
+            case MessageType.TYPE_GLOBAL_REPORT:
+                return new GlobalReportResponse();
+            case MessageType.TYPE_GLOBAL_LOCK_QUERY:
+                return new GlobalLockQueryResponse();
+            case MessageType.TYPE_BRANCH_REGISTER:
+                return new BranchRegisterResponse();
+            case MessageType.TYPE_BRANCH_STATUS_REPORT:
+                return new BranchReportResponse();
+            default:
+                return null;
+        }
+    }
+
+    /**
+     * The priority of a request.
+     */
+    public enum Priority {
+        /**
+         * Ends transactions, never rejected.
+         */
+        HIGH,
+        /**
+         * Works on transactions in flight, rejected over the limit.
+         */
+        NORMAL,
+        /**
+         * Starts transactions, rejected first.
+         */
+        LOW
+    }
+
+    /**
+     * An admitted request.
+     */
+    public final class Permit {
+
+        private final boolean sampled;
+
+        private final int weight;
+
+        private final int inflightAtAcquire;
+
+        private final long startNanos = System.nanoTime();
+
+        private boolean released;
+
+        private Permit(boolean sampled, int weight, int inflightAtAcquire) {
+            this.sampled = sampled;
+            this.weight = weight;
+            this.inflightAtAcquire = inflightAtAcquire;
+        }
+
+        /**
+         * Release when the request is done. The latency of the requests which may wait on the branches, such as a
+         * commit, says little about the load of the server and is left out of the limit.
+         */
+        public void release() {
+            if (released) {
+                return;
+            }
+            released = true;
+            inflight.addAndGet(-weight);
+            if (sampled) {
+                limit.onSample(System.nanoTime() - startNanos, inflightAtAcquire);
+            }
+        }
+    }
+}
@@ -0,0 +1,138 @@
+/*
+ *  Copyright 1999-2019 Seata.io Group.
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+package io.seata.core.rpc.netty;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * A concurrency limit estimated from the latency of the requests, in the way of TCP Vegas.
+ * <p>
+ * The latencies of a window are averaged and compared with the latency without load, the lowest average seen. The
+ * estimated queue, limit * (1 - noLoadRtt / rtt), grows the limit additively while it is short and the limit is in
+ * use, and shrinks it additively while it is long. If the latency doubles the limit is cut by a tenth at once. The
+ * latency without load is sampled again from time to time, so it follows a slower store or network.
+ */
+public class ConcurrencyLimit {
+
+    private static final long WINDOW_NANOS = TimeUnit.MILLISECONDS.toNanos(100);
+
+    private static final int MIN_WINDOW_SAMPLES = 10;
+
+    private static final int PROBE_WINDOWS = 300;
+
+    private static final double RTT_TOLERANCE = 2.0;
+
+    private static final double DECREASE_FACTOR = 0.9;
+
+    private final int minLimit;
+
+    private final int maxLimit;
+
+    private volatile int limit;
+
+    private final LongAdder windowRtt = new LongAdder();
+
+    private final LongAdder windowSamples = new LongAdder();
+
+    private final AtomicInteger windowMaxInflight = new AtomicInteger();
+
+    private final AtomicLong windowStart = new AtomicLong(System.nanoTime());
+
+    private long noLoadRtt = Long.MAX_VALUE;
+
+    private int windows;
+
+    /**
+     * Instantiates a new Concurrency limit.
+     *
+     * @param initialLimit the initial limit
+     * @param minLimit     the min limit
+     * @param maxLimit     the max limit
+     */
+    public ConcurrencyLimit(int initialLimit, int minLimit, int maxLimit) {
+        this.minLimit = Math.max(1, minLimit);
+        this.maxLimit = Math.max(this.minLimit, maxLimit);
+        this.limit = Math.min(this.maxLimit, Math.max(this.minLimit, initialLimit));
+    }
+
+    /**
+     * Gets limit.
+     *
+     * @return the limit
+     */
+    public int getLimit() {
+        return limit;
+    }
+
+    /**
+     * Record the latency of a request.
+     *
+     * @param rttNanos the nanos from admission to completion
+     * @param inflight the requests in flight when it was admitted
+     */
+    public void onSample(long rttNanos, int inflight) {
+        windowRtt.add(rttNanos);
+        windowSamples.increment();
+        int max;
+        while ((max = windowMaxInflight.get()) < inflight) {
+            if (windowMaxInflight.compareAndSet(max, inflight)) {
+                break;
+            }
+        }
+        long now = System.nanoTime();
+        long start = windowStart.get();
+        if (now - start >= WINDOW_NANOS && windowStart.compareAndSet(start, now)) {
+            long samples = windowSamples.sumThenReset();
+            long rtt = windowRtt.sumThenReset();
+            if (samples < MIN_WINDOW_SAMPLES) {
+                // too few to tell, leave them to the next window
+                windowSamples.add(samples);
+                windowRtt.add(rtt);
+                return;
+            }
+            update(rtt / samples, windowMaxInflight.getAndSet(0));
+        }
+    }
+
+    private synchronized void update(long rtt, int maxInflight) {
+        if (rtt <= 0) {
+            return;
+        }
+        if (++windows % PROBE_WINDOWS == 0 || rtt < noLoadRtt) {
+            noLoadRtt = rtt;
+        }
+        int current = limit;
+        double step = Math.max(1, Math.log10(current));
+        double next;
+        if (rtt > noLoadRtt * RTT_TOLERANCE) {
+            next = current * DECREASE_FACTOR;
+        } else {
+            double queue = current * (1 - (double)noLoadRtt / rtt);
+            if (queue <= 3 * step) {
+                // grow only if the limit is in use, an idle server tells nothing about more load
+                next = maxInflight * 2 >= current ? current + step : current;
+            } else if (queue >= 6 * step) {
+                next = current - step;
+            } else {
+                next = current;
+            }
+        }
+        limit = (int)Math.min(maxLimit, Math.max(minLimit, next));
+    }
+}
@@ -0,0 +1,114 @@
+/*
+ *  Copyright 1999-2019 Seata.io Group.
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+package io.seata.core.rpc.netty;
+
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * A histogram of non-negative values in buckets of powers of two, cheap enough to record on an event loop. Bucket 0
+ * counts the value 0 and bucket i the values in [2^(i-1), 2^i).
+ */
+public class LogHistogram {
+
+    private static final int BUCKETS = 64;
+
+    private final LongAdder[] buckets = new LongAdder[BUCKETS];
+
+    private final LongAdder sum = new LongAdder();
+
+    /**
+     * Instantiates a new Log histogram.
+     */
+    public LogHistogram() {
+        for (int i = 0; i < BUCKETS; i++) {
+            buckets[i] = new LongAdder();
+        }
+    }
+
+    /**
+     * Record a value, a negative one as 0.
+     *
+     * @param value the value
+     */
+    public void record(long value) {
+        long v = Math.max(0, value);
+        buckets[BUCKETS - Long.numberOfLeadingZeros(v)].increment();
+        sum.add(v);
+    }
+
+    /**
+     * Gets the count of the values recorded.
+     *
+     * @return the count
+     */
+    public long getCount() {
+        long count = 0;
+        for (LongAdder bucket : buckets) {
+            count += bucket.sum();
+        }
+        return count;
+    }
+
+    /**
+     * Gets the mean of the values recorded.
+     *
+     * @return the mean, 0 if none
+     */
+    public double getMean() {
+        long count = getCount();
+        return count == 0 ? 0 : (double)sum.sum() / count;
+    }
+
+    /**
+     * Gets the upper bound of the bucket holding the percentile.
+     *
+     * @param percentile the percentile, in (0, 1]
+     * @return the upper bound, 0 if none recorded
+     */
+    public long getPercentile(double percentile) {
+        long[] counts = new long[BUCKETS];
+        long count = 0;
+        for (int i = 0; i < BUCKETS; i++) {
+            counts[i] = buckets[i].sum();
+            count += counts[i];
+        }
+        if (count == 0) {
+            return 0;
+        }
+        long rank = (long)Math.ceil(count * percentile);
+        long seen = 0;
+        for (int i = 0; i < BUCKETS; i++) {
+            seen += counts[i];
+            if (seen >= rank) {
+                return upperBound(i);
+            }
+        }
+        return upperBound(BUCKETS - 1);
+    }
+
+    private static long upperBound(int bucket) {
+        if (bucket == 0) {
+            return 0;
+        }
+        return bucket == BUCKETS - 1 ? Long.MAX_VALUE : (1L << bucket) - 1;
+    }
+
+    @Override
+    public String toString() {
+        return "count=" + getCount() + ", mean=" + String.format("%.1f", getMean()) + ", p50<=" + getPercentile(0.5)
+            + ", p99<=" + getPercentile(0.99) + ", max<=" + getPercentile(1);
+    }
+}
@@ -0,0 +1,231 @@
+/*
+ *  Copyright 1999-2019 Seata.io Group.
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+package io.seata.core.rpc.netty;
+
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import io.netty.channel.Channel;
+import io.netty.util.Attribute;
+import io.netty.util.AttributeKey;
+import io.seata.core.protocol.AbstractMessage;
+import io.seata.core.protocol.MergedWarpMessage;
+import io.seata.core.protocol.MessageFuture;
+import io.seata.core.protocol.ProtocolConstants;
+import io.seata.core.protocol.RpcMessage;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Sends the requests of a client merged, by the event loops of the channels instead of a thread of its own.
+ * <p>
+ * Each channel has a lock-free queue. The first request into an idle queue schedules a flush on the event loop of
+ * the channel, which sends it at once. Requests offered while a flush is pending wait in the queue and go in the
+ * next one, up to a batch size, so batches grow with the load and an idle client adds no delay. While the channel
+ * is not writable the queue is held, and batches grow until the bytes in flight drain.
+ */
+public class MergedSender {
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(MergedSender.class);
+
+    private static final AttributeKey<ChannelQueue> QUEUE_KEY = AttributeKey.valueOf("mergedSenderQueue");
+
+    private static final long NOT_WRITEABLE_CHECK_MILLS = 10L;
+
+    private final AbstractRpcRemoting remoting;
+
+    private final int maxBatchSize;
+
+    private final LogHistogram batchSizes = new LogHistogram();
+
+    private final LogHistogram waitMicros = new LogHistogram();
+
+    /**
+     * Instantiates a new Merged sender.
+     *
+     * @param remoting     the remoting owning the futures
+     * @param maxBatchSize the max requests in one merged message
+     */
+    public MergedSender(AbstractRpcRemoting remoting, int maxBatchSize) {
+        this.remoting = remoting;
+        this.maxBatchSize = Math.max(1, Math.min(Short.MAX_VALUE, maxBatchSize));
+    }
+
+    /**
+     * Offer a request to send merged on the channel. Its future is registered already.
+     *
+     * @param channel    the channel
+     * @param rpcMessage the request
+     */
+    public void offer(Channel channel, RpcMessage rpcMessage) {
+        Attribute<ChannelQueue> attribute = channel.attr(QUEUE_KEY);
+        ChannelQueue queue = attribute.get();
+        if (queue == null) {
+            ChannelQueue created = new ChannelQueue(channel);
+            queue = attribute.setIfAbsent(created);
+            if (queue == null) {
+                queue = created;
+            }
+        }
+        queue.offer(rpcMessage);
+    }
+
+    /**
+     * Gets the histogram of the requests per merged message.
+     *
+     * @return the batch sizes
+     */
+    public LogHistogram getBatchSizes() {
+        return batchSizes;
+    }
+
+    /**
+     * Gets the histogram of the micros a request waits in the queue.
+     *
+     * @return the wait micros
+     */
+    public LogHistogram getWaitMicros() {
+        return waitMicros;
+    }
+
+    private void fail(int msgId) {
+        MessageFuture messageFuture = remoting.futures.remove(msgId);
+        if (messageFuture != null) {
+            messageFuture.setResultMessage(null);
+        }
+    }
+
+    private static final class Entry {
+
+        private final RpcMessage rpcMessage;
+
+        private final long offerNanos = System.nanoTime();
+
+        private Entry(RpcMessage rpcMessage) {
+            this.rpcMessage = rpcMessage;
+        }
+    }
+
+    private final class ChannelQueue implements Runnable {
+
+        private final Channel channel;
+
+        private final Queue<Entry> queue = new ConcurrentLinkedQueue<>();
+
+        private final AtomicBoolean scheduled = new AtomicBoolean();
+
+        /**
+         * Retries while not writable, on the event loop only.
+         */
+        private int notWritableTimes;
+
+        private ChannelQueue(Channel channel) {
+            this.channel = channel;
+        }
+
+        private void offer(RpcMessage rpcMessage) {
+            queue.offer(new Entry(rpcMessage));
+            if (scheduled.compareAndSet(false, true)) {
+                try {
+                    channel.eventLoop().execute(this);
+                } catch (RejectedExecutionException e) {
+                    scheduled.set(false);
+                    failAll();
+                }
+            }
+        }
+
+        /**
+         * Flush, on the event loop.
+         */
+        @Override
+        public void run() {
+            if (!channel.isActive()) {
+                failAll();
+            } else if (!channel.isWritable()) {
+                if (++notWritableTimes > NettyClientConfig.getMaxNotWriteableRetry()) {
+                    LOGGER.error("channel {} is not writable, fail the merged requests.", channel);
+                    notWritableTimes = 0;
+                    failAll();
+                    remoting.destroyChannel(channel);
+                } else {
+                    channel.eventLoop().schedule(this, NOT_WRITEABLE_CHECK_MILLS, TimeUnit.MILLISECONDS);
+                    return;
+                }
+            } else {
+                notWritableTimes = 0;
+                sendBatch();
+                if (!queue.isEmpty()) {
+                    // a full batch sent, let the loop write it before the next
+                    channel.eventLoop().execute(this);
+                    return;
+                }
+            }
+            scheduled.set(false);
+            // an offer between the last poll and the flag found it set
+            if (!queue.isEmpty() && scheduled.compareAndSet(false, true)) {
+                channel.eventLoop().execute(this);
+            }
+        }
+
+        private void sendBatch() {
+            long now = System.nanoTime();
+            MergedWarpMessage mergeMessage = new MergedWarpMessage();
+            Entry entry;
+            while (mergeMessage.msgIds.size() < maxBatchSize && (entry = queue.poll()) != null) {
+                mergeMessage.msgs.add((AbstractMessage)entry.rpcMessage.getBody());
+                mergeMessage.msgIds.add(entry.rpcMessage.getId());
+                waitMicros.record(TimeUnit.NANOSECONDS.toMicros(now - entry.offerNanos));
+            }
+            if (mergeMessage.msgIds.isEmpty()) {
+                return;
+            }
+            batchSizes.record(mergeMessage.msgIds.size());
+
+            RpcMessage rpcMessage = new RpcMessage();
+            rpcMessage.setMessageType(ProtocolConstants.MSGTYPE_RESQUEST);
+            rpcMessage.setCodec(ProtocolConstants.CONFIGURED_CODEC);
+            rpcMessage.setCompressor(ProtocolConstants.CONFIGURED_COMPRESSOR);
+            rpcMessage.setBody(mergeMessage);
+            rpcMessage.setId(remoting.getNextMessageId());
+            remoting.mergeMsgMap.put(rpcMessage.getId(), mergeMessage);
+            if (LOGGER.isDebugEnabled()) {
+                LOGGER.debug("merge msg size:{}, channel:{}", mergeMessage.msgIds.size(), channel);
+            }
+            channel.writeAndFlush(rpcMessage).addListener(future -> {
+                if (!future.isSuccess()) {
+                    LOGGER.error("client merge call failed: {}", future.cause().getMessage(), future.cause());
+                    remoting.mergeMsgMap.remove(rpcMessage.getId());
+                    // fast fail
+                    for (Integer msgId : mergeMessage.msgIds) {
+                        fail(msgId);
+                    }
+                    remoting.destroyChannel(channel);
+                }
+            });
+        }
+
+        private void failAll() {
+            Entry entry;
+            while ((entry = queue.poll()) != null) {
+                fail(entry.rpcMessage.getId());
+            }
+        }
+    }
+}
@@ -0,0 +1,206 @@
+/*
+ *  Copyright 1999-2019 Seata.io Group.
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+package io.seata.core.rpc.netty;
+
+import io.seata.core.protocol.MessageFuture;
+
+/**
+ * The futures of the requests in flight by message id, without boxing the ids nor an entry object per request.
+ * <p>
+ * The ids are spread over segments, each an open addressing table of int keys locked on its own, so concurrent
+ * senders and event loops rarely meet on a lock. Removal shifts the following entries back instead of leaving
+ * tombstones, and a segment shrinks again once the requests drain, so its memory follows the requests in flight.
+ */
+public class MessageFutureTable {
+
+    private static final int SEGMENT_BITS = 6;
+
+    private static final int SEGMENTS = 1 << SEGMENT_BITS;
+
+    private static final int MIN_CAPACITY = 16;
+
+    private final Segment[] segments = new Segment[SEGMENTS];
+
+    /**
+     * Instantiates a new Message future table.
+     */
+    public MessageFutureTable() {
+        for (int i = 0; i < SEGMENTS; i++) {
+            segments[i] = new Segment();
+        }
+    }
+
+    /**
+     * Put a future.
+     *
+     * @param id     the message id
+     * @param future the future
+     * @return the future replaced, or null
+     */
+    public MessageFuture put(int id, MessageFuture future) {
+        if (future == null) {
+            throw new NullPointerException("future is null");
+        }
+        int hash = hash(id);
+        return segments[hash & (SEGMENTS - 1)].put(id, hash >>> SEGMENT_BITS, future);
+    }
+
+    /**
+     * Get a future.
+     *
+     * @param id the message id
+     * @return the future, or null
+     */
+    public MessageFuture get(int id) {
+        int hash = hash(id);
+        return segments[hash & (SEGMENTS - 1)].get(id, hash >>> SEGMENT_BITS);
+    }
+
+    /**
+     * Remove a future.
+     *
+     * @param id the message id
+     * @return the future removed, or null
+     */
+    public MessageFuture remove(int id) {
+        int hash = hash(id);
+        return segments[hash & (SEGMENTS - 1)].remove(id, hash >>> SEGMENT_BITS, null);
+    }
+
+    /**
+     * Remove a future if it is the one given.
+     *
+     * @param id     the message id
+     * @param future the future
+     * @return true if removed
+     */
+    public boolean remove(int id, MessageFuture future) {
+        int hash = hash(id);
+        return segments[hash & (SEGMENTS - 1)].remove(id, hash >>> SEGMENT_BITS, future) != null;
+    }
+
+    /**
+     * Gets the count of the futures.
+     *
+     * @return the size
+     */
+    public int size() {
+        int size = 0;
+        for (Segment segment : segments) {
+            size += segment.size();
+        }
+        return size;
+    }
+
+    private static int hash(int id) {
+        int h = id * 0x9E3779B9;
+        return h ^ (h >>> 16);
+    }
+
+    private static final class Segment {
+
+        private int[] keys = new int[MIN_CAPACITY];
+
+        private MessageFuture[] values = new MessageFuture[MIN_CAPACITY];
+
+        private int size;
+
+        synchronized MessageFuture put(int id, int hash, MessageFuture future) {
+            int mask = values.length - 1;
+            int i = hash & mask;
+            while (values[i] != null) {
+                if (keys[i] == id) {
+                    MessageFuture old = values[i];
+                    values[i] = future;
+                    return old;
+                }
+                i = (i + 1) & mask;
+            }
+            keys[i] = id;
+            values[i] = future;
+            if (++size * 2 > values.length) {
+                resize(values.length << 1);
+            }
+            return null;
+        }
+
+        synchronized MessageFuture get(int id, int hash) {
+            int mask = values.length - 1;
+            for (int i = hash & mask; values[i] != null; i = (i + 1) & mask) {
+                if (keys[i] == id) {
+                    return values[i];
+                }
+            }
+            return null;
+        }
+
+        synchronized MessageFuture remove(int id, int hash, MessageFuture expected) {
+            int mask = values.length - 1;
+            int i = hash & mask;
+            while (values[i] != null && keys[i] != id) {
+                i = (i + 1) & mask;
+            }
+            MessageFuture removed = values[i];
+            if (removed == null || (expected != null && removed != expected)) {
+                return null;
+            }
+            values[i] = null;
+            size--;
+            // shift back the entries probing past the freed slot
+            int j = i;
+            while (true) {
+                j = (j + 1) & mask;
+                if (values[j] == null) {
+                    break;
+                }
+                int home = hash(keys[j]) >>> SEGMENT_BITS & mask;
+                boolean between = i <= j ? i < home && home <= j : i < home || home <= j;
+                if (!between) {
+                    keys[i] = keys[j];
+                    values[i] = values[j];
+                    values[j] = null;
+                    i = j;
+                }
+            }
+            if (values.length > MIN_CAPACITY && size * 8 < values.length) {
+                resize(values.length >>> 1);
+            }
+            return removed;
+        }
+
+        synchronized int size() {
+            return size;
+        }
+
+        private void resize(int capacity) {
+            int[] oldKeys = keys;
+            MessageFuture[] oldValues = values;
+            keys = new int[capacity];
+            values = new MessageFuture[capacity];
+            int mask = capacity - 1;
+            for (int k = 0; k < oldValues.length; k++) {
+                if (oldValues[k] != null) {
+                    int i = hash(oldKeys[k]) >>> SEGMENT_BITS & mask;
+                    while (values[i] != null) {
+                        i = (i + 1) & mask;
+                    }
+                    keys[i] = oldKeys[k];
+                    values[i] = oldValues[k];
+                }
+            }
+        }
+    }
+}
@@ -47,6 +47,7 @@ public class NettyClientConfig extends NettyBaseConfig {
     private static final String DEFAULT_SELECTOR_THREAD_PREFIX = "NettyClientSelector";
     private static final String DEFAULT_WORKER_THREAD_PREFIX = "NettyClientWorkerThread";
     private static final String RPC_DISPATCH_THREAD_PREFIX = "rpcDispatch";
+    private static final int DEFAULT_MAX_MERGE_BATCH_SIZE = 128;
     private static final int DEFAULT_MAX_POOL_ACTIVE = 1;
     private static final int DEFAULT_MIN_POOL_IDLE = 0;
     private static final boolean DEFAULT_POOL_TEST_BORROW = true;
@@ -336,6 +337,15 @@ public class NettyClientConfig extends NettyBaseConfig {
         return SOCKET_ADDRESS_START_CHAR;
     }
 
+    /**
+     * Gets the max requests merged into one message.
+     *
+     * @return the max merge batch size
+     */
+    public static int getMaxMergeBatchSize() {
+        return CONFIG.getInt("transport.merge.max-batch-size", DEFAULT_MAX_MERGE_BATCH_SIZE);
+    }
+
     /**
      * Gets client selector thread size.
      *
@@ -49,6 +49,9 @@ public class NettyServerConfig extends NettyBaseConfig {
      * Shutdown timeout default 1s
      */
     private static final int DEFAULT_SHUTDOWN_TIMEOUT_SEC = 3;
+    private static final int DEFAULT_MERGED_DISPATCH_PARALLELISM = 8;
+    private static final int DEFAULT_ADMISSION_MIN_LIMIT = 20;
+    private static final int DEFAULT_ADMISSION_MAX_LIMIT = 5000;
 
     /**
      * The Server channel clazz.
@@ -301,6 +304,42 @@ public class NettyServerConfig extends NettyBaseConfig {
         return CONFIG.getInt("transport.thread-factory.boss-thread-size", DEFAULT_BOSS_THREAD_SIZE);
     }
 
+    /**
+     * Get the max threads handling the sub messages of one merged message, 1 handles them serially.
+     *
+     * @return the int
+     */
+    public static int getMergedDispatchParallelism() {
+        return CONFIG.getInt("transport.merged-dispatch.parallelism", DEFAULT_MERGED_DISPATCH_PARALLELISM);
+    }
+
+    /**
+     * Whether the transaction requests are admitted by an adaptive concurrency limit.
+     *
+     * @return the boolean
+     */
+    public static boolean enableAdmission() {
+        return CONFIG.getBoolean("transport.admission.enable", false);
+    }
+
+    /**
+     * Get the min concurrency limit of admission.
+     *
+     * @return the int
+     */
+    public static int getAdmissionMinLimit() {
+        return CONFIG.getInt("transport.admission.min-limit", DEFAULT_ADMISSION_MIN_LIMIT);
+    }
+
+    /**
+     * Get the max concurrency limit of admission.
+     *
+     * @return the int
+     */
+    public static int getAdmissionMaxLimit() {
+        return CONFIG.getInt("transport.admission.max-limit", DEFAULT_ADMISSION_MAX_LIMIT);
+    }
+
     /**
      * Get the timeout seconds of shutdown.
      *
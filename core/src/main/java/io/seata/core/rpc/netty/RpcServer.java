@@ -20,8 +20,14 @@ import io.netty.channel.ChannelHandler.Sharable;
 import io.netty.channel.ChannelHandlerContext;
 import io.netty.handler.timeout.IdleState;
 import io.netty.handler.timeout.IdleStateEvent;
+import io.seata.common.exception.FrameworkErrorCode;
 import io.seata.common.util.NetUtil;
+import io.seata.core.protocol.AbstractMessage;
+import io.seata.core.protocol.AbstractResultMessage;
 import io.seata.core.protocol.HeartbeatMessage;
+import io.seata.core.protocol.MergeResultMessage;
+import io.seata.core.protocol.MergedWarpMessage;
+import io.seata.core.protocol.ProtocolConstants;
 import io.seata.core.protocol.RegisterRMRequest;
 import io.seata.core.protocol.RegisterTMRequest;
 import io.seata.core.protocol.RpcMessage;
@@ -35,6 +41,9 @@ import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
 import java.io.IOException;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.RejectedExecutionException;
 import java.util.concurrent.ThreadPoolExecutor;
 import java.util.concurrent.TimeoutException;
 
@@ -55,6 +64,7 @@ public class RpcServer extends AbstractRpcRemotingServer implements ServerMessag
 
     private TransactionMessageHandler transactionMessageHandler;
     private RegisterCheckAuthHandler checkAuthHandler;
+    private AdmissionController admissionController;
 
     /**
      * Sets transactionMessageHandler.
@@ -84,6 +94,29 @@ public class RpcServer extends AbstractRpcRemotingServer implements ServerMessag
      */
     public RpcServer(ThreadPoolExecutor messageExecutor) {
         super(new NettyServerConfig(), messageExecutor);
+        if (NettyServerConfig.enableAdmission()) {
+            this.admissionController = new AdmissionController(new ConcurrencyLimit(
+                messageExecutor.getMaximumPoolSize(), NettyServerConfig.getAdmissionMinLimit(),
+                NettyServerConfig.getAdmissionMaxLimit()));
+        }
+    }
+
+    /**
+     * Gets admission controller.
+     *
+     * @return the admission controller, null if admission is disabled
+     */
+    public AdmissionController getAdmissionController() {
+        return admissionController;
+    }
+
+    /**
+     * Sets admission controller.
+     *
+     * @param admissionController the admission controller, null to admit all requests
+     */
+    public void setAdmissionController(AdmissionController admissionController) {
+        this.admissionController = admissionController;
     }
 
     /**
@@ -126,6 +159,7 @@ public class RpcServer extends AbstractRpcRemotingServer implements ServerMessag
             transactionMessageHandler);
         defaultServerMessageListenerImpl.init();
         defaultServerMessageListenerImpl.setServerMessageSender(this);
+        defaultServerMessageListenerImpl.setMergedMessageExecutor(messageExecutor);
         this.setServerMessageListener(defaultServerMessageListenerImpl);
         super.start();
 
@@ -364,10 +398,96 @@ public class RpcServer extends AbstractRpcRemotingServer implements ServerMessag
                 serverMessageListener.onCheckMessage(rpcMessage, ctx, this);
                 return;
             }
+            if (admissionController != null && rpcMessage.getBody() instanceof MergedWarpMessage
+                && (rpcMessage.getMessageType() == ProtocolConstants.MSGTYPE_RESQUEST
+                || rpcMessage.getMessageType() == ProtocolConstants.MSGTYPE_RESQUEST_ONEWAY)) {
+                admit(ctx, rpcMessage);
+                return;
+            }
         }
         super.channelRead(ctx, msg);
     }
 
+    private void admit(ChannelHandlerContext ctx, RpcMessage rpcMessage) {
+        List<AbstractMessage> msgs = ((MergedWarpMessage)rpcMessage.getBody()).msgs;
+        AdmissionController.Permit[] permits = admissionController.tryAcquireEach(
+            (MergedWarpMessage)rpcMessage.getBody());
+        AbstractResultMessage[] answered = null;
+        boolean admitted = permits.length == 0;
+        for (int i = 0; i < permits.length; i++) {
+            if (permits[i] != null) {
+                admitted = true;
+                continue;
+            }
+            if (answered == null) {
+                answered = new AbstractResultMessage[permits.length];
+            }
+            answered[i] = admissionController.busyResponse(msgs.get(i));
+        }
+        if (!admitted) {
+            // answered on the io thread, the request never reaches the queue
+            sendBusyResponse(ctx, rpcMessage, answered);
+            return;
+        }
+        final AbstractResultMessage[] rejected = answered;
+        try {
+            messageExecutor.execute(() -> {
+                CompletableFuture<Void> done;
+                try {
+                    done = dispatchMerged(rpcMessage, ctx, rejected);
+                } catch (Throwable th) {
+                    LOGGER.error(FrameworkErrorCode.NetDispatch.getErrCode(), th.getMessage(), th);
+                    done = CompletableFuture.completedFuture(null);
+                }
+                // a branch register waiting for a global lock stays in flight until it is answered
+                done.whenComplete((v, ex) -> release(permits));
+            });
+        } catch (RejectedExecutionException e) {
+            release(permits);
+            LOGGER.error(FrameworkErrorCode.ThreadPoolFull.getErrCode(),
+                "thread pool is full, current max pool size is " + messageExecutor.getActiveCount());
+            AbstractResultMessage[] busy = new AbstractResultMessage[msgs.size()];
+            for (int i = 0; i < busy.length; i++) {
+                busy[i] = admissionController.busyResponse(msgs.get(i));
+            }
+            sendBusyResponse(ctx, rpcMessage, busy);
+        }
+    }
+
+    private CompletableFuture<Void> dispatchMerged(RpcMessage request, ChannelHandlerContext ctx,
+                                                   AbstractResultMessage[] answered) {
+        if (!ChannelManager.isRegistered(ctx.channel())) {
+            // closes the channel
+            dispatch(request, ctx);
+            return CompletableFuture.completedFuture(null);
+        }
+        return serverMessageListener.onMergedMessage(request, ctx, this, answered);
+    }
+
+    private static void sendBusyResponse(ChannelHandlerContext ctx, RpcMessage request,
+                                         AbstractResultMessage[] results) {
+        if (request.getMessageType() != ProtocolConstants.MSGTYPE_RESQUEST) {
+            return;
+        }
+        MergeResultMessage resultMessage = new MergeResultMessage();
+        resultMessage.setMsgs(results);
+        RpcMessage response = new RpcMessage();
+        response.setMessageType(ProtocolConstants.MSGTYPE_RESPONSE);
+        response.setCodec(request.getCodec());
+        response.setCompressor(request.getCompressor());
+        response.setBody(resultMessage);
+        response.setId(request.getId());
+        ctx.channel().writeAndFlush(response);
+    }
+
+    private static void release(AdmissionController.Permit[] permits) {
+        for (AdmissionController.Permit permit : permits) {
+            if (permit != null) {
+                permit.release();
+            }
+        }
+    }
+
     /**
      * Exception caught.
      *
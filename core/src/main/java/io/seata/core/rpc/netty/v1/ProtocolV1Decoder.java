@@ -20,6 +20,9 @@ import io.netty.channel.ChannelHandlerContext;
 import io.netty.handler.codec.LengthFieldBasedFrameDecoder;
 import io.seata.core.codec.Codec;
 import io.seata.core.codec.CodecFactory;
+import io.seata.core.codec.CompressorType;
+import io.seata.core.compressor.Compressor;
+import io.seata.core.compressor.CompressorFactory;
 import io.seata.core.protocol.HeartbeatMessage;
 import io.seata.core.protocol.ProtocolConstants;
 import io.seata.core.protocol.RpcMessage;
@@ -48,6 +51,7 @@ import java.util.Map;
  * <li>Full Length: include all data </li>
  * <li>Head Length: include head data from magic code to head map. </li>
  * <li>Body Length: Full Length - Head Length</li>
+ * <li>Compress: the compressor of the body, none if the body is shorter than the threshold or does not shrink</li>
  * </p>
  * https://github.com/seata/seata/issues/893
  *
@@ -130,10 +134,16 @@ public class ProtocolV1Decoder extends LengthFieldBasedFrameDecoder {
         } else {
             int bodyLength = fullLength - headLength;
             if (bodyLength > 0) {
-                byte[] bs = new byte[bodyLength];
-                frame.readBytes(bs);
                 Codec codec = CodecFactory.getCodec(codecType);
-                rpcMessage.setBody(codec.decode(bs));
+                if (compressor == CompressorType.NONE.getCode()) {
+                    // direct read body with zero-copy
+                    rpcMessage.setBody(codec.decode(frame.readSlice(bodyLength)));
+                } else {
+                    byte[] bs = new byte[bodyLength];
+                    frame.readBytes(bs);
+                    Compressor bodyCompressor = CompressorFactory.getCompressor(compressor);
+                    rpcMessage.setBody(codec.decode(bodyCompressor.decompress(bs)));
+                }
             }
         }
 
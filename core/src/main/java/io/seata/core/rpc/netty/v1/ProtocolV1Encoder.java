@@ -20,6 +20,9 @@ import io.netty.channel.ChannelHandlerContext;
 import io.netty.handler.codec.MessageToByteEncoder;
 import io.seata.core.codec.Codec;
 import io.seata.core.codec.CodecFactory;
+import io.seata.core.codec.CompressorType;
+import io.seata.core.compressor.Compressor;
+import io.seata.core.compressor.CompressorFactory;
 import io.seata.core.protocol.ProtocolConstants;
 import io.seata.core.protocol.RpcMessage;
 import org.slf4j.Logger;
@@ -47,6 +50,7 @@ import java.util.Map;
  * <li>Full Length: include all data </li>
  * <li>Head Length: include head data from magic code to head map. </li>
  * <li>Body Length: Full Length - Head Length</li>
+ * <li>Compress: the compressor of the body, none if the body is shorter than the threshold or does not shrink</li>
  * </p>
  * https://github.com/seata/seata/issues/893
  *
@@ -58,13 +62,28 @@ public class ProtocolV1Encoder extends MessageToByteEncoder {
 
     private static final Logger LOGGER = LoggerFactory.getLogger(ProtocolV1Encoder.class);
 
+    /**
+     * magic code(2B) + version(1B) + full length(4B) + head length(2B) + type(1B) + codec(1B)
+     */
+    private static final int COMPRESSOR_OFFSET = 11;
+
+    private final int compressThreshold;
+
+    public ProtocolV1Encoder() {
+        this(ProtocolConstants.CONFIGURED_COMPRESSOR_THRESHOLD);
+    }
+
+    public ProtocolV1Encoder(int compressThreshold) {
+        this.compressThreshold = compressThreshold;
+    }
+
     @Override
     public void encode(ChannelHandlerContext ctx, Object msg, ByteBuf out) {
+        int frameStart = out.writerIndex();
         try {
             if (msg instanceof RpcMessage) {
                 RpcMessage rpcMessage = (RpcMessage) msg;
 
-                int fullLength = ProtocolConstants.V1_HEAD_LENGTH;
                 int headLength = ProtocolConstants.V1_HEAD_LENGTH;
 
                 byte messageType = rpcMessage.getMessageType();
@@ -82,34 +101,50 @@ public class ProtocolV1Encoder extends MessageToByteEncoder {
                 if (headMap != null && !headMap.isEmpty()) {
                     int headMapBytesLength = HeadMapSerializer.getInstance().encode(headMap, out);
                     headLength += headMapBytesLength;
-                    fullLength += headMapBytesLength;
                 }
 
-                byte[] bodyBytes = null;
                 if (messageType != ProtocolConstants.MSGTYPE_HEARTBEAT_REQUEST
                         && messageType != ProtocolConstants.MSGTYPE_HEARTBEAT_RESPONSE) {
                     // heartbeat has no body
+                    // direct write body with zero-copy
                     Codec codec = CodecFactory.getCodec(rpcMessage.getCodec());
-                    bodyBytes = codec.encode(rpcMessage.getBody());
-                    fullLength += bodyBytes.length;
-                }
-
-                if (bodyBytes != null) {
-                    out.writeBytes(bodyBytes);
+                    int bodyStart = out.writerIndex();
+                    codec.encode(rpcMessage.getBody(), out);
+                    if (rpcMessage.getCompressor() != CompressorType.NONE.getCode()) {
+                        compressBody(rpcMessage.getCompressor(), out, frameStart, bodyStart);
+                    }
                 }
 
                 // fix fullLength and headLength
                 int writeIndex = out.writerIndex();
                 // skip magic code(2B) + version(1B)
-                out.writerIndex(writeIndex - fullLength + 3);
-                out.writeInt(fullLength);
+                out.writerIndex(frameStart + 3);
+                out.writeInt(writeIndex - frameStart);
                 out.writeShort(headLength);
                 out.writerIndex(writeIndex);
             } else {
                 throw new UnsupportedOperationException("Not support this class:" + msg.getClass());
             }
         } catch (Throwable e) {
+            // drop the part of the frame written
+            out.writerIndex(frameStart);
             LOGGER.error("Encode request error!", e);
         }
     }
+
+    private void compressBody(byte compressorCode, ByteBuf out, int frameStart, int bodyStart) {
+        int bodyLength = out.writerIndex() - bodyStart;
+        if (bodyLength >= compressThreshold) {
+            byte[] body = new byte[bodyLength];
+            out.getBytes(bodyStart, body);
+            Compressor compressor = CompressorFactory.getCompressor(compressorCode);
+            byte[] compressed = compressor.compress(body);
+            if (compressed.length < bodyLength) {
+                out.writerIndex(bodyStart);
+                out.writeBytes(compressed);
+                return;
+            }
+        }
+        out.setByte(frameStart + COMPRESSOR_OFFSET, CompressorType.NONE.getCode());
+    }
 }
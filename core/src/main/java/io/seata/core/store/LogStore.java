@@ -16,6 +16,7 @@
 package io.seata.core.store;
 
 
+import java.util.Date;
 import java.util.List;
 
 /**
@@ -51,6 +52,18 @@ public interface LogStore {
      */
     List<GlobalTransactionDO> queryGlobalTransactionDO(int[] status, int limit);
 
+    /**
+     * Query a page of global transactions by status, ordered by (gmt_modified, xid), after a cursor.
+     *
+     * @param status           the status
+     * @param afterGmtModified the gmt_modified of the cursor, null for the first page
+     * @param afterXid         the xid of the cursor
+     * @param limit            the limit
+     * @return the list
+     */
+    List<GlobalTransactionDO> queryGlobalTransactionDO(int[] status, Date afterGmtModified, String afterXid,
+                                                       int limit);
+
     /**
      * Insert global transaction do boolean.
      *
@@ -83,6 +96,14 @@ public interface LogStore {
      */
     List<BranchTransactionDO> queryBranchTransactionDO(String xid);
 
+    /**
+     * Query the branch transactions of some global transactions.
+     *
+     * @param xids the xids
+     * @return the list
+     */
+    List<BranchTransactionDO> queryBranchTransactionDO(List<String> xids);
+
     /**
      * Insert branch transaction do boolean.
      *
@@ -107,4 +128,15 @@ public interface LogStore {
      */
     boolean deleteBranchTransactionDO(BranchTransactionDO branchTransactionDO);
 
+    /**
+     * Write the rows in one transaction, the writes of one row in the given order.
+     *
+     * @param operations the operations
+     */
+    default void writeBatch(List<LogStoreOperation> operations) {
+        for (LogStoreOperation operation : operations) {
+            operation.applyTo(this);
+        }
+    }
+
 }
@@ -0,0 +1,175 @@
+/*
+ *  Copyright 1999-2019 Seata.io Group.
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+package io.seata.core.store;
+
+/**
+ * A write of one global or branch transaction row, for {@link LogStore#writeBatch(java.util.List)}.
+ */
+public class LogStoreOperation {
+
+    private final Type type;
+
+    private final GlobalTransactionDO globalTransactionDO;
+
+    private final BranchTransactionDO branchTransactionDO;
+
+    private LogStoreOperation(Type type, GlobalTransactionDO globalTransactionDO,
+                              BranchTransactionDO branchTransactionDO) {
+        this.type = type;
+        this.globalTransactionDO = globalTransactionDO;
+        this.branchTransactionDO = branchTransactionDO;
+    }
+
+    /**
+     * A write of a global transaction row.
+     *
+     * @param type                the type, one of the GLOBAL types
+     * @param globalTransactionDO the global transaction do
+     * @return the log store operation
+     */
+    public static LogStoreOperation global(Type type, GlobalTransactionDO globalTransactionDO) {
+        if (!type.isGlobal()) {
+            throw new IllegalArgumentException("not a global operation:" + type);
+        }
+        return new LogStoreOperation(type, globalTransactionDO, null);
+    }
+
+    /**
+     * A write of a branch transaction row.
+     *
+     * @param type                the type, one of the BRANCH types
+     * @param branchTransactionDO the branch transaction do
+     * @return the log store operation
+     */
+    public static LogStoreOperation branch(Type type, BranchTransactionDO branchTransactionDO) {
+        if (type.isGlobal()) {
+            throw new IllegalArgumentException("not a branch operation:" + type);
+        }
+        return new LogStoreOperation(type, null, branchTransactionDO);
+    }
+
+    /**
+     * Write this row alone.
+     *
+     * @param logStore the log store
+     * @return the boolean
+     */
+    public boolean applyTo(LogStore logStore) {
+        switch (type) {
+            case GLOBAL_INSERT:
+                return logStore.insertGlobalTransactionDO(globalTransactionDO);
+            case GLOBAL_UPDATE:
+                return logStore.updateGlobalTransactionDO(globalTransactionDO);
+            case GLOBAL_DELETE:
+                return logStore.deleteGlobalTransactionDO(globalTransactionDO);
+            case BRANCH_INSERT:
+                return logStore.insertBranchTransactionDO(branchTransactionDO);
+            case BRANCH_UPDATE:
+                return logStore.updateBranchTransactionDO(branchTransactionDO);
+            case BRANCH_DELETE:
+                return logStore.deleteBranchTransactionDO(branchTransactionDO);
+            default:
+                throw new IllegalStateException("Unknown type:" + type);
+        }
+    }
+
+    /**
+     * The key of the row written, writes of one row must be applied in order.
+     *
+     * @return the row key
+     */
+    public String getRowKey() {
+        return type.isGlobal() ? globalTransactionDO.getXid()
+            : branchTransactionDO.getXid() + "#" + branchTransactionDO.getBranchId();
+    }
+
+    /**
+     * Gets type.
+     *
+     * @return the type
+     */
+    public Type getType() {
+        return type;
+    }
+
+    /**
+     * Gets global transaction do.
+     *
+     * @return the global transaction do
+     */
+    public GlobalTransactionDO getGlobalTransactionDO() {
+        return globalTransactionDO;
+    }
+
+    /**
+     * Gets branch transaction do.
+     *
+     * @return the branch transaction do
+     */
+    public BranchTransactionDO getBranchTransactionDO() {
+        return branchTransactionDO;
+    }
+
+    @Override
+    public String toString() {
+        return type + " " + getRowKey();
+    }
+
+    /**
+     * The type of a write.
+     */
+    public enum Type {
+        /**
+         * Global insert.
+         */
+        GLOBAL_INSERT(true),
+        /**
+         * Global update.
+         */
+        GLOBAL_UPDATE(true),
+        /**
+         * Global delete.
+         */
+        GLOBAL_DELETE(true),
+        /**
+         * Branch insert.
+         */
+        BRANCH_INSERT(false),
+        /**
+         * Branch update.
+         */
+        BRANCH_UPDATE(false),
+        /**
+         * Branch delete.
+         */
+        BRANCH_DELETE(false);
+
+        private final boolean global;
+
+        Type(boolean global) {
+            this.global = global;
+        }
+
+        /**
+         * Is global boolean.
+         *
+         * @return the boolean
+         */
+        public boolean isGlobal() {
+            return global;
+        }
+    }
+}
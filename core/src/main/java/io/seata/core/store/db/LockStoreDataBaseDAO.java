@@ -15,10 +15,13 @@
  */
 package io.seata.core.store.db;
 
+import java.sql.BatchUpdateException;
 import java.sql.Connection;
 import java.sql.PreparedStatement;
 import java.sql.ResultSet;
 import java.sql.SQLException;
+import java.sql.SQLIntegrityConstraintViolationException;
+import java.sql.Statement;
 import java.util.Collections;
 import java.util.HashSet;
 import java.util.List;
@@ -58,6 +61,8 @@ public class LockStoreDataBaseDAO implements LockStore, Initialize {
      */
     protected static final Configuration CONFIG = ConfigurationFactory.getInstance();
 
+    private static final int DEFAULT_LOCK_BATCH_SIZE = 1000;
+
     /**
      * The Log store data source.
      */
@@ -73,6 +78,11 @@ public class LockStoreDataBaseDAO implements LockStore, Initialize {
      */
     protected String dbType;
 
+    /**
+     * The max rows inserted by one jdbc batch.
+     */
+    protected int lockBatchSize = DEFAULT_LOCK_BATCH_SIZE;
+
     /**
      * Instantiates a new Data base lock store dao.
      *
@@ -86,6 +96,7 @@ public class LockStoreDataBaseDAO implements LockStore, Initialize {
     public void init() {
         lockTable = CONFIG.getConfig(ConfigurationKeys.LOCK_DB_TABLE, ConfigurationKeys.LOCK_DB_DEFAULT_TABLE);
         dbType = CONFIG.getConfig(ConfigurationKeys.STORE_DB_TYPE);
+        lockBatchSize = Math.max(1, CONFIG.getInt(ConfigurationKeys.LOCK_DB_BATCH_SIZE, DEFAULT_LOCK_BATCH_SIZE));
         if (StringUtils.isBlank(dbType)) {
             throw new StoreException("there must be db type.");
         }
@@ -161,7 +172,8 @@ public class LockStoreDataBaseDAO implements LockStore, Initialize {
             }
 
             //lock
-            for (LockDO lockDO : unrepeatedLockDOs) {
+            if (unrepeatedLockDOs.size() == 1) {
+                LockDO lockDO = unrepeatedLockDOs.get(0);
                 if (!doAcquireLock(conn, lockDO)) {
                     if (LOGGER.isInfoEnabled()) {
                         LOGGER.info("Global lock acquire failed, xid {} branchId {} pk {}", lockDO.getXid(),
@@ -170,6 +182,9 @@ public class LockStoreDataBaseDAO implements LockStore, Initialize {
                     conn.rollback();
                     return false;
                 }
+            } else if (!doAcquireLocks(conn, unrepeatedLockDOs)) {
+                conn.rollback();
+                return false;
             }
             conn.commit();
             return true;
@@ -301,6 +316,90 @@ public class LockStoreDataBaseDAO implements LockStore, Initialize {
         }
     }
 
+    /**
+     * Insert the locks by jdbc batches of at most lockBatchSize rows, in the transaction of the connection.
+     *
+     * @param conn    the conn
+     * @param lockDOs the lock do
+     * @return false if a row is locked by another transaction meanwhile
+     */
+    protected boolean doAcquireLocks(Connection conn, List<LockDO> lockDOs) {
+        PreparedStatement ps = null;
+        int batchStart = 0;
+        try {
+            //insert
+            String insertLockSQL = LockStoreSqls.getInsertLockSQL(lockTable, dbType);
+            ps = conn.prepareStatement(insertLockSQL);
+            while (batchStart < lockDOs.size()) {
+                int batchEnd = Math.min(batchStart + lockBatchSize, lockDOs.size());
+                for (int i = batchStart; i < batchEnd; i++) {
+                    LockDO lockDO = lockDOs.get(i);
+                    ps.setString(1, lockDO.getXid());
+                    ps.setLong(2, lockDO.getTransactionId());
+                    ps.setLong(3, lockDO.getBranchId());
+                    ps.setString(4, lockDO.getResourceId());
+                    ps.setString(5, lockDO.getTableName());
+                    ps.setString(6, lockDO.getPk());
+                    ps.setString(7, lockDO.getRowKey());
+                    ps.addBatch();
+                }
+                ps.executeBatch();
+                batchStart = batchEnd;
+            }
+            return true;
+        } catch (BatchUpdateException e) {
+            if (!isConstraintViolation(e)) {
+                throw new StoreException(e);
+            }
+            if (LOGGER.isInfoEnabled()) {
+                LockDO conflict = findConflict(lockDOs, batchStart, e.getUpdateCounts());
+                LOGGER.info("Global lock acquire failed, xid {} branchId {} rows {}, conflict on {}:{} row key {}",
+                    conflict.getXid(), conflict.getBranchId(), lockDOs.size(), conflict.getTableName(),
+                    conflict.getPk(), conflict.getRowKey());
+            }
+            return false;
+        } catch (SQLException e) {
+            throw new StoreException(e);
+        } finally {
+            if (ps != null) {
+                try {
+                    ps.close();
+                } catch (SQLException e) {
+                }
+            }
+        }
+    }
+
+    /**
+     * Whether the exception, or one chained to it, is an integrity constraint violation, sql state class 23.
+     */
+    private static boolean isConstraintViolation(SQLException e) {
+        for (SQLException ex = e; ex != null; ex = ex.getNextException()) {
+            if (ex instanceof SQLIntegrityConstraintViolationException
+                || (ex.getSQLState() != null && ex.getSQLState().startsWith("23"))) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * The row of the batch the insert failed on. Drivers either stop at the failed row and report the counts of
+     * the rows before it, or go on and mark the failed rows with EXECUTE_FAILED.
+     */
+    private static LockDO findConflict(List<LockDO> lockDOs, int batchStart, int[] updateCounts) {
+        int failed = updateCounts == null ? 0 : updateCounts.length;
+        if (updateCounts != null) {
+            for (int i = 0; i < updateCounts.length; i++) {
+                if (updateCounts[i] == Statement.EXECUTE_FAILED) {
+                    failed = i;
+                    break;
+                }
+            }
+        }
+        return lockDOs.get(Math.min(batchStart + failed, lockDOs.size() - 1));
+    }
+
     /**
      * Check lock boolean.
      *
@@ -361,6 +460,15 @@ public class LockStoreDataBaseDAO implements LockStore, Initialize {
         this.lockTable = lockTable;
     }
 
+    /**
+     * Sets lock batch size.
+     *
+     * @param lockBatchSize the lock batch size
+     */
+    public void setLockBatchSize(int lockBatchSize) {
+        this.lockBatchSize = Math.max(1, lockBatchSize);
+    }
+
     /**
      * Sets db type.
      *
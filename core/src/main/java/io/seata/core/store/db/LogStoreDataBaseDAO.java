@@ -20,8 +20,13 @@ import java.sql.DatabaseMetaData;
 import java.sql.PreparedStatement;
 import java.sql.ResultSet;
 import java.sql.SQLException;
+import java.sql.Timestamp;
 import java.util.ArrayList;
+import java.util.Date;
+import java.util.EnumMap;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
 
 import javax.sql.DataSource;
 
@@ -37,6 +42,7 @@ import io.seata.core.constants.ServerTableColumnsName;
 import io.seata.core.store.BranchTransactionDO;
 import io.seata.core.store.GlobalTransactionDO;
 import io.seata.core.store.LogStore;
+import io.seata.core.store.LogStoreOperation;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
@@ -252,6 +258,74 @@ public class LogStoreDataBaseDAO implements LogStore, Initialize {
         }
     }
 
+    @Override
+    public List<GlobalTransactionDO> queryGlobalTransactionDO(int[] statuses, Date afterGmtModified, String afterXid,
+                                                              int limit) {
+        if (afterGmtModified == null) {
+            return queryGlobalTransactionDO(statuses, limit);
+        }
+        List<GlobalTransactionDO> ret = new ArrayList<>();
+        String sql = LogStoreSqls.getQueryGlobalTransactionSQLByStatusAfter(globalTable, dbType,
+            paramsPlaceHolder(statuses.length));
+        Timestamp cursor = afterGmtModified instanceof Timestamp ? (Timestamp)afterGmtModified
+            : new Timestamp(afterGmtModified.getTime());
+        try (Connection conn = logStoreDataSource.getConnection();
+             PreparedStatement ps = conn.prepareStatement(sql)) {
+            conn.setAutoCommit(true);
+            int index = 1;
+            for (int status : statuses) {
+                ps.setInt(index++, status);
+            }
+            ps.setTimestamp(index++, cursor);
+            ps.setTimestamp(index++, cursor);
+            ps.setString(index++, afterXid);
+            ps.setInt(index, limit);
+            try (ResultSet rs = ps.executeQuery()) {
+                while (rs.next()) {
+                    ret.add(convertGlobalTransactionDO(rs));
+                }
+            }
+            return ret;
+        } catch (SQLException e) {
+            throw new DataAccessException(e);
+        }
+    }
+
+    @Override
+    public List<BranchTransactionDO> queryBranchTransactionDO(List<String> xids) {
+        List<BranchTransactionDO> rets = new ArrayList<>();
+        if (xids.isEmpty()) {
+            return rets;
+        }
+        String sql = LogStoreSqls.getQureyBranchTransactionByXids(brachTable, dbType, paramsPlaceHolder(xids.size()));
+        try (Connection conn = logStoreDataSource.getConnection();
+             PreparedStatement ps = conn.prepareStatement(sql)) {
+            conn.setAutoCommit(true);
+            for (int i = 0; i < xids.size(); i++) {
+                ps.setString(i + 1, xids.get(i));
+            }
+            try (ResultSet rs = ps.executeQuery()) {
+                while (rs.next()) {
+                    rets.add(convertBranchTransactionDO(rs));
+                }
+            }
+            return rets;
+        } catch (SQLException e) {
+            throw new DataAccessException(e);
+        }
+    }
+
+    private static String paramsPlaceHolder(int size) {
+        StringBuilder sb = new StringBuilder(size * 3);
+        for (int i = 0; i < size; i++) {
+            if (i > 0) {
+                sb.append(", ");
+            }
+            sb.append("?");
+        }
+        return sb.toString();
+    }
+
     @Override
     public boolean insertGlobalTransactionDO(GlobalTransactionDO globalTransactionDO) {
         String sql = LogStoreSqls.getInsertGlobalTransactionSQL(globalTable, dbType);
@@ -261,18 +335,7 @@ public class LogStoreDataBaseDAO implements LogStore, Initialize {
             conn = logStoreDataSource.getConnection();
             conn.setAutoCommit(true);
             ps = conn.prepareStatement(sql);
-            ps.setString(1, globalTransactionDO.getXid());
-            ps.setLong(2, globalTransactionDO.getTransactionId());
-            ps.setInt(3, globalTransactionDO.getStatus());
-            ps.setString(4, globalTransactionDO.getApplicationId());
-            ps.setString(5, globalTransactionDO.getTransactionServiceGroup());
-            String transactionName = globalTransactionDO.getTransactionName();
-            transactionName = transactionName.length() > transactionNameColumnSize ?
-                    transactionName.substring(0, transactionNameColumnSize) : transactionName;
-            ps.setString(6, transactionName);
-            ps.setInt(7, globalTransactionDO.getTimeout());
-            ps.setLong(8, globalTransactionDO.getBeginTime());
-            ps.setString(9, globalTransactionDO.getApplicationData());
+            setParameters(ps, LogStoreOperation.Type.GLOBAL_INSERT, globalTransactionDO, null);
             return ps.executeUpdate() > 0;
         } catch (SQLException e) {
             throw new StoreException(e);
@@ -301,8 +364,7 @@ public class LogStoreDataBaseDAO implements LogStore, Initialize {
             conn = logStoreDataSource.getConnection();
             conn.setAutoCommit(true);
             ps = conn.prepareStatement(sql);
-            ps.setInt(1, globalTransactionDO.getStatus());
-            ps.setString(2, globalTransactionDO.getXid());
+            setParameters(ps, LogStoreOperation.Type.GLOBAL_UPDATE, globalTransactionDO, null);
             return ps.executeUpdate() > 0;
         } catch (SQLException e) {
             throw new StoreException(e);
@@ -331,7 +393,7 @@ public class LogStoreDataBaseDAO implements LogStore, Initialize {
             conn = logStoreDataSource.getConnection();
             conn.setAutoCommit(true);
             ps = conn.prepareStatement(sql);
-            ps.setString(1, globalTransactionDO.getXid());
+            setParameters(ps, LogStoreOperation.Type.GLOBAL_DELETE, globalTransactionDO, null);
             return ps.executeUpdate() > 0;
         } catch (SQLException e) {
             throw new StoreException(e);
@@ -396,16 +458,7 @@ public class LogStoreDataBaseDAO implements LogStore, Initialize {
             conn = logStoreDataSource.getConnection();
             conn.setAutoCommit(true);
             ps = conn.prepareStatement(sql);
-            ps.setString(1, branchTransactionDO.getXid());
-            ps.setLong(2, branchTransactionDO.getTransactionId());
-            ps.setLong(3, branchTransactionDO.getBranchId());
-            ps.setString(4, branchTransactionDO.getResourceGroupId());
-            ps.setString(5, branchTransactionDO.getResourceId());
-            ps.setString(6, branchTransactionDO.getLockKey());
-            ps.setString(7, branchTransactionDO.getBranchType());
-            ps.setInt(8, branchTransactionDO.getStatus());
-            ps.setString(9, branchTransactionDO.getClientId());
-            ps.setString(10, branchTransactionDO.getApplicationData());
+            setParameters(ps, LogStoreOperation.Type.BRANCH_INSERT, null, branchTransactionDO);
             return ps.executeUpdate() > 0;
         } catch (SQLException e) {
             throw new StoreException(e);
@@ -434,9 +487,7 @@ public class LogStoreDataBaseDAO implements LogStore, Initialize {
             conn = logStoreDataSource.getConnection();
             conn.setAutoCommit(true);
             ps = conn.prepareStatement(sql);
-            ps.setInt(1, branchTransactionDO.getStatus());
-            ps.setString(2, branchTransactionDO.getXid());
-            ps.setLong(3, branchTransactionDO.getBranchId());
+            setParameters(ps, LogStoreOperation.Type.BRANCH_UPDATE, null, branchTransactionDO);
             return ps.executeUpdate() > 0;
         } catch (SQLException e) {
             throw new StoreException(e);
@@ -465,8 +516,7 @@ public class LogStoreDataBaseDAO implements LogStore, Initialize {
             conn = logStoreDataSource.getConnection();
             conn.setAutoCommit(true);
             ps = conn.prepareStatement(sql);
-            ps.setString(1, branchTransactionDO.getXid());
-            ps.setLong(2, branchTransactionDO.getBranchId());
+            setParameters(ps, LogStoreOperation.Type.BRANCH_DELETE, null, branchTransactionDO);
             return ps.executeUpdate() > 0;
         } catch (SQLException e) {
             throw new StoreException(e);
@@ -486,6 +536,134 @@ public class LogStoreDataBaseDAO implements LogStore, Initialize {
         }
     }
 
+    /**
+     * Write the rows in one transaction. The writes are grouped into one jdbc batch per statement, a write joins
+     * the last batch of its statement unless a later batch writes the same row, so the writes of a row keep their
+     * order.
+     *
+     * @param operations the operations
+     */
+    @Override
+    public void writeBatch(List<LogStoreOperation> operations) {
+        List<List<LogStoreOperation>> batches = new ArrayList<>();
+        Map<LogStoreOperation.Type, Integer> lastBatchOfType = new EnumMap<>(LogStoreOperation.Type.class);
+        Map<String, Integer> lastBatchOfRow = new HashMap<>(operations.size() * 2);
+        for (LogStoreOperation operation : operations) {
+            Integer batchIndex = lastBatchOfType.get(operation.getType());
+            Integer rowBatchIndex = lastBatchOfRow.get(operation.getRowKey());
+            if (batchIndex == null || (rowBatchIndex != null && rowBatchIndex > batchIndex)) {
+                batchIndex = batches.size();
+                batches.add(new ArrayList<>());
+                lastBatchOfType.put(operation.getType(), batchIndex);
+            }
+            batches.get(batchIndex).add(operation);
+            lastBatchOfRow.put(operation.getRowKey(), batchIndex);
+        }
+        Connection conn = null;
+        try {
+            conn = logStoreDataSource.getConnection();
+            conn.setAutoCommit(false);
+            try {
+                for (List<LogStoreOperation> batch : batches) {
+                    LogStoreOperation.Type type = batch.get(0).getType();
+                    try (PreparedStatement ps = conn.prepareStatement(getWriteSql(type))) {
+                        for (LogStoreOperation operation : batch) {
+                            setParameters(ps, type, operation.getGlobalTransactionDO(),
+                                operation.getBranchTransactionDO());
+                            ps.addBatch();
+                        }
+                        ps.executeBatch();
+                    }
+                }
+                conn.commit();
+            } catch (SQLException e) {
+                conn.rollback();
+                throw e;
+            } finally {
+                conn.setAutoCommit(true);
+            }
+        } catch (SQLException e) {
+            throw new StoreException(e);
+        } finally {
+            if (conn != null) {
+                try {
+                    conn.close();
+                } catch (SQLException e) {
+                }
+            }
+        }
+    }
+
+    private String getWriteSql(LogStoreOperation.Type type) {
+        switch (type) {
+            case GLOBAL_INSERT:
+                return LogStoreSqls.getInsertGlobalTransactionSQL(globalTable, dbType);
+            case GLOBAL_UPDATE:
+                return LogStoreSqls.getUpdateGlobalTransactionStatusSQL(globalTable, dbType);
+            case GLOBAL_DELETE:
+                return LogStoreSqls.getDeleteGlobalTransactionSQL(globalTable, dbType);
+            case BRANCH_INSERT:
+                return LogStoreSqls.getInsertBranchTransactionSQL(brachTable, dbType);
+            case BRANCH_UPDATE:
+                return LogStoreSqls.getUpdateBranchTransactionStatusSQL(brachTable, dbType);
+            case BRANCH_DELETE:
+                return LogStoreSqls.getDeleteBranchTransactionByBranchIdSQL(brachTable, dbType);
+            default:
+                throw new StoreException("Unknown type:" + type);
+        }
+    }
+
+    private void setParameters(PreparedStatement ps, LogStoreOperation.Type type,
+                               GlobalTransactionDO globalTransactionDO, BranchTransactionDO branchTransactionDO)
+        throws SQLException {
+        switch (type) {
+            case GLOBAL_INSERT:
+                ps.setString(1, globalTransactionDO.getXid());
+                ps.setLong(2, globalTransactionDO.getTransactionId());
+                ps.setInt(3, globalTransactionDO.getStatus());
+                ps.setString(4, globalTransactionDO.getApplicationId());
+                ps.setString(5, globalTransactionDO.getTransactionServiceGroup());
+                String transactionName = globalTransactionDO.getTransactionName();
+                transactionName = transactionName.length() > transactionNameColumnSize ?
+                        transactionName.substring(0, transactionNameColumnSize) : transactionName;
+                ps.setString(6, transactionName);
+                ps.setInt(7, globalTransactionDO.getTimeout());
+                ps.setLong(8, globalTransactionDO.getBeginTime());
+                ps.setString(9, globalTransactionDO.getApplicationData());
+                break;
+            case GLOBAL_UPDATE:
+                ps.setInt(1, globalTransactionDO.getStatus());
+                ps.setString(2, globalTransactionDO.getXid());
+                break;
+            case GLOBAL_DELETE:
+                ps.setString(1, globalTransactionDO.getXid());
+                break;
+            case BRANCH_INSERT:
+                ps.setString(1, branchTransactionDO.getXid());
+                ps.setLong(2, branchTransactionDO.getTransactionId());
+                ps.setLong(3, branchTransactionDO.getBranchId());
+                ps.setString(4, branchTransactionDO.getResourceGroupId());
+                ps.setString(5, branchTransactionDO.getResourceId());
+                ps.setString(6, branchTransactionDO.getLockKey());
+                ps.setString(7, branchTransactionDO.getBranchType());
+                ps.setInt(8, branchTransactionDO.getStatus());
+                ps.setString(9, branchTransactionDO.getClientId());
+                ps.setString(10, branchTransactionDO.getApplicationData());
+                break;
+            case BRANCH_UPDATE:
+                ps.setInt(1, branchTransactionDO.getStatus());
+                ps.setString(2, branchTransactionDO.getXid());
+                ps.setLong(3, branchTransactionDO.getBranchId());
+                break;
+            case BRANCH_DELETE:
+                ps.setString(1, branchTransactionDO.getXid());
+                ps.setLong(2, branchTransactionDO.getBranchId());
+                break;
+            default:
+                throw new StoreException("Unknown type:" + type);
+        }
+    }
+
     private GlobalTransactionDO convertGlobalTransactionDO(ResultSet rs) throws SQLException {
         GlobalTransactionDO globalTransactionDO = new GlobalTransactionDO();
         globalTransactionDO.setXid(rs.getString(ServerTableColumnsName.GLOBAL_TABLE_XID));
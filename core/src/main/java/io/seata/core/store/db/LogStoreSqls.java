@@ -116,13 +116,44 @@ public class LogStoreSqls {
     public static final String QUERY_GLOBAL_TRANSACTION_BY_STATUS_MYSQL =
             "select " + ALL_GLOBAL_COLUMNS + " from " + GLOBAL_TABLE_PLACEHOLD
                     + " where " + ServerTableColumnsName.GLOBAL_TABLE_STATUS + " in (" + PRAMETER_PLACEHOLD + ")"
-                    + " order by " + ServerTableColumnsName.GLOBAL_TABLE_GMT_MODIFIED + " limit ?";
+                    + " order by " + ServerTableColumnsName.GLOBAL_TABLE_GMT_MODIFIED + ", "
+                    + ServerTableColumnsName.GLOBAL_TABLE_XID + " limit ?";
 
     public static final String QUERY_GLOBAL_TRANSACTION_BY_STATUS_ORACLE =
             "select t.* from ("
                     + "  select " + ALL_GLOBAL_COLUMNS + " from " + GLOBAL_TABLE_PLACEHOLD
                     + "  where " + ServerTableColumnsName.GLOBAL_TABLE_STATUS + " in (" + PRAMETER_PLACEHOLD + ")"
-                    + "  order by " + ServerTableColumnsName.GLOBAL_TABLE_GMT_MODIFIED + ") t"
+                    + "  order by " + ServerTableColumnsName.GLOBAL_TABLE_GMT_MODIFIED + ", "
+                    + ServerTableColumnsName.GLOBAL_TABLE_XID + ") t"
+                    + " where ROWNUM <= ?";
+
+    /**
+     * The keyset condition of the rows after a (gmt_modified, xid) cursor.
+     */
+    protected static final String GLOBAL_TRANSACTION_AFTER_CURSOR = "(" + ServerTableColumnsName.GLOBAL_TABLE_GMT_MODIFIED
+        + " > ? or (" + ServerTableColumnsName.GLOBAL_TABLE_GMT_MODIFIED + " = ? and "
+        + ServerTableColumnsName.GLOBAL_TABLE_XID + " > ?))";
+
+    /**
+     * The constant QUERY_GLOBAL_TRANSACTION_BY_STATUS_AFTER_MYSQL.
+     */
+    public static final String QUERY_GLOBAL_TRANSACTION_BY_STATUS_AFTER_MYSQL =
+            "select " + ALL_GLOBAL_COLUMNS + " from " + GLOBAL_TABLE_PLACEHOLD
+                    + " where " + ServerTableColumnsName.GLOBAL_TABLE_STATUS + " in (" + PRAMETER_PLACEHOLD + ")"
+                    + " and " + GLOBAL_TRANSACTION_AFTER_CURSOR
+                    + " order by " + ServerTableColumnsName.GLOBAL_TABLE_GMT_MODIFIED + ", "
+                    + ServerTableColumnsName.GLOBAL_TABLE_XID + " limit ?";
+
+    /**
+     * The constant QUERY_GLOBAL_TRANSACTION_BY_STATUS_AFTER_ORACLE.
+     */
+    public static final String QUERY_GLOBAL_TRANSACTION_BY_STATUS_AFTER_ORACLE =
+            "select t.* from ("
+                    + "  select " + ALL_GLOBAL_COLUMNS + " from " + GLOBAL_TABLE_PLACEHOLD
+                    + "  where " + ServerTableColumnsName.GLOBAL_TABLE_STATUS + " in (" + PRAMETER_PLACEHOLD + ")"
+                    + "  and " + GLOBAL_TRANSACTION_AFTER_CURSOR
+                    + "  order by " + ServerTableColumnsName.GLOBAL_TABLE_GMT_MODIFIED + ", "
+                    + ServerTableColumnsName.GLOBAL_TABLE_XID + ") t"
                     + " where ROWNUM <= ?";
     /**
      * The constant QUERY_GLOBAL_TRANSACTION_FOR_RECOVERY_MYSQL.
@@ -184,6 +215,12 @@ public class LogStoreSqls {
     public static final String QUREY_BRANCH_TRANSACTION = "select " + ALL_BRANCH_COLUMNS + " from "
         + BRANCH_TABLE_PLACEHOLD + " where " + ServerTableColumnsName.BRANCH_TABLE_XID + " = ?";
 
+    /**
+     * The constant QUREY_BRANCH_TRANSACTION_BY_XIDS.
+     */
+    public static final String QUREY_BRANCH_TRANSACTION_BY_XIDS = "select " + ALL_BRANCH_COLUMNS + " from "
+        + BRANCH_TABLE_PLACEHOLD + " where " + ServerTableColumnsName.BRANCH_TABLE_XID + " in (" + PRAMETER_PLACEHOLD + ")";
+
     /**
      * Get insert global transaction sql string.
      *
@@ -278,6 +315,29 @@ public class LogStoreSqls {
         }
     }
 
+    /**
+     * Get the sql of a page of global transactions by status after a (gmt_modified, xid) cursor.
+     *
+     * @param globalTable       the global table
+     * @param dbType            the db type
+     * @param paramsPlaceHolder the params place holder of the statuses
+     * @return the string
+     */
+    public static String getQueryGlobalTransactionSQLByStatusAfter(String globalTable, String dbType,
+                                                                   String paramsPlaceHolder) {
+        if (DBType.MYSQL.name().equalsIgnoreCase(dbType)
+            || DBType.OCEANBASE.name().equalsIgnoreCase(dbType)
+            || DBType.H2.name().equalsIgnoreCase(dbType)) {
+            return QUERY_GLOBAL_TRANSACTION_BY_STATUS_AFTER_MYSQL.replace(GLOBAL_TABLE_PLACEHOLD, globalTable).replace(
+                    PRAMETER_PLACEHOLD, paramsPlaceHolder);
+        } else if (DBType.ORACLE.name().equalsIgnoreCase(dbType)) {
+            return QUERY_GLOBAL_TRANSACTION_BY_STATUS_AFTER_ORACLE.replace(GLOBAL_TABLE_PLACEHOLD, globalTable).replace(
+                    PRAMETER_PLACEHOLD, paramsPlaceHolder);
+        } else {
+            throw new IllegalArgumentException("unknown database type");
+        }
+    }
+
     /**
      * Get query global transaction for recovery sql string.
      *
@@ -367,4 +427,17 @@ public class LogStoreSqls {
     public static String getQureyBranchTransaction(String branchTable, String dbType) {
         return QUREY_BRANCH_TRANSACTION.replace(BRANCH_TABLE_PLACEHOLD, branchTable);
     }
+
+    /**
+     * Get the sql of the branch transactions of some global transactions.
+     *
+     * @param branchTable       the branch table
+     * @param dbType            the db type
+     * @param paramsPlaceHolder the params place holder of the xids
+     * @return the string
+     */
+    public static String getQureyBranchTransactionByXids(String branchTable, String dbType, String paramsPlaceHolder) {
+        return QUREY_BRANCH_TRANSACTION_BY_XIDS.replace(BRANCH_TABLE_PLACEHOLD, branchTable).replace(
+            PRAMETER_PLACEHOLD, paramsPlaceHolder);
+    }
 }
@@ -0,0 +1,138 @@
+/*
+ *  Copyright 1999-2019 Seata.io Group.
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+package io.seata.core.event;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import com.google.common.eventbus.Subscribe;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+/**
+ * Test AsyncEventBus.
+ */
+public class AsyncEventBusTest {
+
+    /**
+     * Events of concurrent posters are all delivered, in posted order per poster.
+     *
+     * @throws Exception the exception
+     */
+    @Test
+    public void testDeliver() throws Exception {
+        AsyncEventBus eventBus = new AsyncEventBus("test", 1 << 16);
+        try {
+            TestSubscriber subscriber = new TestSubscriber();
+            eventBus.register(subscriber);
+            int threads = 4;
+            int eventsPerThread = 10000;
+            CountDownLatch done = new CountDownLatch(threads);
+            for (int t = 0; t < threads; t++) {
+                int thread = t;
+                new Thread(() -> {
+                    for (int i = 0; i < eventsPerThread; i++) {
+                        eventBus.post(new TestEvent(thread, i));
+                    }
+                    done.countDown();
+                }).start();
+            }
+            Assertions.assertTrue(done.await(10, TimeUnit.SECONDS));
+            waitForDelivered(eventBus, threads * eventsPerThread);
+
+            Assertions.assertEquals(threads * eventsPerThread, subscriber.events.size());
+            Assertions.assertEquals(0, eventBus.getOverflowCount());
+            Assertions.assertEquals(0, eventBus.getPendingCount());
+            int[] last = new int[threads];
+            Arrays.fill(last, -1);
+            for (TestEvent event : subscriber.events) {
+                Assertions.assertEquals(last[event.thread] + 1, event.seq);
+                last[event.thread] = event.seq;
+            }
+        } finally {
+            eventBus.shutdown();
+        }
+    }
+
+    /**
+     * Events beyond the buffer are dropped and counted, the posting thread never blocks.
+     *
+     * @throws Exception the exception
+     */
+    @Test
+    public void testOverflow() throws Exception {
+        AsyncEventBus eventBus = new AsyncEventBus("test", 4);
+        CountDownLatch release = new CountDownLatch(1);
+        CountDownLatch blocked = new CountDownLatch(1);
+        try {
+            eventBus.register(new Object() {
+                @Subscribe
+                public void process(TestEvent event) throws InterruptedException {
+                    blocked.countDown();
+                    release.await();
+                }
+            });
+            eventBus.post(new TestEvent(0, 0));
+            Assertions.assertTrue(blocked.await(5, TimeUnit.SECONDS));
+            for (int i = 1; i <= 10; i++) {
+                eventBus.post(new TestEvent(0, i));
+            }
+            // the one in delivery and the four buffered
+            Assertions.assertEquals(5, eventBus.getPendingCount());
+            Assertions.assertEquals(6, eventBus.getOverflowCount());
+        } finally {
+            release.countDown();
+        }
+        waitForDelivered(eventBus, 5);
+        eventBus.shutdown();
+        eventBus.post(new TestEvent(0, 11));
+        Assertions.assertEquals(5, eventBus.getDeliveredCount());
+    }
+
+    private static void waitForDelivered(AsyncEventBus eventBus, long expected) throws InterruptedException {
+        long deadline = System.currentTimeMillis() + 10000;
+        while (eventBus.getDeliveredCount() < expected && System.currentTimeMillis() < deadline) {
+            Thread.sleep(10);
+        }
+        Assertions.assertEquals(expected, eventBus.getDeliveredCount());
+    }
+
+    private static class TestEvent implements Event {
+
+        private final int thread;
+
+        private final int seq;
+
+        TestEvent(int thread, int seq) {
+            this.thread = thread;
+            this.seq = seq;
+        }
+    }
+
+    private static class TestSubscriber {
+
+        // written by the consumer thread only, read after the delivered count
+        private final List<TestEvent> events = new ArrayList<>();
+
+        @Subscribe
+        public void process(TestEvent event) {
+            events.add(event);
+        }
+    }
+}
@@ -0,0 +1,69 @@
+/*
+ *  Copyright 1999-2019 Seata.io Group.
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+package io.seata.core.lock;
+
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+/**
+ * The type Binary lock key test.
+ */
+public class BinaryLockKeyTest {
+
+    /**
+     * The text form survives the binary form.
+     */
+    @Test
+    public void testEncode() {
+        BinaryLockKey lockKey = BinaryLockKey.encode("t1:1,2;t2:a;t1:3");
+        Assertions.assertEquals(4, lockKey.getRowCount());
+        Assertions.assertEquals("t1:1,2;t2:a;t1:3", lockKey.toText());
+
+        List<String> rows = new ArrayList<>();
+        new BinaryLockKey(lockKey.getBytes()).forEach((tableName, data, offset, length) ->
+            rows.add(tableName + "/" + new String(data, offset, length, StandardCharsets.UTF_8)));
+        Assertions.assertEquals("[t1/1, t1/2, t2/a, t1/3]", rows.toString());
+    }
+
+    /**
+     * Blank pks and groups without table are skipped, multi-byte pks are kept.
+     */
+    @Test
+    public void testEncodeIrregular() {
+        Assertions.assertEquals("t1:1,中", BinaryLockKey.encode("t1:1,,中;nothing").toText());
+        Assertions.assertEquals(0, BinaryLockKey.encode("").getRowCount());
+    }
+
+    /**
+     * Unknown versions and damaged bytes are refused.
+     */
+    @Test
+    public void testDecodeInvalid() {
+        byte[] bytes = BinaryLockKey.encode("t1:1").getBytes();
+        byte[] unknown = bytes.clone();
+        unknown[0] = 2;
+        Assertions.assertThrows(IllegalArgumentException.class, () -> new BinaryLockKey(unknown));
+
+        byte[] truncated = new byte[bytes.length - 1];
+        System.arraycopy(bytes, 0, truncated, 0, truncated.length);
+        BinaryLockKey lockKey = new BinaryLockKey(truncated);
+        Assertions.assertThrows(IllegalArgumentException.class, lockKey::toText);
+    }
+}
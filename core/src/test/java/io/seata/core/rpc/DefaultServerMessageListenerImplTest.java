@@ -0,0 +1,108 @@
+/*
+ *  Copyright 1999-2019 Seata.io Group.
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+package io.seata.core.rpc;
+
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+import io.seata.core.protocol.AbstractMessage;
+import io.seata.core.protocol.AbstractResultMessage;
+import io.seata.core.protocol.MergedWarpMessage;
+import io.seata.core.protocol.transaction.GlobalBeginRequest;
+import io.seata.core.protocol.transaction.GlobalBeginResponse;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+/**
+ * The type Default server message listener test.
+ */
+public class DefaultServerMessageListenerImplTest {
+
+    @Test
+    public void testHandleMergedMessageConcurrently() throws Exception {
+        Set<String> threads = ConcurrentHashMap.newKeySet();
+        DefaultServerMessageListenerImpl listener = new DefaultServerMessageListenerImpl(
+            new TransactionMessageHandler() {
+                @Override
+                public AbstractResultMessage onRequest(AbstractMessage request, RpcContext context) {
+                    threads.add(Thread.currentThread().getName());
+                    try {
+                        Thread.sleep(20);
+                    } catch (InterruptedException ignore) {
+                    }
+                    GlobalBeginResponse response = new GlobalBeginResponse();
+                    response.setXid(((GlobalBeginRequest)request).getTransactionName());
+                    return response;
+                }
+
+                @Override
+                public void onResponse(AbstractResultMessage response, RpcContext context) {
+                }
+            });
+        ExecutorService executor = Executors.newFixedThreadPool(4);
+        listener.setMergedMessageExecutor(executor);
+
+        MergedWarpMessage message = new MergedWarpMessage();
+        for (int i = 0; i < 20; i++) {
+            GlobalBeginRequest request = new GlobalBeginRequest();
+            request.setTransactionName("tx-" + i);
+            message.msgs.add(request);
+        }
+        AbstractResultMessage[] results = listener.handleMergedMessage(message, new RpcContext(), null).get();
+        Assertions.assertEquals(20, results.length);
+        for (int i = 0; i < results.length; i++) {
+            Assertions.assertEquals("tx-" + i, ((GlobalBeginResponse)results[i]).getXid());
+        }
+        Assertions.assertTrue(threads.size() > 1);
+        executor.shutdown();
+    }
+
+    @Test
+    public void testHandleMergedMessageAnswered() throws Exception {
+        Set<String> handled = ConcurrentHashMap.newKeySet();
+        DefaultServerMessageListenerImpl listener = new DefaultServerMessageListenerImpl(
+            new TransactionMessageHandler() {
+                @Override
+                public AbstractResultMessage onRequest(AbstractMessage request, RpcContext context) {
+                    handled.add(((GlobalBeginRequest)request).getTransactionName());
+                    GlobalBeginResponse response = new GlobalBeginResponse();
+                    response.setXid(((GlobalBeginRequest)request).getTransactionName());
+                    return response;
+                }
+
+                @Override
+                public void onResponse(AbstractResultMessage response, RpcContext context) {
+                }
+            });
+
+        MergedWarpMessage message = new MergedWarpMessage();
+        AbstractResultMessage[] answered = new AbstractResultMessage[3];
+        for (int i = 0; i < 3; i++) {
+            GlobalBeginRequest request = new GlobalBeginRequest();
+            request.setTransactionName("tx-" + i);
+            message.msgs.add(request);
+        }
+        answered[1] = new GlobalBeginResponse();
+        AbstractResultMessage[] results = listener.handleMergedMessage(message, new RpcContext(), answered).get();
+        Assertions.assertEquals("tx-0", ((GlobalBeginResponse)results[0]).getXid());
+        Assertions.assertSame(answered[1], results[1]);
+        Assertions.assertEquals("tx-2", ((GlobalBeginResponse)results[2]).getXid());
+        Assertions.assertFalse(handled.contains("tx-1"));
+        Assertions.assertEquals(2, handled.size());
+    }
+}
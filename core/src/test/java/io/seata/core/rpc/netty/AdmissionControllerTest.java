@@ -0,0 +1,139 @@
+/*
+ *  Copyright 1999-2019 Seata.io Group.
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+package io.seata.core.rpc.netty;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import io.seata.core.exception.TransactionExceptionCode;
+import io.seata.core.model.GlobalStatus;
+import io.seata.core.protocol.MergedWarpMessage;
+import io.seata.core.protocol.ResultCode;
+import io.seata.core.protocol.transaction.BranchRegisterRequest;
+import io.seata.core.protocol.transaction.GlobalBeginRequest;
+import io.seata.core.protocol.transaction.GlobalBeginResponse;
+import io.seata.core.protocol.transaction.GlobalCommitRequest;
+import io.seata.core.protocol.transaction.GlobalCommitResponse;
+import io.seata.core.rpc.netty.AdmissionController.Permit;
+import io.seata.core.rpc.netty.AdmissionController.Priority;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+/**
+ * The type Admission controller test.
+ */
+public class AdmissionControllerTest {
+
+    /**
+     * Begins are rejected first, commits never.
+     */
+    @Test
+    public void testPriority() {
+        AdmissionController controller = new AdmissionController(new ConcurrencyLimit(10, 10, 10));
+        List<Permit> permits = new ArrayList<>();
+        for (int i = 0; i < 8; i++) {
+            permits.add(controller.tryAcquire(new GlobalBeginRequest()));
+        }
+        Assertions.assertNull(controller.tryAcquire(new GlobalBeginRequest()));
+        permits.add(controller.tryAcquire(new BranchRegisterRequest()));
+        permits.add(controller.tryAcquire(new BranchRegisterRequest()));
+        Assertions.assertNull(controller.tryAcquire(new BranchRegisterRequest()));
+        Permit commit = controller.tryAcquire(new GlobalCommitRequest());
+        Assertions.assertNotNull(commit);
+        Assertions.assertFalse(permits.contains(null));
+        Assertions.assertEquals(11, controller.getInflight());
+        Assertions.assertEquals(2, controller.getRejectedCount());
+
+        commit.release();
+        commit.release();
+        permits.forEach(Permit::release);
+        Assertions.assertEquals(0, controller.getInflight());
+        Assertions.assertNotNull(controller.tryAcquire(new GlobalBeginRequest()));
+        Assertions.assertEquals(Priority.HIGH, AdmissionController.priorityOf(new GlobalCommitRequest()));
+    }
+
+    /**
+     * The parts of a merged request are admitted one by one, the begins batched with a commit are still rejected.
+     */
+    @Test
+    public void testTryAcquireEach() {
+        AdmissionController controller = new AdmissionController(new ConcurrencyLimit(10, 10, 10));
+        List<Permit> permits = new ArrayList<>();
+        for (int i = 0; i < 8; i++) {
+            permits.add(controller.tryAcquire(new GlobalBeginRequest()));
+        }
+        MergedWarpMessage merged = new MergedWarpMessage();
+        merged.msgs.add(new GlobalBeginRequest());
+        merged.msgs.add(new BranchRegisterRequest());
+        merged.msgs.add(new GlobalCommitRequest());
+        Permit[] each = controller.tryAcquireEach(merged);
+        Assertions.assertNull(each[0]);
+        Assertions.assertNotNull(each[1]);
+        Assertions.assertNotNull(each[2]);
+        Assertions.assertEquals(10, controller.getInflight());
+        Assertions.assertEquals(1, controller.getRejectedCount());
+
+        each[1].release();
+        each[2].release();
+        permits.forEach(Permit::release);
+        Assertions.assertEquals(0, controller.getInflight());
+    }
+
+    /**
+     * A busy response carries the code the client retries on.
+     */
+    @Test
+    public void testBusyResponse() {
+        AdmissionController controller = new AdmissionController(new ConcurrencyLimit(10, 10, 10));
+        GlobalBeginResponse response = (GlobalBeginResponse)controller.busyResponse(new GlobalBeginRequest());
+        Assertions.assertEquals(ResultCode.Failed, response.getResultCode());
+        Assertions.assertEquals(TransactionExceptionCode.ServerBusy, response.getTransactionExceptionCode());
+        GlobalCommitResponse commit = (GlobalCommitResponse)controller.busyResponse(new GlobalCommitRequest());
+        Assertions.assertEquals(GlobalStatus.UnKnown, commit.getGlobalStatus());
+    }
+
+    /**
+     * The limit shrinks when the latency grows and grows back when it is low and in use.
+     *
+     * @throws Exception the exception
+     */
+    @Test
+    public void testLimit() throws Exception {
+        ConcurrencyLimit limit = new ConcurrencyLimit(100, 10, 1000);
+        long fast = TimeUnit.MILLISECONDS.toNanos(1);
+        feed(limit, fast, 100);
+        int before = limit.getLimit();
+        Assertions.assertTrue(before >= 100);
+
+        feed(limit, fast * 10, 100);
+        Assertions.assertTrue(limit.getLimit() < before);
+
+        int low = limit.getLimit();
+        feed(limit, fast, low);
+        feed(limit, fast, low);
+        Assertions.assertTrue(limit.getLimit() > low);
+    }
+
+    private static void feed(ConcurrencyLimit limit, long rttNanos, int inflight) throws InterruptedException {
+        // a full window
+        for (int i = 0; i < 20; i++) {
+            limit.onSample(rttNanos, inflight);
+        }
+        Thread.sleep(110);
+        limit.onSample(rttNanos, inflight);
+    }
+}
@@ -0,0 +1,123 @@
+/*
+ *  Copyright 1999-2019 Seata.io Group.
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+package io.seata.core.rpc.netty;
+
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+
+import io.netty.channel.Channel;
+import io.netty.channel.ChannelHandlerContext;
+import io.netty.channel.embedded.EmbeddedChannel;
+import io.seata.core.protocol.MergedWarpMessage;
+import io.seata.core.protocol.MessageFuture;
+import io.seata.core.protocol.RpcMessage;
+import io.seata.core.protocol.transaction.GlobalBeginRequest;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+/**
+ * The type Merged sender test.
+ */
+public class MergedSenderTest {
+
+    private TestRemoting remoting;
+
+    @BeforeEach
+    public void init() {
+        remoting = new TestRemoting();
+    }
+
+    @AfterEach
+    public void destroy() {
+        remoting.destroy();
+    }
+
+    /**
+     * Requests offered before the event loop runs go in one message, up to the batch size.
+     */
+    @Test
+    public void testBatch() {
+        MergedSender sender = new MergedSender(remoting, 2);
+        EmbeddedChannel channel = new EmbeddedChannel();
+        for (int i = 0; i < 5; i++) {
+            sender.offer(channel, newRequest());
+        }
+        channel.runPendingTasks();
+
+        int[] sizes = new int[3];
+        for (int i = 0; i < sizes.length; i++) {
+            RpcMessage rpcMessage = channel.readOutbound();
+            Assertions.assertNotNull(rpcMessage);
+            MergedWarpMessage mergeMessage = (MergedWarpMessage)rpcMessage.getBody();
+            Assertions.assertSame(mergeMessage, remoting.mergeMsgMap.get(rpcMessage.getId()));
+            sizes[i] = mergeMessage.msgIds.size();
+        }
+        Assertions.assertArrayEquals(new int[] {2, 2, 1}, sizes);
+        Assertions.assertNull(channel.readOutbound());
+        Assertions.assertEquals(3, sender.getBatchSizes().getCount());
+        Assertions.assertEquals(5, sender.getWaitMicros().getCount());
+
+        // idle again, the next request goes alone
+        sender.offer(channel, newRequest());
+        channel.runPendingTasks();
+        RpcMessage rpcMessage = channel.readOutbound();
+        Assertions.assertEquals(1, ((MergedWarpMessage)rpcMessage.getBody()).msgIds.size());
+    }
+
+    /**
+     * Requests on a closed channel fail at once.
+     */
+    @Test
+    public void testInactive() {
+        MergedSender sender = new MergedSender(remoting, 10);
+        EmbeddedChannel channel = new EmbeddedChannel();
+        RpcMessage request = newRequest();
+        channel.close();
+        sender.offer(channel, request);
+        channel.runPendingTasks();
+        Assertions.assertNull(channel.readOutbound());
+        Assertions.assertNull(remoting.futures.get(request.getId()));
+    }
+
+    private RpcMessage newRequest() {
+        RpcMessage rpcMessage = new RpcMessage();
+        rpcMessage.setId(remoting.getNextMessageId());
+        rpcMessage.setBody(new GlobalBeginRequest());
+        MessageFuture messageFuture = new MessageFuture();
+        messageFuture.setRequestMessage(rpcMessage);
+        remoting.futures.put(rpcMessage.getId(), messageFuture);
+        return rpcMessage;
+    }
+
+    private static class TestRemoting extends AbstractRpcRemoting {
+
+        TestRemoting() {
+            super(new ThreadPoolExecutor(1, 1, 0, TimeUnit.MILLISECONDS, new LinkedBlockingQueue<>()));
+        }
+
+        @Override
+        public void dispatch(RpcMessage request, ChannelHandlerContext ctx) {
+        }
+
+        @Override
+        public void destroyChannel(String serverAddress, Channel channel) {
+            channel.close();
+        }
+    }
+}
@@ -0,0 +1,120 @@
+/*
+ *  Copyright 1999-2019 Seata.io Group.
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+package io.seata.core.rpc.netty;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Random;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+
+import io.netty.channel.Channel;
+import io.netty.channel.ChannelHandlerContext;
+import io.netty.channel.embedded.EmbeddedChannel;
+import io.netty.util.Timeout;
+import io.seata.core.protocol.MessageFuture;
+import io.seata.core.protocol.RpcMessage;
+import io.seata.core.protocol.transaction.GlobalBeginRequest;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+/**
+ * The type Message future table test.
+ */
+public class MessageFutureTableTest {
+
+    /**
+     * The table agrees with a map over random puts and removes, through growing and shrinking.
+     */
+    @Test
+    public void testPutRemove() {
+        MessageFutureTable table = new MessageFutureTable();
+        Map<Integer, MessageFuture> expected = new HashMap<>();
+        Random random = new Random(7);
+        for (int round = 0; round < 3; round++) {
+            for (int i = 0; i < 20000; i++) {
+                int id = random.nextInt(50000);
+                MessageFuture future = new MessageFuture();
+                Assertions.assertSame(expected.put(id, future), table.put(id, future));
+            }
+            Assertions.assertEquals(expected.size(), table.size());
+            for (int i = 0; i < 60000; i++) {
+                int id = random.nextInt(50000);
+                Assertions.assertSame(expected.remove(id), table.remove(id));
+            }
+            Assertions.assertEquals(expected.size(), table.size());
+            for (Map.Entry<Integer, MessageFuture> entry : expected.entrySet()) {
+                Assertions.assertSame(entry.getValue(), table.get(entry.getKey()));
+            }
+        }
+
+        MessageFuture future = new MessageFuture();
+        table.put(-1, future);
+        Assertions.assertFalse(table.remove(-1, new MessageFuture()));
+        Assertions.assertTrue(table.remove(-1, future));
+        Assertions.assertNull(table.get(-1));
+    }
+
+    /**
+     * A request without response is failed and removed by its timeout, a response cancels the timeout.
+     *
+     * @throws Exception the exception
+     */
+    @Test
+    public void testTimeout() throws Exception {
+        TestRemoting remoting = new TestRemoting();
+        try {
+            remoting.init();
+            EmbeddedChannel channel = new EmbeddedChannel();
+            Assertions.assertThrows(TimeoutException.class,
+                () -> remoting.sendAsyncRequestWithResponse(null, channel, new GlobalBeginRequest(), 100));
+            long deadline = System.currentTimeMillis() + 5000;
+            while (remoting.futures.size() > 0 && System.currentTimeMillis() < deadline) {
+                Thread.sleep(10);
+            }
+            Assertions.assertEquals(0, remoting.futures.size());
+
+            RpcMessage request = channel.readOutbound();
+            MessageFuture future = new MessageFuture();
+            future.setRequestMessage(request);
+            Timeout task = remoting.timeoutTimer.newTimeout(t -> future.setResultMessage("timeout"), 1, TimeUnit.HOURS);
+            future.setTimeoutTask(task);
+            future.setResultMessage("response");
+            Assertions.assertTrue(task.isCancelled());
+            Assertions.assertEquals("response", future.get(1, TimeUnit.SECONDS));
+        } finally {
+            remoting.destroy();
+        }
+    }
+
+    private static class TestRemoting extends AbstractRpcRemoting {
+
+        TestRemoting() {
+            super(new ThreadPoolExecutor(1, 1, 0, TimeUnit.MILLISECONDS, new LinkedBlockingQueue<>()));
+        }
+
+        @Override
+        public void dispatch(RpcMessage request, ChannelHandlerContext ctx) {
+        }
+
+        @Override
+        public void destroyChannel(String serverAddress, Channel channel) {
+            channel.close();
+        }
+    }
+}
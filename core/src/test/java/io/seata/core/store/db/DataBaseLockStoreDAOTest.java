@@ -297,6 +297,54 @@ public class DataBaseLockStoreDAOTest {
 
     }
 
+    @Test
+    public void test_acquireLocks_batch() throws SQLException {
+        dataBaseLockStoreDAO.setLockBatchSize(2);
+        try {
+            List<LockDO> lockDOs = new ArrayList<>();
+            for (int i = 0; i < 5; i++) {
+                lockDOs.add(newLock("abc-123:444", 444L, "batch-" + i));
+            }
+            Assertions.assertTrue(dataBaseLockStoreDAO.acquireLock(lockDOs));
+            Assertions.assertEquals(5, countLocks("abc-123:444"));
+
+            //a row locked twice in one batch conflicts, nothing of the batches before is kept
+            List<LockDO> lockDOs_2 = new ArrayList<>();
+            for (int i = 0; i < 4; i++) {
+                lockDOs_2.add(newLock("abc-123:555", 555L, "batch-dup-" + i));
+            }
+            lockDOs_2.add(newLock("abc-123:555", 555L, "batch-dup-3"));
+            Assertions.assertFalse(dataBaseLockStoreDAO.acquireLock(lockDOs_2));
+            Assertions.assertEquals(0, countLocks("abc-123:555"));
+
+            Assertions.assertTrue(dataBaseLockStoreDAO.unLock(lockDOs));
+            Assertions.assertEquals(0, countLocks("abc-123:444"));
+        } finally {
+            dataBaseLockStoreDAO.setLockBatchSize(1000);
+        }
+    }
+
+    private static LockDO newLock(String xid, long transactionId, String rowKey) {
+        LockDO lock = new LockDO();
+        lock.setResourceId("abc");
+        lock.setXid(xid);
+        lock.setTransactionId(transactionId);
+        lock.setBranchId(1L);
+        lock.setRowKey(rowKey);
+        lock.setPk(rowKey);
+        lock.setTableName("t");
+        return lock;
+    }
+
+    private static int countLocks(String xid) throws SQLException {
+        try (Connection conn = dataSource.getConnection();
+             ResultSet rs = conn.createStatement().executeQuery(
+                 "select count(1) from lock_table where xid = '" + xid + "'")) {
+            rs.next();
+            return rs.getInt(1);
+        }
+    }
+
     @AfterAll
     public static void clearStoreDB(){
         FileUtils.deleteRecursive("db_store", true);
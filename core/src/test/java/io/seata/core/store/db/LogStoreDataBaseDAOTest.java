@@ -15,9 +15,11 @@
  */
 package io.seata.core.store.db;
 
+import io.seata.common.exception.StoreException;
 import io.seata.common.util.CollectionUtils;
 import io.seata.core.store.BranchTransactionDO;
 import io.seata.core.store.GlobalTransactionDO;
+import io.seata.core.store.LogStoreOperation;
 import org.apache.commons.dbcp.BasicDataSource;
 
 import org.h2.store.fs.FileUtils;
@@ -30,6 +32,7 @@ import java.sql.Connection;
 import java.sql.ResultSet;
 import java.sql.SQLException;
 import java.sql.Statement;
+import java.util.ArrayList;
 import java.util.List;
 
 
@@ -658,6 +661,72 @@ public class LogStoreDataBaseDAOTest {
         }
     }
 
+    @Test
+    public void writeBatch() throws SQLException {
+        List<LogStoreOperation> operations = new ArrayList<>();
+        for (int i = 0; i < 3; i++) {
+            GlobalTransactionDO globalTransactionDO = newGlobal("batch-123:" + i);
+            operations.add(LogStoreOperation.global(LogStoreOperation.Type.GLOBAL_INSERT, globalTransactionDO));
+            BranchTransactionDO branchTransactionDO = newBranch("batch-123:" + i, 88880 + i);
+            operations.add(LogStoreOperation.branch(LogStoreOperation.Type.BRANCH_INSERT, branchTransactionDO));
+            //updates and deletes of a row are applied after its insert
+            BranchTransactionDO updated = newBranch("batch-123:" + i, 88880 + i);
+            updated.setStatus(2);
+            operations.add(LogStoreOperation.branch(LogStoreOperation.Type.BRANCH_UPDATE, updated));
+        }
+        operations.add(LogStoreOperation.branch(LogStoreOperation.Type.BRANCH_DELETE, newBranch("batch-123:2", 88882)));
+        GlobalTransactionDO updated = newGlobal("batch-123:0");
+        updated.setStatus(3);
+        operations.add(LogStoreOperation.global(LogStoreOperation.Type.GLOBAL_UPDATE, updated));
+        logStoreDataBaseDAO.writeBatch(operations);
+
+        Assertions.assertEquals(3, logStoreDataBaseDAO.queryGlobalTransactionDO(updated.getXid()).getStatus());
+        Assertions.assertEquals(1, logStoreDataBaseDAO.queryGlobalTransactionDO("batch-123:1").getStatus());
+        List<BranchTransactionDO> branches = logStoreDataBaseDAO.queryBranchTransactionDO("batch-123:1");
+        Assertions.assertEquals(1, branches.size());
+        Assertions.assertEquals(2, branches.get(0).getStatus());
+        Assertions.assertTrue(logStoreDataBaseDAO.queryBranchTransactionDO("batch-123:2").isEmpty());
+
+        //a failed write rolls back the whole batch
+        List<LogStoreOperation> failed = new ArrayList<>();
+        failed.add(LogStoreOperation.global(LogStoreOperation.Type.GLOBAL_INSERT, newGlobal("batch-123:3")));
+        failed.add(LogStoreOperation.global(LogStoreOperation.Type.GLOBAL_INSERT, newGlobal("batch-123:1")));
+        Assertions.assertThrows(StoreException.class, () -> logStoreDataBaseDAO.writeBatch(failed));
+        Assertions.assertNull(logStoreDataBaseDAO.queryGlobalTransactionDO("batch-123:3"));
+
+        try (Connection conn = dataSource.getConnection()) {
+            conn.createStatement().execute("delete from global_table where xid like 'batch-123:%'");
+            conn.createStatement().execute("delete from branch_table where xid like 'batch-123:%'");
+        }
+    }
+
+    private static GlobalTransactionDO newGlobal(String xid) {
+        GlobalTransactionDO globalTransactionDO = new GlobalTransactionDO();
+        globalTransactionDO.setXid(xid);
+        globalTransactionDO.setApplicationId("test");
+        globalTransactionDO.setBeginTime(System.currentTimeMillis());
+        globalTransactionDO.setTimeout(60000);
+        globalTransactionDO.setTransactionServiceGroup("test");
+        globalTransactionDO.setTransactionName("test");
+        globalTransactionDO.setTransactionId(1);
+        globalTransactionDO.setStatus(1);
+        return globalTransactionDO;
+    }
+
+    private static BranchTransactionDO newBranch(String xid, long branchId) {
+        BranchTransactionDO branchTransactionDO = new BranchTransactionDO();
+        branchTransactionDO.setXid(xid);
+        branchTransactionDO.setTransactionId(1);
+        branchTransactionDO.setBranchId(branchId);
+        branchTransactionDO.setBranchType("AT");
+        branchTransactionDO.setResourceId("test");
+        branchTransactionDO.setResourceGroupId("test");
+        branchTransactionDO.setLockKey("t:1");
+        branchTransactionDO.setClientId("1.1.1.1");
+        branchTransactionDO.setStatus(1);
+        return branchTransactionDO;
+    }
+
     @AfterAll
     public static void clearStoreDB(){
         FileUtils.deleteRecursive("db_store", true);
@@ -23,6 +23,8 @@ package io.seata.metrics;
 public class IdConstants {
     public static final String SEATA_TRANSACTION = "seata.transaction";
 
+    public static final String SEATA_RECOVERY = "seata.recovery";
+
     public static final String NAME_KEY = "name";
 
     public static final String ROLE_KEY = "role";
@@ -33,6 +35,8 @@ public class IdConstants {
 
     public static final String STATUS_KEY = "status";
 
+    public static final String PARTITION_KEY = "partition";
+
     public static final String ROLE_VALUE_TC = "tc";
 
     public static final String ROLE_VALUE_TM = "tm";
@@ -57,6 +61,12 @@ public class IdConstants {
 
     public static final String STATISTIC_VALUE_AVERAGE = "average";
 
+    public static final String STATISTIC_VALUE_FAILED = "failed";
+
+    public static final String STATISTIC_VALUE_BACKLOG = "backlog";
+
+    public static final String STATISTIC_VALUE_ROUND_TIME = "roundtime";
+
     public static final String STATUS_VALUE_ACTIVE = "active";
 
     public static final String STATUS_VALUE_COMMITTED = "committed";
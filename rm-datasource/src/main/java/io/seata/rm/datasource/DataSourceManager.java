@@ -77,7 +77,7 @@ public class DataSourceManager extends AbstractResourceManager implements Initia
         try {
             GlobalLockQueryRequest request = new GlobalLockQueryRequest();
             request.setXid(xid);
-            request.setLockKey(lockKeys);
+            setLockKey(request, lockKeys);
             request.setResourceId(resourceId);
 
             GlobalLockQueryResponse response = null;
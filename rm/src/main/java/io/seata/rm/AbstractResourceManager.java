@@ -15,12 +15,19 @@
  */
 package io.seata.rm;
 
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
 import java.util.concurrent.TimeoutException;
 
 import io.seata.common.exception.NotSupportYetException;
+import io.seata.common.util.FutureUtils;
+import io.seata.common.util.StringUtils;
+import io.seata.config.ConfigurationFactory;
+import io.seata.core.constants.ConfigurationKeys;
 import io.seata.core.exception.RmTransactionException;
 import io.seata.core.exception.TransactionException;
 import io.seata.core.exception.TransactionExceptionCode;
+import io.seata.core.lock.BinaryLockKey;
 import io.seata.core.model.BranchStatus;
 import io.seata.core.model.BranchType;
 import io.seata.core.model.Resource;
@@ -44,6 +51,9 @@ public abstract class AbstractResourceManager implements ResourceManager {
 
     protected static final Logger LOGGER = LoggerFactory.getLogger(AbstractResourceManager.class);
 
+    private static final boolean LOCK_BINARY_ENABLE = ConfigurationFactory.getInstance().getBoolean(
+        ConfigurationKeys.CLIENT_LOCK_BINARY_ENABLE, false);
+
     /**
      * registry branch record
      * @param branchType the branch type
@@ -59,7 +69,7 @@ public abstract class AbstractResourceManager implements ResourceManager {
         try {
             BranchRegisterRequest request = new BranchRegisterRequest();
             request.setXid(xid);
-            request.setLockKey(lockKeys);
+            setLockKey(request, lockKeys);
             request.setResourceId(resourceId);
             request.setBranchType(branchType);
             request.setApplicationData(applicationData);
@@ -76,6 +86,53 @@ public abstract class AbstractResourceManager implements ResourceManager {
         }
     }
 
+    /**
+     * registry branch record without waiting for the response
+     * @param branchType the branch type
+     * @param resourceId the resource id
+     * @param clientId   the client id
+     * @param xid        the xid
+     * @param applicationData the application data
+     * @param lockKeys   the lock keys
+     * @return the branch id, or failed with the RmTransactionException branchRegister throws
+     */
+    @Override
+    public CompletableFuture<Long> branchRegisterAsync(BranchType branchType, String resourceId, String clientId,
+                                                       String xid, String applicationData, String lockKeys) {
+        BranchRegisterRequest request = new BranchRegisterRequest();
+        request.setXid(xid);
+        setLockKey(request, lockKeys);
+        request.setResourceId(resourceId);
+        request.setBranchType(branchType);
+        request.setApplicationData(applicationData);
+
+        return RmRpcClient.getInstance().sendMsgWithResponseAsync(request).handle((r, ex) -> {
+            if (ex != null) {
+                throw toRmException(ex, TransactionExceptionCode.BranchRegisterFailed);
+            }
+            BranchRegisterResponse response = (BranchRegisterResponse) r;
+            if (response.getResultCode() == ResultCode.Failed) {
+                throw new CompletionException(new RmTransactionException(response.getTransactionExceptionCode(),
+                    String.format("Response[ %s ]", response.getMsg())));
+            }
+            return response.getBranchId();
+        });
+    }
+
+    /**
+     * Set the lock keys of a request, in the binary form if enabled.
+     *
+     * @param request  the request
+     * @param lockKeys the lock keys
+     */
+    protected static void setLockKey(BranchRegisterRequest request, String lockKeys) {
+        if (LOCK_BINARY_ENABLE && StringUtils.isNotBlank(lockKeys)) {
+            request.setLockKeyBytes(BinaryLockKey.encode(lockKeys).getBytes());
+        } else {
+            request.setLockKey(lockKeys);
+        }
+    }
+
     /**
      * report branch status
      * @param branchType      the branch type
@@ -105,6 +162,45 @@ public abstract class AbstractResourceManager implements ResourceManager {
         }
     }
 
+    /**
+     * report branch status without waiting for the response
+     * @param branchType      the branch type
+     * @param xid             the xid
+     * @param branchId        the branch id
+     * @param status          the status
+     * @param applicationData the application data
+     * @return the future, failed with the RmTransactionException branchReport throws
+     */
+    @Override
+    public CompletableFuture<Void> branchReportAsync(BranchType branchType, String xid, long branchId,
+                                                     BranchStatus status, String applicationData) {
+        BranchReportRequest request = new BranchReportRequest();
+        request.setXid(xid);
+        request.setBranchId(branchId);
+        request.setStatus(status);
+        request.setApplicationData(applicationData);
+
+        return RmRpcClient.getInstance().sendMsgWithResponseAsync(request).handle((r, ex) -> {
+            if (ex != null) {
+                throw toRmException(ex, TransactionExceptionCode.BranchReportFailed);
+            }
+            BranchReportResponse response = (BranchReportResponse) r;
+            if (response.getResultCode() == ResultCode.Failed) {
+                throw new CompletionException(new RmTransactionException(response.getTransactionExceptionCode(),
+                    String.format("Response[ %s ]", response.getMsg())));
+            }
+            return null;
+        });
+    }
+
+    private static CompletionException toRmException(Throwable ex, TransactionExceptionCode runtimeCode) {
+        Throwable cause = FutureUtils.unwrap(ex);
+        if (cause instanceof TimeoutException) {
+            return new CompletionException(new RmTransactionException(TransactionExceptionCode.IO, "RPC Timeout", cause));
+        }
+        return new CompletionException(new RmTransactionException(runtimeCode, "Runtime", cause));
+    }
+
     @Override
     public boolean lockQuery(BranchType branchType, String resourceId, String xid, String lockKeys) throws TransactionException {
         return false;
@@ -18,11 +18,13 @@ package io.seata.rm;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.concurrent.CompletableFuture;
 import java.util.concurrent.ConcurrentHashMap;
 
 import io.seata.common.exception.FrameworkException;
 import io.seata.common.loader.EnhancedServiceLoader;
 import io.seata.common.util.CollectionUtils;
+import io.seata.common.util.FutureUtils;
 import io.seata.core.exception.TransactionException;
 import io.seata.core.model.BranchStatus;
 import io.seata.core.model.BranchType;
@@ -103,6 +105,28 @@ public class DefaultResourceManager implements ResourceManager {
         getResourceManager(branchType).branchReport(branchType, xid, branchId, status, applicationData);
     }
 
+    @Override
+    public CompletableFuture<Long> branchRegisterAsync(BranchType branchType, String resourceId, String clientId,
+                                                       String xid, String applicationData, String lockKeys) {
+        try {
+            return getResourceManager(branchType).branchRegisterAsync(branchType, resourceId, clientId, xid,
+                applicationData, lockKeys);
+        } catch (FrameworkException ex) {
+            return FutureUtils.failedFuture(ex);
+        }
+    }
+
+    @Override
+    public CompletableFuture<Void> branchReportAsync(BranchType branchType, String xid, long branchId,
+                                                     BranchStatus status, String applicationData) {
+        try {
+            return getResourceManager(branchType).branchReportAsync(branchType, xid, branchId, status,
+                applicationData);
+        } catch (FrameworkException ex) {
+            return FutureUtils.failedFuture(ex);
+        }
+    }
+
     @Override
     public boolean lockQuery(BranchType branchType, String resourceId,
                              String xid, String lockKeys) throws TransactionException {
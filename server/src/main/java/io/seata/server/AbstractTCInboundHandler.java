@@ -15,8 +15,11 @@
  */
 package io.seata.server;
 
+import java.util.concurrent.CompletableFuture;
+
 import io.seata.common.exception.DataAccessException;
 import io.seata.common.exception.StoreException;
+import io.seata.common.util.FutureUtils;
 import io.seata.core.exception.AbstractExceptionHandler;
 import io.seata.core.exception.TransactionException;
 import io.seata.core.exception.TransactionExceptionCode;
@@ -189,6 +192,56 @@ public abstract class AbstractTCInboundHandler extends AbstractExceptionHandler
     protected abstract void doBranchRegister(BranchRegisterRequest request, BranchRegisterResponse response,
         RpcContext rpcContext) throws TransactionException;
 
+    /**
+     * Handle a branch register whose response is completed once the branch takes its locks.
+     *
+     * @param request    the request
+     * @param rpcContext the rpc context
+     * @return the future of the response
+     */
+    public CompletableFuture<BranchRegisterResponse> handleAsync(BranchRegisterRequest request,
+        final RpcContext rpcContext) {
+        CompletableFuture<Long> branchId;
+        try {
+            branchId = doBranchRegisterAsync(request, rpcContext);
+        } catch (RuntimeException e) {
+            branchId = FutureUtils.failedFuture(e);
+        }
+        return branchId.handle((id, ex) -> {
+            BranchRegisterResponse response = new BranchRegisterResponse();
+            exceptionHandleTemplate(new AbstractCallback<BranchRegisterRequest, BranchRegisterResponse>() {
+                @Override
+                public void execute(BranchRegisterRequest request, BranchRegisterResponse response)
+                    throws TransactionException {
+                    Throwable cause = FutureUtils.unwrap(ex);
+                    if (cause instanceof StoreException) {
+                        throw new TransactionException(TransactionExceptionCode.FailedStore,
+                            String.format("branch register request failed. xid=%s, msg=%s", request.getXid(),
+                                cause.getMessage()));
+                    } else if (cause instanceof TransactionException) {
+                        throw (TransactionException)cause;
+                    } else if (cause instanceof RuntimeException) {
+                        throw (RuntimeException)cause;
+                    } else if (cause != null) {
+                        throw new RuntimeException(cause);
+                    }
+                    response.setBranchId(id);
+                }
+            }, request, response);
+            return response;
+        });
+    }
+
+    /**
+     * Do branch register, completing the branch id once the branch takes its locks.
+     *
+     * @param request    the request
+     * @param rpcContext the rpc context
+     * @return the future of the branch id
+     */
+    protected abstract CompletableFuture<Long> doBranchRegisterAsync(BranchRegisterRequest request,
+        RpcContext rpcContext);
+
     @Override
     public BranchReportResponse handle(BranchReportRequest request, final RpcContext rpcContext) {
         BranchReportResponse response = new BranchReportResponse();
@@ -19,6 +19,7 @@ import io.seata.common.XID;
 import io.seata.common.thread.NamedThreadFactory;
 import io.seata.common.util.NetUtil;
 import io.seata.core.constants.ConfigurationKeys;
+import io.seata.core.rpc.netty.NettyServerConfig;
 import io.seata.core.rpc.netty.RpcServer;
 import io.seata.core.rpc.netty.ShutdownHook;
 import io.seata.server.coordinator.DefaultCoordinator;
@@ -44,7 +45,10 @@ public class Server {
     private static final ThreadPoolExecutor WORKING_THREADS = new ThreadPoolExecutor(MIN_SERVER_POOL_SIZE,
         MAX_SERVER_POOL_SIZE, KEEP_ALIVE_TIME, TimeUnit.SECONDS,
         new LinkedBlockingQueue<>(MAX_TASK_QUEUE_SIZE),
-        new NamedThreadFactory("ServerHandlerThread", MAX_SERVER_POOL_SIZE), new ThreadPoolExecutor.CallerRunsPolicy());
+        new NamedThreadFactory("ServerHandlerThread", MAX_SERVER_POOL_SIZE),
+        // with admission a full queue is answered busy, not run on the io thread
+        NettyServerConfig.enableAdmission() ? new ThreadPoolExecutor.AbortPolicy()
+            : new ThreadPoolExecutor.CallerRunsPolicy());
 
     /**
      * The entry point of application.
@@ -0,0 +1,189 @@
+/*
+ *  Copyright 1999-2019 Seata.io Group.
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+package io.seata.server;
+
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.LockSupport;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Time ordered ids of 41 bits of milliseconds since 2019-01-01 UTC, 10 bits of node id and 12 bits of sequence.
+ * <p>
+ * The position of the last id leased, timestamp and sequence packed in one long, is the only shared state. A thread
+ * leases a block of sequences from it by one CAS and takes ids from its block without touching shared memory, until
+ * the block is used up or the millisecond passes. When the sequences of a millisecond run out, or the clock goes
+ * back, the position runs ahead into the next milliseconds, so ids stay unique and increasing. If it gets more than
+ * the max drift ahead of the clock, new blocks wait for the clock to catch up, which bounds how far an id can be
+ * ahead of the time of a restart.
+ */
+public class SnowflakeIdGenerator {
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(SnowflakeIdGenerator.class);
+
+    /**
+     * The constant EPOCH, 2019-01-01T00:00:00Z.
+     */
+    public static final long EPOCH = 1546300800000L;
+
+    /**
+     * The constant NODE_BITS.
+     */
+    public static final int NODE_BITS = 10;
+
+    /**
+     * The constant SEQUENCE_BITS.
+     */
+    public static final int SEQUENCE_BITS = 12;
+
+    /**
+     * The constant MAX_NODE_ID.
+     */
+    public static final int MAX_NODE_ID = (1 << NODE_BITS) - 1;
+
+    private static final long SEQUENCE_MASK = (1L << SEQUENCE_BITS) - 1;
+
+    private static final int BLOCK_SIZE = 16;
+
+    private static final long DEFAULT_MAX_DRIFT_MILLS = 2000L;
+
+    private final long nodeBits;
+
+    private final long maxDriftMills;
+
+    private final AtomicLong position;
+
+    /**
+     * The blocks leased before an advance are dropped.
+     */
+    private volatile long floor;
+
+    private final ThreadLocal<Block> blocks = ThreadLocal.withInitial(Block::new);
+
+    /**
+     * Instantiates a new Snowflake id generator.
+     *
+     * @param nodeId the node id, 0 to 1023
+     */
+    public SnowflakeIdGenerator(int nodeId) {
+        this(nodeId, DEFAULT_MAX_DRIFT_MILLS);
+    }
+
+    /**
+     * Instantiates a new Snowflake id generator.
+     *
+     * @param nodeId        the node id, 0 to 1023
+     * @param maxDriftMills the max mills the ids may run ahead of the clock
+     */
+    public SnowflakeIdGenerator(int nodeId, long maxDriftMills) {
+        if (nodeId < 0 || nodeId > MAX_NODE_ID) {
+            throw new IllegalArgumentException("node id must be in [0, " + MAX_NODE_ID + "]:" + nodeId);
+        }
+        this.nodeBits = (long)nodeId << SEQUENCE_BITS;
+        this.maxDriftMills = maxDriftMills;
+        this.position = new AtomicLong(currentMills() << SEQUENCE_BITS);
+    }
+
+    /**
+     * Next id.
+     *
+     * @return the id
+     */
+    public long nextId() {
+        Block block = blocks.get();
+        if (block.next == block.end || block.next >>> SEQUENCE_BITS < currentMills() || block.next < floor) {
+            lease(block);
+        }
+        return toId(block.next++);
+    }
+
+    /**
+     * Gets the last id leased.
+     *
+     * @return the id
+     */
+    public long currentId() {
+        return toId(position.get());
+    }
+
+    /**
+     * Make the ids after this call greater than an id, such as one read back after a restart.
+     *
+     * @param id the id
+     */
+    public void advanceTo(long id) {
+        // the next millisecond, the id may be of another node
+        long target = ((id >>> (NODE_BITS + SEQUENCE_BITS)) + 1) << SEQUENCE_BITS;
+        long current;
+        while ((current = position.get()) < target) {
+            if (position.compareAndSet(current, target)) {
+                break;
+            }
+        }
+        if (floor < target) {
+            floor = target;
+        }
+    }
+
+    private void lease(Block block) {
+        boolean warned = false;
+        while (true) {
+            long now = currentMills();
+            long current = position.get();
+            long start = Math.max(current, now << SEQUENCE_BITS);
+            // a block never crosses a millisecond, the next one starts at its first sequence
+            long end = Math.min(start + BLOCK_SIZE, ((start >>> SEQUENCE_BITS) + 1) << SEQUENCE_BITS);
+            long drift = ((end - 1) >>> SEQUENCE_BITS) - now;
+            if (drift > maxDriftMills) {
+                if (!warned) {
+                    LOGGER.warn("ids are {} ms ahead of the clock, wait for it to catch up.", drift);
+                    warned = true;
+                }
+                LockSupport.parkNanos(1000000L);
+                continue;
+            }
+            if (position.compareAndSet(current, end)) {
+                block.next = start;
+                block.end = end;
+                return;
+            }
+        }
+    }
+
+    private long toId(long position) {
+        return ((position >>> SEQUENCE_BITS) << (NODE_BITS + SEQUENCE_BITS)) | nodeBits | (position & SEQUENCE_MASK);
+    }
+
+    /**
+     * Mills since the epoch.
+     *
+     * @return the mills
+     */
+    protected long currentMills() {
+        return System.currentTimeMillis() - EPOCH;
+    }
+
+    /**
+     * The sequences leased by one thread, positions in [next, end).
+     */
+    private static final class Block {
+
+        private long next;
+
+        private long end;
+    }
+}
@@ -22,6 +22,8 @@ import java.util.Date;
 import java.util.concurrent.atomic.AtomicLong;
 
 import io.seata.common.exception.ShouldNeverHappenException;
+import io.seata.config.ConfigurationFactory;
+import io.seata.core.constants.ConfigurationKeys;
 
 /**
  * The type Uuid generator.
@@ -34,12 +36,28 @@ public class UUIDGenerator {
     private static int serverNodeId = 1;
     private static final long UUID_INTERNAL = 2000000000;
 
+    /**
+     * The constant MODE_DEFAULT.
+     */
+    public static final String MODE_DEFAULT = "default";
+
+    /**
+     * The constant MODE_SNOWFLAKE.
+     */
+    public static final String MODE_SNOWFLAKE = "snowflake";
+
+    private static volatile SnowflakeIdGenerator snowflake;
+
     /**
      * Generate uuid long.
      *
      * @return the long
      */
     public static long generateUUID() {
+        SnowflakeIdGenerator generator = snowflake;
+        if (generator != null) {
+            return generator.nextId();
+        }
         long id = UUID.incrementAndGet();
         if (id >= UUID_INTERNAL * (serverNodeId + 1)) {
             synchronized (UUID) {
@@ -58,7 +76,8 @@ public class UUIDGenerator {
      * @return the current uuid
      */
     public static long getCurrentUUID() {
-        return UUID.get();
+        SnowflakeIdGenerator generator = snowflake;
+        return generator != null ? generator.currentId() : UUID.get();
     }
 
     /**
@@ -69,16 +88,40 @@ public class UUIDGenerator {
      * @return the uuid
      */
     public static boolean setUUID(long expect, long update) {
+        SnowflakeIdGenerator generator = snowflake;
+        if (generator != null) {
+            generator.advanceTo(update);
+            return true;
+        }
         return UUID.compareAndSet(expect, update);
 
     }
 
     /**
-     * Init.
+     * Init by the id generator mode configured.
      *
      * @param serverNodeId the server node id
      */
     public static void init(int serverNodeId) {
+        init(serverNodeId, ConfigurationFactory.getInstance().getConfig(ConfigurationKeys.SERVER_ID_GENERATOR,
+            MODE_DEFAULT));
+    }
+
+    /**
+     * Init.
+     *
+     * @param serverNodeId the server node id
+     * @param mode         the mode, default or snowflake
+     */
+    public static void init(int serverNodeId, String mode) {
+        if (MODE_SNOWFLAKE.equalsIgnoreCase(mode)) {
+            UUIDGenerator.serverNodeId = serverNodeId;
+            snowflake = new SnowflakeIdGenerator(serverNodeId);
+            return;
+        } else if (!MODE_DEFAULT.equalsIgnoreCase(mode)) {
+            throw new IllegalArgumentException("unknown id generator:" + mode);
+        }
+        snowflake = null;
         try {
             UUIDGenerator.serverNodeId = serverNodeId;
             UUID.set(UUID_INTERNAL * serverNodeId);
@@ -15,7 +15,11 @@
  */
 package io.seata.server.coordinator;
 
+import java.util.concurrent.CompletableFuture;
+
 import io.seata.core.exception.TransactionException;
+import io.seata.core.lock.BinaryLockKey;
+import io.seata.core.model.BranchType;
 import io.seata.core.model.ResourceManagerInbound;
 import io.seata.core.model.ResourceManagerOutbound;
 import io.seata.core.model.TransactionManager;
@@ -52,4 +56,52 @@ public interface Core extends TransactionManager, ResourceManagerOutbound {
      * @throws TransactionException the transaction exception
      */
     void doGlobalRollback(GlobalSession globalSession, boolean retrying) throws TransactionException;
+
+    /**
+     * Branch register with the binary form of the lock keys.
+     *
+     * @param branchType      the branch type
+     * @param resourceId      the resource id
+     * @param clientId        the client id
+     * @param xid             the xid
+     * @param applicationData the application data
+     * @param lockKey         the binary lock key
+     * @return the branch id
+     * @throws TransactionException the transaction exception
+     */
+    default Long branchRegister(BranchType branchType, String resourceId, String clientId, String xid,
+                                String applicationData, BinaryLockKey lockKey) throws TransactionException {
+        return branchRegister(branchType, resourceId, clientId, xid, applicationData, lockKey.toText());
+    }
+
+    /**
+     * Branch register with the binary form of the lock keys, without waiting for conflicting locks.
+     *
+     * @param branchType      the branch type
+     * @param resourceId      the resource id
+     * @param clientId        the client id
+     * @param xid             the xid
+     * @param applicationData the application data
+     * @param lockKey         the binary lock key
+     * @return the future of the branch id
+     */
+    default CompletableFuture<Long> branchRegisterAsync(BranchType branchType, String resourceId, String clientId,
+                                                        String xid, String applicationData, BinaryLockKey lockKey) {
+        return branchRegisterAsync(branchType, resourceId, clientId, xid, applicationData, lockKey.toText());
+    }
+
+    /**
+     * Lock query with the binary form of the lock keys.
+     *
+     * @param branchType the branch type
+     * @param resourceId the resource id
+     * @param xid        the xid
+     * @param lockKey    the binary lock key
+     * @return the boolean
+     * @throws TransactionException the transaction exception
+     */
+    default boolean lockQuery(BranchType branchType, String resourceId, String xid, BinaryLockKey lockKey)
+        throws TransactionException {
+        return lockQuery(branchType, resourceId, xid, lockKey.toText());
+    }
 }
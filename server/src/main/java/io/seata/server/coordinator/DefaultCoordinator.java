@@ -18,8 +18,12 @@ package io.seata.server.coordinator;
 import java.io.IOException;
 import java.time.Duration;
 import java.util.Collection;
+import java.util.LinkedHashMap;
 import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.ScheduledThreadPoolExecutor;
+import java.util.concurrent.Semaphore;
 import java.util.concurrent.TimeUnit;
 import java.util.concurrent.TimeoutException;
 
@@ -33,6 +37,7 @@ import io.seata.core.event.EventBus;
 import io.seata.core.event.GlobalTransactionEvent;
 import io.seata.core.exception.BranchTransactionException;
 import io.seata.core.exception.TransactionException;
+import io.seata.core.lock.BinaryLockKey;
 import io.seata.core.model.BranchStatus;
 import io.seata.core.model.BranchType;
 import io.seata.core.model.GlobalStatus;
@@ -70,9 +75,11 @@ import io.seata.core.rpc.TransactionMessageHandler;
 import io.seata.core.rpc.netty.RpcServer;
 import io.seata.server.AbstractTCInboundHandler;
 import io.seata.server.event.EventBusManager;
+import io.seata.server.metrics.MetricsManager;
 import io.seata.server.session.BranchSession;
 import io.seata.server.session.GlobalSession;
 import io.seata.server.session.SessionHolder;
+import io.seata.server.session.db.DataBaseSessionManager;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
@@ -111,6 +118,21 @@ public class DefaultCoordinator extends AbstractTCInboundHandler
      */
     protected static final long TIMEOUT_RETRY_PERIOD = CONFIG.getLong(ConfigurationKeys.TIMEOUT_RETRY_PERIOD, 1000L);
 
+    /**
+     * The max delay between two retries of one session, retries back off exponentially from the retry period.
+     */
+    protected static final long RETRY_MAX_PERIOD = CONFIG.getLong(ConfigurationKeys.RETRY_MAX_PERIOD, 60 * 1000L);
+
+    private static final double RETRY_JITTER = 0.2;
+
+    /**
+     * The period of scanning all sessions for timeout, the reloaded sessions not begun by this server are only found
+     * by the full scan. In db mode the store is also scanned a page each check, so the sessions of a crashed server
+     * sharing the store are found without waiting for the full scan.
+     */
+    protected static final long TIMEOUT_FULL_SCAN_PERIOD = CONFIG.getLong(ConfigurationKeys.TIMEOUT_FULL_SCAN_PERIOD,
+        60 * 1000L);
+
     /**
      * The Transaction undolog delete period.
      */
@@ -121,6 +143,17 @@ public class DefaultCoordinator extends AbstractTCInboundHandler
      */
     protected static final long UNDOLOG_DELAY_DELETE_PERIOD = 3 * 60 * 1000;
 
+    /**
+     * The constant RECOVERY_PARTITIONS.
+     */
+    protected static final int RECOVERY_PARTITIONS = CONFIG.getInt(ConfigurationKeys.RECOVERY_PARTITIONS, 1);
+
+    /**
+     * The max in flight phase two requests per resource, not limited if less than 1.
+     */
+    protected static final int PHASE_TWO_RM_MAX_CONCURRENCY = CONFIG.getInt(
+        ConfigurationKeys.PHASE_TWO_RM_MAX_CONCURRENCY, 0);
+
     private static final int ALWAYS_RETRY_BOUNDARY = 0;
 
     private static final Duration MAX_COMMIT_RETRY_TIMEOUT = ConfigurationFactory.getInstance().getDuration(
@@ -144,6 +177,28 @@ public class DefaultCoordinator extends AbstractTCInboundHandler
     private ScheduledThreadPoolExecutor undoLogDelete = new ScheduledThreadPoolExecutor(1,
         new NamedThreadFactory("UndoLogDelete", 1));
 
+    private PartitionedRecoveryExecutor retryRollbackingPartitions = new PartitionedRecoveryExecutor(
+        "RetryRollbacking", RECOVERY_PARTITIONS);
+
+    private PartitionedRecoveryExecutor retryCommittingPartitions = new PartitionedRecoveryExecutor(
+        "RetryCommitting", RECOVERY_PARTITIONS);
+
+    private PartitionedRecoveryExecutor asyncCommittingPartitions = new PartitionedRecoveryExecutor(
+        "AsyncCommitting", RECOVERY_PARTITIONS);
+
+    private PartitionedRecoveryExecutor timeoutCheckPartitions = new PartitionedRecoveryExecutor(
+        "TxTimeoutCheck", RECOVERY_PARTITIONS);
+
+    private RetryBackoffScheduler retryRollbackingBackoff = new RetryBackoffScheduler(ROLLBACKING_RETRY_PERIOD,
+        RETRY_MAX_PERIOD, RETRY_JITTER);
+
+    private RetryBackoffScheduler retryCommittingBackoff = new RetryBackoffScheduler(COMMITTING_RETRY_PERIOD,
+        RETRY_MAX_PERIOD, RETRY_JITTER);
+
+    private final Map<String, Semaphore> rmPermits = new ConcurrentHashMap<>();
+
+    private long lastTimeoutFullScan;
+
     private ServerMessageSender messageSender;
 
     private Core core = CoreFactory.get();
@@ -197,12 +252,29 @@ public class DefaultCoordinator extends AbstractTCInboundHandler
     @Override
     protected void doBranchRegister(BranchRegisterRequest request, BranchRegisterResponse response,
                                     RpcContext rpcContext) throws TransactionException {
+        if (request.getLockKeyBytes() != null) {
+            response.setBranchId(
+                core.branchRegister(request.getBranchType(), request.getResourceId(), rpcContext.getClientId(),
+                    request.getXid(), request.getApplicationData(), new BinaryLockKey(request.getLockKeyBytes())));
+            return;
+        }
         response.setBranchId(
             core.branchRegister(request.getBranchType(), request.getResourceId(), rpcContext.getClientId(),
                 request.getXid(), request.getApplicationData(), request.getLockKey()));
 
     }
 
+    @Override
+    protected CompletableFuture<Long> doBranchRegisterAsync(BranchRegisterRequest request, RpcContext rpcContext) {
+        if (request.getLockKeyBytes() != null) {
+            return core.branchRegisterAsync(request.getBranchType(), request.getResourceId(),
+                rpcContext.getClientId(), request.getXid(), request.getApplicationData(),
+                new BinaryLockKey(request.getLockKeyBytes()));
+        }
+        return core.branchRegisterAsync(request.getBranchType(), request.getResourceId(), rpcContext.getClientId(),
+            request.getXid(), request.getApplicationData(), request.getLockKey());
+    }
+
     @Override
     protected void doBranchReport(BranchReportRequest request, BranchReportResponse response, RpcContext rpcContext)
         throws TransactionException {
@@ -215,6 +287,11 @@ public class DefaultCoordinator extends AbstractTCInboundHandler
     @Override
     protected void doLockCheck(GlobalLockQueryRequest request, GlobalLockQueryResponse response, RpcContext rpcContext)
         throws TransactionException {
+        if (request.getLockKeyBytes() != null) {
+            response.setLockable(core.lockQuery(request.getBranchType(), request.getResourceId(),
+                request.getXid(), new BinaryLockKey(request.getLockKeyBytes())));
+            return;
+        }
         response.setLockable(core.lockQuery(request.getBranchType(), request.getResourceId(),
             request.getXid(), request.getLockKey()));
     }
@@ -249,16 +326,26 @@ public class DefaultCoordinator extends AbstractTCInboundHandler
                     LOGGER.error("Failed to commit SAGA global[" + globalSession.getXid() + ", cannot find channel by resourceId["+sagaResourceId+"]");
                     return BranchStatus.PhaseTwo_CommitFailed_Retryable;
                 }
-                BranchCommitResponse response = (BranchCommitResponse)messageSender.sendSyncRequest(sagaChannel, request);
-                return response.getBranchStatus();
+                Semaphore permit = acquireRmPermit(sagaResourceId);
+                try {
+                    BranchCommitResponse response = (BranchCommitResponse)messageSender.sendSyncRequest(sagaChannel, request);
+                    return response.getBranchStatus();
+                } finally {
+                    releaseRmPermit(permit);
+                }
             }
             else{
 
                 BranchSession branchSession = globalSession.getBranch(branchId);
 
-                BranchCommitResponse response = (BranchCommitResponse)messageSender.sendSyncRequest(resourceId,
-                        branchSession.getClientId(), request);
-                return response.getBranchStatus();
+                Semaphore permit = acquireRmPermit(resourceId);
+                try {
+                    BranchCommitResponse response = (BranchCommitResponse)messageSender.sendSyncRequest(resourceId,
+                            branchSession.getClientId(), request);
+                    return response.getBranchStatus();
+                } finally {
+                    releaseRmPermit(permit);
+                }
             }
         } catch (IOException | TimeoutException e) {
             throw new BranchTransactionException(FailedToSendBranchCommitRequest, String.format("Send branch commit failed, xid = %s branchId = %s", xid, branchId), e);
@@ -296,16 +383,26 @@ public class DefaultCoordinator extends AbstractTCInboundHandler
                     LOGGER.error("Failed to rollback SAGA global[" + globalSession.getXid() + ", cannot find channel by resourceId["+sagaResourceId+"]");
                     return BranchStatus.PhaseTwo_RollbackFailed_Retryable;
                 }
-                BranchRollbackResponse response = (BranchRollbackResponse)messageSender.sendSyncRequest(sagaChannel, request);
-                return response.getBranchStatus();
+                Semaphore permit = acquireRmPermit(sagaResourceId);
+                try {
+                    BranchRollbackResponse response = (BranchRollbackResponse)messageSender.sendSyncRequest(sagaChannel, request);
+                    return response.getBranchStatus();
+                } finally {
+                    releaseRmPermit(permit);
+                }
             }
             else{
 
                 BranchSession branchSession = globalSession.getBranch(branchId);
 
-                BranchRollbackResponse response = (BranchRollbackResponse)messageSender.sendSyncRequest(resourceId,
-                        branchSession.getClientId(), request);
-                return response.getBranchStatus();
+                Semaphore permit = acquireRmPermit(resourceId);
+                try {
+                    BranchRollbackResponse response = (BranchRollbackResponse)messageSender.sendSyncRequest(resourceId,
+                            branchSession.getClientId(), request);
+                    return response.getBranchStatus();
+                } finally {
+                    releaseRmPermit(permit);
+                }
             }
 
         } catch (IOException | TimeoutException e) {
@@ -313,20 +410,65 @@ public class DefaultCoordinator extends AbstractTCInboundHandler
         }
     }
 
+    /**
+     * Limit the in flight phase two requests of one resource, so a recovery backlog can not flood a single RM.
+     *
+     * @param resourceId the resource id
+     * @return the permit to release, null if not limited
+     */
+    private Semaphore acquireRmPermit(String resourceId) {
+        if (PHASE_TWO_RM_MAX_CONCURRENCY < 1 || resourceId == null) {
+            return null;
+        }
+        Semaphore permit = rmPermits.computeIfAbsent(resourceId, k -> new Semaphore(PHASE_TWO_RM_MAX_CONCURRENCY));
+        permit.acquireUninterruptibly();
+        return permit;
+    }
+
+    private void releaseRmPermit(Semaphore permit) {
+        if (permit != null) {
+            permit.release();
+        }
+    }
+
     /**
      * Timeout check.
      *
      * @throws TransactionException the transaction exception
      */
     protected void timeoutCheck() throws TransactionException {
-        Collection<GlobalSession> allSessions = SessionHolder.getRootSessionManager().allSessions();
+        long now = System.currentTimeMillis();
+        Collection<GlobalSession> allSessions;
+        if (now - lastTimeoutFullScan >= TIMEOUT_FULL_SCAN_PERIOD) {
+            lastTimeoutFullScan = now;
+            allSessions = SessionHolder.getRootSessionManager().allSessions();
+        } else {
+            Map<String, GlobalSession> found = new LinkedHashMap<>();
+            for (GlobalSession expired : SessionHolder.getTimeoutWheel().expire(now)) {
+                // look up again, the registered instance may be stale when the store does not share instances
+                GlobalSession globalSession = SessionHolder.findGlobalSession(expired.getXid());
+                if (globalSession != null) {
+                    found.put(globalSession.getXid(), globalSession);
+                }
+            }
+            if (SessionHolder.getRootSessionManager() instanceof DataBaseSessionManager) {
+                // the next page of the store, the sessions of other servers are not in the wheel
+                Collection<GlobalSession> page = SessionHolder.getRootSessionManager().allSessions();
+                if (page != null) {
+                    for (GlobalSession globalSession : page) {
+                        found.putIfAbsent(globalSession.getXid(), globalSession);
+                    }
+                }
+            }
+            allSessions = found.values();
+        }
         if (CollectionUtils.isEmpty(allSessions)) {
             return;
         }
         if (allSessions.size() > 0 && LOGGER.isDebugEnabled()) {
             LOGGER.debug("Transaction Timeout Check Begin: " + allSessions.size());
         }
-        for (GlobalSession globalSession : allSessions) {
+        timeoutCheckPartitions.execute(allSessions, globalSession -> {
             if (LOGGER.isDebugEnabled()) {
                 LOGGER.debug(globalSession.getXid() + " " + globalSession.getStatus() + " " +
                     globalSession.getBeginTime() + " " + globalSession.getTimeout());
@@ -348,15 +490,14 @@ public class DefaultCoordinator extends AbstractTCInboundHandler
                 return true;
             });
             if (!shouldTimeout) {
-                continue;
+                return;
             }
             LOGGER.info(
                 "Global transaction[" + globalSession.getXid() + "] is timeout and will be rolled back.");
 
             globalSession.addSessionLifecycleListener(SessionHolder.getRetryRollbackingSessionManager());
             SessionHolder.getRetryRollbackingSessionManager().addGlobalSession(globalSession);
-
-        }
+        });
         if (allSessions.size() > 0 && LOGGER.isDebugEnabled()) {
             LOGGER.debug("Transaction Timeout Check End. ");
         }
@@ -372,23 +513,21 @@ public class DefaultCoordinator extends AbstractTCInboundHandler
             return;
         }
         long now = System.currentTimeMillis();
-        for (GlobalSession rollbackingSession : rollbackingSessions) {
-            try {
-                if (isRetryTimeout(now, MAX_ROLLBACK_RETRY_TIMEOUT.toMillis(), rollbackingSession.getBeginTime())) {
-                    /**
-                     * Prevent thread safety issues
-                     */
-                    SessionHolder.getRetryRollbackingSessionManager().removeGlobalSession(rollbackingSession);
-                    LOGGER.error("GlobalSession rollback retry timeout [{}]", rollbackingSession.getXid());
-                    continue;
-                }
-                rollbackingSession.addSessionLifecycleListener(SessionHolder.getRootSessionManager());
-                core.doGlobalRollback(rollbackingSession, true);
-            } catch (TransactionException ex) {
-                LOGGER.info("Failed to retry rollbacking [{}] {} {}",
-                    rollbackingSession.getXid(), ex.getCode(), ex.getMessage());
+        retryRollbackingPartitions.execute(retryRollbackingBackoff.due(rollbackingSessions, now), rollbackingSession -> {
+            if (isRetryTimeout(now, MAX_ROLLBACK_RETRY_TIMEOUT.toMillis(), rollbackingSession.getBeginTime())) {
+                /**
+                 * Prevent thread safety issues
+                 */
+                SessionHolder.getRetryRollbackingSessionManager().removeGlobalSession(rollbackingSession);
+                retryRollbackingBackoff.remove(rollbackingSession);
+                LOGGER.error("GlobalSession rollback retry timeout [{}]", rollbackingSession.getXid());
+                return;
             }
-        }
+            retryRollbackingBackoff.onAttempt(rollbackingSession, now);
+            rollbackingSession.addSessionLifecycleListener(SessionHolder.getRootSessionManager());
+            rollbackingSession.addSessionLifecycleListener(retryRollbackingBackoff);
+            core.doGlobalRollback(rollbackingSession, true);
+        });
     }
 
     /**
@@ -400,23 +539,21 @@ public class DefaultCoordinator extends AbstractTCInboundHandler
             return;
         }
         long now = System.currentTimeMillis();
-        for (GlobalSession committingSession : committingSessions) {
-            try {
-                if (isRetryTimeout(now, MAX_COMMIT_RETRY_TIMEOUT.toMillis(), committingSession.getBeginTime())) {
-                    /**
-                     * Prevent thread safety issues
-                     */
-                    SessionHolder.getRetryCommittingSessionManager().removeGlobalSession(committingSession);
-                    LOGGER.error("GlobalSession commit retry timeout [{}]", committingSession.getXid());
-                    continue;
-                }
-                committingSession.addSessionLifecycleListener(SessionHolder.getRootSessionManager());
-                core.doGlobalCommit(committingSession, true);
-            } catch (TransactionException ex) {
-                LOGGER.info("Failed to retry committing [{}] {} {}",
-                    committingSession.getXid(), ex.getCode(), ex.getMessage());
+        retryCommittingPartitions.execute(retryCommittingBackoff.due(committingSessions, now), committingSession -> {
+            if (isRetryTimeout(now, MAX_COMMIT_RETRY_TIMEOUT.toMillis(), committingSession.getBeginTime())) {
+                /**
+                 * Prevent thread safety issues
+                 */
+                SessionHolder.getRetryCommittingSessionManager().removeGlobalSession(committingSession);
+                retryCommittingBackoff.remove(committingSession);
+                LOGGER.error("GlobalSession commit retry timeout [{}]", committingSession.getXid());
+                return;
             }
-        }
+            retryCommittingBackoff.onAttempt(committingSession, now);
+            committingSession.addSessionLifecycleListener(SessionHolder.getRootSessionManager());
+            committingSession.addSessionLifecycleListener(retryCommittingBackoff);
+            core.doGlobalCommit(committingSession, true);
+        });
     }
 
     private boolean isRetryTimeout(long now, long timeout, long beginTime) {
@@ -439,19 +576,14 @@ public class DefaultCoordinator extends AbstractTCInboundHandler
         if (CollectionUtils.isEmpty(asyncCommittingSessions)) {
             return;
         }
-        for (GlobalSession asyncCommittingSession : asyncCommittingSessions) {
-            try {
-                // Instruction reordering in DefaultCore#asyncCommit may cause this situation
-                if (GlobalStatus.AsyncCommitting != asyncCommittingSession.getStatus()) {
-                   continue;
-                }
-                asyncCommittingSession.addSessionLifecycleListener(SessionHolder.getRootSessionManager());
-                core.doGlobalCommit(asyncCommittingSession, true);
-            } catch (TransactionException ex) {
-                LOGGER.info("Failed to async committing [{}] {} {}",
-                    asyncCommittingSession.getXid(), ex.getCode(), ex.getMessage());
+        asyncCommittingPartitions.execute(asyncCommittingSessions, asyncCommittingSession -> {
+            // Instruction reordering in DefaultCore#asyncCommit may cause this situation
+            if (GlobalStatus.AsyncCommitting != asyncCommittingSession.getStatus()) {
+                return;
             }
-        }
+            asyncCommittingSession.addSessionLifecycleListener(SessionHolder.getRootSessionManager());
+            core.doGlobalCommit(asyncCommittingSession, true);
+        });
     }
 
     /**
@@ -481,6 +613,11 @@ public class DefaultCoordinator extends AbstractTCInboundHandler
      * Init.
      */
     public void init() {
+        retryRollbackingPartitions.registerMetrics(MetricsManager.get().getRegistry());
+        retryCommittingPartitions.registerMetrics(MetricsManager.get().getRegistry());
+        asyncCommittingPartitions.registerMetrics(MetricsManager.get().getRegistry());
+        timeoutCheckPartitions.registerMetrics(MetricsManager.get().getRegistry());
+
         retryRollbacking.scheduleAtFixedRate(() -> {
             try {
                 handleRetryRollbacking();
@@ -533,6 +670,15 @@ public class DefaultCoordinator extends AbstractTCInboundHandler
         return transactionRequest.handle(context);
     }
 
+    @Override
+    public CompletableFuture<AbstractResultMessage> onRequestAsync(AbstractMessage request, RpcContext context) {
+        // a branch register waiting for conflicting global locks must not hold a thread of the server
+        if (request instanceof BranchRegisterRequest) {
+            return handleAsync((BranchRegisterRequest)request, context).thenApply(response -> response);
+        }
+        return TransactionMessageHandler.super.onRequestAsync(request, context);
+    }
+
     @Override
     public void onResponse(AbstractResultMessage response, RpcContext context) {
         if (!(response instanceof AbstractTransactionResponse)) {
@@ -548,11 +694,19 @@ public class DefaultCoordinator extends AbstractTCInboundHandler
         retryCommitting.shutdown();
         asyncCommitting.shutdown();
         timeoutCheck.shutdown();
+        retryRollbackingPartitions.shutdown();
+        retryCommittingPartitions.shutdown();
+        asyncCommittingPartitions.shutdown();
+        timeoutCheckPartitions.shutdown();
         try {
             retryRollbacking.awaitTermination(TIMED_TASK_SHUTDOWN_MAX_WAIT_MILLS, TimeUnit.MILLISECONDS);
             retryCommitting.awaitTermination(TIMED_TASK_SHUTDOWN_MAX_WAIT_MILLS, TimeUnit.MILLISECONDS);
             asyncCommitting.awaitTermination(TIMED_TASK_SHUTDOWN_MAX_WAIT_MILLS, TimeUnit.MILLISECONDS);
             timeoutCheck.awaitTermination(TIMED_TASK_SHUTDOWN_MAX_WAIT_MILLS, TimeUnit.MILLISECONDS);
+            retryRollbackingPartitions.awaitTermination(TIMED_TASK_SHUTDOWN_MAX_WAIT_MILLS, TimeUnit.MILLISECONDS);
+            retryCommittingPartitions.awaitTermination(TIMED_TASK_SHUTDOWN_MAX_WAIT_MILLS, TimeUnit.MILLISECONDS);
+            asyncCommittingPartitions.awaitTermination(TIMED_TASK_SHUTDOWN_MAX_WAIT_MILLS, TimeUnit.MILLISECONDS);
+            timeoutCheckPartitions.awaitTermination(TIMED_TASK_SHUTDOWN_MAX_WAIT_MILLS, TimeUnit.MILLISECONDS);
         } catch (InterruptedException ignore) {
 
         }
@@ -15,18 +15,26 @@
  */
 package io.seata.server.coordinator;
 
+import io.seata.common.thread.NamedThreadFactory;
+import io.seata.common.util.FutureUtils;
+import io.seata.common.util.StringUtils;
+import io.seata.config.Configuration;
+import io.seata.config.ConfigurationFactory;
+import io.seata.core.constants.ConfigurationKeys;
 import io.seata.core.event.EventBus;
 import io.seata.core.event.GlobalTransactionEvent;
 import io.seata.core.exception.BranchTransactionException;
 import io.seata.core.exception.GlobalTransactionException;
 import io.seata.core.exception.TransactionException;
 import io.seata.core.exception.TransactionExceptionCode;
+import io.seata.core.lock.BinaryLockKey;
 import io.seata.core.model.BranchStatus;
 import io.seata.core.model.BranchType;
 import io.seata.core.model.GlobalStatus;
 import io.seata.core.model.ResourceManagerInbound;
 import io.seata.server.event.EventBusManager;
 import io.seata.server.lock.LockManager;
+import io.seata.server.lock.LockWaitQueue;
 import io.seata.server.lock.LockerFactory;
 import io.seata.server.session.BranchSession;
 import io.seata.server.session.GlobalSession;
@@ -36,6 +44,18 @@ import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
 import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
 
 import static io.seata.core.exception.TransactionExceptionCode.BranchTransactionNotExist;
 import static io.seata.core.exception.TransactionExceptionCode.FailedToAddBranch;
@@ -52,6 +72,20 @@ public class DefaultCore implements Core {
 
     private static final Logger LOGGER = LoggerFactory.getLogger(DefaultCore.class);
 
+    private static final Configuration CONFIG = ConfigurationFactory.getInstance();
+
+    private static final boolean PHASE_TWO_PARALLEL_ENABLE = CONFIG.getBoolean(
+        ConfigurationKeys.PHASE_TWO_PARALLEL_ENABLE, false);
+
+    private static final int PHASE_TWO_PARALLEL_THREADS = CONFIG.getInt(
+        ConfigurationKeys.PHASE_TWO_PARALLEL_THREADS, 32);
+
+    private static final long LOCK_WAIT_TIMEOUT = CONFIG.getLong(ConfigurationKeys.SERVER_LOCK_WAIT_TIMEOUT, 0L);
+
+    private boolean parallelPhaseTwo = PHASE_TWO_PARALLEL_ENABLE;
+
+    private long lockWaitTimeout = LOCK_WAIT_TIMEOUT;
+
     private LockManager lockManager = LockerFactory.getLockManager();
 
     private ResourceManagerInbound resourceManagerInbound;
@@ -63,10 +97,110 @@ public class DefaultCore implements Core {
         this.resourceManagerInbound = resourceManagerInbound;
     }
 
+    /**
+     * Just for test
+     *
+     * @param parallelPhaseTwo whether phase two requests fan out to branches concurrently
+     */
+    void setParallelPhaseTwo(boolean parallelPhaseTwo) {
+        this.parallelPhaseTwo = parallelPhaseTwo;
+    }
+
+    /**
+     * Just for test
+     *
+     * @param lockWaitTimeout the mills a conflicting branch register waits for the rows, fail fast if 0
+     */
+    void setLockWaitTimeout(long lockWaitTimeout) {
+        this.lockWaitTimeout = lockWaitTimeout;
+    }
+
     @Override
     public Long branchRegister(BranchType branchType, String resourceId, String clientId, String xid,
                                String applicationData, String lockKeys) throws TransactionException {
+        return branchRegister(branchType, resourceId, clientId, xid, applicationData, lockKeys, null);
+    }
+
+    @Override
+    public Long branchRegister(BranchType branchType, String resourceId, String clientId, String xid,
+                               String applicationData, BinaryLockKey lockKey) throws TransactionException {
+        // the text form is rendered by the branch only if the store asks for it
+        return branchRegister(branchType, resourceId, clientId, xid, applicationData, null, lockKey);
+    }
+
+    private Long branchRegister(BranchType branchType, String resourceId, String clientId, String xid,
+                                String applicationData, String lockKeys, BinaryLockKey binaryLockKey)
+        throws TransactionException {
         GlobalSession globalSession = assertGlobalSessionNotNull(xid);
+        if (lockWaitTimeout <= 0 || noLocks(lockKeys, binaryLockKey)) {
+            return doBranchRegister(globalSession, branchType, resourceId, clientId, applicationData, lockKeys,
+                binaryLockKey, true);
+        }
+        long[] rowKeys = binaryLockKey != null ? LockWaitQueue.rowKeys(resourceId, binaryLockKey)
+            : LockWaitQueue.rowKeys(resourceId, lockKeys);
+        // wait out of the global session lock, the session can still be committed or rolled back meanwhile
+        Long branchId = LockWaitQueue.getInstance().acquire(rowKeys,
+            () -> doBranchRegister(globalSession, branchType, resourceId, clientId, applicationData, lockKeys,
+                binaryLockKey, false), lockWaitTimeout);
+        if (branchId == null) {
+            throw newLockWaitTimeoutException(xid, resourceId);
+        }
+        return branchId;
+    }
+
+    @Override
+    public CompletableFuture<Long> branchRegisterAsync(BranchType branchType, String resourceId, String clientId,
+                                                       String xid, String applicationData, String lockKeys) {
+        return branchRegisterAsync(branchType, resourceId, clientId, xid, applicationData, lockKeys, null);
+    }
+
+    @Override
+    public CompletableFuture<Long> branchRegisterAsync(BranchType branchType, String resourceId, String clientId,
+                                                       String xid, String applicationData, BinaryLockKey lockKey) {
+        return branchRegisterAsync(branchType, resourceId, clientId, xid, applicationData, null, lockKey);
+    }
+
+    /**
+     * A register conflicting with other global locks stays in the lock wait queue and is completed by the release
+     * of the rows or by its timeout, no thread waits for it.
+     */
+    private CompletableFuture<Long> branchRegisterAsync(BranchType branchType, String resourceId, String clientId,
+                                                        String xid, String applicationData, String lockKeys,
+                                                        BinaryLockKey binaryLockKey) {
+        GlobalSession globalSession;
+        try {
+            globalSession = assertGlobalSessionNotNull(xid);
+            if (lockWaitTimeout <= 0 || noLocks(lockKeys, binaryLockKey)) {
+                return CompletableFuture.completedFuture(doBranchRegister(globalSession, branchType, resourceId,
+                    clientId, applicationData, lockKeys, binaryLockKey, true));
+            }
+        } catch (TransactionException | RuntimeException ex) {
+            return FutureUtils.failedFuture(ex);
+        }
+        long[] rowKeys = binaryLockKey != null ? LockWaitQueue.rowKeys(resourceId, binaryLockKey)
+            : LockWaitQueue.rowKeys(resourceId, lockKeys);
+        return LockWaitQueue.getInstance().acquireAsync(rowKeys,
+            () -> doBranchRegister(globalSession, branchType, resourceId, clientId, applicationData, lockKeys,
+                binaryLockKey, false), lockWaitTimeout).thenApply(branchId -> {
+                    if (branchId == null) {
+                        throw new CompletionException(newLockWaitTimeoutException(xid, resourceId));
+                    }
+                    return branchId;
+                });
+    }
+
+    private static boolean noLocks(String lockKeys, BinaryLockKey binaryLockKey) {
+        return binaryLockKey != null ? binaryLockKey.getRowCount() == 0 : StringUtils.isBlank(lockKeys);
+    }
+
+    private BranchTransactionException newLockWaitTimeoutException(String xid, String resourceId) {
+        return new BranchTransactionException(LockKeyConflict,
+            String.format("Global lock wait timeout xid = %s resourceId = %s", xid, resourceId));
+    }
+
+    private Long doBranchRegister(GlobalSession globalSession, BranchType branchType, String resourceId,
+                                  String clientId, String applicationData, String lockKeys,
+                                  BinaryLockKey binaryLockKey, boolean failOnConflict) throws TransactionException {
         return globalSession.lockAndExcute(() -> {
             if (!globalSession.isActive()) {
                 throw new GlobalTransactionException(GlobalTransactionNotActive,
@@ -80,7 +214,11 @@ public class DefaultCore implements Core {
             globalSession.addSessionLifecycleListener(SessionHolder.getRootSessionManager());
             BranchSession branchSession = SessionHelper.newBranchByGlobal(globalSession, branchType, resourceId,
                 applicationData, lockKeys, clientId);
+            branchSession.setBinaryLockKey(binaryLockKey);
             if (!branchSession.lock()) {
+                if (!failOnConflict) {
+                    return null;
+                }
                 throw new BranchTransactionException(LockKeyConflict,
                     String.format("Global lock acquire failed xid = %s branchId = %s", globalSession.getXid(), branchSession.getBranchId()));
             }
@@ -129,6 +267,16 @@ public class DefaultCore implements Core {
 
     }
 
+    @Override
+    public boolean lockQuery(BranchType branchType, String resourceId, String xid, BinaryLockKey lockKey)
+        throws TransactionException {
+        if (branchType == BranchType.AT) {
+            return lockManager.isLockable(xid, resourceId, lockKey);
+        } else {
+            return true;
+        }
+    }
+
     @Override
     public String begin(String applicationId, String transactionServiceGroup, String name, int timeout)
         throws TransactionException {
@@ -233,6 +381,11 @@ public class DefaultCore implements Core {
                 throw new TransactionException(ex);
             }
         }
+        else if (isParallelPhaseTwo(globalSession)) {
+            if (!doParallelBranchCommit(globalSession, retrying)) {
+                return;
+            }
+        }
         else{
 
             for (BranchSession branchSession : globalSession.getSortedBranches()) {
@@ -386,6 +539,11 @@ public class DefaultCore implements Core {
                 throw new TransactionException(ex);
             }
         }
+        else if (isParallelPhaseTwo(globalSession)) {
+            if (!doParallelBranchRollback(globalSession, retrying)) {
+                return;
+            }
+        }
         else{
 
             for (BranchSession branchSession : globalSession.getReverseSortedBranches()) {
@@ -437,6 +595,215 @@ public class DefaultCore implements Core {
         LOGGER.info("Successfully rollback global, xid = {}", globalSession.getXid());
     }
 
+    private boolean isParallelPhaseTwo(GlobalSession globalSession) {
+        return parallelPhaseTwo && globalSession.getBranchSessions().size() > 1;
+    }
+
+    /**
+     * Commit all branches concurrently and then apply the same rules as the serial path.
+     *
+     * @param globalSession the global session
+     * @param retrying      the retrying
+     * @return true if every branch is committed and the global session can be ended
+     * @throws TransactionException the transaction exception
+     */
+    private boolean doParallelBranchCommit(GlobalSession globalSession, boolean retrying)
+        throws TransactionException {
+        List<BranchSession> branches = new ArrayList<>();
+        for (BranchSession branchSession : globalSession.getSortedBranches()) {
+            if (branchSession.getStatus() == BranchStatus.PhaseOne_Failed) {
+                globalSession.removeBranch(branchSession);
+            } else {
+                branches.add(branchSession);
+            }
+        }
+        Map<Long, BranchOutcome> outcomes = fanOutPhaseTwo(branches, true);
+        // remove finished branches first, so a failure below never leaves them behind for retry
+        for (BranchSession branchSession : branches) {
+            BranchOutcome outcome = outcomes.get(branchSession.getBranchId());
+            if (outcome != null && outcome.status == BranchStatus.PhaseTwo_Committed) {
+                globalSession.removeBranch(branchSession);
+            }
+        }
+        for (BranchSession branchSession : branches) {
+            BranchOutcome outcome = outcomes.get(branchSession.getBranchId());
+            if (outcome == null || outcome.status == BranchStatus.PhaseTwo_Committed) {
+                continue;
+            }
+            if (outcome.exception != null) {
+                LOGGER.error("Exception committing branch {}", branchSession, outcome.exception);
+                if (!retrying) {
+                    queueToRetryCommit(globalSession);
+                    throw new TransactionException(outcome.exception);
+                }
+                continue;
+            }
+            BranchStatus branchStatus = outcome.status;
+            switch (branchStatus) {
+                case PhaseTwo_CommitFailed_Unretryable:
+                    if (globalSession.canBeCommittedAsync()) {
+                        LOGGER.error("By [{}], failed to commit branch {}", branchStatus, branchSession);
+                        continue;
+                    } else {
+                        SessionHelper.endCommitFailed(globalSession);
+                        LOGGER.error("Finally, failed to commit global[{}] since branch[{}] commit failed",
+                            globalSession.getXid(), branchSession.getBranchId());
+                        return false;
+                    }
+                default:
+                    if (!retrying) {
+                        queueToRetryCommit(globalSession);
+                        return false;
+                    }
+                    if (globalSession.canBeCommittedAsync()) {
+                        LOGGER.error("By [{}], failed to commit branch {}", branchStatus, branchSession);
+                        continue;
+                    } else {
+                        LOGGER.error("Failed to commit global[{}] since branch[{}] commit failed, will retry later.",
+                            globalSession.getXid(), branchSession.getBranchId());
+                        return false;
+                    }
+            }
+        }
+        if (globalSession.hasBranch()) {
+            LOGGER.info("Global[{}] committing is NOT done.", globalSession.getXid());
+            return false;
+        }
+        return true;
+    }
+
+    /**
+     * Rollback all branches concurrently and then apply the same rules as the serial path.
+     *
+     * @param globalSession the global session
+     * @param retrying      the retrying
+     * @return true if every branch is rollbacked and the global session can be ended
+     * @throws TransactionException the transaction exception
+     */
+    private boolean doParallelBranchRollback(GlobalSession globalSession, boolean retrying)
+        throws TransactionException {
+        List<BranchSession> branches = new ArrayList<>();
+        for (BranchSession branchSession : globalSession.getReverseSortedBranches()) {
+            if (branchSession.getStatus() == BranchStatus.PhaseOne_Failed) {
+                globalSession.removeBranch(branchSession);
+            } else {
+                branches.add(branchSession);
+            }
+        }
+        Map<Long, BranchOutcome> outcomes = fanOutPhaseTwo(branches, false);
+        for (BranchSession branchSession : branches) {
+            BranchOutcome outcome = outcomes.get(branchSession.getBranchId());
+            if (outcome != null && outcome.status == BranchStatus.PhaseTwo_Rollbacked) {
+                globalSession.removeBranch(branchSession);
+                LOGGER.info("Successfully rollback branch xid={} branchId={}", globalSession.getXid(), branchSession.getBranchId());
+            }
+        }
+        for (BranchSession branchSession : branches) {
+            BranchOutcome outcome = outcomes.get(branchSession.getBranchId());
+            if (outcome == null || outcome.status == BranchStatus.PhaseTwo_Rollbacked) {
+                continue;
+            }
+            if (outcome.exception != null) {
+                LOGGER.error("Exception rollbacking branch xid={} branchId={}", globalSession.getXid(), branchSession.getBranchId(), outcome.exception);
+                if (!retrying) {
+                    queueToRetryRollback(globalSession);
+                }
+                throw new TransactionException(outcome.exception);
+            }
+            if (outcome.status == BranchStatus.PhaseTwo_RollbackFailed_Unretryable) {
+                SessionHelper.endRollbackFailed(globalSession);
+                LOGGER.info("Failed to rollback branch and stop retry xid={} branchId={}", globalSession.getXid(), branchSession.getBranchId());
+            } else {
+                LOGGER.info("Failed to rollback branch xid={} branchId={}", globalSession.getXid(), branchSession.getBranchId());
+                if (!retrying) {
+                    queueToRetryRollback(globalSession);
+                }
+            }
+            return false;
+        }
+        return true;
+    }
+
+    /**
+     * Send phase two requests to the given branches. Branches of the same resource keep their relative order
+     * and are sent one by one, stopping at the first one that is not done; different resources run concurrently.
+     *
+     * @param branches the branches in phase two order
+     * @param commit   commit or rollback
+     * @return the outcomes by branch id, branches that were not sent have no outcome
+     * @throws TransactionException the transaction exception
+     */
+    private Map<Long, BranchOutcome> fanOutPhaseTwo(List<BranchSession> branches, boolean commit)
+        throws TransactionException {
+        Map<String, List<BranchSession>> resourceGroups = new LinkedHashMap<>();
+        for (BranchSession branchSession : branches) {
+            resourceGroups.computeIfAbsent(branchSession.getResourceId(), k -> new ArrayList<>()).add(branchSession);
+        }
+        Map<Long, BranchOutcome> outcomes = new ConcurrentHashMap<>(branches.size());
+        List<Future<?>> futures = new ArrayList<>(resourceGroups.size());
+        List<BranchSession> localGroup = null;
+        for (List<BranchSession> group : resourceGroups.values()) {
+            if (localGroup == null) {
+                // the caller thread takes one group itself
+                localGroup = group;
+                continue;
+            }
+            futures.add(PhaseTwoExecutorHolder.INSTANCE.submit(() -> doPhaseTwo(group, commit, outcomes)));
+        }
+        if (localGroup != null) {
+            doPhaseTwo(localGroup, commit, outcomes);
+        }
+        for (Future<?> future : futures) {
+            try {
+                future.get();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new TransactionException(e);
+            } catch (ExecutionException e) {
+                throw new TransactionException(e.getCause());
+            }
+        }
+        return outcomes;
+    }
+
+    private void doPhaseTwo(List<BranchSession> group, boolean commit, Map<Long, BranchOutcome> outcomes) {
+        for (BranchSession branchSession : group) {
+            BranchOutcome outcome = new BranchOutcome();
+            try {
+                if (commit) {
+                    outcome.status = resourceManagerInbound.branchCommit(branchSession.getBranchType(),
+                        branchSession.getXid(), branchSession.getBranchId(),
+                        branchSession.getResourceId(), branchSession.getApplicationData());
+                } else {
+                    outcome.status = resourceManagerInbound.branchRollback(branchSession.getBranchType(),
+                        branchSession.getXid(), branchSession.getBranchId(),
+                        branchSession.getResourceId(), branchSession.getApplicationData());
+                }
+            } catch (Exception ex) {
+                outcome.exception = ex;
+            }
+            outcomes.put(branchSession.getBranchId(), outcome);
+            BranchStatus doneStatus = commit ? BranchStatus.PhaseTwo_Committed : BranchStatus.PhaseTwo_Rollbacked;
+            if (outcome.status != doneStatus) {
+                return;
+            }
+        }
+    }
+
+    private static class BranchOutcome {
+
+        private volatile BranchStatus status;
+
+        private volatile Exception exception;
+    }
+
+    private static class PhaseTwoExecutorHolder {
+
+        private static final ExecutorService INSTANCE = new ThreadPoolExecutor(PHASE_TWO_PARALLEL_THREADS,
+            PHASE_TWO_PARALLEL_THREADS, Integer.MAX_VALUE, TimeUnit.MILLISECONDS, new LinkedBlockingQueue<>(),
+            new NamedThreadFactory("PhaseTwoFanOut", PHASE_TWO_PARALLEL_THREADS));
+    }
+
     /**
      * Is saga type transaction
      *
@@ -0,0 +1,259 @@
+/*
+ *  Copyright 1999-2019 Seata.io Group.
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+package io.seata.server.coordinator;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import io.seata.common.thread.NamedThreadFactory;
+import io.seata.core.exception.TransactionException;
+import io.seata.metrics.IdConstants;
+import io.seata.metrics.Id;
+import io.seata.metrics.registry.Registry;
+import io.seata.server.session.GlobalSession;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Runs one recovery round over a set of global sessions. Sessions are hashed by transaction id onto a fixed
+ * number of partitions, every partition handles its sessions serially on its own thread, so one session is
+ * never handled by two threads while different partitions make progress independently.
+ */
+public class PartitionedRecoveryExecutor {
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(PartitionedRecoveryExecutor.class);
+
+    private final String name;
+
+    private final int partitionCount;
+
+    private final ExecutorService[] partitions;
+
+    private final PartitionStat[] stats;
+
+    /**
+     * Instantiates a new Partitioned recovery executor.
+     *
+     * @param name           the name
+     * @param partitionCount the partition count, 1 means the caller thread handles all sessions
+     */
+    public PartitionedRecoveryExecutor(String name, int partitionCount) {
+        this.name = name;
+        this.partitionCount = Math.max(1, partitionCount);
+        this.stats = new PartitionStat[this.partitionCount];
+        for (int i = 0; i < this.partitionCount; i++) {
+            stats[i] = new PartitionStat();
+        }
+        if (this.partitionCount > 1) {
+            partitions = new ExecutorService[this.partitionCount];
+            for (int i = 0; i < this.partitionCount; i++) {
+                partitions[i] = new ThreadPoolExecutor(1, 1, Integer.MAX_VALUE, TimeUnit.MILLISECONDS,
+                    new LinkedBlockingQueue<>(), new NamedThreadFactory(name + "_" + i, 1));
+            }
+        } else {
+            partitions = null;
+        }
+    }
+
+    /**
+     * Handle the sessions on their partitions and wait until every partition is done.
+     *
+     * @param sessions the sessions
+     * @param handler  the handler
+     */
+    public void execute(Collection<GlobalSession> sessions, SessionHandler handler) {
+        if (partitions == null) {
+            handlePartition(0, sessions, handler);
+            return;
+        }
+        List<List<GlobalSession>> buckets = new ArrayList<>(partitionCount);
+        for (int i = 0; i < partitionCount; i++) {
+            buckets.add(new ArrayList<>());
+        }
+        for (GlobalSession session : sessions) {
+            buckets.get(partitionOf(session.getTransactionId(), partitionCount)).add(session);
+        }
+        List<Future<?>> futures = new ArrayList<>(partitionCount);
+        for (int i = 0; i < partitionCount; i++) {
+            List<GlobalSession> bucket = buckets.get(i);
+            if (bucket.isEmpty()) {
+                continue;
+            }
+            final int partition = i;
+            futures.add(partitions[i].submit(() -> handlePartition(partition, bucket, handler)));
+        }
+        for (Future<?> future : futures) {
+            try {
+                future.get();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return;
+            } catch (ExecutionException e) {
+                LOGGER.error("Exception {} partition round", name, e.getCause());
+            }
+        }
+    }
+
+    private void handlePartition(int partition, Collection<GlobalSession> sessions, SessionHandler handler) {
+        PartitionStat stat = stats[partition];
+        stat.backlog = sessions.size();
+        long start = System.currentTimeMillis();
+        for (GlobalSession session : sessions) {
+            try {
+                handler.handle(session);
+            } catch (TransactionException ex) {
+                stat.failed.incrementAndGet();
+                LOGGER.info("Failed to handle {} [{}] {} {}", name, session.getXid(), ex.getCode(), ex.getMessage());
+            } catch (RuntimeException ex) {
+                stat.failed.incrementAndGet();
+                LOGGER.error("Exception {} [{}]", name, session.getXid(), ex);
+            }
+            stat.handled.incrementAndGet();
+            stat.backlog--;
+        }
+        stat.lastRoundMills = System.currentTimeMillis() - start;
+    }
+
+    /**
+     * Partition of a transaction id.
+     *
+     * @param transactionId  the transaction id
+     * @param partitionCount the partition count
+     * @return the partition
+     */
+    static int partitionOf(long transactionId, int partitionCount) {
+        long hash = transactionId ^ (transactionId >>> 32);
+        return (int)((hash & Long.MAX_VALUE) % partitionCount);
+    }
+
+    /**
+     * Register per partition gauges.
+     *
+     * @param registry the registry
+     */
+    public void registerMetrics(Registry registry) {
+        if (registry == null) {
+            return;
+        }
+        for (int i = 0; i < partitionCount; i++) {
+            PartitionStat stat = stats[i];
+            registry.getGauge(partitionId(i, IdConstants.STATISTIC_VALUE_COUNT), stat.handled::get);
+            registry.getGauge(partitionId(i, IdConstants.STATISTIC_VALUE_FAILED), stat.failed::get);
+            registry.getGauge(partitionId(i, IdConstants.STATISTIC_VALUE_BACKLOG), () -> stat.backlog);
+            registry.getGauge(partitionId(i, IdConstants.STATISTIC_VALUE_ROUND_TIME), () -> stat.lastRoundMills);
+        }
+    }
+
+    private Id partitionId(int partition, String statistic) {
+        return new Id(IdConstants.SEATA_RECOVERY)
+            .withTag(IdConstants.ROLE_KEY, IdConstants.ROLE_VALUE_TC)
+            .withTag(IdConstants.METER_KEY, IdConstants.METER_VALUE_GAUGE)
+            .withTag(IdConstants.NAME_KEY, name)
+            .withTag(IdConstants.PARTITION_KEY, String.valueOf(partition))
+            .withTag(IdConstants.STATISTIC_KEY, statistic);
+    }
+
+    /**
+     * Gets partition count.
+     *
+     * @return the partition count
+     */
+    public int getPartitionCount() {
+        return partitionCount;
+    }
+
+    /**
+     * Gets handled count of a partition.
+     *
+     * @param partition the partition
+     * @return the handled count
+     */
+    public long getHandledCount(int partition) {
+        return stats[partition].handled.get();
+    }
+
+    /**
+     * Gets failed count of a partition.
+     *
+     * @param partition the partition
+     * @return the failed count
+     */
+    public long getFailedCount(int partition) {
+        return stats[partition].failed.get();
+    }
+
+    /**
+     * Shutdown.
+     */
+    public void shutdown() {
+        if (partitions == null) {
+            return;
+        }
+        for (ExecutorService partition : partitions) {
+            partition.shutdown();
+        }
+    }
+
+    /**
+     * Await termination.
+     *
+     * @param timeout the timeout
+     * @param unit    the unit
+     * @throws InterruptedException the interrupted exception
+     */
+    public void awaitTermination(long timeout, TimeUnit unit) throws InterruptedException {
+        if (partitions == null) {
+            return;
+        }
+        for (ExecutorService partition : partitions) {
+            partition.awaitTermination(timeout, unit);
+        }
+    }
+
+    /**
+     * The interface Session handler.
+     */
+    @FunctionalInterface
+    public interface SessionHandler {
+
+        /**
+         * Handle one session.
+         *
+         * @param session the session
+         * @throws TransactionException the transaction exception
+         */
+        void handle(GlobalSession session) throws TransactionException;
+    }
+
+    private static class PartitionStat {
+
+        private final AtomicLong handled = new AtomicLong();
+
+        private final AtomicLong failed = new AtomicLong();
+
+        private volatile long backlog;
+
+        private volatile long lastRoundMills;
+    }
+}
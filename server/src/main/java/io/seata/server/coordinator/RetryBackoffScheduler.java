@@ -0,0 +1,178 @@
+/*
+ *  Copyright 1999-2019 Seata.io Group.
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+package io.seata.server.coordinator;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ThreadLocalRandom;
+
+import io.seata.core.model.BranchStatus;
+import io.seata.core.model.GlobalStatus;
+import io.seata.server.session.BranchSession;
+import io.seata.server.session.GlobalSession;
+import io.seata.server.session.SessionLifecycleListener;
+
+/**
+ * Exponential backoff with jitter for the sessions of one retry queue. The attempt count and next attempt time
+ * are kept by transaction id rather than on the session instance, since db mode reads a new instance every round.
+ * <p>
+ * A state is dropped when its session ends, as a listener of the retried session, or when it is removed from the
+ * queue. The sessions passed to {@link #due} may be one page of the queue only, so a state missing from them is
+ * kept, and dropped only once it has not been attempted for {@link #STALE_PERIODS} max periods, such as when the
+ * session ended on another server.
+ */
+public class RetryBackoffScheduler implements SessionLifecycleListener {
+
+    private static final int STALE_PERIODS = 10;
+
+    private final long basePeriod;
+
+    private final long maxPeriod;
+
+    private final double jitter;
+
+    private final Map<Long, RetryState> states = new ConcurrentHashMap<>();
+
+    private volatile long lastExpireTime;
+
+    /**
+     * Instantiates a new Retry backoff scheduler.
+     *
+     * @param basePeriod the delay after the first failed attempt
+     * @param maxPeriod  the max delay, no backoff if not greater than basePeriod
+     * @param jitter     the ratio of the delay that is randomly taken off, between 0 and 1
+     */
+    public RetryBackoffScheduler(long basePeriod, long maxPeriod, double jitter) {
+        this.basePeriod = Math.max(1, basePeriod);
+        this.maxPeriod = Math.max(this.basePeriod, maxPeriod);
+        this.jitter = Math.min(1, Math.max(0, jitter));
+    }
+
+    /**
+     * Select the sessions due for a retry. Stale states are dropped.
+     *
+     * @param sessions the sessions of the retry queue, or of a page of it
+     * @param now      the now
+     * @return the due sessions
+     */
+    public List<GlobalSession> due(Collection<GlobalSession> sessions, long now) {
+        List<GlobalSession> due = new ArrayList<>(sessions.size());
+        for (GlobalSession session : sessions) {
+            RetryState state = states.get(session.getTransactionId());
+            if (state == null || state.nextAttemptTime <= now) {
+                due.add(session);
+            }
+        }
+        expire(now);
+        return due;
+    }
+
+    /**
+     * Drop the state of a session, once it ended or left the queue.
+     *
+     * @param session the session
+     */
+    public void remove(GlobalSession session) {
+        states.remove(session.getTransactionId());
+    }
+
+    /**
+     * Record an attempt and schedule the next one.
+     *
+     * @param session the session
+     * @param now     the now
+     */
+    public void onAttempt(GlobalSession session, long now) {
+        RetryState state = states.computeIfAbsent(session.getTransactionId(), k -> new RetryState());
+        state.attempts++;
+        state.nextAttemptTime = now + nextDelay(state.attempts);
+    }
+
+    /**
+     * The delay after the given number of attempts.
+     *
+     * @param attempts the attempts
+     * @return the delay
+     */
+    long nextDelay(int attempts) {
+        int shift = Math.min(Math.max(attempts - 1, 0), 30);
+        long delay = Math.min(maxPeriod, basePeriod << shift);
+        if (jitter > 0) {
+            delay -= (long)(delay * jitter * ThreadLocalRandom.current().nextDouble());
+        }
+        return delay;
+    }
+
+    /**
+     * Gets attempts of a session.
+     *
+     * @param session the session
+     * @return the attempts
+     */
+    public int getAttempts(GlobalSession session) {
+        RetryState state = states.get(session.getTransactionId());
+        return state == null ? 0 : state.attempts;
+    }
+
+    private void expire(long now) {
+        long staleAfter = maxPeriod * STALE_PERIODS;
+        // a sweep per max period at most, the states of a large queue are not walked every round
+        if (now - lastExpireTime < maxPeriod) {
+            return;
+        }
+        lastExpireTime = now;
+        states.values().removeIf(state -> now - state.nextAttemptTime > staleAfter);
+    }
+
+    @Override
+    public void onBegin(GlobalSession globalSession) {
+    }
+
+    @Override
+    public void onStatusChange(GlobalSession globalSession, GlobalStatus status) {
+    }
+
+    @Override
+    public void onBranchStatusChange(GlobalSession globalSession, BranchSession branchSession, BranchStatus status) {
+    }
+
+    @Override
+    public void onAddBranch(GlobalSession globalSession, BranchSession branchSession) {
+    }
+
+    @Override
+    public void onRemoveBranch(GlobalSession globalSession, BranchSession branchSession) {
+    }
+
+    @Override
+    public void onClose(GlobalSession globalSession) {
+    }
+
+    @Override
+    public void onEnd(GlobalSession globalSession) {
+        remove(globalSession);
+    }
+
+    private static class RetryState {
+
+        private volatile int attempts;
+
+        private volatile long nextAttemptTime;
+    }
+}
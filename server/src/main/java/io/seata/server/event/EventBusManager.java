@@ -15,6 +15,9 @@
  */
 package io.seata.server.event;
 
+import io.seata.config.ConfigurationFactory;
+import io.seata.core.constants.ConfigurationKeys;
+import io.seata.core.event.AsyncEventBus;
 import io.seata.core.event.EventBus;
 import io.seata.core.event.GuavaEventBus;
 
@@ -24,8 +27,16 @@ import io.seata.core.event.GuavaEventBus;
  * @author zhengyangyong
  */
 public class EventBusManager {
+    private static final int DEFAULT_BUFFER_SIZE = 8192;
+
     private static class SingletonHolder {
-        private static EventBus INSTANCE = new GuavaEventBus("tc");
+        private static EventBus INSTANCE = newEventBus();
+    }
+
+    private static EventBus newEventBus() {
+        int bufferSize = ConfigurationFactory.getInstance().getInt(ConfigurationKeys.SERVER_EVENT_BUFFER_SIZE,
+            DEFAULT_BUFFER_SIZE);
+        return bufferSize > 0 ? new AsyncEventBus("tc", bufferSize) : new GuavaEventBus("tc");
     }
 
     public static final EventBus get() {
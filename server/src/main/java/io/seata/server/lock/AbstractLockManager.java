@@ -15,11 +15,13 @@
  */
 package io.seata.server.lock;
 
+import java.nio.charset.StandardCharsets;
 import java.util.ArrayList;
 import java.util.List;
 
 import io.seata.common.XID;
 import io.seata.common.util.StringUtils;
+import io.seata.core.lock.BinaryLockKey;
 import io.seata.core.lock.RowLock;
 import io.seata.server.session.BranchSession;
 import org.slf4j.Logger;
@@ -46,14 +48,21 @@ public abstract class AbstractLockManager implements LockManager {
      */
     protected List<RowLock> collectRowLocks(BranchSession branchSession) {
         List<RowLock> locks = new ArrayList<>();
-        if (branchSession == null || StringUtils.isBlank(branchSession.getLockKey())) {
+        if (branchSession == null) {
             return locks;
         }
         String xid = branchSession.getXid();
         String resourceId = branchSession.getResourceId();
         long transactionId = branchSession.getTransactionId();
 
+        if (branchSession.getBinaryLockKey() != null) {
+            return collectRowLocks(branchSession.getBinaryLockKey(), resourceId, xid, transactionId,
+                branchSession.getBranchId());
+        }
         String lockKey = branchSession.getLockKey();
+        if (StringUtils.isBlank(lockKey)) {
+            return locks;
+        }
 
         return collectRowLocks(lockKey, resourceId, xid, transactionId, branchSession.getBranchId());
     }
@@ -115,4 +124,30 @@ public abstract class AbstractLockManager implements LockManager {
         return locks;
     }
 
+    /**
+     * Collect row locks list of a binary lock key.
+     *
+     * @param lockKey       the lock key
+     * @param resourceId    the resource id
+     * @param xid           the xid
+     * @param transactionId the transaction id
+     * @param branchID      the branch id
+     * @return the list
+     */
+    protected List<RowLock> collectRowLocks(BinaryLockKey lockKey, String resourceId, String xid,
+                                            Long transactionId, Long branchID) {
+        List<RowLock> locks = new ArrayList<>(lockKey.getRowCount());
+        lockKey.forEach((tableName, data, offset, length) -> {
+            RowLock rowLock = new RowLock();
+            rowLock.setXid(xid);
+            rowLock.setTransactionId(transactionId);
+            rowLock.setBranchId(branchID);
+            rowLock.setTableName(tableName);
+            rowLock.setPk(new String(data, offset, length, StandardCharsets.UTF_8));
+            rowLock.setResourceId(resourceId);
+            locks.add(rowLock);
+        });
+        return locks;
+    }
+
 }
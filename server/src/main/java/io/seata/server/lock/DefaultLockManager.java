@@ -18,15 +18,18 @@ package io.seata.server.lock;
 import java.util.ArrayList;
 import java.util.List;
 
+import io.seata.common.XID;
 import io.seata.common.util.CollectionUtils;
 import io.seata.common.util.StringUtils;
 import io.seata.config.Configuration;
 import io.seata.config.ConfigurationFactory;
 import io.seata.core.constants.ConfigurationKeys;
 import io.seata.core.exception.TransactionException;
+import io.seata.core.lock.BinaryLockKey;
 import io.seata.core.lock.Locker;
 import io.seata.core.lock.RowLock;
 import io.seata.core.store.StoreMode;
+import io.seata.server.lock.memory.MemoryLocker;
 import io.seata.server.session.BranchSession;
 import io.seata.server.session.GlobalSession;
 
@@ -50,6 +53,10 @@ public class DefaultLockManager extends AbstractLockManager {
         if (branchSession == null) {
             throw new IllegalArgumentException("branchSession can't be null for memory/file locker.");
         }
+        Locker locker = getLocker(branchSession);
+        if (branchSession.getBinaryLockKey() != null && locker instanceof MemoryLocker) {
+            return ((MemoryLocker)locker).acquireLock(branchSession.getBinaryLockKey());
+        }
         String lockKey = branchSession.getLockKey();
         if (StringUtils.isNullOrEmpty(lockKey)) {
             //no lock
@@ -61,7 +68,7 @@ public class DefaultLockManager extends AbstractLockManager {
             //no lock
             return true;
         }
-        return getLocker(branchSession).acquireLock(locks);
+        return locker.acquireLock(locks);
     }
 
     @Override
@@ -69,12 +76,20 @@ public class DefaultLockManager extends AbstractLockManager {
         if (branchSession == null) {
             throw new IllegalArgumentException("branchSession can't be null for memory/file locker.");
         }
+        Locker locker = getLocker(branchSession);
+        if (locker instanceof MemoryLocker) {
+            // the lock holder of the branch knows the rows, no need to parse the lock key
+            LockWaitQueue.getInstance().signal(((MemoryLocker)locker).releaseAll());
+            return true;
+        }
         List<RowLock> locks = collectRowLocks(branchSession);
         try {
             return this.doReleaseLock(locks, branchSession);
         } catch (Exception t) {
             LOGGER.error("unLock error, branchSession:" + branchSession, t);
             return false;
+        } finally {
+            LockWaitQueue.getInstance().signal(locks);
         }
     }
 
@@ -92,6 +107,8 @@ public class DefaultLockManager extends AbstractLockManager {
             } catch (Exception t) {
                 LOGGER.error("unLock globalSession error, xid:{}", globalSession.getXid(), t);
                 return false;
+            } finally {
+                LockWaitQueue.getInstance().signal(locks);
             }
         } else {
             boolean releaseLockResult = true;
@@ -123,6 +140,17 @@ public class DefaultLockManager extends AbstractLockManager {
         }
     }
 
+    @Override
+    public boolean isLockable(String xid, String resourceId, BinaryLockKey lockKey) throws TransactionException {
+        List<RowLock> locks = collectRowLocks(lockKey, resourceId, xid, XID.getTransactionId(xid), null);
+        try {
+            return getLocker().isLockable(locks);
+        } catch (Exception t) {
+            LOGGER.error("isLockable error, xid:" + xid + ", resourceId:" + resourceId + ", lockKey:" + lockKey, t);
+            return false;
+        }
+    }
+
     @Override
     public void cleanAllLocks() throws TransactionException {
         getLocker().cleanAllLocks();
@@ -16,6 +16,7 @@
 package io.seata.server.lock;
 
 import io.seata.core.exception.TransactionException;
+import io.seata.core.lock.BinaryLockKey;
 import io.seata.server.session.BranchSession;
 import io.seata.server.session.GlobalSession;
 
@@ -64,6 +65,17 @@ public interface LockManager {
      */
     boolean isLockable(String xid, String resourceId, String lockKey) throws TransactionException;
 
+    /**
+     * Is lockable boolean.
+     *
+     * @param xid        the xid
+     * @param resourceId the resource id
+     * @param lockKey    the binary lock key
+     * @return the boolean
+     * @throws TransactionException the transaction exception
+     */
+    boolean isLockable(String xid, String resourceId, BinaryLockKey lockKey) throws TransactionException;
+
     /**
      * Clean all locks.
      *
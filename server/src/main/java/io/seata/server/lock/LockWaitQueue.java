@@ -0,0 +1,439 @@
+/*
+ *  Copyright 1999-2019 Seata.io Group.
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+package io.seata.server.lock;
+
+import java.util.ArrayDeque;
+import java.util.Arrays;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import io.netty.util.HashedWheelTimer;
+import io.netty.util.Timeout;
+import io.seata.common.thread.NamedThreadFactory;
+import io.seata.common.util.FutureUtils;
+import io.seata.common.util.StringUtils;
+import io.seata.core.exception.TransactionException;
+import io.seata.core.lock.BinaryLockKey;
+import io.seata.core.lock.RowLock;
+import io.seata.server.lock.memory.RowLockTable;
+
+/**
+ * Per-row FIFO queues of the lock acquisitions waiting for a conflicting global lock to be released.
+ * <p>
+ * An attempt takes all its rows or none, so a waiter never holds a row while it waits and waiters can not dead
+ * lock each other. A release wakes the first waiter of each released row, which attempts again and stays at its
+ * place in the queues if it still conflicts. A newcomer finding waiters on one of its rows queues behind them
+ * instead of taking the row first. Releases are only seen within this server, so waiters also attempt again every
+ * recheck period, for the locks released by other servers in db mode.
+ * <p>
+ * No thread is parked while waiting: a waiter is only its attempt and a future, the attempts after a wake up run
+ * on a few attempt threads and complete the future of the waiter.
+ */
+public class LockWaitQueue {
+
+    private static final long DEFAULT_RECHECK_MILLS = 200L;
+
+    private static final long TIMER_TICK_MILLS = 10L;
+
+    private static final int ATTEMPT_THREADS = Math.max(2, Runtime.getRuntime().availableProcessors());
+
+    private final Map<Long, ArrayDeque<Waiter<?>>> queues = new ConcurrentHashMap<>();
+
+    private final long recheckMills;
+
+    private final HashedWheelTimer recheckTimer = new HashedWheelTimer(
+        new NamedThreadFactory("lockWaitRecheck", 1, true), TIMER_TICK_MILLS, TimeUnit.MILLISECONDS);
+
+    private final ThreadPoolExecutor attemptExecutor;
+
+    /**
+     * Instantiates a new Lock wait queue.
+     *
+     * @param recheckMills the max mills a waiter waits before attempting again without a release
+     */
+    public LockWaitQueue(long recheckMills) {
+        this.recheckMills = Math.max(1, recheckMills);
+        this.attemptExecutor = new ThreadPoolExecutor(ATTEMPT_THREADS, ATTEMPT_THREADS, 60L, TimeUnit.SECONDS,
+            new LinkedBlockingQueue<>(), new NamedThreadFactory("lockWaitAttempt", ATTEMPT_THREADS, true));
+        this.attemptExecutor.allowCoreThreadTimeOut(true);
+    }
+
+    /**
+     * Gets instance.
+     *
+     * @return the instance
+     */
+    public static LockWaitQueue getInstance() {
+        return SingletonHolder.INSTANCE;
+    }
+
+    /**
+     * Run the attempt, waiting in the queues of the rows until it succeeds or the timeout passes.
+     *
+     * @param <T>          the result type
+     * @param rowKeys      the row keys the attempt locks
+     * @param attempt      the attempt
+     * @param timeoutMills the timeout mills
+     * @return the result of the attempt, null if it still conflicts at the timeout
+     * @throws TransactionException the transaction exception
+     */
+    public <T> T acquire(long[] rowKeys, LockAttempt<T> attempt, long timeoutMills) throws TransactionException {
+        CompletableFuture<T> future = acquireAsync(rowKeys, attempt, timeoutMills);
+        try {
+            return future.get();
+        } catch (InterruptedException ex) {
+            // the waiter leaves the queues at its next wake up
+            future.cancel(false);
+            Thread.currentThread().interrupt();
+            return null;
+        } catch (ExecutionException ex) {
+            Throwable cause = FutureUtils.unwrap(ex);
+            if (cause instanceof TransactionException) {
+                throw (TransactionException)cause;
+            }
+            if (cause instanceof Error) {
+                throw (Error)cause;
+            }
+            throw cause instanceof RuntimeException ? (RuntimeException)cause : new RuntimeException(cause);
+        }
+    }
+
+    /**
+     * Run the attempt, queueing it on the rows if it conflicts. The calling thread only makes the first attempts,
+     * the later ones run after a release or a recheck on the attempt threads.
+     *
+     * @param <T>          the result type
+     * @param rowKeys      the row keys the attempt locks
+     * @param attempt      the attempt
+     * @param timeoutMills the timeout mills
+     * @return the future of the result of the attempt, completed with null if it still conflicts at the timeout
+     */
+    public <T> CompletableFuture<T> acquireAsync(long[] rowKeys, LockAttempt<T> attempt, long timeoutMills) {
+        if (!hasWaiters(rowKeys)) {
+            try {
+                T result = attempt.attempt();
+                if (result != null) {
+                    return CompletableFuture.completedFuture(result);
+                }
+            } catch (TransactionException | RuntimeException ex) {
+                return FutureUtils.failedFuture(ex);
+            }
+        }
+        Waiter<T> waiter = new Waiter<>(rowKeys, attempt, System.currentTimeMillis() + timeoutMills);
+        enqueue(rowKeys, waiter);
+        // attempt once more after being queued, the rows may have been released before
+        if (isFirst(rowKeys, waiter)) {
+            waiter.wake();
+        } else {
+            waiter.recheckLater();
+        }
+        return waiter.future;
+    }
+
+    /**
+     * Wake the first waiter of each released row.
+     *
+     * @param rowLocks the released row locks
+     */
+    public void signal(List<RowLock> rowLocks) {
+        if (queues.isEmpty() || rowLocks == null) {
+            return;
+        }
+        for (RowLock rowLock : rowLocks) {
+            signal(RowLockTable.rowKey(rowLock.getResourceId(), rowLock.getTableName(), rowLock.getPk()));
+        }
+    }
+
+    /**
+     * Wake the first waiter of each released row.
+     *
+     * @param rowKeys the released row keys
+     */
+    public void signal(long[] rowKeys) {
+        if (queues.isEmpty()) {
+            return;
+        }
+        for (long rowKey : rowKeys) {
+            signal(rowKey);
+        }
+    }
+
+    /**
+     * Wake the first waiter of a released row, other than the current thread.
+     *
+     * @param rowKey the row key
+     */
+    public void signal(long rowKey) {
+        ArrayDeque<Waiter<?>> queue = queues.get(rowKey);
+        if (queue == null) {
+            return;
+        }
+        Thread current = Thread.currentThread();
+        synchronized (queue) {
+            // a waiter releases what it took by a failed attempt, that must not wake itself
+            for (Waiter<?> waiter : queue) {
+                if (waiter.attemptThread != current) {
+                    waiter.wake();
+                    return;
+                }
+            }
+        }
+    }
+
+    /**
+     * Row keys of a lock key.
+     *
+     * @param resourceId the resource id
+     * @param lockKey    the lock key
+     * @return the row keys
+     */
+    public static long[] rowKeys(String resourceId, String lockKey) {
+        long[] rowKeys = new long[8];
+        int size = 0;
+        for (String tableGroupedLockKey : lockKey.split(";")) {
+            int idx = tableGroupedLockKey.indexOf(":");
+            if (idx < 0) {
+                continue;
+            }
+            String tableName = tableGroupedLockKey.substring(0, idx);
+            for (String pk : tableGroupedLockKey.substring(idx + 1).split(",")) {
+                if (StringUtils.isNotBlank(pk)) {
+                    if (size == rowKeys.length) {
+                        rowKeys = Arrays.copyOf(rowKeys, size << 1);
+                    }
+                    rowKeys[size++] = RowLockTable.rowKey(resourceId, tableName, pk);
+                }
+            }
+        }
+        return size == rowKeys.length ? rowKeys : Arrays.copyOf(rowKeys, size);
+    }
+
+    /**
+     * Row keys of a binary lock key.
+     *
+     * @param resourceId the resource id
+     * @param lockKey    the lock key
+     * @return the row keys
+     */
+    public static long[] rowKeys(String resourceId, BinaryLockKey lockKey) {
+        long[] rowKeys = new long[lockKey.getRowCount()];
+        int[] size = {0};
+        lockKey.forEach((tableName, data, offset, length) ->
+            rowKeys[size[0]++] = RowLockTable.rowKey(resourceId, tableName, data, offset, length));
+        return rowKeys;
+    }
+
+    /**
+     * Gets the count of rows having waiters.
+     *
+     * @return the size
+     */
+    public int size() {
+        return queues.size();
+    }
+
+    private boolean hasWaiters(long[] rowKeys) {
+        if (queues.isEmpty()) {
+            return false;
+        }
+        for (long rowKey : rowKeys) {
+            if (queues.containsKey(rowKey)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private boolean isFirst(long[] rowKeys, Waiter<?> waiter) {
+        for (long rowKey : rowKeys) {
+            ArrayDeque<Waiter<?>> queue = queues.get(rowKey);
+            if (queue != null) {
+                synchronized (queue) {
+                    if (queue.peekFirst() != waiter) {
+                        return false;
+                    }
+                }
+            }
+        }
+        return true;
+    }
+
+    private void enqueue(long[] rowKeys, Waiter<?> waiter) {
+        for (long rowKey : rowKeys) {
+            queues.compute(rowKey, (key, queue) -> {
+                if (queue == null) {
+                    queue = new ArrayDeque<>();
+                }
+                synchronized (queue) {
+                    if (!queue.contains(waiter)) {
+                        queue.addLast(waiter);
+                    }
+                }
+                return queue;
+            });
+        }
+    }
+
+    private void leave(long[] rowKeys, Waiter<?> waiter, boolean handOff) {
+        for (long rowKey : rowKeys) {
+            queues.computeIfPresent(rowKey, (key, queue) -> {
+                synchronized (queue) {
+                    boolean wasFirst = queue.peekFirst() == waiter;
+                    Iterator<Waiter<?>> iterator = queue.iterator();
+                    while (iterator.hasNext()) {
+                        if (iterator.next() == waiter) {
+                            iterator.remove();
+                        }
+                    }
+                    if (queue.isEmpty()) {
+                        return null;
+                    }
+                    // a first waiter giving up may have been woken for a release, pass it on
+                    if (wasFirst && handOff) {
+                        queue.peekFirst().wake();
+                    }
+                    return queue;
+                }
+            });
+        }
+    }
+
+    /**
+     * An attempt to take the locks.
+     *
+     * @param <T> the result type
+     */
+    @FunctionalInterface
+    public interface LockAttempt<T> {
+
+        /**
+         * Attempt to take the locks.
+         *
+         * @return the result, null if the locks conflict
+         * @throws TransactionException the transaction exception
+         */
+        T attempt() throws TransactionException;
+    }
+
+    /**
+     * A queued attempt. Wake ups coming while it attempts are merged into one more attempt, so a waiter never
+     * attempts on two threads at once.
+     *
+     * @param <T> the result type
+     */
+    private class Waiter<T> implements Runnable {
+
+        private final long[] rowKeys;
+
+        private final LockAttempt<T> attempt;
+
+        private final long deadline;
+
+        private final CompletableFuture<T> future = new CompletableFuture<>();
+
+        private final AtomicInteger wakeups = new AtomicInteger();
+
+        private volatile Thread attemptThread;
+
+        private volatile Timeout recheck;
+
+        Waiter(long[] rowKeys, LockAttempt<T> attempt, long deadline) {
+            this.rowKeys = rowKeys;
+            this.attempt = attempt;
+            this.deadline = deadline;
+        }
+
+        void wake() {
+            if (wakeups.getAndIncrement() == 0) {
+                try {
+                    attemptExecutor.execute(this);
+                } catch (RejectedExecutionException ex) {
+                    finish(null, ex);
+                }
+            }
+        }
+
+        void recheckLater() {
+            long delay = Math.max(0, Math.min(recheckMills, deadline - System.currentTimeMillis()));
+            recheck = recheckTimer.newTimeout(timeout -> wake(), delay, TimeUnit.MILLISECONDS);
+        }
+
+        @Override
+        public void run() {
+            int pending = wakeups.get();
+            while (!attemptOnce()) {
+                pending = wakeups.addAndGet(-pending);
+                if (pending == 0) {
+                    return;
+                }
+            }
+        }
+
+        private boolean attemptOnce() {
+            if (future.isDone()) {
+                // cancelled by a blocked caller giving up
+                finish(null, null);
+                return true;
+            }
+            Timeout timeout = recheck;
+            if (timeout != null) {
+                timeout.cancel();
+            }
+            T result;
+            attemptThread = Thread.currentThread();
+            try {
+                result = attempt.attempt();
+            } catch (Throwable ex) {
+                finish(null, ex);
+                return true;
+            } finally {
+                attemptThread = null;
+            }
+            if (result != null || System.currentTimeMillis() >= deadline) {
+                finish(result, null);
+                return true;
+            }
+            recheckLater();
+            return false;
+        }
+
+        private void finish(T result, Throwable error) {
+            Timeout timeout = recheck;
+            if (timeout != null) {
+                timeout.cancel();
+            }
+            leave(rowKeys, this, result == null);
+            if (error != null) {
+                future.completeExceptionally(error);
+            } else {
+                future.complete(result);
+            }
+        }
+    }
+
+    private static class SingletonHolder {
+        private static final LockWaitQueue INSTANCE = new LockWaitQueue(DEFAULT_RECHECK_MILLS);
+    }
+}
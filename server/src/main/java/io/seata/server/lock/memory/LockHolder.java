@@ -0,0 +1,63 @@
+/*
+ *  Copyright 1999-2019 Seata.io Group.
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+package io.seata.server.lock.memory;
+
+import java.util.Arrays;
+
+/**
+ * The row keys locked in the {@link RowLockTable} by one branch, kept in a growing long array.
+ */
+public class LockHolder {
+
+    private static final long[] EMPTY = new long[0];
+
+    private long[] rowKeys = EMPTY;
+
+    private int size;
+
+    /**
+     * Add a row key.
+     *
+     * @param rowKey the row key
+     */
+    public synchronized void add(long rowKey) {
+        if (size == rowKeys.length) {
+            rowKeys = Arrays.copyOf(rowKeys, Math.max(4, size << 1));
+        }
+        rowKeys[size++] = rowKey;
+    }
+
+    /**
+     * Remove and return all row keys.
+     *
+     * @return the row keys
+     */
+    public synchronized long[] removeAll() {
+        long[] removed = size == rowKeys.length ? rowKeys : Arrays.copyOf(rowKeys, size);
+        rowKeys = EMPTY;
+        size = 0;
+        return removed;
+    }
+
+    /**
+     * Gets the count of held row keys.
+     *
+     * @return the size
+     */
+    public synchronized int size() {
+        return size;
+    }
+}
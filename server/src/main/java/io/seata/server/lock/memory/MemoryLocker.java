@@ -15,19 +15,15 @@
  */
 package io.seata.server.lock.memory;
 
-import java.util.Iterator;
+import java.nio.charset.StandardCharsets;
 import java.util.List;
-import java.util.Map;
-import java.util.Set;
-import java.util.concurrent.ConcurrentHashMap;
-import java.util.concurrent.ConcurrentMap;
 
-import io.netty.util.internal.ConcurrentSet;
 import io.seata.common.exception.FrameworkException;
 import io.seata.common.loader.LoadLevel;
 import io.seata.common.util.CollectionUtils;
 import io.seata.core.exception.TransactionException;
 import io.seata.core.lock.AbstractLocker;
+import io.seata.core.lock.BinaryLockKey;
 import io.seata.core.lock.RowLock;
 import io.seata.server.session.BranchSession;
 
@@ -40,14 +36,9 @@ import io.seata.server.session.BranchSession;
 @LoadLevel(name = "file")
 public class MemoryLocker extends AbstractLocker {
 
-    private static final int BUCKET_PER_TABLE = 128;
+    private static final int LOCK_TABLE_STRIPES = Runtime.getRuntime().availableProcessors() * 8;
 
-    private static final ConcurrentMap<String/* resourceId */,
-        ConcurrentMap<String/* tableName */,
-            ConcurrentMap<Integer/* bucketId */,
-                BucketLockMap>>>
-        LOCK_MAP
-        = new ConcurrentHashMap<>();
+    private static final RowLockTable LOCK_TABLE = new RowLockTable(LOCK_TABLE_STRIPES);
 
     /**
      * The Branch session.
@@ -72,69 +63,91 @@ public class MemoryLocker extends AbstractLocker {
         String resourceId = branchSession.getResourceId();
         long transactionId = branchSession.getTransactionId();
 
-        ConcurrentMap<BucketLockMap, Set<String>> bucketHolder = branchSession.getLockHolder();
-        ConcurrentMap<String, ConcurrentMap<Integer, BucketLockMap>> dbLockMap = LOCK_MAP.get(resourceId);
-        if (dbLockMap == null) {
-            LOCK_MAP.putIfAbsent(resourceId,
-                new ConcurrentHashMap<>());
-            dbLockMap = LOCK_MAP.get(resourceId);
-        }
-
+        LockHolder lockHolder = branchSession.getLockHolder();
         for (RowLock lock : rowLocks) {
             String tableName = lock.getTableName();
             String pk = lock.getPk();
-            ConcurrentMap<Integer, BucketLockMap> tableLockMap = dbLockMap.get(tableName);
-            if (tableLockMap == null) {
-                dbLockMap.putIfAbsent(tableName, new ConcurrentHashMap<>());
-                tableLockMap = dbLockMap.get(tableName);
+            long rowKey = RowLockTable.rowKey(resourceId, tableName, pk);
+            long owner = tryLock(rowKey, transactionId, lockHolder);
+            if (owner != RowLockTable.NO_OWNER) {
+                return onConflict(tableName, pk, owner);
             }
-            int bucketId = pk.hashCode() % BUCKET_PER_TABLE;
-            BucketLockMap bucketLockMap = tableLockMap.get(bucketId);
-            if (bucketLockMap == null) {
-                tableLockMap.putIfAbsent(bucketId, new BucketLockMap());
-                bucketLockMap = tableLockMap.get(bucketId);
+        }
+        return true;
+    }
+
+    /**
+     * Acquire the locks of a binary lock key, the rows are hashed from the pk bytes without making objects.
+     *
+     * @param lockKey the lock key
+     * @return the boolean
+     */
+    public boolean acquireLock(BinaryLockKey lockKey) {
+        String resourceId = branchSession.getResourceId();
+        long transactionId = branchSession.getTransactionId();
+
+        LockHolder lockHolder = branchSession.getLockHolder();
+        boolean[] acquired = {true};
+        lockKey.forEach((tableName, data, offset, length) -> {
+            if (!acquired[0]) {
+                return;
             }
-            Long previousLockTransactionId = bucketLockMap.get().putIfAbsent(pk, transactionId);
-            if (previousLockTransactionId == null) {
-                //No existing lock, and now locked by myself
-                Set<String> keysInHolder = bucketHolder.get(bucketLockMap);
-                if (keysInHolder == null) {
-                    bucketHolder.putIfAbsent(bucketLockMap, new ConcurrentSet<>());
-                    keysInHolder = bucketHolder.get(bucketLockMap);
-                }
-                keysInHolder.add(pk);
-            } else if (previousLockTransactionId == transactionId) {
-                // Locked by me before
-                continue;
-            } else {
-                LOGGER.info("Global lock on [" + tableName + ":" + pk + "] is holding by " + previousLockTransactionId);
-                try {
-                    // Release all acquired locks.
-                    branchSession.unlock();
-                } catch (TransactionException e) {
-                    throw new FrameworkException(e);
-                }
-                return false;
+            long rowKey = RowLockTable.rowKey(resourceId, tableName, data, offset, length);
+            long owner = tryLock(rowKey, transactionId, lockHolder);
+            if (owner != RowLockTable.NO_OWNER) {
+                acquired[0] = onConflict(tableName, new String(data, offset, length, StandardCharsets.UTF_8), owner);
             }
+        });
+        return acquired[0];
+    }
+
+    /**
+     * Lock a row for the branch.
+     *
+     * @return {@link RowLockTable#NO_OWNER} if the row is held by the transaction now, otherwise the holder
+     */
+    private long tryLock(long rowKey, long transactionId, LockHolder lockHolder) {
+        long previousLockTransactionId = LOCK_TABLE.tryLock(rowKey, transactionId);
+        if (previousLockTransactionId == RowLockTable.NO_OWNER) {
+            //No existing lock, and now locked by myself
+            lockHolder.add(rowKey);
+            return RowLockTable.NO_OWNER;
+        } else if (previousLockTransactionId == transactionId) {
+            // Locked by me before
+            return RowLockTable.NO_OWNER;
         }
-        return true;
+        return previousLockTransactionId;
     }
 
-    @Override
-    public boolean releaseLock(List<RowLock> rowLock) {
-        ConcurrentMap<BucketLockMap, Set<String>> lockHolder = branchSession.getLockHolder();
-        if (lockHolder == null || lockHolder.size() == 0) {
-            return true;
+    private boolean onConflict(String tableName, String pk, long previousLockTransactionId) {
+        LOGGER.info("Global lock on [" + tableName + ":" + pk + "] is holding by " + previousLockTransactionId);
+        try {
+            // Release all acquired locks.
+            branchSession.unlock();
+        } catch (TransactionException e) {
+            throw new FrameworkException(e);
         }
-        for (Map.Entry<BucketLockMap, Set<String>> entry : lockHolder.entrySet()) {
-            BucketLockMap bucket = entry.getKey();
-            Set<String> keys = entry.getValue();
-            for (String key : keys) {
-                // remove lock only if it locked by myself
-                bucket.get().remove(key, branchSession.getTransactionId());
-            }
+        return false;
+    }
+
+    /**
+     * Release all locks of the branch.
+     *
+     * @return the released row keys
+     */
+    public long[] releaseAll() {
+        long transactionId = branchSession.getTransactionId();
+        long[] rowKeys = branchSession.getLockHolder().removeAll();
+        for (long rowKey : rowKeys) {
+            // remove lock only if it locked by myself
+            LOCK_TABLE.unlock(rowKey, transactionId);
         }
-        lockHolder.clear();
+        return rowKeys;
+    }
+
+    @Override
+    public boolean releaseLock(List<RowLock> rowLock) {
+        releaseAll();
         return true;
     }
 
@@ -144,28 +157,13 @@ public class MemoryLocker extends AbstractLocker {
             //no lock
             return true;
         }
-        Long transactionId = rowLocks.get(0).getTransactionId();
+        long transactionId = rowLocks.get(0).getTransactionId();
         String resourceId = rowLocks.get(0).getResourceId();
-        ConcurrentMap<String, ConcurrentMap<Integer, BucketLockMap>> dbLockMap = LOCK_MAP.get(resourceId);
-        if (dbLockMap == null) {
-            return true;
-        }
         for (RowLock rowLock : rowLocks) {
-            String xid = rowLock.getXid();
             String tableName = rowLock.getTableName();
             String pk = rowLock.getPk();
-
-            ConcurrentMap<Integer, BucketLockMap> tableLockMap = dbLockMap.get(tableName);
-            if (tableLockMap == null) {
-                continue;
-            }
-            int bucketId = pk.hashCode() % BUCKET_PER_TABLE;
-            BucketLockMap bucketLockMap = tableLockMap.get(bucketId);
-            if (bucketLockMap == null) {
-                continue;
-            }
-            Long lockingTransactionId = bucketLockMap.get().get(pk);
-            if (lockingTransactionId == null || lockingTransactionId.longValue() == transactionId) {
+            long lockingTransactionId = LOCK_TABLE.getOwner(RowLockTable.rowKey(resourceId, tableName, pk));
+            if (lockingTransactionId == RowLockTable.NO_OWNER || lockingTransactionId == transactionId) {
                 // Locked by me
                 continue;
             } else {
@@ -178,31 +176,6 @@ public class MemoryLocker extends AbstractLocker {
 
     @Override
     public void cleanAllLocks() {
-        LOCK_MAP.clear();
-    }
-
-    /**
-     * Because bucket lock map will be key of HashMap(lockHolder), however {@link ConcurrentHashMap} overwrites
-     * {@link Object##hashCode()} and {@link Object##equals(Object)}, that leads to hash key conflict in lockHolder.
-     * We define a {@link BucketLockMap} to hold the ConcurrentHashMap(bucketLockMap) and replace it as key of
-     * HashMap(lockHolder).
-     */
-    public static class BucketLockMap {
-        private final ConcurrentHashMap<String/* pk */, Long/* transactionId */> bucketLockMap
-            = new ConcurrentHashMap<>();
-
-        ConcurrentHashMap<String, Long> get() {
-            return bucketLockMap;
-        }
-
-        @Override
-        public int hashCode() {
-            return super.hashCode();
-        }
-
-        @Override
-        public boolean equals(Object o) {
-            return super.equals(o);
-        }
+        LOCK_TABLE.clear();
     }
 }
@@ -0,0 +1,316 @@
+/*
+ *  Copyright 1999-2019 Seata.io Group.
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+package io.seata.server.lock.memory;
+
+/**
+ * Table of the row locks held in memory. A row is identified by the 64-bit hash of its resource id, table name and
+ * primary key, and mapped to the transaction id holding it. The table is split into stripes, each an open
+ * addressing hash table of two primitive arrays guarded by its own monitor, so a held lock costs two longs and
+ * taking one allocates nothing.
+ * <p>
+ * Two rows with the same hash are seen as the same row: the second one waits for the first one's transaction.
+ * That is a spurious conflict, never two owners of one row.
+ */
+public class RowLockTable {
+
+    /**
+     * The constant NO_OWNER, transaction ids are never 0.
+     */
+    public static final long NO_OWNER = 0L;
+
+    private static final long EMPTY_KEY = 0L;
+
+    private static final int INITIAL_STRIPE_CAPACITY = 64;
+
+    private static final long FNV_OFFSET_BASIS = 0xcbf29ce484222325L;
+
+    private static final long FNV_PRIME = 0x100000001b3L;
+
+    private static final int SEPARATOR = 0xffff;
+
+    private final Stripe[] stripes;
+
+    private final int stripeMask;
+
+    /**
+     * Instantiates a new Row lock table.
+     *
+     * @param stripeCount the stripe count, rounded up to a power of two
+     */
+    public RowLockTable(int stripeCount) {
+        int size = 1;
+        while (size < stripeCount) {
+            size <<= 1;
+        }
+        this.stripes = new Stripe[size];
+        for (int i = 0; i < size; i++) {
+            stripes[i] = new Stripe();
+        }
+        this.stripeMask = size - 1;
+    }
+
+    /**
+     * Hash of a row, never 0.
+     *
+     * @param resourceId the resource id
+     * @param tableName  the table name
+     * @param pk         the pk
+     * @return the row key
+     */
+    public static long rowKey(String resourceId, String tableName, String pk) {
+        // FNV-1a over the utf-8 bytes, with a separator so "a"+"bc" and "ab"+"c" differ
+        long hash = FNV_OFFSET_BASIS;
+        hash = hash(hash, resourceId);
+        hash = hash(hash, tableName);
+        hash = hash(hash, pk);
+        return finish(hash);
+    }
+
+    /**
+     * Hash of a row whose pk is given as utf-8 bytes, the same as {@link #rowKey(String, String, String)} of the
+     * decoded pk.
+     *
+     * @param resourceId the resource id
+     * @param tableName  the table name
+     * @param pk         the pk bytes
+     * @param offset     the offset of the pk
+     * @param length     the length of the pk
+     * @return the row key
+     */
+    public static long rowKey(String resourceId, String tableName, byte[] pk, int offset, int length) {
+        long hash = FNV_OFFSET_BASIS;
+        hash = hash(hash, resourceId);
+        hash = hash(hash, tableName);
+        for (int i = offset; i < offset + length; i++) {
+            hash = mix(hash, pk[i] & 0xFF);
+        }
+        hash = mix(hash, SEPARATOR);
+        return finish(hash);
+    }
+
+    private static long finish(long hash) {
+        // murmur3 finalizer, the low bits pick the slot and the high bits the stripe
+        hash ^= hash >>> 33;
+        hash *= 0xff51afd7ed558ccdL;
+        hash ^= hash >>> 33;
+        hash *= 0xc4ceb9fe1a85ec53L;
+        hash ^= hash >>> 33;
+        return hash == EMPTY_KEY ? 1L : hash;
+    }
+
+    private static long hash(long hash, String value) {
+        if (value != null) {
+            // encode to utf-8 on the fly, as String.getBytes would
+            int length = value.length();
+            for (int i = 0; i < length; i++) {
+                char c = value.charAt(i);
+                if (c < 0x80) {
+                    hash = mix(hash, c);
+                } else if (c < 0x800) {
+                    hash = mix(hash, 0xc0 | (c >> 6));
+                    hash = mix(hash, 0x80 | (c & 0x3f));
+                } else if (Character.isSurrogate(c)) {
+                    if (Character.isHighSurrogate(c) && i + 1 < length && Character.isLowSurrogate(value.charAt(i + 1))) {
+                        int codePoint = Character.toCodePoint(c, value.charAt(++i));
+                        hash = mix(hash, 0xf0 | (codePoint >> 18));
+                        hash = mix(hash, 0x80 | ((codePoint >> 12) & 0x3f));
+                        hash = mix(hash, 0x80 | ((codePoint >> 6) & 0x3f));
+                        hash = mix(hash, 0x80 | (codePoint & 0x3f));
+                    } else {
+                        // a lone surrogate is encoded as '?'
+                        hash = mix(hash, '?');
+                    }
+                } else {
+                    hash = mix(hash, 0xe0 | (c >> 12));
+                    hash = mix(hash, 0x80 | ((c >> 6) & 0x3f));
+                    hash = mix(hash, 0x80 | (c & 0x3f));
+                }
+            }
+        }
+        return mix(hash, SEPARATOR);
+    }
+
+    private static long mix(long hash, int value) {
+        hash ^= value;
+        hash *= FNV_PRIME;
+        return hash;
+    }
+
+    /**
+     * Lock a row for a transaction if no other transaction holds it.
+     *
+     * @param rowKey        the row key
+     * @param transactionId the transaction id
+     * @return {@link #NO_OWNER} if the row is locked now, otherwise the transaction holding it before
+     */
+    public long tryLock(long rowKey, long transactionId) {
+        return stripeOf(rowKey).tryLock(rowKey, transactionId);
+    }
+
+    /**
+     * Release a row if it is held by the transaction.
+     *
+     * @param rowKey        the row key
+     * @param transactionId the transaction id
+     * @return true if it was released
+     */
+    public boolean unlock(long rowKey, long transactionId) {
+        return stripeOf(rowKey).unlock(rowKey, transactionId);
+    }
+
+    /**
+     * Gets the transaction holding a row.
+     *
+     * @param rowKey the row key
+     * @return the owner, {@link #NO_OWNER} if the row is free
+     */
+    public long getOwner(long rowKey) {
+        return stripeOf(rowKey).getOwner(rowKey);
+    }
+
+    /**
+     * Gets the count of held row locks.
+     *
+     * @return the size
+     */
+    public int size() {
+        int size = 0;
+        for (Stripe stripe : stripes) {
+            size += stripe.size();
+        }
+        return size;
+    }
+
+    /**
+     * Release all row locks.
+     */
+    public void clear() {
+        for (Stripe stripe : stripes) {
+            stripe.clear();
+        }
+    }
+
+    private Stripe stripeOf(long rowKey) {
+        return stripes[(int)(rowKey >>> 40) & stripeMask];
+    }
+
+    /**
+     * Linear probing over a keys array and a parallel owners array. Removal shifts the following entries back,
+     * so there are no tombstones and lookups stop at the first empty slot.
+     */
+    private static final class Stripe {
+
+        private long[] keys = new long[INITIAL_STRIPE_CAPACITY];
+
+        private long[] owners = new long[INITIAL_STRIPE_CAPACITY];
+
+        private int size;
+
+        synchronized long tryLock(long rowKey, long transactionId) {
+            int mask = keys.length - 1;
+            int i = (int)rowKey & mask;
+            while (keys[i] != EMPTY_KEY) {
+                if (keys[i] == rowKey) {
+                    return owners[i];
+                }
+                i = (i + 1) & mask;
+            }
+            keys[i] = rowKey;
+            owners[i] = transactionId;
+            if (++size > keys.length >>> 1) {
+                resize(keys.length << 1);
+            }
+            return NO_OWNER;
+        }
+
+        synchronized boolean unlock(long rowKey, long transactionId) {
+            int i = indexOf(rowKey);
+            if (i < 0 || owners[i] != transactionId) {
+                return false;
+            }
+            remove(i);
+            return true;
+        }
+
+        synchronized long getOwner(long rowKey) {
+            int i = indexOf(rowKey);
+            return i < 0 ? NO_OWNER : owners[i];
+        }
+
+        synchronized int size() {
+            return size;
+        }
+
+        synchronized void clear() {
+            keys = new long[INITIAL_STRIPE_CAPACITY];
+            owners = new long[INITIAL_STRIPE_CAPACITY];
+            size = 0;
+        }
+
+        private int indexOf(long rowKey) {
+            int mask = keys.length - 1;
+            int i = (int)rowKey & mask;
+            while (keys[i] != EMPTY_KEY) {
+                if (keys[i] == rowKey) {
+                    return i;
+                }
+                i = (i + 1) & mask;
+            }
+            return -1;
+        }
+
+        private void remove(int i) {
+            int mask = keys.length - 1;
+            int hole = i;
+            int j = i;
+            while (true) {
+                j = (j + 1) & mask;
+                if (keys[j] == EMPTY_KEY) {
+                    break;
+                }
+                int home = (int)keys[j] & mask;
+                // the entry at j stays if its home slot lies cyclically in (hole, j]
+                boolean stays = hole <= j ? (hole < home && home <= j) : (hole < home || home <= j);
+                if (!stays) {
+                    keys[hole] = keys[j];
+                    owners[hole] = owners[j];
+                    hole = j;
+                }
+            }
+            keys[hole] = EMPTY_KEY;
+            owners[hole] = NO_OWNER;
+            size--;
+        }
+
+        private void resize(int capacity) {
+            long[] oldKeys = keys;
+            long[] oldOwners = owners;
+            keys = new long[capacity];
+            owners = new long[capacity];
+            int mask = capacity - 1;
+            for (int k = 0; k < oldKeys.length; k++) {
+                if (oldKeys[k] != EMPTY_KEY) {
+                    int i = (int)oldKeys[k] & mask;
+                    while (keys[i] != EMPTY_KEY) {
+                        i = (i + 1) & mask;
+                    }
+                    keys[i] = oldKeys[k];
+                    owners[i] = oldOwners[k];
+                }
+            }
+        }
+    }
+}
@@ -20,6 +20,7 @@ import java.util.Map;
 import java.util.concurrent.TimeUnit;
 import java.util.function.Consumer;
 
+import com.google.common.eventbus.AllowConcurrentEvents;
 import com.google.common.eventbus.Subscribe;
 import io.seata.core.event.GlobalTransactionEvent;
 import io.seata.core.model.GlobalStatus;
@@ -85,6 +86,7 @@ public class MetricsSubscriber {
     }
 
     @Subscribe
+    @AllowConcurrentEvents
     public void recordGlobalTransactionEventForMetrics(GlobalTransactionEvent event) {
         if (registry != null && consumers.containsKey(event.getStatus())) {
             consumers.get(event.getStatus()).accept(event);
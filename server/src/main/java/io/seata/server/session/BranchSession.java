@@ -15,18 +15,16 @@
  */
 package io.seata.server.session;
 
-import io.seata.server.lock.memory.MemoryLocker;
 import java.io.IOException;
 import java.nio.ByteBuffer;
-import java.util.Set;
-import java.util.concurrent.ConcurrentHashMap;
-import java.util.concurrent.ConcurrentMap;
 
 import io.seata.common.util.CompressUtil;
 import io.seata.core.exception.TransactionException;
+import io.seata.core.lock.BinaryLockKey;
 import io.seata.core.model.BranchStatus;
 import io.seata.core.model.BranchType;
 import io.seata.server.lock.LockerFactory;
+import io.seata.server.lock.memory.LockHolder;
 import io.seata.server.store.SessionStorable;
 import io.seata.server.store.StoreConfig;
 import org.slf4j.Logger;
@@ -58,6 +56,8 @@ public class BranchSession implements Lockable, Comparable<BranchSession>, Sessi
 
     private String lockKey;
 
+    private BinaryLockKey binaryLockKey;
+
     private BranchType branchType;
 
     private BranchStatus status = BranchStatus.Unknown;
@@ -66,8 +66,7 @@ public class BranchSession implements Lockable, Comparable<BranchSession>, Sessi
 
     private String applicationData;
 
-    private ConcurrentMap<MemoryLocker.BucketLockMap, Set<String>> lockHolder
-        = new ConcurrentHashMap<>();
+    private final LockHolder lockHolder = new LockHolder();
 
     /**
      * Gets application data.
@@ -142,12 +141,17 @@ public class BranchSession implements Lockable, Comparable<BranchSession>, Sessi
     }
 
     /**
-     * Gets lock key.
+     * Gets lock key, rendered from the binary lock key on first use if it was registered in that form.
      *
      * @return the lock key
      */
     public String getLockKey() {
-        return lockKey;
+        String text = lockKey;
+        if (text == null && binaryLockKey != null) {
+            text = binaryLockKey.toText();
+            lockKey = text;
+        }
+        return text;
     }
 
     /**
@@ -159,6 +163,24 @@ public class BranchSession implements Lockable, Comparable<BranchSession>, Sessi
         this.lockKey = lockKey;
     }
 
+    /**
+     * Gets binary lock key, only set on the branch being registered by a client sending the binary form.
+     *
+     * @return the binary lock key
+     */
+    public BinaryLockKey getBinaryLockKey() {
+        return binaryLockKey;
+    }
+
+    /**
+     * Sets binary lock key, it is not stored, the lock key stored is rendered from it when first asked for.
+     *
+     * @param binaryLockKey the binary lock key
+     */
+    public void setBinaryLockKey(BinaryLockKey binaryLockKey) {
+        this.binaryLockKey = binaryLockKey;
+    }
+
     /**
      * Gets branch type.
      *
@@ -264,7 +286,7 @@ public class BranchSession implements Lockable, Comparable<BranchSession>, Sessi
      *
      * @return the lock holder
      */
-    public ConcurrentMap<MemoryLocker.BucketLockMap, Set<String>> getLockHolder() {
+    public LockHolder getLockHolder() {
         return lockHolder;
     }
 
@@ -283,7 +305,8 @@ public class BranchSession implements Lockable, Comparable<BranchSession>, Sessi
 
         byte[] resourceIdBytes = resourceId != null ? resourceId.getBytes() : null;
 
-        byte[] lockKeyBytes = lockKey != null ? lockKey.getBytes() : null;
+        String lockKeyText = getLockKey();
+        byte[] lockKeyBytes = lockKeyText != null ? lockKeyText.getBytes() : null;
 
         byte[] clientIdBytes = clientId != null ? clientId.getBytes() : null;
 
@@ -389,7 +412,15 @@ public class BranchSession implements Lockable, Comparable<BranchSession>, Sessi
 
     @Override
     public void decode(byte[] a) {
-        ByteBuffer byteBuffer = ByteBuffer.wrap(a);
+        decode(ByteBuffer.wrap(a));
+    }
+
+    /**
+     * Decode from the position of the buffer, the buffer may be a view of a mapped data file.
+     *
+     * @param byteBuffer the byte buffer
+     */
+    public void decode(ByteBuffer byteBuffer) {
         this.transactionId = byteBuffer.getLong();
         this.branchId = byteBuffer.getLong();
         int resourceLen = byteBuffer.getInt();
@@ -0,0 +1,157 @@
+/*
+ *  Copyright 1999-2019 Seata.io Group.
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+package io.seata.server.session;
+
+import java.util.concurrent.atomic.AtomicReferenceArray;
+
+/**
+ * The branches of a global session by branch id, an open addressing table keyed by the primitive branch id.
+ * <p>
+ * Writes are serialized by the caller. Reads take no lock: a slot is published by a volatile write after the branch
+ * is complete, a grown table is published as a whole, and a removed slot is marked rather than cleared so the probe
+ * of a concurrent read goes on past it.
+ */
+final class BranchSessionIndex {
+
+    private static final BranchSession REMOVED = new BranchSession();
+
+    private static final int MIN_CAPACITY = 16;
+
+    private volatile AtomicReferenceArray<BranchSession> table = new AtomicReferenceArray<>(MIN_CAPACITY);
+
+    /**
+     * The live branches.
+     */
+    private int size;
+
+    /**
+     * The slots not null, live or removed, kept below half of the table so a probe always ends.
+     */
+    private int used;
+
+    /**
+     * Gets the branch of the id.
+     *
+     * @param branchId the branch id
+     * @return the branch, or null
+     */
+    BranchSession get(long branchId) {
+        AtomicReferenceArray<BranchSession> tab = table;
+        int mask = tab.length() - 1;
+        for (int i = indexOf(branchId, mask); ; i = (i + 1) & mask) {
+            BranchSession branchSession = tab.get(i);
+            if (branchSession == null) {
+                return null;
+            }
+            if (branchSession != REMOVED && branchSession.getBranchId() == branchId) {
+                return branchSession;
+            }
+        }
+    }
+
+    /**
+     * Put a branch, replacing the branch of the same id.
+     *
+     * @param branchSession the branch session
+     */
+    void put(BranchSession branchSession) {
+        if ((used + 1) * 2 > table.length()) {
+            rehash(size + 1);
+        }
+        AtomicReferenceArray<BranchSession> tab = table;
+        long branchId = branchSession.getBranchId();
+        int mask = tab.length() - 1;
+        int free = -1;
+        int i = indexOf(branchId, mask);
+        for (; ; i = (i + 1) & mask) {
+            BranchSession current = tab.get(i);
+            if (current == null) {
+                break;
+            }
+            if (current == REMOVED) {
+                if (free < 0) {
+                    free = i;
+                }
+            } else if (current.getBranchId() == branchId) {
+                tab.set(i, branchSession);
+                return;
+            }
+        }
+        if (free < 0) {
+            free = i;
+            used++;
+        }
+        size++;
+        tab.set(free, branchSession);
+    }
+
+    /**
+     * Remove a branch, if it is the one indexed by its id.
+     *
+     * @param branchSession the branch session
+     */
+    void remove(BranchSession branchSession) {
+        AtomicReferenceArray<BranchSession> tab = table;
+        int mask = tab.length() - 1;
+        for (int i = indexOf(branchSession.getBranchId(), mask); ; i = (i + 1) & mask) {
+            BranchSession current = tab.get(i);
+            if (current == null) {
+                return;
+            }
+            if (current == branchSession) {
+                tab.set(i, REMOVED);
+                size--;
+                return;
+            }
+        }
+    }
+
+    /**
+     * Gets the count of the branches.
+     *
+     * @return the size
+     */
+    int size() {
+        return size;
+    }
+
+    private void rehash(int minSize) {
+        int capacity = MIN_CAPACITY;
+        while (capacity < minSize * 4) {
+            capacity <<= 1;
+        }
+        AtomicReferenceArray<BranchSession> old = table;
+        AtomicReferenceArray<BranchSession> tab = new AtomicReferenceArray<>(capacity);
+        int mask = capacity - 1;
+        for (int j = 0; j < old.length(); j++) {
+            BranchSession branchSession = old.get(j);
+            if (branchSession != null && branchSession != REMOVED) {
+                int i = indexOf(branchSession.getBranchId(), mask);
+                while (tab.get(i) != null) {
+                    i = (i + 1) & mask;
+                }
+                tab.set(i, branchSession);
+            }
+        }
+        used = size;
+        table = tab;
+    }
+
+    private static int indexOf(long branchId, int mask) {
+        // branch ids are sequential, spread them over the table
+        return (int)((branchId * 0x9E3779B97F4A7C15L) >>> 32) & mask;
+    }
+}
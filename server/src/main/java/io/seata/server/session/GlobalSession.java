@@ -72,8 +72,15 @@ public class GlobalSession implements SessionLifecycle, SessionStorable {
 
     private boolean active = true;
 
+    private volatile long timeoutTick = -1;
+
     private final ArrayList<BranchSession> branchSessions = new ArrayList<>();
 
+    /**
+     * The branches by branch id, next to the ordered list, both written under the lock of the list.
+     */
+    private final BranchSessionIndex branchIndex = new BranchSessionIndex();
+
     private GlobalSessionLock globalSessionLock = new GlobalSessionLock();
 
 
@@ -84,7 +91,10 @@ public class GlobalSession implements SessionLifecycle, SessionStorable {
      * @return the boolean
      */
     public boolean add(BranchSession branchSession) {
-        return branchSessions.add(branchSession);
+        synchronized (branchSessions) {
+            branchIndex.put(branchSession);
+            return branchSessions.add(branchSession);
+        }
     }
 
     /**
@@ -94,7 +104,10 @@ public class GlobalSession implements SessionLifecycle, SessionStorable {
      * @return the boolean
      */
     public boolean remove(BranchSession branchSession) {
-        return branchSessions.remove(branchSession);
+        synchronized (branchSessions) {
+            branchIndex.remove(branchSession);
+            return branchSessions.remove(branchSession);
+        }
     }
 
     private Set<SessionLifecycleListener> lifecycleListeners = new HashSet<>();
@@ -130,6 +143,7 @@ public class GlobalSession implements SessionLifecycle, SessionStorable {
         for (SessionLifecycleListener lifecycleListener : lifecycleListeners) {
             lifecycleListener.onBegin(this);
         }
+        SessionHolder.getTimeoutWheel().register(this);
     }
 
     @Override
@@ -157,6 +171,7 @@ public class GlobalSession implements SessionLifecycle, SessionStorable {
 
     @Override
     public void close() throws TransactionException {
+        SessionHolder.getTimeoutWheel().cancel(this);
         if (active) {
             for (SessionLifecycleListener lifecycleListener : lifecycleListeners) {
                 lifecycleListener.onClose(this);
@@ -166,6 +181,7 @@ public class GlobalSession implements SessionLifecycle, SessionStorable {
 
     @Override
     public void end() throws TransactionException {
+        SessionHolder.getTimeoutWheel().cancel(this);
         // Clean locks first
         clean();
 
@@ -234,16 +250,7 @@ public class GlobalSession implements SessionLifecycle, SessionStorable {
      * @return the branch
      */
     public BranchSession getBranch(long branchId) {
-        synchronized (branchSessions) {
-            for (BranchSession branchSession : branchSessions) {
-                if (branchSession.getBranchId() == branchId) {
-                    return branchSession;
-                }
-            }
-
-            return null;
-        }
-
+        return branchIndex.get(branchId);
     }
 
     /**
@@ -252,8 +259,9 @@ public class GlobalSession implements SessionLifecycle, SessionStorable {
      * @return the sorted branches
      */
     public ArrayList<BranchSession> getSortedBranches() {
-        ArrayList<BranchSession> sorted = new ArrayList<>(branchSessions);
-        return sorted;
+        synchronized (branchSessions) {
+            return new ArrayList<>(branchSessions);
+        }
     }
 
     /**
@@ -262,7 +270,10 @@ public class GlobalSession implements SessionLifecycle, SessionStorable {
      * @return the reverse sorted branches
      */
     public ArrayList<BranchSession> getReverseSortedBranches() {
-        ArrayList<BranchSession> reversed = new ArrayList<>(branchSessions);
+        ArrayList<BranchSession> reversed;
+        synchronized (branchSessions) {
+            reversed = new ArrayList<>(branchSessions);
+        }
         Collections.reverse(reversed);
         return reversed;
     }
@@ -345,6 +356,24 @@ public class GlobalSession implements SessionLifecycle, SessionStorable {
         this.xid = xid;
     }
 
+    /**
+     * Gets the tick of the timeout wheel the session is registered at, -1 if not registered.
+     *
+     * @return the timeout tick
+     */
+    public long getTimeoutTick() {
+        return timeoutTick;
+    }
+
+    /**
+     * Sets timeout tick.
+     *
+     * @param timeoutTick the timeout tick
+     */
+    public void setTimeoutTick(long timeoutTick) {
+        this.timeoutTick = timeoutTick;
+    }
+
     /**
      * Gets application id.
      *
@@ -527,7 +556,15 @@ public class GlobalSession implements SessionLifecycle, SessionStorable {
 
     @Override
     public void decode(byte[] a) {
-        ByteBuffer byteBuffer = ByteBuffer.wrap(a);
+        decode(ByteBuffer.wrap(a));
+    }
+
+    /**
+     * Decode from the position of the buffer, the buffer may be a view of a mapped data file.
+     *
+     * @param byteBuffer the byte buffer
+     */
+    public void decode(ByteBuffer byteBuffer) {
         this.transactionId = byteBuffer.getLong();
         this.timeout = byteBuffer.getInt();
         short applicationIdLen = byteBuffer.getShort();
@@ -73,6 +73,11 @@ public class SessionHolder {
      */
     public static final String DEFAULT_SESSION_STORE_FILE_DIR = "sessionStore";
 
+    /**
+     * The deadlines of the sessions begun or reloaded by this server, 100ms per tick.
+     */
+    private static final SessionTimeoutWheel TIMEOUT_WHEEL = new SessionTimeoutWheel(100, 1024);
+
     private static SessionManager ROOT_SESSION_MANAGER;
     private static SessionManager ASYNC_COMMITTING_SESSION_MANAGER;
     private static SessionManager RETRY_COMMITTING_SESSION_MANAGER;
@@ -187,6 +192,7 @@ public class SessionHolder {
                                     break;
                                 case Begin:
                                     globalSession.setActive(true);
+                                    getTimeoutWheel().register(globalSession);
                                     break;
                                 default:
                                     throw new ShouldNeverHappenException("NOT properly handled " + globalStatus);
@@ -202,6 +208,15 @@ public class SessionHolder {
         }
     }
 
+    /**
+     * Gets timeout wheel.
+     *
+     * @return the timeout wheel
+     */
+    public static SessionTimeoutWheel getTimeoutWheel() {
+        return TIMEOUT_WHEEL;
+    }
+
     /**
      * Gets root session manager.
      *
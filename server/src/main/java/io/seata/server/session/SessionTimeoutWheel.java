@@ -0,0 +1,129 @@
+/*
+ *  Copyright 1999-2019 Seata.io Group.
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+package io.seata.server.session;
+
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Hashed timing wheel of global session deadlines. Sessions are put into the bucket of their deadline tick on
+ * begin and removed on close, both O(1). The wheel has no thread of its own: the timeout checker calls
+ * {@link #expire(long)} and only the buckets of the ticks passed since the last call are visited.
+ */
+public class SessionTimeoutWheel {
+
+    private final long tickMills;
+
+    private final int mask;
+
+    private final Map<Long, GlobalSession>[] buckets;
+
+    private long lastTick;
+
+    /**
+     * Instantiates a new Session timeout wheel.
+     *
+     * @param tickMills the tick mills
+     * @param wheelSize the wheel size, rounded up to a power of two
+     */
+    @SuppressWarnings("unchecked")
+    public SessionTimeoutWheel(long tickMills, int wheelSize) {
+        if (tickMills <= 0) {
+            throw new IllegalArgumentException("tickMills must be greater than 0");
+        }
+        int size = 1;
+        while (size < wheelSize) {
+            size <<= 1;
+        }
+        this.tickMills = tickMills;
+        this.mask = size - 1;
+        this.buckets = new Map[size];
+        for (int i = 0; i < size; i++) {
+            buckets[i] = new ConcurrentHashMap<>();
+        }
+        this.lastTick = System.currentTimeMillis() / tickMills;
+    }
+
+    /**
+     * Register the session at its deadline.
+     *
+     * @param globalSession the global session
+     */
+    public void register(GlobalSession globalSession) {
+        cancel(globalSession);
+        long deadline = globalSession.getBeginTime() + globalSession.getTimeout();
+        // never put a session behind the current tick, the checker would only see it a whole round later
+        long tick = Math.max(deadline / tickMills, System.currentTimeMillis() / tickMills);
+        globalSession.setTimeoutTick(tick);
+        buckets[(int)(tick & mask)].put(globalSession.getTransactionId(), globalSession);
+    }
+
+    /**
+     * Remove the session from the wheel.
+     *
+     * @param globalSession the global session
+     */
+    public void cancel(GlobalSession globalSession) {
+        long tick = globalSession.getTimeoutTick();
+        if (tick < 0) {
+            return;
+        }
+        globalSession.setTimeoutTick(-1);
+        buckets[(int)(tick & mask)].remove(globalSession.getTransactionId(), globalSession);
+    }
+
+    /**
+     * Remove and return the sessions whose deadline has passed.
+     *
+     * @param now the now
+     * @return the expired sessions
+     */
+    public synchronized List<GlobalSession> expire(long now) {
+        List<GlobalSession> expired = new ArrayList<>();
+        long nowTick = now / tickMills;
+        // the bucket of lastTick is visited again, sessions may have been added to it after the last call
+        long ticks = Math.min(nowTick - lastTick, mask);
+        for (long tick = nowTick - ticks; tick <= nowTick; tick++) {
+            Iterator<GlobalSession> iterator = buckets[(int)(tick & mask)].values().iterator();
+            while (iterator.hasNext()) {
+                GlobalSession globalSession = iterator.next();
+                if (globalSession.getBeginTime() + globalSession.getTimeout() < now) {
+                    iterator.remove();
+                    globalSession.setTimeoutTick(-1);
+                    expired.add(globalSession);
+                }
+            }
+        }
+        lastTick = nowTick;
+        return expired;
+    }
+
+    /**
+     * Gets the count of registered sessions.
+     *
+     * @return the size
+     */
+    public int size() {
+        int size = 0;
+        for (Map<Long, GlobalSession> bucket : buckets) {
+            size += bucket.size();
+        }
+        return size;
+    }
+}
@@ -59,6 +59,11 @@ public class DataBaseSessionManager extends AbstractSessionManager
      */
     protected String taskName;
 
+    /**
+     * The sessions begun by this server, shared by the managers of all tasks.
+     */
+    protected GlobalSessionCache sessionCache = GlobalSessionCache.getInstance();
+
     /**
      * Instantiates a new Data base session manager.
      */
@@ -88,7 +93,9 @@ public class DataBaseSessionManager extends AbstractSessionManager
             if (!ret) {
                 throw new StoreException("addGlobalSession failed.");
             }
+            sessionCache.put(session);
         } else {
+            sessionCache.onWrite(session);
             boolean ret = transactionStoreManager.writeSession(LogOperation.GLOBAL_UPDATE, session);
             if (!ret) {
                 throw new StoreException("addGlobalSession failed.");
@@ -102,6 +109,7 @@ public class DataBaseSessionManager extends AbstractSessionManager
             return;
         }
         session.setStatus(status);
+        sessionCache.onWrite(session);
         boolean ret = transactionStoreManager.writeSession(LogOperation.GLOBAL_UPDATE, session);
         if (!ret) {
             throw new StoreException("updateGlobalSessionStatus failed.");
@@ -113,6 +121,7 @@ public class DataBaseSessionManager extends AbstractSessionManager
         if (StringUtils.isNotBlank(taskName)) {
             return;
         }
+        sessionCache.remove(session.getXid());
         boolean ret = transactionStoreManager.writeSession(LogOperation.GLOBAL_REMOVE, session);
         if (!ret) {
             throw new StoreException("removeGlobalSession failed.");
@@ -124,6 +133,7 @@ public class DataBaseSessionManager extends AbstractSessionManager
         if (StringUtils.isNotBlank(taskName)) {
             return;
         }
+        sessionCache.onWrite(globalSession);
         boolean ret = transactionStoreManager.writeSession(LogOperation.BRANCH_ADD, session);
         if (!ret) {
             throw new StoreException("addBranchSession failed.");
@@ -135,6 +145,7 @@ public class DataBaseSessionManager extends AbstractSessionManager
         if (StringUtils.isNotBlank(taskName)) {
             return;
         }
+        sessionCache.onWrite(session);
         boolean ret = transactionStoreManager.writeSession(LogOperation.BRANCH_UPDATE, session);
         if (!ret) {
             throw new StoreException("updateBranchSessionStatus failed.");
@@ -146,6 +157,7 @@ public class DataBaseSessionManager extends AbstractSessionManager
         if (StringUtils.isNotBlank(taskName)) {
             return;
         }
+        sessionCache.onWrite(globalSession);
         boolean ret = transactionStoreManager.writeSession(LogOperation.BRANCH_REMOVE, session);
         if (!ret) {
             throw new StoreException("removeBranchSession failed.");
@@ -154,6 +166,10 @@ public class DataBaseSessionManager extends AbstractSessionManager
 
     @Override
     public GlobalSession findGlobalSession(String xid) {
+        GlobalSession globalSession = sessionCache.get(xid);
+        if (globalSession != null) {
+            return globalSession;
+        }
         return transactionStoreManager.readSession(xid);
     }
 
@@ -179,8 +195,24 @@ public class DataBaseSessionManager extends AbstractSessionManager
 
     @Override
     public List<GlobalSession> findGlobalSessions(SessionCondition condition) {
-        //nothing need to do
-        return transactionStoreManager.readSession(condition);
+        //work on the cached instances of the sessions begun here
+        return sessionCache.resolve(transactionStoreManager.readSession(condition));
+    }
+
+    @Override
+    public void destroy() {
+        if (transactionStoreManager != null) {
+            transactionStoreManager.shutdown();
+        }
+    }
+
+    /**
+     * Sets session cache.
+     *
+     * @param sessionCache the session cache
+     */
+    public void setSessionCache(GlobalSessionCache sessionCache) {
+        this.sessionCache = sessionCache;
     }
 
 }
\ No newline at end of file
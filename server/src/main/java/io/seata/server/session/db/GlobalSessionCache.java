@@ -0,0 +1,166 @@
+/*
+ *  Copyright 1999-2019 Seata.io Group.
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+package io.seata.server.session.db;
+
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+import io.seata.config.ConfigurationFactory;
+import io.seata.core.constants.ConfigurationKeys;
+import io.seata.server.session.BranchSession;
+import io.seata.server.session.GlobalSession;
+
+/**
+ * The global sessions begun by this server in db mode, kept in memory until they end so the coordinator works on
+ * one shared instance per transaction instead of reading the global and branch rows again on every request.
+ * <p>
+ * Only the server beginning a transaction caches it, the rows are still written through to the db on every change.
+ * A change written through another instance of a cached transaction drops the cached one, it is read from the db
+ * again next time. When the cache is full, timed out sessions are dropped and new sessions are not cached.
+ * <p>
+ * A cached session is returned without reading its rows, so the changes written by the other servers sharing the
+ * db are never seen: only enable it for a single server. It is off by default.
+ */
+public class GlobalSessionCache {
+
+    private static final int DEFAULT_MAX_SIZE = 0;
+
+    private final Map<String, GlobalSession> sessions = new ConcurrentHashMap<>();
+
+    private final int maxSize;
+
+    /**
+     * Instantiates a new Global session cache.
+     *
+     * @param maxSize the max sessions cached, 0 to cache nothing
+     */
+    public GlobalSessionCache(int maxSize) {
+        this.maxSize = Math.max(0, maxSize);
+    }
+
+    /**
+     * Gets instance.
+     *
+     * @return the instance
+     */
+    public static GlobalSessionCache getInstance() {
+        return SingletonHolder.INSTANCE;
+    }
+
+    /**
+     * Cache a session begun by this server.
+     *
+     * @param session the session
+     */
+    public void put(GlobalSession session) {
+        if (sessions.size() >= maxSize) {
+            removeTimeout();
+            if (sessions.size() >= maxSize) {
+                return;
+            }
+        }
+        sessions.put(session.getXid(), session);
+    }
+
+    /**
+     * Gets a cached session.
+     *
+     * @param xid the xid
+     * @return the session, null if not cached
+     */
+    public GlobalSession get(String xid) {
+        return xid == null ? null : sessions.get(xid);
+    }
+
+    /**
+     * Replace the sessions read from the db by the cached instances of the same transactions.
+     *
+     * @param readSessions the sessions read
+     * @return the sessions
+     */
+    public List<GlobalSession> resolve(List<GlobalSession> readSessions) {
+        if (readSessions == null || sessions.isEmpty()) {
+            return readSessions;
+        }
+        List<GlobalSession> resolved = new ArrayList<>(readSessions.size());
+        for (GlobalSession readSession : readSessions) {
+            GlobalSession cached = sessions.get(readSession.getXid());
+            resolved.add(cached != null ? cached : readSession);
+        }
+        return resolved;
+    }
+
+    /**
+     * Drop the cached session if a change was written through another instance of it.
+     *
+     * @param session the session changed
+     */
+    public void onWrite(GlobalSession session) {
+        GlobalSession cached = get(session.getXid());
+        if (cached != null && cached != session) {
+            sessions.remove(session.getXid(), cached);
+        }
+    }
+
+    /**
+     * Drop the cached session if a branch change was written through another instance of it.
+     *
+     * @param branchSession the branch session changed
+     */
+    public void onWrite(BranchSession branchSession) {
+        GlobalSession cached = get(branchSession.getXid());
+        if (cached != null && cached.getBranch(branchSession.getBranchId()) != branchSession) {
+            sessions.remove(branchSession.getXid(), cached);
+        }
+    }
+
+    /**
+     * Drop a session.
+     *
+     * @param xid the xid
+     */
+    public void remove(String xid) {
+        if (xid != null) {
+            sessions.remove(xid);
+        }
+    }
+
+    /**
+     * Gets the count of cached sessions.
+     *
+     * @return the size
+     */
+    public int size() {
+        return sessions.size();
+    }
+
+    private void removeTimeout() {
+        Iterator<GlobalSession> iterator = sessions.values().iterator();
+        while (iterator.hasNext()) {
+            if (iterator.next().isTimeout()) {
+                iterator.remove();
+            }
+        }
+    }
+
+    private static class SingletonHolder {
+        private static final GlobalSessionCache INSTANCE = new GlobalSessionCache(ConfigurationFactory.getInstance()
+            .getInt(ConfigurationKeys.STORE_DB_SESSION_CACHE_SIZE, DEFAULT_MAX_SIZE));
+    }
+}
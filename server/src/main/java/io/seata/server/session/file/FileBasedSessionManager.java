@@ -17,14 +17,24 @@ package io.seata.server.session.file;
 
 import java.io.File;
 import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.util.ArrayList;
+import java.util.Collections;
 import java.util.HashMap;
 import java.util.Iterator;
 import java.util.List;
 import java.util.Map;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
 
 import io.seata.common.exception.ShouldNeverHappenException;
 import io.seata.common.loader.EnhancedServiceLoader;
 import io.seata.common.loader.LoadLevel;
+import io.seata.common.thread.NamedThreadFactory;
 import io.seata.config.ConfigurationFactory;
 import io.seata.core.constants.ConfigurationKeys;
 import io.seata.core.model.GlobalStatus;
@@ -51,6 +61,15 @@ public class FileBasedSessionManager extends DefaultSessionManager implements Re
     private static final int READ_SIZE = ConfigurationFactory.getInstance().getInt(
         ConfigurationKeys.SERVICE_SESSION_RELOAD_READ_SIZE, 100);
 
+    private static final int RELOAD_PARALLELISM = ConfigurationFactory.getInstance().getInt(
+        ConfigurationKeys.SERVICE_SESSION_RELOAD_PARALLELISM, Math.min(Runtime.getRuntime().availableProcessors(), 8));
+
+    private static final int MAX_PENDING_BATCHES = 64;
+
+    private static final long RELOAD_PROGRESS_INTERVAL_MILLS = 5 * 1000;
+
+    private static final List<ByteBuffer> END_OF_RELOAD = Collections.emptyList();
+
     /**
      * Instantiates a new File based session manager.
      *
@@ -71,12 +90,106 @@ public class FileBasedSessionManager extends DefaultSessionManager implements Re
         washSessions();
     }
 
+    /**
+     * Replay the stored log operations. One thread reads the encoded operations in log order and hands them to
+     * partitions by transaction id, each partition decodes and applies its operations in order on its own thread.
+     * So the operations of one transaction keep their order while different transactions are replayed in parallel.
+     */
     private void restoreSessions() {
-        Map<Long, BranchSession> unhandledBranchBuffer = new HashMap<>();
+        if (!(transactionStoreManager instanceof ReloadableStore)) {
+            return;
+        }
+        ReloadableStore reloadableStore = (ReloadableStore)transactionStoreManager;
+        int parallelism = Math.max(1, RELOAD_PARALLELISM);
+        RestorePartition[] partitions = new RestorePartition[parallelism];
+        for (int i = 0; i < parallelism; i++) {
+            partitions[i] = new RestorePartition();
+        }
+        ExecutorService restoreExecutor = null;
+        if (parallelism > 1) {
+            restoreExecutor = new ThreadPoolExecutor(parallelism, parallelism, Integer.MAX_VALUE,
+                TimeUnit.MILLISECONDS, new LinkedBlockingQueue<>(),
+                new NamedThreadFactory("sessionReload", parallelism));
+            for (RestorePartition partition : partitions) {
+                restoreExecutor.submit(partition);
+            }
+        }
+        ReloadProgress progress = new ReloadProgress(parallelism);
+        try {
+            readAndDispatch(reloadableStore, true, partitions, progress);
+            readAndDispatch(reloadableStore, false, partitions, progress);
+        } finally {
+            if (restoreExecutor != null) {
+                for (RestorePartition partition : partitions) {
+                    partition.put(END_OF_RELOAD);
+                }
+                restoreExecutor.shutdown();
+                awaitTermination(restoreExecutor);
+            }
+            // every buffer read is decoded by now
+            reloadableStore.releaseReplay();
+        }
+        progress.report(true);
+
+        long maxRecoverId = UUIDGenerator.getCurrentUUID();
+        for (RestorePartition partition : partitions) {
+            if (partition.error != null) {
+                throw partition.error;
+            }
+            restoreUnhandledBranches(partition.unhandledBranchBuffer);
+            maxRecoverId = Math.max(maxRecoverId, partition.maxRecoverId);
+        }
+        setMaxId(maxRecoverId);
+    }
+
+    private void readAndDispatch(ReloadableStore reloadableStore, boolean isHistory, RestorePartition[] partitions,
+                                 ReloadProgress progress) {
+        while (reloadableStore.hasRemaining(isHistory)) {
+            List<ByteBuffer> encodedStores = reloadableStore.readEncodedWriteStore(READ_SIZE, isHistory);
+            long bytes = 0;
+            for (ByteBuffer encodedStore : encodedStores) {
+                bytes += encodedStore.remaining();
+            }
+            if (partitions.length == 1) {
+                partitions[0].restore(encodedStores);
+            } else {
+                List<List<ByteBuffer>> batches = new ArrayList<>(partitions.length);
+                for (int i = 0; i < partitions.length; i++) {
+                    batches.add(new ArrayList<>());
+                }
+                for (ByteBuffer encodedStore : encodedStores) {
+                    // both global and branch sessions are encoded starting with the transaction id
+                    long transactionId = encodedStore.remaining() < 8 ? 0 : encodedStore.getLong(
+                        encodedStore.position());
+                    batches.get(partitionOf(transactionId, partitions.length)).add(encodedStore);
+                }
+                for (int i = 0; i < partitions.length; i++) {
+                    if (!batches.get(i).isEmpty()) {
+                        partitions[i].put(batches.get(i));
+                    }
+                }
+            }
+            progress.add(encodedStores.size(), bytes);
+        }
+    }
+
+    private static int partitionOf(long transactionId, int partitionCount) {
+        long hash = transactionId ^ (transactionId >>> 32);
+        return (int)((hash & Long.MAX_VALUE) % partitionCount);
+    }
 
-        restoreSessions(true, unhandledBranchBuffer);
-        restoreSessions(false, unhandledBranchBuffer);
+    private void awaitTermination(ExecutorService restoreExecutor) {
+        try {
+            while (!restoreExecutor.awaitTermination(RELOAD_PROGRESS_INTERVAL_MILLS, TimeUnit.MILLISECONDS)) {
+                LOGGER.info("Waiting for the session reload threads of {}", name);
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new ShouldNeverHappenException("Interrupted while reloading sessions");
+        }
+    }
 
+    private void restoreUnhandledBranches(Map<Long, BranchSession> unhandledBranchBuffer) {
         if (!unhandledBranchBuffer.isEmpty()) {
             unhandledBranchBuffer.values().forEach(branchSession -> {
                 String xid = branchSession.getXid();
@@ -126,115 +239,98 @@ public class FileBasedSessionManager extends DefaultSessionManager implements Re
         }
     }
 
-    private void restoreSessions(boolean isHistory, Map<Long, BranchSession> unhandledBranchBuffer) {
-        if (!(transactionStoreManager instanceof ReloadableStore)) {
-            return;
-        }
-        while (((ReloadableStore)transactionStoreManager).hasRemaining(isHistory)) {
-            List<TransactionWriteStore> stores = ((ReloadableStore)transactionStoreManager).readWriteStore(READ_SIZE,
-                isHistory);
-            restore(stores, unhandledBranchBuffer);
-        }
-    }
-
-    private void restore(List<TransactionWriteStore> stores, Map<Long, BranchSession> unhandledBranchSessions) {
-        long maxRecoverId = UUIDGenerator.getCurrentUUID();
-        for (TransactionWriteStore store : stores) {
-            TransactionStoreManager.LogOperation logOperation = store.getOperate();
-            SessionStorable sessionStorable = store.getSessionRequest();
-            maxRecoverId = getMaxId(maxRecoverId, sessionStorable);
-            switch (logOperation) {
-                case GLOBAL_ADD:
-                case GLOBAL_UPDATE: {
-                    GlobalSession globalSession = (GlobalSession)sessionStorable;
-                    if (globalSession.getTransactionId() == 0) {
-                        LOGGER.error(
-                            "Restore globalSession from file failed, the transactionId is zero , xid:" + globalSession
-                                .getXid());
-                        break;
-                    }
-                    GlobalSession foundGlobalSession = sessionMap.get(globalSession.getXid());
-                    if (foundGlobalSession == null) {
-                        sessionMap.put(globalSession.getXid(), globalSession);
-                    } else {
-                        foundGlobalSession.setStatus(globalSession.getStatus());
-                    }
+    private void restore(TransactionWriteStore store, Map<Long, BranchSession> unhandledBranchSessions) {
+        TransactionStoreManager.LogOperation logOperation = store.getOperate();
+        SessionStorable sessionStorable = store.getSessionRequest();
+        switch (logOperation) {
+            case GLOBAL_ADD:
+            case GLOBAL_UPDATE: {
+                GlobalSession globalSession = (GlobalSession)sessionStorable;
+                if (globalSession.getTransactionId() == 0) {
+                    LOGGER.error(
+                        "Restore globalSession from file failed, the transactionId is zero , xid:" + globalSession
+                            .getXid());
                     break;
                 }
-                case GLOBAL_REMOVE: {
-                    GlobalSession globalSession = (GlobalSession)sessionStorable;
-                    if (globalSession.getTransactionId() == 0) {
-                        LOGGER.error(
-                            "Restore globalSession from file failed, the transactionId is zero , xid:" + globalSession
-                                .getXid());
-                        break;
-                    }
-                    if (sessionMap.remove(globalSession.getXid()) == null) {
-                        if (LOGGER.isInfoEnabled()) {
-                            LOGGER.info("GlobalSession To Be Removed Does Not Exists [" + globalSession.getXid() + "]");
-                        }
-                    }
+                GlobalSession foundGlobalSession = sessionMap.get(globalSession.getXid());
+                if (foundGlobalSession == null) {
+                    sessionMap.put(globalSession.getXid(), globalSession);
+                } else {
+                    foundGlobalSession.setStatus(globalSession.getStatus());
+                }
+                break;
+            }
+            case GLOBAL_REMOVE: {
+                GlobalSession globalSession = (GlobalSession)sessionStorable;
+                if (globalSession.getTransactionId() == 0) {
+                    LOGGER.error(
+                        "Restore globalSession from file failed, the transactionId is zero , xid:" + globalSession
+                            .getXid());
                     break;
                 }
-                case BRANCH_ADD:
-                case BRANCH_UPDATE: {
-                    BranchSession branchSession = (BranchSession)sessionStorable;
-                    if (branchSession.getTransactionId() == 0) {
-                        LOGGER.error(
-                            "Restore branchSession from file failed, the transactionId is zero , xid:" + branchSession
-                                .getXid());
-                        break;
+                if (sessionMap.remove(globalSession.getXid()) == null) {
+                    if (LOGGER.isInfoEnabled()) {
+                        LOGGER.info("GlobalSession To Be Removed Does Not Exists [" + globalSession.getXid() + "]");
                     }
-                    GlobalSession foundGlobalSession = sessionMap.get(branchSession.getXid());
-                    if (foundGlobalSession == null) {
-                        unhandledBranchSessions.put(branchSession.getBranchId(), branchSession);
+                }
+                break;
+            }
+            case BRANCH_ADD:
+            case BRANCH_UPDATE: {
+                BranchSession branchSession = (BranchSession)sessionStorable;
+                if (branchSession.getTransactionId() == 0) {
+                    LOGGER.error(
+                        "Restore branchSession from file failed, the transactionId is zero , xid:" + branchSession
+                            .getXid());
+                    break;
+                }
+                GlobalSession foundGlobalSession = sessionMap.get(branchSession.getXid());
+                if (foundGlobalSession == null) {
+                    unhandledBranchSessions.put(branchSession.getBranchId(), branchSession);
+                } else {
+                    BranchSession existingBranch = foundGlobalSession.getBranch(branchSession.getBranchId());
+                    if (existingBranch == null) {
+                        foundGlobalSession.add(branchSession);
                     } else {
-                        BranchSession existingBranch = foundGlobalSession.getBranch(branchSession.getBranchId());
-                        if (existingBranch == null) {
-                            foundGlobalSession.add(branchSession);
-                        } else {
-                            existingBranch.setStatus(branchSession.getStatus());
-                        }
+                        existingBranch.setStatus(branchSession.getStatus());
                     }
+                }
+                break;
+            }
+            case BRANCH_REMOVE: {
+                BranchSession branchSession = (BranchSession)sessionStorable;
+                String xid = branchSession.getXid();
+                long bid = branchSession.getBranchId();
+                if (branchSession.getTransactionId() == 0) {
+                    LOGGER.error(
+                        "Restore branchSession from file failed, the transactionId is zero , xid:" + branchSession
+                            .getXid());
                     break;
                 }
-                case BRANCH_REMOVE: {
-                    BranchSession branchSession = (BranchSession)sessionStorable;
-                    String xid = branchSession.getXid();
-                    long bid = branchSession.getBranchId();
-                    if (branchSession.getTransactionId() == 0) {
-                        LOGGER.error(
-                            "Restore branchSession from file failed, the transactionId is zero , xid:" + branchSession
-                                .getXid());
-                        break;
+                GlobalSession found = sessionMap.get(xid);
+                if (found == null) {
+                    if (LOGGER.isInfoEnabled()) {
+                        LOGGER.info(
+                            "GlobalSession To Be Updated (Remove Branch) Does Not Exists [" + bid + "/" + xid
+                                + "]");
                     }
-                    GlobalSession found = sessionMap.get(xid);
-                    if (found == null) {
+                } else {
+                    BranchSession theBranch = found.getBranch(bid);
+                    if (theBranch == null) {
                         if (LOGGER.isInfoEnabled()) {
-                            LOGGER.info(
-                                "GlobalSession To Be Updated (Remove Branch) Does Not Exists [" + bid + "/" + xid
-                                    + "]");
+                            LOGGER.info("BranchSession To Be Updated Does Not Exists [" + bid + "/" + xid + "]");
                         }
                     } else {
-                        BranchSession theBranch = found.getBranch(bid);
-                        if (theBranch == null) {
-                            if (LOGGER.isInfoEnabled()) {
-                                LOGGER.info("BranchSession To Be Updated Does Not Exists [" + bid + "/" + xid + "]");
-                            }
-                        } else {
-                            found.remove(theBranch);
-                        }
+                        found.remove(theBranch);
                     }
-                    break;
                 }
+                break;
+            }
 
-                default:
-                    throw new ShouldNeverHappenException("Unknown Operation: " + logOperation);
+            default:
+                throw new ShouldNeverHappenException("Unknown Operation: " + logOperation);
 
-            }
         }
-        setMaxId(maxRecoverId);
-
     }
 
     private long getMaxId(long maxRecoverId, SessionStorable sessionStorable) {
@@ -258,11 +354,106 @@ public class FileBasedSessionManager extends DefaultSessionManager implements Re
         }
     }
 
-    private void restore(TransactionWriteStore store) {
-    }
-
     @Override
     public void destroy() {
         transactionStoreManager.shutdown();
     }
+
+    /**
+     * One partition of the reload, owns the transactions hashed to it.
+     */
+    private class RestorePartition implements Runnable {
+
+        private final BlockingQueue<List<ByteBuffer>> batches = new ArrayBlockingQueue<>(MAX_PENDING_BATCHES);
+
+        private final Map<Long, BranchSession> unhandledBranchBuffer = new HashMap<>();
+
+        private long maxRecoverId;
+
+        private volatile RuntimeException error;
+
+        @Override
+        public void run() {
+            try {
+                List<ByteBuffer> batch;
+                while ((batch = batches.take()) != END_OF_RELOAD) {
+                    restore(batch);
+                }
+            } catch (InterruptedException e) {
+                error = new ShouldNeverHappenException("Interrupted while reloading sessions");
+            }
+        }
+
+        private void put(List<ByteBuffer> batch) {
+            try {
+                batches.put(batch);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new ShouldNeverHappenException("Interrupted while reloading sessions");
+            }
+        }
+
+        private void restore(List<ByteBuffer> batch) {
+            if (error != null) {
+                // keep draining so the reader is never blocked, the error is thrown when all is read
+                return;
+            }
+            for (ByteBuffer encodedStore : batch) {
+                TransactionWriteStore store = new TransactionWriteStore();
+                try {
+                    store.decode(encodedStore);
+                } catch (Exception ex) {
+                    LOGGER.error("decode data file error:" + ex.getMessage());
+                    continue;
+                }
+                try {
+                    maxRecoverId = getMaxId(maxRecoverId, store.getSessionRequest());
+                    FileBasedSessionManager.this.restore(store, unhandledBranchBuffer);
+                } catch (RuntimeException ex) {
+                    error = ex;
+                    return;
+                }
+            }
+        }
+    }
+
+    /**
+     * Counts the replayed operations and logs the progress and the throughput of the reload.
+     */
+    private class ReloadProgress {
+
+        private final int parallelism;
+
+        private final long startTime = System.currentTimeMillis();
+
+        private long lastReportTime = startTime;
+
+        private long records;
+
+        private long bytes;
+
+        ReloadProgress(int parallelism) {
+            this.parallelism = parallelism;
+        }
+
+        void add(long records, long bytes) {
+            this.records += records;
+            this.bytes += bytes;
+            report(false);
+        }
+
+        void report(boolean done) {
+            long now = System.currentTimeMillis();
+            if (!done && now - lastReportTime < RELOAD_PROGRESS_INTERVAL_MILLS) {
+                return;
+            }
+            lastReportTime = now;
+            long elapsed = Math.max(1, now - startTime);
+            if (LOGGER.isInfoEnabled()) {
+                LOGGER.info("{} sessions of {}: {} records, {} KB in {} ms, {} records/s, {} KB/s, parallelism {}",
+                    done ? "Reloaded" : "Reloading", name, records, bytes / 1024, elapsed, records * 1000 / elapsed,
+                    bytes * 1000 / 1024 / elapsed, parallelism);
+            }
+        }
+    }
 }
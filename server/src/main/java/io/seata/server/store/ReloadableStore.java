@@ -15,6 +15,7 @@
  */
 package io.seata.server.store;
 
+import java.nio.ByteBuffer;
 import java.util.List;
 
 /**
@@ -34,6 +35,16 @@ public interface ReloadableStore {
      */
     List<TransactionWriteStore> readWriteStore(int readSize, boolean isHistory);
 
+    /**
+     * Read write store without decoding, every buffer holds one encoded write store. Lets the caller decode on
+     * several threads.
+     *
+     * @param readSize  the read size
+     * @param isHistory the is history
+     * @return the list
+     */
+    List<ByteBuffer> readEncodedWriteStore(int readSize, boolean isHistory);
+
     /**
      * Has remaining boolean.
      *
@@ -42,5 +53,8 @@ public interface ReloadableStore {
      */
     boolean hasRemaining(boolean isHistory);
 
-
+    /**
+     * Release the files of the replay. The buffers read are invalid after.
+     */
+    void releaseReplay();
 }
@@ -98,32 +98,37 @@ public class TransactionWriteStore implements SessionStorable {
 
     @Override
     public void decode(byte[] src) {
-        ByteBuffer byteBuffer = ByteBuffer.wrap(src);
-        byte[] bySessionRequest = new byte[src.length - 1];
-        byteBuffer.get(bySessionRequest);
-        byte byOpCode = byteBuffer.get();
-        this.operate = LogOperation.getLogOperationByCode(byOpCode);
-        SessionStorable tmpSessionStorable = getSessionInstanceByOperation(this.operate);
-        tmpSessionStorable.decode(bySessionRequest);
-        this.sessionRequest = tmpSessionStorable;
+        decode(ByteBuffer.wrap(src));
     }
 
-    private SessionStorable getSessionInstanceByOperation(LogOperation logOperation) {
-        SessionStorable sessionStorable = null;
-        switch (logOperation) {
+    /**
+     * Decode the remaining bytes of the buffer without copying them.
+     *
+     * @param src the src
+     */
+    public void decode(ByteBuffer src) {
+        byte byOpCode = src.get(src.limit() - 1);
+        this.operate = LogOperation.getLogOperationByCode(byOpCode);
+        ByteBuffer bySessionRequest = src.duplicate();
+        bySessionRequest.limit(src.limit() - 1);
+        switch (this.operate) {
             case GLOBAL_ADD:
             case GLOBAL_UPDATE:
             case GLOBAL_REMOVE:
-                sessionStorable = new GlobalSession();
+                GlobalSession globalSession = new GlobalSession();
+                globalSession.decode(bySessionRequest);
+                this.sessionRequest = globalSession;
                 break;
             case BRANCH_ADD:
             case BRANCH_UPDATE:
             case BRANCH_REMOVE:
-                sessionStorable = new BranchSession();
+                BranchSession branchSession = new BranchSession();
+                branchSession.decode(bySessionRequest);
+                this.sessionRequest = branchSession;
                 break;
             default:
                 throw new ShouldNeverHappenException("incorrect logOperation");
         }
-        return sessionStorable;
+        src.position(src.limit());
     }
 }
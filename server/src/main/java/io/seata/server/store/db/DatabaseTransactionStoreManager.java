@@ -16,7 +16,12 @@
 package io.seata.server.store.db;
 
 import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Date;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.atomic.AtomicBoolean;
 
 import javax.sql.DataSource;
@@ -36,6 +41,8 @@ import io.seata.core.model.GlobalStatus;
 import io.seata.core.store.BranchTransactionDO;
 import io.seata.core.store.GlobalTransactionDO;
 import io.seata.core.store.LogStore;
+import io.seata.core.store.LogStoreOperation;
+import io.seata.core.store.LogStoreOperation.Type;
 import io.seata.core.store.StoreMode;
 import io.seata.core.store.db.DataSourceGenerator;
 import io.seata.server.session.BranchSession;
@@ -65,6 +72,11 @@ public class DatabaseTransactionStoreManager extends AbstractTransactionStoreMan
      */
     protected static final int DEFAULT_LOG_QUERY_LIMIT = 100;
 
+    /**
+     * The constant DEFAULT_WRITE_BATCH_SIZE.
+     */
+    protected static final int DEFAULT_WRITE_BATCH_SIZE = 100;
+
     /**
      * is inited
      */
@@ -80,6 +92,16 @@ public class DatabaseTransactionStoreManager extends AbstractTransactionStoreMan
      */
     protected int logQueryLimit;
 
+    /**
+     * The group commit writer, null to write each row by itself.
+     */
+    protected LogStoreBatchWriter batchWriter;
+
+    /**
+     * The last row read by status, the next read goes on after it.
+     */
+    private final Map<String, ScanCursor> scanCursors = new ConcurrentHashMap<>();
+
     /**
      * Instantiates a new Database transaction store manager.
      */
@@ -98,29 +120,46 @@ public class DatabaseTransactionStoreManager extends AbstractTransactionStoreMan
         DataSource logStoreDataSource = dataSourceGenerator.generateDataSource();
         logStore = EnhancedServiceLoader.load(LogStore.class, StoreMode.DB.name(), new Class[] {DataSource.class},
             new Object[] {logStoreDataSource});
+        int writeBatchSize = CONFIG.getInt(ConfigurationKeys.STORE_DB_WRITE_BATCH_SIZE, DEFAULT_WRITE_BATCH_SIZE);
+        if (writeBatchSize > 1) {
+            batchWriter = new LogStoreBatchWriter(logStore, writeBatchSize);
+        }
         inited.set(true);
     }
 
     @Override
     public boolean writeSession(LogOperation logOperation, SessionStorable session) {
+        LogStoreOperation operation;
         if (LogOperation.GLOBAL_ADD.equals(logOperation)) {
-            logStore.insertGlobalTransactionDO(convertGlobalTransactionDO(session));
+            operation = LogStoreOperation.global(Type.GLOBAL_INSERT, convertGlobalTransactionDO(session));
         } else if (LogOperation.GLOBAL_UPDATE.equals(logOperation)) {
-            logStore.updateGlobalTransactionDO(convertGlobalTransactionDO(session));
+            operation = LogStoreOperation.global(Type.GLOBAL_UPDATE, convertGlobalTransactionDO(session));
         } else if (LogOperation.GLOBAL_REMOVE.equals(logOperation)) {
-            logStore.deleteGlobalTransactionDO(convertGlobalTransactionDO(session));
+            operation = LogStoreOperation.global(Type.GLOBAL_DELETE, convertGlobalTransactionDO(session));
         } else if (LogOperation.BRANCH_ADD.equals(logOperation)) {
-            logStore.insertBranchTransactionDO(convertBranchTransactionDO(session));
+            operation = LogStoreOperation.branch(Type.BRANCH_INSERT, convertBranchTransactionDO(session));
         } else if (LogOperation.BRANCH_UPDATE.equals(logOperation)) {
-            logStore.updateBranchTransactionDO(convertBranchTransactionDO(session));
+            operation = LogStoreOperation.branch(Type.BRANCH_UPDATE, convertBranchTransactionDO(session));
         } else if (LogOperation.BRANCH_REMOVE.equals(logOperation)) {
-            logStore.deleteBranchTransactionDO(convertBranchTransactionDO(session));
+            operation = LogStoreOperation.branch(Type.BRANCH_DELETE, convertBranchTransactionDO(session));
         } else {
             throw new StoreException("Unknown LogOperation:" + logOperation.name());
         }
+        if (batchWriter != null) {
+            batchWriter.write(operation);
+        } else {
+            operation.applyTo(logStore);
+        }
         return true;
     }
 
+    @Override
+    public void shutdown() {
+        if (batchWriter != null) {
+            batchWriter.shutdown();
+        }
+    }
+
     /**
      * Read session global session.
      *
@@ -159,7 +198,9 @@ public class DatabaseTransactionStoreManager extends AbstractTransactionStoreMan
     }
 
     /**
-     * Read session list.
+     * Read the next page of the sessions in the statuses. Each call goes on from the last row of the page before,
+     * by (gmt_modified, xid), and starts again from the first row after the last page, so repeated calls go
+     * through all the sessions at logQueryLimit sessions a call.
      *
      * @param statuses the statuses
      * @return the list
@@ -169,16 +210,36 @@ public class DatabaseTransactionStoreManager extends AbstractTransactionStoreMan
         for (int i = 0; i < statuses.length; i++) {
             states[i] = statuses[i].getCode();
         }
-        List<GlobalSession> globalSessions = new ArrayList<GlobalSession>();
+        String cursorKey = Arrays.toString(states);
+        ScanCursor cursor = scanCursors.get(cursorKey);
         //global transaction
-        List<GlobalTransactionDO> globalTransactionDOs = logStore.queryGlobalTransactionDO(states, logQueryLimit);
+        List<GlobalTransactionDO> globalTransactionDOs = cursor == null
+            ? logStore.queryGlobalTransactionDO(states, logQueryLimit)
+            : logStore.queryGlobalTransactionDO(states, cursor.gmtModified, cursor.xid, logQueryLimit);
         if (CollectionUtils.isEmpty(globalTransactionDOs)) {
+            scanCursors.remove(cursorKey);
             return null;
         }
+        GlobalTransactionDO last = globalTransactionDOs.get(globalTransactionDOs.size() - 1);
+        if (globalTransactionDOs.size() < logQueryLimit || last.getGmtModified() == null) {
+            scanCursors.remove(cursorKey);
+        } else {
+            scanCursors.put(cursorKey, new ScanCursor(last.getGmtModified(), last.getXid()));
+        }
+        //branch transactions of the page by one query
+        List<String> xids = new ArrayList<>(globalTransactionDOs.size());
+        for (GlobalTransactionDO globalTransactionDO : globalTransactionDOs) {
+            xids.add(globalTransactionDO.getXid());
+        }
+        Map<String, List<BranchTransactionDO>> branchTransactionDOMap = new HashMap<>(xids.size() * 2);
+        for (BranchTransactionDO branchTransactionDO : logStore.queryBranchTransactionDO(xids)) {
+            branchTransactionDOMap.computeIfAbsent(branchTransactionDO.getXid(), k -> new ArrayList<>())
+                .add(branchTransactionDO);
+        }
+        List<GlobalSession> globalSessions = new ArrayList<>(globalTransactionDOs.size());
         for (GlobalTransactionDO globalTransactionDO : globalTransactionDOs) {
-            List<BranchTransactionDO> branchTransactionDOs = logStore.queryBranchTransactionDO(
-                globalTransactionDO.getXid());
-            globalSessions.add(getGlobalSession(globalTransactionDO, branchTransactionDOs));
+            globalSessions.add(getGlobalSession(globalTransactionDO,
+                branchTransactionDOMap.get(globalTransactionDO.getXid())));
         }
         return globalSessions;
     }
@@ -295,6 +356,15 @@ public class DatabaseTransactionStoreManager extends AbstractTransactionStoreMan
         this.logStore = logStore;
     }
 
+    /**
+     * Sets batch writer.
+     *
+     * @param batchWriter the batch writer
+     */
+    public void setBatchWriter(LogStoreBatchWriter batchWriter) {
+        this.batchWriter = batchWriter;
+    }
+
     /**
      * Sets log query limit.
      *
@@ -303,4 +373,16 @@ public class DatabaseTransactionStoreManager extends AbstractTransactionStoreMan
     public void setLogQueryLimit(int logQueryLimit) {
         this.logQueryLimit = logQueryLimit;
     }
-}
\ No newline at end of file
+
+    private static final class ScanCursor {
+
+        private final Date gmtModified;
+
+        private final String xid;
+
+        ScanCursor(Date gmtModified, String xid) {
+            this.gmtModified = gmtModified;
+            this.xid = xid;
+        }
+    }
+}
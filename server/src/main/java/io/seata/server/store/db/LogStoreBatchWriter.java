@@ -0,0 +1,199 @@
+/*
+ *  Copyright 1999-2019 Seata.io Group.
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+package io.seata.server.store.db;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+
+import io.seata.common.exception.StoreException;
+import io.seata.common.thread.NamedThreadFactory;
+import io.seata.core.store.LogStore;
+import io.seata.core.store.LogStoreOperation;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Group commit of the global and branch table writes. The writes of concurrent callers are queued, one writer
+ * thread takes all queued writes, up to the max batch size, writes them by {@link LogStore#writeBatch(List)} in
+ * one transaction and then releases the callers. The writes queued while a group is written make the next group.
+ * <p>
+ * If a group fails, its writes are written again one by one, so a bad write fails only its own caller.
+ */
+public class LogStoreBatchWriter {
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(LogStoreBatchWriter.class);
+
+    private static final long POLL_MILLS = 1000L;
+
+    private final LogStore logStore;
+
+    private final int maxBatchSize;
+
+    private final BlockingQueue<PendingWrite> queue = new LinkedBlockingQueue<>();
+
+    private final Thread writerThread;
+
+    private volatile boolean running = true;
+
+    /**
+     * Instantiates a new Log store batch writer.
+     *
+     * @param logStore     the log store
+     * @param maxBatchSize the max writes of one group
+     */
+    public LogStoreBatchWriter(LogStore logStore, int maxBatchSize) {
+        this.logStore = logStore;
+        this.maxBatchSize = Math.max(1, maxBatchSize);
+        this.writerThread = new NamedThreadFactory("LogStoreBatchWriter", 1, true).newThread(this::run);
+        this.writerThread.start();
+    }
+
+    /**
+     * Write a row and wait until its group is committed.
+     *
+     * @param operation the operation
+     * @throws StoreException if the write failed
+     */
+    public void write(LogStoreOperation operation) {
+        PendingWrite pendingWrite = new PendingWrite(operation);
+        if (!running) {
+            throw new StoreException("LogStoreBatchWriter is shutdown.");
+        }
+        queue.add(pendingWrite);
+        if (!running && !writerThread.isAlive()) {
+            failPending();
+        }
+        boolean interrupted = false;
+        try {
+            while (true) {
+                try {
+                    pendingWrite.future.get();
+                    return;
+                } catch (InterruptedException e) {
+                    // the write can not be taken back once queued
+                    interrupted = true;
+                } catch (ExecutionException e) {
+                    Throwable cause = e.getCause();
+                    if (cause instanceof StoreException) {
+                        throw (StoreException)cause;
+                    }
+                    throw new StoreException(cause);
+                }
+            }
+        } finally {
+            if (interrupted) {
+                Thread.currentThread().interrupt();
+            }
+        }
+    }
+
+    /**
+     * Write the queued rows and stop.
+     */
+    public void shutdown() {
+        running = false;
+        try {
+            writerThread.join(POLL_MILLS * 5);
+        } catch (InterruptedException ignore) {
+            Thread.currentThread().interrupt();
+        }
+        failPending();
+    }
+
+    /**
+     * Gets the count of queued writes.
+     *
+     * @return the size
+     */
+    public int size() {
+        return queue.size();
+    }
+
+    private void run() {
+        List<PendingWrite> group = new ArrayList<>(maxBatchSize);
+        while (running || !queue.isEmpty()) {
+            try {
+                PendingWrite first = queue.poll(POLL_MILLS, TimeUnit.MILLISECONDS);
+                if (first == null) {
+                    continue;
+                }
+                group.add(first);
+                queue.drainTo(group, maxBatchSize - 1);
+                writeGroup(group);
+            } catch (InterruptedException e) {
+                break;
+            } catch (Throwable t) {
+                LOGGER.error("LogStoreBatchWriter error:{}", t.getMessage(), t);
+                for (PendingWrite pendingWrite : group) {
+                    pendingWrite.future.completeExceptionally(t);
+                }
+            } finally {
+                group.clear();
+            }
+        }
+        failPending();
+    }
+
+    private void writeGroup(List<PendingWrite> group) {
+        if (group.size() > 1) {
+            List<LogStoreOperation> operations = new ArrayList<>(group.size());
+            for (PendingWrite pendingWrite : group) {
+                operations.add(pendingWrite.operation);
+            }
+            try {
+                logStore.writeBatch(operations);
+                for (PendingWrite pendingWrite : group) {
+                    pendingWrite.future.complete(null);
+                }
+                return;
+            } catch (Exception e) {
+                LOGGER.warn("write {} rows in one transaction failed, write them one by one:{}", group.size(),
+                    e.getMessage());
+            }
+        }
+        for (PendingWrite pendingWrite : group) {
+            try {
+                pendingWrite.operation.applyTo(logStore);
+                pendingWrite.future.complete(null);
+            } catch (Exception e) {
+                pendingWrite.future.completeExceptionally(e);
+            }
+        }
+    }
+
+    private void failPending() {
+        PendingWrite pendingWrite;
+        while ((pendingWrite = queue.poll()) != null) {
+            pendingWrite.future.completeExceptionally(new StoreException("LogStoreBatchWriter is shutdown."));
+        }
+    }
+
+    private static class PendingWrite {
+
+        private final LogStoreOperation operation;
+
+        private final CompletableFuture<Void> future = new CompletableFuture<>();
+
+        PendingWrite(LogStoreOperation operation) {
+            this.operation = operation;
+        }
+    }
+}
@@ -19,23 +19,30 @@ import java.io.File;
 import java.io.IOException;
 import java.io.RandomAccessFile;
 import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
 import java.nio.channels.FileChannel;
 import java.nio.file.Files;
 import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
 import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
 import java.util.List;
-import java.util.concurrent.CountDownLatch;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
 import java.util.concurrent.ExecutorService;
 import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledThreadPoolExecutor;
 import java.util.concurrent.ThreadPoolExecutor;
 import java.util.concurrent.TimeUnit;
 import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.Condition;
 import java.util.concurrent.locks.ReentrantLock;
 
 import io.seata.common.exception.StoreException;
 import io.seata.common.loader.LoadLevel;
 import io.seata.common.thread.NamedThreadFactory;
-import io.seata.common.util.CollectionUtils;
 import io.seata.server.session.BranchSession;
 import io.seata.server.session.GlobalSession;
 import io.seata.server.session.SessionCondition;
@@ -52,6 +59,11 @@ import org.slf4j.LoggerFactory;
 
 /**
  * The type File transaction store manager.
+ * <p>
+ * Session logs are appended to fixed-size memory-mapped segments. The file named by the store is the checkpoint:
+ * the live sessions at some point and the first segment to replay on top of them. A checkpoint is taken
+ * periodically off the request path, after which the segments before that one are deleted. Reload replays the
+ * checkpoint, then the segments from that one on.
  *
  * @author jimin.jm @alibaba-inc.com
  */
@@ -64,49 +76,65 @@ public class FileTransactionStoreManager extends AbstractTransactionStoreManager
 
     private ExecutorService fileWriteExecutor;
 
+    private ScheduledExecutorService checkpointExecutor;
+
     private volatile boolean stopping = false;
 
     private static final int MAX_SHUTDOWN_RETRY = 3;
 
     private static final int SHUTDOWN_CHECK_INTERNAL = 1 * 1000;
 
-    private static final int MAX_WRITE_RETRY = 5;
-
     private static final String HIS_DATA_FILENAME_POSTFIX = ".1";
 
-    private static final AtomicLong FILE_TRX_NUM = new AtomicLong(0);
-
-    private static final AtomicLong FILE_FLUSH_NUM = new AtomicLong(0);
+    private static final String TMP_FILENAME_POSTFIX = ".tmp";
 
     private static final int MARK_SIZE = 4;
 
+    private static final int CHECKPOINT_MAGIC = 0x53434b50;
+
+    private static final int CHECKPOINT_HEADER_SIZE = 12;
+
     private static final int MAX_WAIT_TIME_MILLS = 2 * 1000;
 
     private static final int MAX_FLUSH_TIME_MILLS = 2 * 1000;
 
     private static final int MAX_FLUSH_NUM = 10;
 
-    private static int PER_FILE_BLOCK_SIZE = 65535 * 8;
+    private static final int SEGMENT_SIZE = StoreConfig.getSegmentSize();
 
-    private static long MAX_TRX_TIMEOUT_MILLS = 30 * 60 * 1000;
+    private static final long CHECKPOINT_PERIOD_MILLS = StoreConfig.getCheckpointPeriod();
 
-    private static volatile long trxStartTimeMills = System.currentTimeMillis();
+    private LogSegment currSegment;
 
-    private File currDataFile;
+    private SessionManager sessionManager;
 
-    private RandomAccessFile currRaf;
+    private String currFullFileName;
 
-    private FileChannel currFileChannel;
+    private String hisFullFileName;
 
-    private long recoverCurrOffset = 0;
+    /**
+     * the store was written by a version without segments, the old data files are replayed before the segments
+     * until the first checkpoint replaces them
+     */
+    private volatile boolean legacy;
 
-    private long recoverHisOffset = 0;
+    private volatile long checkpointSegmentNo;
 
-    private SessionManager sessionManager;
+    /**
+     * the segment the last checkpoint rolled to, the next checkpoint replays from it
+     */
+    private long rolledSegmentNo;
 
-    private String currFullFileName;
+    private long checkpointTrxNum = -1;
 
-    private String hisFullFileName;
+    /**
+     * no checkpoint before the stored sessions have been replayed, it would drop the ones not loaded yet
+     */
+    private volatile boolean replayed;
+
+    private ReplayCursor historyCursor;
+
+    private ReplayCursor currCursor;
 
     private WriteDataFileRunnable writeDataFileRunnable;
 
@@ -114,15 +142,31 @@ public class FileTransactionStoreManager extends AbstractTransactionStoreManager
 
     private volatile long lastModifiedTime;
 
-    private static final int MAX_WRITE_BUFFER_SIZE = StoreConfig.getFileWriteBufferCacheSize();
-
-    private final ByteBuffer writeBuffer = ByteBuffer.allocateDirect(MAX_WRITE_BUFFER_SIZE);
-
     private static final FlushDiskMode FLUSH_DISK_MODE = StoreConfig.getFlushDiskMode();
 
     private static final int MAX_WAIT_FOR_FLUSH_TIME_MILLS = 2 * 1000;
 
-    private static final int INT_BYTE_SIZE = 4;
+    private final FlushDiskMode flushDiskMode;
+
+    /**
+     * count of the frames appended to the current segment, written under writeSessionLock
+     */
+    private volatile long appendedTrxNum;
+
+    /**
+     * count of the appended frames known to be on disk
+     */
+    private volatile long flushedTrxNum;
+
+    private final AtomicLong flushCount = new AtomicLong(0);
+
+    private final ReentrantLock flushLock = new ReentrantLock();
+
+    private final Condition flushRequested = flushLock.newCondition();
+
+    private final Condition flushDone = flushLock.newCondition();
+
+    private final Queue<LogSegment> retiredSegments = new ConcurrentLinkedQueue<>();
 
     /**
      * Instantiates a new File transaction store manager.
@@ -132,6 +176,20 @@ public class FileTransactionStoreManager extends AbstractTransactionStoreManager
      * @throws IOException the io exception
      */
     public FileTransactionStoreManager(String fullFileName, SessionManager sessionManager) throws IOException {
+        this(fullFileName, sessionManager, FLUSH_DISK_MODE);
+    }
+
+    /**
+     * Instantiates a new File transaction store manager.
+     *
+     * @param fullFileName   the dir path
+     * @param sessionManager the session manager
+     * @param flushDiskMode  the flush disk mode
+     * @throws IOException the io exception
+     */
+    FileTransactionStoreManager(String fullFileName, SessionManager sessionManager, FlushDiskMode flushDiskMode)
+        throws IOException {
+        this.flushDiskMode = flushDiskMode;
         initFile(fullFileName);
         fileWriteExecutor = new ThreadPoolExecutor(MAX_THREAD_WRITE, MAX_THREAD_WRITE, Integer.MAX_VALUE,
             TimeUnit.MILLISECONDS,
@@ -140,27 +198,46 @@ public class FileTransactionStoreManager extends AbstractTransactionStoreManager
         writeDataFileRunnable = new WriteDataFileRunnable();
         fileWriteExecutor.submit(writeDataFileRunnable);
         this.sessionManager = sessionManager;
+        checkpointExecutor = new ScheduledThreadPoolExecutor(1,
+            new NamedThreadFactory("fileTransactionCheckpoint", 1, true));
+        checkpointExecutor.scheduleAtFixedRate(() -> {
+            try {
+                checkpoint();
+            } catch (Exception exx) {
+                LOGGER.error("checkpoint error: {}", exx.getMessage(), exx);
+            }
+        }, CHECKPOINT_PERIOD_MILLS, CHECKPOINT_PERIOD_MILLS, TimeUnit.MILLISECONDS);
     }
 
     private void initFile(String fullFileName) throws IOException {
         this.currFullFileName = fullFileName;
         this.hisFullFileName = fullFileName + HIS_DATA_FILENAME_POSTFIX;
         try {
-            currDataFile = new File(currFullFileName);
-            if (!currDataFile.exists()) {
-                //create parent dir first
-                if (currDataFile.getParentFile() != null && !currDataFile.getParentFile().exists()) {
-                    currDataFile.getParentFile().mkdirs();
-                }
-                currDataFile.createNewFile();
-                trxStartTimeMills = System.currentTimeMillis();
+            File checkpointFile = new File(currFullFileName);
+            //create parent dir first
+            if (checkpointFile.getParentFile() != null && !checkpointFile.getParentFile().exists()) {
+                checkpointFile.getParentFile().mkdirs();
+            }
+            List<Long> segmentNos = listSegmentNos();
+            long nextSegmentNo = segmentNos.isEmpty() ? 0 : segmentNos.get(segmentNos.size() - 1) + 1;
+            long storedSegmentNo;
+            if (!checkpointFile.exists() || checkpointFile.length() == 0) {
+                // a new store, or the data file was removed to start over: segments left are not replayed
+                writeCheckpointFile(nextSegmentNo, Collections.emptyList());
+                checkpointSegmentNo = nextSegmentNo;
+                deleteSegmentsBefore(nextSegmentNo);
+            } else if ((storedSegmentNo = readCheckpointSegmentNo(checkpointFile)) >= 0) {
+                checkpointSegmentNo = storedSegmentNo;
+                // left by a crash between writing the checkpoint and deleting the segments
+                deleteSegmentsBefore(checkpointSegmentNo);
+                nextSegmentNo = Math.max(nextSegmentNo, checkpointSegmentNo);
             } else {
-                trxStartTimeMills = currDataFile.lastModified();
+                legacy = true;
+                checkpointSegmentNo = segmentNos.isEmpty() ? 0 : segmentNos.get(0);
             }
+            rolledSegmentNo = checkpointSegmentNo;
+            currSegment = LogSegment.create(currFullFileName, nextSegmentNo, SEGMENT_SIZE);
             lastModifiedTime = System.currentTimeMillis();
-            currRaf = new RandomAccessFile(currDataFile, "rw");
-            currRaf.seek(currDataFile.length());
-            currFileChannel = currRaf.getChannel();
         } catch (IOException exx) {
             LOGGER.error("init file error," + exx.getMessage());
             throw exx;
@@ -169,132 +246,234 @@ public class FileTransactionStoreManager extends AbstractTransactionStoreManager
 
     @Override
     public boolean writeSession(LogOperation logOperation, SessionStorable session) {
+        byte[] data;
+        try {
+            data = new TransactionWriteStore(session, logOperation).encode();
+        } catch (Exception exx) {
+            LOGGER.error("writeSession error, {}", exx.getMessage(), exx);
+            return false;
+        }
+        if (data.length > SEGMENT_SIZE - LogSegment.FRAME_HEADER_SIZE) {
+            LOGGER.error("writeSession error, data length {} exceeds the segment size {}", data.length, SEGMENT_SIZE);
+            return false;
+        }
+        long trxNum;
         writeSessionLock.lock();
-        long curFileTrxNum;
         try {
-            if (!writeDataFile(new TransactionWriteStore(session, logOperation).encode())) {
-                return false;
+            if (!currSegment.append(data)) {
+                rollSegment();
+                if (!currSegment.append(data)) {
+                    return false;
+                }
             }
             lastModifiedTime = System.currentTimeMillis();
-            curFileTrxNum = FILE_TRX_NUM.incrementAndGet();
-            if (curFileTrxNum % PER_FILE_BLOCK_SIZE == 0 &&
-                (System.currentTimeMillis() - trxStartTimeMills) > MAX_TRX_TIMEOUT_MILLS) {
-                return saveHistory();
-            }
+            trxNum = ++appendedTrxNum;
         } catch (Exception exx) {
             LOGGER.error("writeSession error, {}", exx.getMessage(), exx);
             return false;
         } finally {
             writeSessionLock.unlock();
         }
-        flushDisk(curFileTrxNum, currFileChannel);
-        return true;
+        return flushDisk(trxNum);
     }
 
-    private void flushDisk(long curFileNum, FileChannel currFileChannel) {
-
-        if (FLUSH_DISK_MODE == FlushDiskMode.SYNC_MODEL) {
-            SyncFlushRequest syncFlushRequest = new SyncFlushRequest(curFileNum, currFileChannel);
-            writeDataFileRunnable.putRequest(syncFlushRequest);
-            syncFlushRequest.waitForFlush(MAX_WAIT_FOR_FLUSH_TIME_MILLS);
-        } else {
-            writeDataFileRunnable.putRequest(new AsyncFlushRequest(curFileNum, currFileChannel));
+    private boolean flushDisk(long trxNum) {
+        if (flushDiskMode == FlushDiskMode.SYNC_MODEL) {
+            return waitForFlush(trxNum, MAX_WAIT_FOR_FLUSH_TIME_MILLS);
+        }
+        if (trxNum - flushedTrxNum >= MAX_FLUSH_NUM) {
+            requestFlush();
         }
+        return true;
     }
 
     /**
-     * get all overTimeSessionStorables
-     * merge write file
-     *
-     * @throws IOException
+     * Wait until the flusher thread has forced the frame to disk. Every waiter wakes the flusher, which forces
+     * all frames appended so far at once, so concurrent writers share one force.
      */
-    private boolean saveHistory() throws IOException {
-        boolean result;
+    private boolean waitForFlush(long trxNum, long timeoutMills) {
+        if (flushedTrxNum >= trxNum) {
+            return true;
+        }
+        long nanos = TimeUnit.MILLISECONDS.toNanos(timeoutMills);
+        flushLock.lock();
         try {
-            result = findTimeoutAndSave();
-            writeDataFileRunnable.putRequest(new CloseFileRequest(currFileChannel, currRaf));
-            Files.move(currDataFile.toPath(), new File(hisFullFileName).toPath(), StandardCopyOption.REPLACE_EXISTING);
-        } catch (IOException exx) {
-            LOGGER.error("save history data file error, {}", exx.getMessage(), exx);
-            result = false;
+            flushRequested.signal();
+            while (flushedTrxNum < trxNum) {
+                if (nanos <= 0) {
+                    LOGGER.error("wait for flush timeout, trxNum:{}, flushedTrxNum:{}", trxNum, flushedTrxNum);
+                    return false;
+                }
+                nanos = flushDone.awaitNanos(nanos);
+            }
+            return true;
+        } catch (InterruptedException e) {
+            LOGGER.error("Interrupted", e);
+            Thread.currentThread().interrupt();
+            return false;
         } finally {
-            initFile(currFullFileName);
+            flushLock.unlock();
         }
-        return result;
     }
 
-    private boolean writeDataFrame(byte[] data) {
-        if (data == null || data.length <= 0) {
-            return true;
+    private void requestFlush() {
+        flushLock.lock();
+        try {
+            flushRequested.signal();
+        } finally {
+            flushLock.unlock();
         }
-        int dataLength = data.length;
-        int bufferRemainingSize = writeBuffer.remaining();
-        if (bufferRemainingSize <= INT_BYTE_SIZE) {
-            if (!flushWriteBuffer(writeBuffer)) {
-                return false;
+    }
+
+    private void signalFlushed(long trxNum) {
+        flushLock.lock();
+        try {
+            if (trxNum > flushedTrxNum) {
+                flushedTrxNum = trxNum;
             }
+            flushDone.signalAll();
+        } finally {
+            flushLock.unlock();
         }
-        bufferRemainingSize = writeBuffer.remaining();
-        if (bufferRemainingSize <= INT_BYTE_SIZE) {
-            throw new IllegalStateException(String.format("Write buffer remaining size %d was too small", bufferRemainingSize));
-        }
-        writeBuffer.putInt(dataLength);
-        bufferRemainingSize = writeBuffer.remaining();
-        int dataPos = 0;
-        while (dataPos < dataLength) {
-            int dataLengthToWrite = dataLength - dataPos;
-            dataLengthToWrite = Math.min(dataLengthToWrite, bufferRemainingSize);
-            writeBuffer.put(data, dataPos, dataLengthToWrite);
-            bufferRemainingSize = writeBuffer.remaining();
-            if (bufferRemainingSize == 0) {
-                if (!flushWriteBuffer(writeBuffer)) {
-                    return false;
-                }
-                bufferRemainingSize = writeBuffer.remaining();
+    }
+
+    /**
+     * force the current segment and continue in a new one, must hold writeSessionLock
+     */
+    private void rollSegment() throws IOException {
+        LogSegment oldSegment = currSegment;
+        oldSegment.force();
+        signalFlushed(appendedTrxNum);
+        currSegment = LogSegment.create(currFullFileName, oldSegment.getSegmentNo() + 1, SEGMENT_SIZE);
+        // closed by the flusher thread, it may be forcing the old segment right now
+        retiredSegments.add(oldSegment);
+    }
+
+    /**
+     * Write the live sessions to a new checkpoint and delete the segments it makes obsolete. The checkpoint is
+     * fuzzy: the sessions are read while writers go on, replaying the segments written after the checkpoint
+     * started brings them up to date since every log operation is idempotent on reload.
+     * <p>
+     * An operation is logged before the session manager applies it in memory, so the sessions read may still miss
+     * the operations logged just before the roll. The checkpoint is therefore replayed from the segment the
+     * previous checkpoint rolled to, whose operations have been applied for a whole period by now, and the segments
+     * rolled off by this checkpoint are only deleted by the next one.
+     *
+     * @return true if a checkpoint was written or nothing changed since the last one
+     */
+    boolean checkpoint() {
+        if (sessionManager == null || !replayed || stopping) {
+            return false;
+        }
+        long segmentNo;
+        long trxNum;
+        writeSessionLock.lock();
+        try {
+            trxNum = appendedTrxNum;
+            if (!legacy && trxNum == checkpointTrxNum && checkpointSegmentNo == rolledSegmentNo) {
+                return true;
             }
-            dataPos += dataLengthToWrite;
+            if (currSegment.getWrotePosition() > 0) {
+                rollSegment();
+            }
+            segmentNo = currSegment.getSegmentNo();
+        } catch (IOException exx) {
+            LOGGER.error("checkpoint roll segment error, {}", exx.getMessage(), exx);
+            return false;
+        } finally {
+            writeSessionLock.unlock();
+        }
+        long replaySegmentNo = rolledSegmentNo;
+        try {
+            writeCheckpointFile(replaySegmentNo, sessionManager.allSessions());
+        } catch (Exception exx) {
+            LOGGER.error("write checkpoint error, {}", exx.getMessage(), exx);
+            return false;
+        }
+        checkpointSegmentNo = replaySegmentNo;
+        checkpointTrxNum = trxNum;
+        rolledSegmentNo = segmentNo;
+        deleteSegmentsBefore(replaySegmentNo);
+        if (legacy) {
+            new File(hisFullFileName).delete();
+            legacy = false;
         }
         return true;
     }
 
-    private boolean flushWriteBuffer(ByteBuffer writeBuffer) {
-        writeBuffer.flip();
-        if (!writeDataFileByBuffer(writeBuffer)) {
-            return false;
+    private void writeCheckpointFile(long segmentNo, Collection<GlobalSession> globalSessions) throws IOException {
+        File checkpointFile = new File(currFullFileName);
+        File tmpFile = new File(currFullFileName + TMP_FILENAME_POSTFIX);
+        try (RandomAccessFile raf = new RandomAccessFile(tmpFile, "rw")) {
+            raf.setLength(0);
+            FileChannel fileChannel = raf.getChannel();
+            ByteBuffer header = ByteBuffer.allocate(CHECKPOINT_HEADER_SIZE);
+            header.putInt(CHECKPOINT_MAGIC);
+            header.putLong(segmentNo);
+            header.flip();
+            writeFully(fileChannel, header);
+            for (GlobalSession globalSession : globalSessions) {
+                TransactionWriteStore globalWriteStore = new TransactionWriteStore(globalSession,
+                    LogOperation.GLOBAL_ADD);
+                writeFully(fileChannel, LogSegment.encodeFrame(globalWriteStore.encode()));
+                for (BranchSession branchSession : globalSession.getSortedBranches()) {
+                    TransactionWriteStore branchWriteStore = new TransactionWriteStore(branchSession,
+                        LogOperation.BRANCH_ADD);
+                    writeFully(fileChannel, LogSegment.encodeFrame(branchWriteStore.encode()));
+                }
+            }
+            fileChannel.force(true);
+        }
+        Files.move(tmpFile.toPath(), checkpointFile.toPath(), StandardCopyOption.ATOMIC_MOVE);
+        File dir = checkpointFile.getAbsoluteFile().getParentFile();
+        try (FileChannel dirChannel = FileChannel.open(dir.toPath(), StandardOpenOption.READ)) {
+            dirChannel.force(true);
+        } catch (IOException ignore) {
+            // not supported on every platform, the rename is durable with the next metadata flush then
         }
-        writeBuffer.clear();
-        return true;
     }
 
-    private boolean findTimeoutAndSave() throws IOException {
-        List<GlobalSession> globalSessionsOverMaxTimeout =
-            sessionManager.findGlobalSessions(new SessionCondition(MAX_TRX_TIMEOUT_MILLS));
-        if (CollectionUtils.isEmpty(globalSessionsOverMaxTimeout)) {
-            return true;
+    private void writeFully(FileChannel fileChannel, ByteBuffer byteBuffer) throws IOException {
+        while (byteBuffer.hasRemaining()) {
+            fileChannel.write(byteBuffer);
         }
-        for (GlobalSession globalSession : globalSessionsOverMaxTimeout) {
-            TransactionWriteStore globalWriteStore = new TransactionWriteStore(globalSession, LogOperation.GLOBAL_ADD);
-            byte[] data = globalWriteStore.encode();
-            if(!writeDataFrame(data)) {
-                return false;
+    }
+
+    private long readCheckpointSegmentNo(File checkpointFile) throws IOException {
+        try (RandomAccessFile raf = new RandomAccessFile(checkpointFile, "r")) {
+            if (raf.length() < CHECKPOINT_HEADER_SIZE || raf.readInt() != CHECKPOINT_MAGIC) {
+                return -1;
             }
-            List<BranchSession> branchSessIonsOverMaXTimeout = globalSession.getSortedBranches();
-            if (null != branchSessIonsOverMaXTimeout) {
-                for (BranchSession branchSession : branchSessIonsOverMaXTimeout) {
-                    TransactionWriteStore branchWriteStore =
-                        new TransactionWriteStore(branchSession, LogOperation.BRANCH_ADD);
-                    data = branchWriteStore.encode();
-                    if(!writeDataFrame(data)) {
-                        return false;
-                    }
+            return raf.readLong();
+        }
+    }
+
+    private List<Long> listSegmentNos() {
+        List<Long> segmentNos = new ArrayList<>();
+        File dir = new File(currFullFileName).getAbsoluteFile().getParentFile();
+        File[] files = dir.listFiles();
+        if (files != null) {
+            for (File file : files) {
+                long segmentNo = LogSegment.segmentNo(currFullFileName, file);
+                if (segmentNo >= 0) {
+                    segmentNos.add(segmentNo);
                 }
             }
         }
-        if (flushWriteBuffer(writeBuffer)) {
-            currFileChannel.force(false);
-            return true;
+        Collections.sort(segmentNos);
+        return segmentNos;
+    }
+
+    private void deleteSegmentsBefore(long segmentNo) {
+        for (long no : listSegmentNos()) {
+            if (no >= segmentNo) {
+                break;
+            }
+            File file = new File(LogSegment.fileName(currFullFileName, no));
+            if (!file.delete()) {
+                LOGGER.warn("delete segment failed, file:{}", file.getName());
+            }
         }
-        return false;
     }
 
     @Override
@@ -309,9 +488,13 @@ public class FileTransactionStoreManager extends AbstractTransactionStoreManager
 
     @Override
     public void shutdown() {
+        if (null != checkpointExecutor) {
+            checkpointExecutor.shutdownNow();
+        }
         if (null != fileWriteExecutor) {
             fileWriteExecutor.shutdown();
             stopping = true;
+            requestFlush();
             int retry = 0;
             while (!fileWriteExecutor.isTerminated() && retry < MAX_SHUTDOWN_RETRY) {
                 ++retry;
@@ -324,315 +507,293 @@ public class FileTransactionStoreManager extends AbstractTransactionStoreManager
                 fileWriteExecutor.shutdownNow();
             }
         }
+        writeSessionLock.lock();
         try {
-            currFileChannel.force(true);
-        } catch (IOException e) {
-            LOGGER.error("filechannel force error", e);
+            currSegment.force();
+            currSegment.close();
+        } finally {
+            writeSessionLock.unlock();
         }
-        closeFile(currRaf);
     }
 
+    /**
+     * The history is the checkpoint, or the data files of a store without segments. The current are the
+     * segments from the one named by the checkpoint on.
+     */
     @Override
     public List<TransactionWriteStore> readWriteStore(int readSize, boolean isHistory) {
-        File file = null;
-        long currentOffset = 0;
-        if (isHistory) {
-            file = new File(hisFullFileName);
-            currentOffset = recoverHisOffset;
-        } else {
-            file = new File(currFullFileName);
-            currentOffset = recoverCurrOffset;
-        }
-        if (file.exists()) {
-            return parseDataFile(file, readSize, currentOffset);
-        }
-        return null;
+        return replayCursor(isHistory).read(readSize);
+    }
+
+    @Override
+    public List<ByteBuffer> readEncodedWriteStore(int readSize, boolean isHistory) {
+        return replayCursor(isHistory).readEncoded(readSize);
     }
 
     @Override
     public boolean hasRemaining(boolean isHistory) {
-        File file = null;
-        RandomAccessFile raf = null;
-        long currentOffset = 0;
-        if (isHistory) {
-            file = new File(hisFullFileName);
-            currentOffset = recoverHisOffset;
-        } else {
-            file = new File(currFullFileName);
-            currentOffset = recoverCurrOffset;
+        boolean hasRemaining = replayCursor(isHistory).hasRemaining();
+        if (!hasRemaining && !isHistory) {
+            replayed = true;
         }
-        try {
-            raf = new RandomAccessFile(file, "r");
-            return currentOffset < raf.length();
+        return hasRemaining;
+    }
 
-        } catch (IOException ignore) {
-        } finally {
-            closeFile(raf);
+    @Override
+    public synchronized void releaseReplay() {
+        if (historyCursor != null) {
+            historyCursor.close();
+        }
+        if (currCursor != null) {
+            currCursor.close();
         }
-        return false;
     }
 
-    private List<TransactionWriteStore> parseDataFile(File file, int readSize, long currentOffset) {
-        List<TransactionWriteStore> transactionWriteStores = new ArrayList<>(readSize);
-        RandomAccessFile raf = null;
-        FileChannel fileChannel = null;
-        try {
-            raf = new RandomAccessFile(file, "r");
-            raf.seek(currentOffset);
-            fileChannel = raf.getChannel();
-            fileChannel.position(currentOffset);
-            long size = raf.length();
-            ByteBuffer buffSize = ByteBuffer.allocate(MARK_SIZE);
-            while (fileChannel.position() < size) {
-                try {
-                    buffSize.clear();
-                    int avilReadSize = fileChannel.read(buffSize);
-                    if (avilReadSize != MARK_SIZE) {
-                        break;
-                    }
-                    buffSize.flip();
-                    int bodySize = buffSize.getInt();
-                    byte[] byBody = new byte[bodySize];
-                    ByteBuffer buffBody = ByteBuffer.wrap(byBody);
-                    avilReadSize = fileChannel.read(buffBody);
-                    if (avilReadSize != bodySize) {
-                        break;
-                    }
-                    TransactionWriteStore writeStore = new TransactionWriteStore();
-                    writeStore.decode(byBody);
-                    transactionWriteStores.add(writeStore);
-                    if (transactionWriteStores.size() == readSize) {
-                        break;
-                    }
-                } catch (Exception ex) {
-                    LOGGER.error("decode data file error:" + ex.getMessage());
-                    break;
-                }
-            }
-            return transactionWriteStores;
-        } catch (IOException exx) {
-            LOGGER.error("parse data file error:" + exx.getMessage() + ",file:" + file.getName());
-            return null;
-        } finally {
-            try {
-                if (null != fileChannel) {
-                    if (isHisFile(file)) {
-                        recoverHisOffset = fileChannel.position();
-                    } else {
-                        recoverCurrOffset = fileChannel.position();
-                    }
+    private synchronized ReplayCursor replayCursor(boolean isHistory) {
+        if (isHistory) {
+            if (historyCursor == null) {
+                List<ReplayFile> files = new ArrayList<>(2);
+                if (legacy) {
+                    files.add(new ReplayFile(new File(hisFullFileName), true, 0));
+                    files.add(new ReplayFile(new File(currFullFileName), true, 0));
+                } else {
+                    files.add(new ReplayFile(new File(currFullFileName), false, CHECKPOINT_HEADER_SIZE));
                 }
-                closeFile(raf);
-            } catch (IOException exx) {
-                LOGGER.error("file close error," + exx.getMessage());
+                historyCursor = new ReplayCursor(files);
             }
+            return historyCursor;
         }
-
-    }
-
-    private boolean isHisFile(File file) {
-
-        return file.getName().endsWith(HIS_DATA_FILENAME_POSTFIX);
-    }
-
-    private void closeFile(RandomAccessFile raf) {
-        try {
-            if (null != raf) {
-                raf.close();
-                raf = null;
+        if (currCursor == null) {
+            List<ReplayFile> files = new ArrayList<>();
+            for (long segmentNo : listSegmentNos()) {
+                if (segmentNo >= checkpointSegmentNo) {
+                    files.add(new ReplayFile(new File(LogSegment.fileName(currFullFileName, segmentNo)), false, 0));
+                }
             }
-        } catch (IOException exx) {
-            LOGGER.error("file close error," + exx.getMessage());
+            currCursor = new ReplayCursor(files);
         }
+        return currCursor;
     }
 
-    private boolean writeDataFile(byte[] bs) {
-        if (bs == null || bs.length >= Integer.MAX_VALUE - 3) {
-            return false;
-        }
-        if (!writeDataFrame(bs)) {
-            return false;
-        }
-        return flushWriteBuffer(writeBuffer);
+    /**
+     * Gets the count of forces issued by the flusher thread.
+     *
+     * @return the flush count
+     */
+    long getFlushCount() {
+        return flushCount.get();
     }
 
-    private boolean writeDataFileByBuffer(ByteBuffer byteBuffer) {
-        for (int retry = 0; retry < MAX_WRITE_RETRY; retry++) {
-            try {
-                while (byteBuffer.hasRemaining()) {
-                    currFileChannel.write(byteBuffer);
-                }
-                return true;
-            } catch (IOException exx) {
-                LOGGER.error("write data file error:" + exx.getMessage());
-            }
-        }
-        LOGGER.error("write dataFile failed,retry more than :" + MAX_WRITE_RETRY);
-        return false;
+    /**
+     * Gets the no of the first segment replayed after the checkpoint.
+     *
+     * @return the checkpoint segment no
+     */
+    long getCheckpointSegmentNo() {
+        return checkpointSegmentNo;
     }
 
-    interface StoreRequest {
+    static class ReplayFile {
 
-    }
+        private final File file;
 
-    abstract static class AbstractFlushRequest implements StoreRequest {
-        private final long curFileTrxNum;
+        private final boolean legacy;
 
-        private final FileChannel curFileChannel;
+        private final long startOffset;
 
-        protected AbstractFlushRequest(long curFileTrxNum, FileChannel curFileChannel) {
-            this.curFileTrxNum = curFileTrxNum;
-            this.curFileChannel = curFileChannel;
+        ReplayFile(File file, boolean legacy, long startOffset) {
+            this.file = file;
+            this.legacy = legacy;
+            this.startOffset = startOffset;
         }
+    }
 
-        public long getCurFileTrxNum() {
-            return curFileTrxNum;
-        }
+    /**
+     * Reads the frames of a list of files in order, each file mapped read-only once.
+     */
+    static class ReplayCursor {
 
-        public FileChannel getCurFileChannel() {
-            return curFileChannel;
-        }
-    }
+        private final List<ReplayFile> files;
 
-    class SyncFlushRequest extends AbstractFlushRequest {
+        private int index;
 
-        private final CountDownLatch countDownLatch = new CountDownLatch(1);
+        private MappedByteBuffer buffer;
 
-        public SyncFlushRequest(long curFileTrxNum, FileChannel curFileChannel) {
-            super(curFileTrxNum, curFileChannel);
-        }
+        private final List<MappedByteBuffer> mapped = new ArrayList<>();
 
-        public void wakeupCustomer() {
-            this.countDownLatch.countDown();
+        ReplayCursor(List<ReplayFile> files) {
+            this.files = files;
         }
 
-        public void waitForFlush(long timeout) {
-            try {
-                this.countDownLatch.await(timeout, TimeUnit.MILLISECONDS);
-            } catch (InterruptedException e) {
-                LOGGER.error("Interrupted", e);
+        boolean hasRemaining() {
+            while (index < files.size()) {
+                if (buffer == null && !open(files.get(index))) {
+                    index++;
+                    continue;
+                }
+                if (hasFrame(files.get(index).legacy)) {
+                    return true;
+                }
+                buffer = null;
+                index++;
             }
+            return false;
         }
-    }
-
-    class AsyncFlushRequest extends AbstractFlushRequest {
 
-        public AsyncFlushRequest(long curFileTrxNum, FileChannel curFileChannel) {
-            super(curFileTrxNum, curFileChannel);
+        List<TransactionWriteStore> read(int readSize) {
+            List<TransactionWriteStore> transactionWriteStores = new ArrayList<>(readSize);
+            for (ByteBuffer encoded : readEncoded(readSize)) {
+                try {
+                    TransactionWriteStore writeStore = new TransactionWriteStore();
+                    writeStore.decode(encoded);
+                    transactionWriteStores.add(writeStore);
+                } catch (Exception ex) {
+                    LOGGER.error("decode data file error:" + ex.getMessage());
+                }
+            }
+            return transactionWriteStores;
         }
 
-    }
-
-    static class CloseFileRequest implements StoreRequest {
-
-        private FileChannel fileChannel;
+        List<ByteBuffer> readEncoded(int readSize) {
+            List<ByteBuffer> encodedWriteStores = new ArrayList<>(readSize);
+            while (encodedWriteStores.size() < readSize && hasRemaining()) {
+                ByteBuffer body = files.get(index).legacy ? readLegacyFrame() : LogSegment.readFrame(buffer);
+                if (body == null) {
+                    LOGGER.warn("skip the rest of damaged data file:" + files.get(index).file.getName());
+                    buffer.position(buffer.limit());
+                    continue;
+                }
+                encodedWriteStores.add(body);
+            }
+            return encodedWriteStores;
+        }
 
-        private RandomAccessFile file;
+        private boolean open(ReplayFile replayFile) {
+            if (!replayFile.file.exists() || replayFile.file.length() <= replayFile.startOffset) {
+                return false;
+            }
+            try (RandomAccessFile raf = new RandomAccessFile(replayFile.file, "r")) {
+                buffer = raf.getChannel().map(FileChannel.MapMode.READ_ONLY, 0, raf.length());
+                mapped.add(buffer);
+                buffer.position((int)replayFile.startOffset);
+                return true;
+            } catch (IOException exx) {
+                LOGGER.error("parse data file error:" + exx.getMessage() + ",file:" + replayFile.file.getName());
+                return false;
+            }
+        }
 
-        public CloseFileRequest(FileChannel fileChannel, RandomAccessFile file) {
-            this.fileChannel = fileChannel;
-            this.file = file;
+        /**
+         * Unmap the files read, once no buffer read from them is used anymore.
+         */
+        void close() {
+            for (MappedByteBuffer mappedBuffer : mapped) {
+                LogSegment.unmap(mappedBuffer);
+            }
+            mapped.clear();
+            buffer = null;
+            index = files.size();
         }
 
-        public FileChannel getFileChannel() {
-            return fileChannel;
+        private boolean hasFrame(boolean legacy) {
+            int headerSize = legacy ? MARK_SIZE : LogSegment.FRAME_HEADER_SIZE;
+            return buffer.remaining() > headerSize && buffer.getInt(buffer.position()) > 0;
         }
 
-        public RandomAccessFile getFile() {
-            return file;
+        private ByteBuffer readLegacyFrame() {
+            int bodySize = buffer.getInt();
+            if (bodySize > buffer.remaining()) {
+                return null;
+            }
+            ByteBuffer body = buffer.slice();
+            body.limit(bodySize);
+            buffer.position(buffer.position() + bodySize);
+            return body;
         }
     }
 
     /**
-     * The type Write data file runnable.
+     * The type Write data file runnable. It is the only thread forcing the log: each round it forces the current
+     * segment once for whatever the writers have appended so far and wakes every writer whose frame is covered.
      */
     class WriteDataFileRunnable implements Runnable {
 
-        private LinkedBlockingQueue<StoreRequest> storeRequests = new LinkedBlockingQueue<>();
-
-        public void putRequest(final StoreRequest request) {
-            storeRequests.add(request);
-        }
-
         @Override
         public void run() {
             while (!stopping) {
                 try {
-                    StoreRequest storeRequest = storeRequests.poll(MAX_WAIT_TIME_MILLS, TimeUnit.MILLISECONDS);
-                    handleStoreRequest(storeRequest);
+                    awaitFlushRequest();
+                    flushOnCondition();
+                    closeRetiredSegments();
                 } catch (Exception exx) {
                     LOGGER.error("write file error: {}", exx.getMessage(), exx);
                 }
             }
-            handleRestRequest();
-        }
-
-        /**
-         * handle the rest requests when stopping is true
-         */
-        private void handleRestRequest() {
-            int remainNums = storeRequests.size();
-            for (int i = 0; i < remainNums; i++) {
-                handleStoreRequest(storeRequests.poll());
-            }
-        }
-
-        private void handleStoreRequest(StoreRequest storeRequest) {
-            if (storeRequest == null) {
-                flushOnCondition(currFileChannel);
-            }
-            if (storeRequest instanceof SyncFlushRequest) {
-                syncFlush((SyncFlushRequest)storeRequest);
-            } else if (storeRequest instanceof AsyncFlushRequest) {
-                async((AsyncFlushRequest)storeRequest);
-            } else if (storeRequest instanceof CloseFileRequest) {
-                closeAndFlush((CloseFileRequest)storeRequest);
-            }
+            groupFlush();
+            closeRetiredSegments();
         }
 
-        private void closeAndFlush(CloseFileRequest req) {
-            long diff = FILE_TRX_NUM.get() - FILE_FLUSH_NUM.get();
-            flush(req.getFileChannel());
-            FILE_FLUSH_NUM.addAndGet(diff);
-            closeFile(currRaf);
-        }
-
-        private void async(AsyncFlushRequest req) {
-            if (req.getCurFileTrxNum() < FILE_FLUSH_NUM.get()) {
-                flushOnCondition(req.getCurFileChannel());
+        private void awaitFlushRequest() throws InterruptedException {
+            flushLock.lock();
+            try {
+                if (!stopping && !hasPendingSyncFlush()) {
+                    flushRequested.await(MAX_WAIT_TIME_MILLS, TimeUnit.MILLISECONDS);
+                }
+            } finally {
+                flushLock.unlock();
             }
         }
 
-        private void syncFlush(SyncFlushRequest req) {
-            if (req.getCurFileTrxNum() < FILE_FLUSH_NUM.get()) {
-                long diff = FILE_TRX_NUM.get() - FILE_FLUSH_NUM.get();
-                flush(req.getCurFileChannel());
-                FILE_FLUSH_NUM.addAndGet(diff);
-            }
-            // notify
-            req.wakeupCustomer();
+        private boolean hasPendingSyncFlush() {
+            return flushDiskMode == FlushDiskMode.SYNC_MODEL && appendedTrxNum > flushedTrxNum;
         }
 
-        private void flushOnCondition(FileChannel fileChannel) {
-            if (FLUSH_DISK_MODE == FlushDiskMode.SYNC_MODEL) {
+        private void flushOnCondition() {
+            if (flushDiskMode == FlushDiskMode.SYNC_MODEL) {
+                groupFlush();
                 return;
             }
-            long diff = FILE_TRX_NUM.get() - FILE_FLUSH_NUM.get();
+            long diff = appendedTrxNum - flushedTrxNum;
             if (diff == 0) {
                 return;
             }
-            if (diff % MAX_FLUSH_NUM == 0 ||
+            if (diff >= MAX_FLUSH_NUM ||
                 System.currentTimeMillis() - lastModifiedTime > MAX_FLUSH_TIME_MILLS) {
-                flush(fileChannel);
-                FILE_FLUSH_NUM.addAndGet(diff);
+                groupFlush();
             }
         }
 
-        private void flush(FileChannel fileChannel) {
+        private void groupFlush() {
+            long trxNum;
+            LogSegment segment;
+            writeSessionLock.lock();
             try {
-                fileChannel.force(false);
-            } catch (IOException exx) {
+                trxNum = appendedTrxNum;
+                if (trxNum == flushedTrxNum) {
+                    return;
+                }
+                segment = currSegment;
+            } finally {
+                writeSessionLock.unlock();
+            }
+            // writers keep appending to the segment while it is forced
+            try {
+                segment.force();
+            } catch (RuntimeException exx) {
                 LOGGER.error("flush error:" + exx.getMessage());
+                return;
+            }
+            flushCount.incrementAndGet();
+            signalFlushed(trxNum);
+        }
+
+        /**
+         * the segments rolled over are closed here, after any force on them in this thread is done
+         */
+        private void closeRetiredSegments() {
+            LogSegment segment;
+            while ((segment = retiredSegments.poll()) != null) {
+                segment.close();
             }
         }
     }
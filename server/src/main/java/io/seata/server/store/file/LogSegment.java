@@ -0,0 +1,260 @@
+/*
+ *  Copyright 1999-2019 Seata.io Group.
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+package io.seata.server.store.file;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.util.zip.CRC32;
+
+import io.netty.util.internal.PlatformDependent;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * One fixed-size memory-mapped segment of the session write-ahead log. A frame is the body length, the crc32 of
+ * the body and the body. The length is put last, so the zero filled tail of the segment, or a frame torn by a crash
+ * of the process, reads as the end of the segment.
+ */
+public class LogSegment {
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(LogSegment.class);
+
+    /**
+     * The constant FRAME_HEADER_SIZE.
+     */
+    public static final int FRAME_HEADER_SIZE = 8;
+
+    private static final String SEGMENT_FILENAME_FORMAT = "%s.wal.%020d";
+
+    private final long segmentNo;
+
+    private final File file;
+
+    private final RandomAccessFile raf;
+
+    private final MappedByteBuffer buffer;
+
+    private volatile boolean closed;
+
+    private LogSegment(long segmentNo, File file, RandomAccessFile raf, MappedByteBuffer buffer) {
+        this.segmentNo = segmentNo;
+        this.file = file;
+        this.raf = raf;
+        this.buffer = buffer;
+    }
+
+    /**
+     * Create and map a new segment.
+     *
+     * @param fullFileName the full file name of the store
+     * @param segmentNo    the segment no
+     * @param segmentSize  the segment size
+     * @return the log segment
+     * @throws IOException the io exception
+     */
+    public static LogSegment create(String fullFileName, long segmentNo, int segmentSize) throws IOException {
+        File file = new File(fileName(fullFileName, segmentNo));
+        RandomAccessFile raf = new RandomAccessFile(file, "rw");
+        try {
+            MappedByteBuffer buffer = raf.getChannel().map(FileChannel.MapMode.READ_WRITE, 0, segmentSize);
+            return new LogSegment(segmentNo, file, raf, buffer);
+        } catch (IOException exx) {
+            raf.close();
+            throw exx;
+        }
+    }
+
+    /**
+     * File name of a segment.
+     *
+     * @param fullFileName the full file name of the store
+     * @param segmentNo    the segment no
+     * @return the file name
+     */
+    public static String fileName(String fullFileName, long segmentNo) {
+        return String.format(SEGMENT_FILENAME_FORMAT, fullFileName, segmentNo);
+    }
+
+    /**
+     * Segment no of a file, -1 if the file is not a segment of the store.
+     *
+     * @param fullFileName the full file name of the store
+     * @param file         the file
+     * @return the segment no
+     */
+    public static long segmentNo(String fullFileName, File file) {
+        String prefix = new File(fullFileName).getName() + ".wal.";
+        String name = file.getName();
+        if (!name.startsWith(prefix) || name.length() == prefix.length()) {
+            return -1;
+        }
+        try {
+            return Long.parseLong(name.substring(prefix.length()));
+        } catch (NumberFormatException ignore) {
+            return -1;
+        }
+    }
+
+    /**
+     * Append a frame.
+     *
+     * @param data the data
+     * @return false if the segment has no room for the frame
+     */
+    public boolean append(byte[] data) {
+        checkOpen();
+        int position = buffer.position();
+        if (buffer.remaining() < FRAME_HEADER_SIZE + data.length) {
+            return false;
+        }
+        buffer.position(position + FRAME_HEADER_SIZE);
+        buffer.put(data);
+        buffer.putInt(position + 4, crc(data, 0, data.length));
+        buffer.putInt(position, data.length);
+        return true;
+    }
+
+    /**
+     * Force the segment to disk.
+     */
+    public void force() {
+        checkOpen();
+        buffer.force();
+    }
+
+    /**
+     * Close the file and unmap the segment, so the file can be deleted and its space is freed at once. The segment
+     * must not be used after.
+     */
+    public void close() {
+        if (closed) {
+            return;
+        }
+        closed = true;
+        try {
+            raf.close();
+        } catch (IOException exx) {
+            LOGGER.error("file close error," + exx.getMessage());
+        }
+        unmap(buffer);
+    }
+
+    /**
+     * Unmap a mapped buffer now rather than when it is collected. Any access to the buffer, or to a view of it,
+     * after crashes the process.
+     *
+     * @param buffer the buffer
+     */
+    public static void unmap(MappedByteBuffer buffer) {
+        try {
+            PlatformDependent.freeDirectBuffer(buffer);
+        } catch (Throwable t) {
+            LOGGER.warn("unmap error, the mapping is released by gc, {}", t.getMessage());
+        }
+    }
+
+    private void checkOpen() {
+        if (closed) {
+            throw new IllegalStateException("segment " + segmentNo + " is closed");
+        }
+    }
+
+    /**
+     * Gets segment no.
+     *
+     * @return the segment no
+     */
+    public long getSegmentNo() {
+        return segmentNo;
+    }
+
+    /**
+     * Gets file.
+     *
+     * @return the file
+     */
+    public File getFile() {
+        return file;
+    }
+
+    /**
+     * Gets wrote position.
+     *
+     * @return the wrote position
+     */
+    public int getWrotePosition() {
+        return buffer.position();
+    }
+
+    /**
+     * Encode a frame to be written through a channel.
+     *
+     * @param data the data
+     * @return the byte buffer, ready to be read
+     */
+    public static ByteBuffer encodeFrame(byte[] data) {
+        ByteBuffer frame = ByteBuffer.allocate(FRAME_HEADER_SIZE + data.length);
+        frame.putInt(data.length);
+        frame.putInt(crc(data, 0, data.length));
+        frame.put(data);
+        frame.flip();
+        return frame;
+    }
+
+    /**
+     * Read the next frame from the position of the buffer, the position is moved after it.
+     *
+     * @param buffer the buffer
+     * @return a view of the body, null at the end of the data or at a damaged frame
+     */
+    public static ByteBuffer readFrame(ByteBuffer buffer) {
+        if (buffer.remaining() < FRAME_HEADER_SIZE) {
+            return null;
+        }
+        int position = buffer.position();
+        int length = buffer.getInt(position);
+        if (length <= 0) {
+            return null;
+        }
+        if (length > buffer.remaining() - FRAME_HEADER_SIZE) {
+            LOGGER.warn("frame at {} was truncated, length:{}", position, length);
+            return null;
+        }
+        int crc = buffer.getInt(position + 4);
+        ByteBuffer body = buffer.duplicate();
+        body.position(position + FRAME_HEADER_SIZE);
+        body.limit(position + FRAME_HEADER_SIZE + length);
+        body = body.slice();
+        CRC32 crc32 = new CRC32();
+        crc32.update(body.duplicate());
+        if (crc != (int)crc32.getValue()) {
+            LOGGER.warn("frame at {} was damaged, crc mismatch", position);
+            return null;
+        }
+        buffer.position(position + FRAME_HEADER_SIZE + length);
+        return body;
+    }
+
+    private static int crc(byte[] data, int offset, int length) {
+        CRC32 crc32 = new CRC32();
+        crc32.update(data, offset, length);
+        return (int)crc32.getValue();
+    }
+}
@@ -0,0 +1,136 @@
+/*
+ *  Copyright 1999-2019 Seata.io Group.
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+package io.seata.server;
+
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+/**
+ * The type Snowflake id generator test.
+ */
+public class SnowflakeIdGeneratorTest {
+
+    private static final int NODE_ID = 5;
+
+    /**
+     * Ids of concurrent threads are unique, and increasing within a thread.
+     *
+     * @throws Exception the exception
+     */
+    @Test
+    public void testUniqueAndOrdered() throws Exception {
+        SnowflakeIdGenerator generator = new SnowflakeIdGenerator(NODE_ID);
+        Set<Long> ids = ConcurrentHashMap.newKeySet();
+        AtomicBoolean ordered = new AtomicBoolean(true);
+        int threads = 4;
+        int idsPerThread = 20000;
+        CountDownLatch done = new CountDownLatch(threads);
+        for (int t = 0; t < threads; t++) {
+            new Thread(() -> {
+                long last = 0;
+                for (int i = 0; i < idsPerThread; i++) {
+                    long id = generator.nextId();
+                    if (id <= last) {
+                        ordered.set(false);
+                    }
+                    last = id;
+                    ids.add(id);
+                }
+                done.countDown();
+            }).start();
+        }
+        Assertions.assertTrue(done.await(30, TimeUnit.SECONDS));
+        Assertions.assertEquals(threads * idsPerThread, ids.size());
+        Assertions.assertTrue(ordered.get());
+
+        long id = generator.nextId();
+        Assertions.assertTrue(id > 0);
+        Assertions.assertEquals(NODE_ID, (id >>> SnowflakeIdGenerator.SEQUENCE_BITS) & SnowflakeIdGenerator.MAX_NODE_ID);
+        long mills = (id >>> (SnowflakeIdGenerator.NODE_BITS + SnowflakeIdGenerator.SEQUENCE_BITS))
+            + SnowflakeIdGenerator.EPOCH;
+        Assertions.assertTrue(Math.abs(System.currentTimeMillis() - mills) < 5000);
+    }
+
+    /**
+     * Ids keep increasing when the clock goes back, and wait for the clock beyond the max drift.
+     */
+    @Test
+    public void testClockBack() {
+        AtomicLong clock = new AtomicLong(1000000L);
+        SnowflakeIdGenerator generator = new SnowflakeIdGenerator(NODE_ID, 2) {
+            @Override
+            protected long currentMills() {
+                return clock.get();
+            }
+        };
+        long before = generator.nextId();
+        clock.addAndGet(-100);
+        long after = generator.nextId();
+        Assertions.assertTrue(after > before);
+
+        // use up the sequences of the millisecond, the next ones wait for the clock
+        Thread catchUp = new Thread(() -> {
+            try {
+                Thread.sleep(200);
+            } catch (InterruptedException ignore) {
+            }
+            clock.set(1000010L);
+        });
+        catchUp.start();
+        long last = after;
+        for (int i = 0; i < 3 * (1 << SnowflakeIdGenerator.SEQUENCE_BITS); i++) {
+            long id = generator.nextId();
+            Assertions.assertTrue(id > last);
+            last = id;
+        }
+        Assertions.assertEquals(1000010L, clock.get());
+    }
+
+    /**
+     * Ids after advancing are greater than the given id.
+     */
+    @Test
+    public void testAdvanceTo() {
+        SnowflakeIdGenerator generator = new SnowflakeIdGenerator(1);
+        long ahead = new SnowflakeIdGenerator(2).nextId() + (1000L << 22);
+        generator.advanceTo(ahead);
+        Assertions.assertTrue(generator.currentId() > ahead);
+    }
+
+    /**
+     * The snowflake mode of the uuid generator.
+     */
+    @Test
+    public void testUUIDGeneratorMode() {
+        try {
+            UUIDGenerator.init(NODE_ID, UUIDGenerator.MODE_SNOWFLAKE);
+            long id = UUIDGenerator.generateUUID();
+            Assertions.assertTrue(UUIDGenerator.generateUUID() > id);
+            Assertions.assertTrue(UUIDGenerator.setUUID(UUIDGenerator.getCurrentUUID(), id + (10L << 22)));
+            Assertions.assertTrue(UUIDGenerator.generateUUID() > id + (10L << 22));
+            Assertions.assertThrows(IllegalArgumentException.class, () -> UUIDGenerator.init(1, "unknown"));
+        } finally {
+            UUIDGenerator.init(1, UUIDGenerator.MODE_DEFAULT);
+        }
+    }
+}
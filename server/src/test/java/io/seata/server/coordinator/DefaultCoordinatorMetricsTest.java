@@ -53,6 +53,9 @@ public class DefaultCoordinatorMetricsTest {
         GlobalBeginResponse response = new GlobalBeginResponse();
         coordinator.doGlobalBegin(request, response, new RpcContext());
 
+        //we need sleep for a short while because events are delivered to metrics asynchronously
+        Thread.sleep(200);
+
         Map<String, Measurement> measurements = new HashMap<>();
         MetricsManager.get().getRegistry().measure().forEach(
             measurement -> measurements.put(measurement.getId().toString(), measurement));
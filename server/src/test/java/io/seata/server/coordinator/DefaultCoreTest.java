@@ -16,6 +16,9 @@
 package io.seata.server.coordinator;
 
 import java.util.Collection;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.TimeUnit;
 import java.util.stream.Stream;
 
 import io.seata.core.exception.TransactionException;
@@ -277,6 +280,106 @@ public class DefaultCoreTest {
         Assertions.assertEquals(globalSession.getStatus(), GlobalStatus.RollbackRetrying);
     }
 
+    /**
+     * Do global commit with parallel phase two test.
+     *
+     * @param xid the xid
+     * @throws Exception the exception
+     */
+    @ParameterizedTest
+    @MethodSource("xidProvider")
+    public void doGlobalCommitParallelTest(String xid) throws Exception {
+        globalSession = SessionHolder.findGlobalSession(xid);
+        addBranches(globalSession, 3);
+        DefaultCore parallelCore = new DefaultCore();
+        parallelCore.setParallelPhaseTwo(true);
+        parallelCore.setResourceManagerInbound(
+            new MockResourceManagerInbound(BranchStatus.PhaseTwo_Committed, BranchStatus.PhaseOne_Done));
+        parallelCore.doGlobalCommit(globalSession, false);
+        Assertions.assertEquals(globalSession.getStatus(), GlobalStatus.Committed);
+        Assertions.assertFalse(globalSession.hasBranch());
+    }
+
+    /**
+     * Do global roll back with parallel phase two test.
+     *
+     * @param xid the xid
+     * @throws Exception the exception
+     */
+    @ParameterizedTest
+    @MethodSource("xidProvider")
+    public void doGlobalRollBackParallelRetryableTest(String xid) throws Exception {
+        globalSession = SessionHolder.findGlobalSession(xid);
+        addBranches(globalSession, 3);
+        DefaultCore parallelCore = new DefaultCore();
+        parallelCore.setParallelPhaseTwo(true);
+        parallelCore.setResourceManagerInbound(new MockResourceManagerInbound(BranchStatus.PhaseTwo_Committed,
+            BranchStatus.PhaseTwo_RollbackFailed_Retryable));
+        parallelCore.doGlobalRollback(globalSession, false);
+        Assertions.assertEquals(globalSession.getStatus(), GlobalStatus.RollbackRetrying);
+        Assertions.assertEquals(globalSession.getSortedBranches().size(), 3);
+    }
+
+    /**
+     * Branch register waiting for a conflicting global lock test.
+     *
+     * @throws Exception the exception
+     */
+    @Test
+    public void branchRegisterLockWaitTest() throws Exception {
+        DefaultCore waitingCore = new DefaultCore();
+        waitingCore.setLockWaitTimeout(10000);
+        String holderXid = waitingCore.begin(applicationId, txServiceGroup, txName, timeout);
+        String waiterXid = waitingCore.begin(applicationId, txServiceGroup, txName, timeout);
+        waitingCore.branchRegister(BranchType.AT, resourceId, clientId, holderXid, null, lockKeys_1);
+        CompletableFuture<Long> waiting = CompletableFuture.supplyAsync(() -> {
+            try {
+                return waitingCore.branchRegister(BranchType.AT, resourceId, clientId, waiterXid, null, lockKeys_1);
+            } catch (TransactionException e) {
+                throw new CompletionException(e);
+            }
+        });
+        Thread.sleep(300);
+        Assertions.assertFalse(waiting.isDone());
+
+        SessionHolder.findGlobalSession(holderXid).end();
+        Assertions.assertNotNull(waiting.get(5, TimeUnit.SECONDS));
+        globalSession = SessionHolder.findGlobalSession(waiterXid);
+        Assertions.assertEquals(globalSession.getSortedBranches().size(), 1);
+    }
+
+    /**
+     * Branch register waiting for a conflicting global lock without a blocked thread test.
+     *
+     * @throws Exception the exception
+     */
+    @Test
+    public void branchRegisterAsyncLockWaitTest() throws Exception {
+        DefaultCore waitingCore = new DefaultCore();
+        waitingCore.setLockWaitTimeout(10000);
+        String holderXid = waitingCore.begin(applicationId, txServiceGroup, txName, timeout);
+        String waiterXid = waitingCore.begin(applicationId, txServiceGroup, txName, timeout);
+        waitingCore.branchRegister(BranchType.AT, resourceId, clientId, holderXid, null, lockKeys_1);
+        CompletableFuture<Long> waiting = waitingCore.branchRegisterAsync(BranchType.AT, resourceId, clientId,
+            waiterXid, null, lockKeys_1);
+        Thread.sleep(300);
+        Assertions.assertFalse(waiting.isDone());
+
+        SessionHolder.findGlobalSession(holderXid).end();
+        Assertions.assertNotNull(waiting.get(5, TimeUnit.SECONDS));
+        globalSession = SessionHolder.findGlobalSession(waiterXid);
+        Assertions.assertEquals(globalSession.getSortedBranches().size(), 1);
+    }
+
+    private void addBranches(GlobalSession globalSession, int count) throws TransactionException {
+        for (int i = 0; i < count; i++) {
+            BranchSession branchSession = SessionHelper.newBranchByGlobal(globalSession, BranchType.AT,
+                resourceId + i, applicationData, "t1:" + i, clientId);
+            globalSession.addBranch(branchSession);
+            globalSession.changeBranchStatus(branchSession, BranchStatus.PhaseOne_Done);
+        }
+    }
+
     /**
      * Xid provider object [ ] [ ].
      *
@@ -0,0 +1,81 @@
+/*
+ *  Copyright 1999-2019 Seata.io Group.
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+package io.seata.server.coordinator;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+
+import io.seata.core.exception.TransactionException;
+import io.seata.server.session.GlobalSession;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+/**
+ * The type Partitioned recovery executor test.
+ */
+public class PartitionedRecoveryExecutorTest {
+
+    @Test
+    public void testExecuteOnPartitions() throws Exception {
+        PartitionedRecoveryExecutor executor = new PartitionedRecoveryExecutor("RecoveryTest", 4);
+        List<GlobalSession> sessions = new ArrayList<>();
+        for (int i = 0; i < 100; i++) {
+            GlobalSession session = new GlobalSession();
+            session.setTransactionId(i);
+            session.setXid("127.0.0.1:8091:" + i);
+            sessions.add(session);
+        }
+        Map<Long, String> handledBy = new ConcurrentHashMap<>();
+        executor.execute(sessions, session -> {
+            handledBy.put(session.getTransactionId(), Thread.currentThread().getName());
+            if (session.getTransactionId() % 10 == 0) {
+                throw new TransactionException("mock failure");
+            }
+        });
+        Assertions.assertEquals(100, handledBy.size());
+
+        long handled = 0;
+        long failed = 0;
+        for (int i = 0; i < executor.getPartitionCount(); i++) {
+            handled += executor.getHandledCount(i);
+            failed += executor.getFailedCount(i);
+        }
+        Assertions.assertEquals(100, handled);
+        Assertions.assertEquals(10, failed);
+
+        for (GlobalSession session : sessions) {
+            int partition = PartitionedRecoveryExecutor.partitionOf(session.getTransactionId(), 4);
+            Assertions.assertTrue(handledBy.get(session.getTransactionId()).startsWith("RecoveryTest_" + partition));
+        }
+        executor.shutdown();
+        executor.awaitTermination(1, TimeUnit.SECONDS);
+    }
+
+    @Test
+    public void testSinglePartitionRunsOnCaller() {
+        PartitionedRecoveryExecutor executor = new PartitionedRecoveryExecutor("RecoveryTest", 1);
+        GlobalSession session = new GlobalSession();
+        session.setTransactionId(1);
+        List<String> threads = new ArrayList<>();
+        executor.execute(Collections.singletonList(session),
+            s -> threads.add(Thread.currentThread().getName()));
+        Assertions.assertEquals(Thread.currentThread().getName(), threads.get(0));
+    }
+}
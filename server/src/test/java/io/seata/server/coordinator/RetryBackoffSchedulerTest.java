@@ -0,0 +1,88 @@
+/*
+ *  Copyright 1999-2019 Seata.io Group.
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+package io.seata.server.coordinator;
+
+import java.util.Collections;
+import java.util.List;
+
+import io.seata.server.session.GlobalSession;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+/**
+ * The type Retry backoff scheduler test.
+ */
+public class RetryBackoffSchedulerTest {
+
+    @Test
+    public void testBackoff() {
+        RetryBackoffScheduler scheduler = new RetryBackoffScheduler(1000, 8000, 0);
+        Assertions.assertEquals(1000, scheduler.nextDelay(1));
+        Assertions.assertEquals(2000, scheduler.nextDelay(2));
+        Assertions.assertEquals(8000, scheduler.nextDelay(4));
+        Assertions.assertEquals(8000, scheduler.nextDelay(100));
+    }
+
+    @Test
+    public void testJitter() {
+        RetryBackoffScheduler scheduler = new RetryBackoffScheduler(1000, 8000, 0.2);
+        for (int i = 0; i < 100; i++) {
+            long delay = scheduler.nextDelay(3);
+            Assertions.assertTrue(delay > 3200 && delay <= 4000);
+        }
+    }
+
+    @Test
+    public void testDue() {
+        RetryBackoffScheduler scheduler = new RetryBackoffScheduler(1000, 8000, 0);
+        GlobalSession session = new GlobalSession();
+        session.setTransactionId(1);
+        List<GlobalSession> sessions = Collections.singletonList(session);
+        long now = System.currentTimeMillis();
+
+        Assertions.assertEquals(1, scheduler.due(sessions, now).size());
+        scheduler.onAttempt(session, now);
+        Assertions.assertEquals(0, scheduler.due(sessions, now + 500).size());
+        Assertions.assertEquals(1, scheduler.due(sessions, now + 1000).size());
+        scheduler.onAttempt(session, now + 1000);
+        Assertions.assertEquals(0, scheduler.due(sessions, now + 2500).size());
+        Assertions.assertEquals(2, scheduler.getAttempts(session));
+
+        // the session is on another page of the queue
+        scheduler.due(Collections.emptyList(), now + 2900);
+        Assertions.assertEquals(2, scheduler.getAttempts(session));
+        Assertions.assertEquals(0, scheduler.due(sessions, now + 2900).size());
+
+        // the session ended
+        scheduler.onEnd(session);
+        Assertions.assertEquals(0, scheduler.getAttempts(session));
+    }
+
+    @Test
+    public void testExpire() {
+        RetryBackoffScheduler scheduler = new RetryBackoffScheduler(1000, 8000, 0);
+        GlobalSession session = new GlobalSession();
+        session.setTransactionId(1);
+        long now = System.currentTimeMillis();
+        scheduler.onAttempt(session, now);
+
+        // not attempted for long, such as ended on another server
+        scheduler.due(Collections.emptyList(), now + 50000);
+        Assertions.assertEquals(1, scheduler.getAttempts(session));
+        scheduler.due(Collections.emptyList(), now + 90000);
+        Assertions.assertEquals(0, scheduler.getAttempts(session));
+    }
+}
@@ -21,6 +21,7 @@ import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.atomic.AtomicInteger;
 
 import com.google.common.eventbus.Subscribe;
+import io.seata.core.event.AsyncEventBus;
 import io.seata.core.event.GlobalTransactionEvent;
 import io.seata.core.exception.TransactionException;
 import io.seata.core.model.GlobalStatus;
@@ -64,13 +65,21 @@ public class DefaultCoreForEventBusTest {
 
         Core core = CoreFactory.get();
 
+        // events of the former tests are not for this subscriber
+        if (EventBusManager.get() instanceof AsyncEventBus) {
+            AsyncEventBus eventBus = (AsyncEventBus)EventBusManager.get();
+            long deadline = System.currentTimeMillis() + 5000;
+            while (eventBus.getPendingCount() > 0 && System.currentTimeMillis() < deadline) {
+                Thread.sleep(10);
+            }
+        }
         GlobalTransactionEventSubscriber subscriber = new GlobalTransactionEventSubscriber();
         EventBusManager.get().register(subscriber);
 
         //start a transaction
         String xid = core.begin("test_app_id", "default_group", "test_tran_name", 30000);
 
-        Assertions.assertEquals(1, subscriber.getEventCounters().get(GlobalStatus.Begin).get());
+        Assertions.assertEquals(1, waitForCount(subscriber.getEventCounters(), GlobalStatus.Begin, 1));
 
         //commit this transaction
         core.commit(xid);
@@ -79,19 +88,19 @@ public class DefaultCoreForEventBusTest {
         Thread.sleep(1000);
 
         //check
-        Assertions.assertEquals(1, subscriber.getEventCounters().get(GlobalStatus.AsyncCommitting).get());
-        Assertions.assertEquals(1, subscriber.getEventCounters().get(GlobalStatus.Committed).get());
+        Assertions.assertEquals(1, waitForCount(subscriber.getEventCounters(), GlobalStatus.AsyncCommitting, 1));
+        Assertions.assertEquals(1, waitForCount(subscriber.getEventCounters(), GlobalStatus.Committed, 1));
 
         //start another new transaction
         xid = core.begin("test_app_id", "default_group", "test_tran_name2", 30000);
 
-        Assertions.assertEquals(2, subscriber.getEventCounters().get(GlobalStatus.Begin).get());
+        Assertions.assertEquals(2, waitForCount(subscriber.getEventCounters(), GlobalStatus.Begin, 2));
 
         core.rollback(xid);
 
         //check
-        Assertions.assertEquals(1, subscriber.getEventCounters().get(GlobalStatus.Rollbacking).get());
-        Assertions.assertEquals(1, subscriber.getEventCounters().get(GlobalStatus.Rollbacked).get());
+        Assertions.assertEquals(1, waitForCount(subscriber.getEventCounters(), GlobalStatus.Rollbacking, 1));
+        Assertions.assertEquals(1, waitForCount(subscriber.getEventCounters(), GlobalStatus.Rollbacked, 1));
 
         //start more one new transaction for test timeout and let this transaction immediately timeout
         xid = core.begin("test_app_id", "default_group", "test_tran_name3", 0);
@@ -100,6 +109,22 @@ public class DefaultCoreForEventBusTest {
         Thread.sleep(1000);
 
         //at lease retry once because DefaultCoordinator.timeoutCheck is 1 second
-        Assertions.assertTrue(subscriber.getEventCounters().get(GlobalStatus.TimeoutRollbacking).get() >= 1);
+        Assertions.assertTrue(waitForCount(subscriber.getEventCounters(), GlobalStatus.TimeoutRollbacking, 1) >= 1);
+    }
+
+    /**
+     * Events are delivered on the thread of the event bus, wait for the count of a status to reach the expected.
+     */
+    private static int waitForCount(Map<GlobalStatus, AtomicInteger> eventCounters, GlobalStatus status,
+                                    int expected) throws InterruptedException {
+        long deadline = System.currentTimeMillis() + 5000;
+        while (true) {
+            AtomicInteger counter = eventCounters.get(status);
+            int count = counter == null ? 0 : counter.get();
+            if (count >= expected || System.currentTimeMillis() > deadline) {
+                return count;
+            }
+            Thread.sleep(10);
+        }
     }
 }
@@ -15,13 +15,13 @@
  */
 package io.seata.server.lock;
 
-import java.util.Set;
 import java.util.concurrent.CountDownLatch;
 import java.util.concurrent.TimeUnit;
 import java.util.concurrent.atomic.AtomicBoolean;
 import java.util.stream.Stream;
 
 import io.seata.core.exception.TransactionException;
+import io.seata.core.lock.BinaryLockKey;
 import io.seata.core.model.BranchType;
 import io.seata.server.UUIDGenerator;
 import io.seata.server.lock.memory.MemoryLockManagerForTest;
@@ -175,13 +175,35 @@ public class LockManagerTest {
     public void duplicatePkBranchSessionHolderTest(BranchSession branchSession1, BranchSession branchSession2) throws Exception {
         LockManager lockManager = new MemoryLockManagerForTest();
         Assertions.assertTrue(lockManager.acquireLock(branchSession1));
-        Assertions.assertEquals(4, branchSession1.getLockHolder().values().stream().map(Set::size).count());
+        Assertions.assertEquals(4, branchSession1.getLockHolder().size());
+        Assertions.assertTrue(lockManager.releaseLock(branchSession1));
+        Assertions.assertEquals(0, branchSession1.getLockHolder().size());
+        Assertions.assertTrue(lockManager.acquireLock(branchSession2));
+        Assertions.assertEquals(4, branchSession2.getLockHolder().size());
+        Assertions.assertTrue(lockManager.releaseLock(branchSession2));
+        Assertions.assertEquals(0, branchSession2.getLockHolder().size());
+    }
+
+    /**
+     * Locks taken by a binary lock key conflict with the same rows in the text form.
+     *
+     * @param branchSession1 the branch session 1
+     * @param branchSession2 the branch session 2
+     * @throws Exception the exception
+     */
+    @ParameterizedTest
+    @MethodSource("binaryBranchSessionsProvider")
+    public void acquireLock_binary(BranchSession branchSession1, BranchSession branchSession2) throws Exception {
+        LockManager lockManager = new MemoryLockManagerForTest();
+        branchSession1.setBinaryLockKey(BinaryLockKey.encode(branchSession1.getLockKey()));
+        Assertions.assertTrue(lockManager.acquireLock(branchSession1));
+        Assertions.assertEquals(3, branchSession1.getLockHolder().size());
+        Assertions.assertFalse(lockManager.acquireLock(branchSession2));
+        Assertions.assertFalse(lockManager.isLockable(branchSession2.getXid(), branchSession2.getResourceId(),
+            BinaryLockKey.encode("t:2")));
         Assertions.assertTrue(lockManager.releaseLock(branchSession1));
-        Assertions.assertEquals(0, branchSession1.getLockHolder().values().stream().map(Set::size).count());
         Assertions.assertTrue(lockManager.acquireLock(branchSession2));
-        Assertions.assertEquals(4, branchSession2.getLockHolder().values().stream().map(Set::size).count());
         Assertions.assertTrue(lockManager.releaseLock(branchSession2));
-        Assertions.assertEquals(0, branchSession2.getLockHolder().values().stream().map(Set::size).count());
     }
 
     /**
@@ -248,6 +270,10 @@ public class LockManagerTest {
         return baseBranchSessionsProvider("tb_2", "t:1,2,3,4,5", "t:5,4,3,2,1");
     }
 
+    static Stream<Arguments> binaryBranchSessionsProvider() {
+        return baseBranchSessionsProvider("tb_3", "t:1,2;t1:中", "t:3;t1:中");
+    }
+
     static Stream<Arguments> duplicatePkBranchSessionsProvider() {
         return baseBranchSessionsProvider("tb_2", "t:1,2;t1:1;t2:2", "t:1,2;t1:1;t2:2");
     }
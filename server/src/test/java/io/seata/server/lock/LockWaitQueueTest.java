@@ -0,0 +1,152 @@
+/*
+ *  Copyright 1999-2019 Seata.io Group.
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+package io.seata.server.lock;
+
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import io.seata.server.lock.memory.RowLockTable;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+/**
+ * The type Lock wait queue test.
+ */
+public class LockWaitQueueTest {
+
+    private static final long ROW_KEY = RowLockTable.rowKey("resource", "t", "1");
+
+    /**
+     * Free rows are taken without waiting.
+     *
+     * @throws Exception the exception
+     */
+    @Test
+    public void testAcquireFree() throws Exception {
+        LockWaitQueue queue = new LockWaitQueue(10000);
+        Assertions.assertEquals("ok", queue.acquire(new long[] {ROW_KEY}, () -> "ok", 1000));
+        Assertions.assertEquals(0, queue.size());
+    }
+
+    /**
+     * A conflicting acquisition gives up at the timeout.
+     *
+     * @throws Exception the exception
+     */
+    @Test
+    public void testTimeout() throws Exception {
+        LockWaitQueue queue = new LockWaitQueue(10);
+        long start = System.currentTimeMillis();
+        Assertions.assertNull(queue.acquire(new long[] {ROW_KEY}, () -> null, 100));
+        Assertions.assertTrue(System.currentTimeMillis() - start >= 100);
+        Assertions.assertEquals(0, queue.size());
+    }
+
+    /**
+     * Waiters are woken on release one at a time, in arrival order.
+     *
+     * @throws Exception the exception
+     */
+    @Test
+    public void testFifoHandOff() throws Exception {
+        // never woken by the recheck within the test
+        LockWaitQueue queue = new LockWaitQueue(60000);
+        AtomicLong owner = new AtomicLong(1);
+        List<Long> order = new CopyOnWriteArrayList<>();
+        CountDownLatch done = new CountDownLatch(2);
+        for (long tx = 2; tx <= 3; tx++) {
+            long transactionId = tx;
+            Thread waiter = new Thread(() -> {
+                try {
+                    Long acquired = queue.acquire(new long[] {ROW_KEY},
+                        () -> owner.compareAndSet(0, transactionId) ? transactionId : null, 30000);
+                    order.add(acquired);
+                } catch (Exception ignore) {
+                } finally {
+                    done.countDown();
+                }
+            });
+            waiter.start();
+            // queue the second waiter behind the first one
+            Thread.sleep(100);
+        }
+        Assertions.assertEquals(1, queue.size());
+
+        owner.set(0);
+        queue.signal(ROW_KEY);
+        long deadline = System.currentTimeMillis() + 5000;
+        while (order.isEmpty() && System.currentTimeMillis() < deadline) {
+            Thread.sleep(5);
+        }
+        Assertions.assertEquals(1, order.size());
+        Assertions.assertEquals(2L, order.get(0).longValue());
+
+        owner.set(0);
+        queue.signal(ROW_KEY);
+        Assertions.assertTrue(done.await(5, TimeUnit.SECONDS));
+        Assertions.assertEquals(3L, order.get(1).longValue());
+        Assertions.assertEquals(0, queue.size());
+    }
+
+    /**
+     * A queued acquisition holds no thread and is completed by the release.
+     *
+     * @throws Exception the exception
+     */
+    @Test
+    public void testAcquireAsync() throws Exception {
+        LockWaitQueue queue = new LockWaitQueue(60000);
+        AtomicLong owner = new AtomicLong(1);
+        CompletableFuture<Long> waiting = queue.acquireAsync(new long[] {ROW_KEY},
+            () -> owner.compareAndSet(0, 2) ? 2L : null, 30000);
+        Thread.sleep(100);
+        Assertions.assertFalse(waiting.isDone());
+        Assertions.assertEquals(1, queue.size());
+
+        owner.set(0);
+        queue.signal(ROW_KEY);
+        Assertions.assertEquals(2L, waiting.get(5, TimeUnit.SECONDS).longValue());
+        Assertions.assertEquals(0, queue.size());
+    }
+
+    /**
+     * A queued acquisition is completed with null at the timeout.
+     *
+     * @throws Exception the exception
+     */
+    @Test
+    public void testAcquireAsyncTimeout() throws Exception {
+        LockWaitQueue queue = new LockWaitQueue(60000);
+        CompletableFuture<Long> waiting = queue.acquireAsync(new long[] {ROW_KEY}, () -> null, 100);
+        Assertions.assertNull(waiting.get(5, TimeUnit.SECONDS));
+        Assertions.assertEquals(0, queue.size());
+    }
+
+    /**
+     * Row keys of a lock key.
+     */
+    @Test
+    public void testRowKeys() {
+        long[] rowKeys = LockWaitQueue.rowKeys("resource", "t:1,2;t2:3");
+        Assertions.assertEquals(3, rowKeys.length);
+        Assertions.assertEquals(ROW_KEY, rowKeys[0]);
+        Assertions.assertEquals(RowLockTable.rowKey("resource", "t2", "3"), rowKeys[2]);
+    }
+}
@@ -0,0 +1,87 @@
+/*
+ *  Copyright 1999-2019 Seata.io Group.
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+package io.seata.server.lock.memory;
+
+import java.nio.charset.StandardCharsets;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Random;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+/**
+ * The type Row lock table test.
+ */
+public class RowLockTableTest {
+
+    @Test
+    public void testLockAndUnlock() {
+        RowLockTable table = new RowLockTable(4);
+        long rowKey = RowLockTable.rowKey("jdbc:mysql://127.0.0.1/db", "t", "1");
+        Assertions.assertEquals(RowLockTable.NO_OWNER, table.tryLock(rowKey, 100L));
+        Assertions.assertEquals(100L, table.tryLock(rowKey, 100L));
+        Assertions.assertEquals(100L, table.tryLock(rowKey, 200L));
+        Assertions.assertEquals(100L, table.getOwner(rowKey));
+        Assertions.assertFalse(table.unlock(rowKey, 200L));
+        Assertions.assertTrue(table.unlock(rowKey, 100L));
+        Assertions.assertEquals(RowLockTable.NO_OWNER, table.getOwner(rowKey));
+        Assertions.assertEquals(RowLockTable.NO_OWNER, table.tryLock(rowKey, 200L));
+        table.clear();
+        Assertions.assertEquals(0, table.size());
+    }
+
+    @Test
+    public void testRowKey() {
+        Assertions.assertNotEquals(RowLockTable.rowKey("r", "t", "12"), RowLockTable.rowKey("r", "t1", "2"));
+        Assertions.assertNotEquals(RowLockTable.rowKey("r1", "t", "1"), RowLockTable.rowKey("r", "t", "1"));
+        Assertions.assertEquals(RowLockTable.rowKey("r", "t", "1"), RowLockTable.rowKey("r", "t", "1"));
+    }
+
+    @Test
+    public void testRowKeyOfBytes() {
+        // the pk bytes hash as the utf-8 encoding of the pk string
+        for (String pk : new String[] {"1", "é", "中文", "\uD83D\uDE00", "\uD83D"}) {
+            byte[] bytes = ("x" + pk).getBytes(StandardCharsets.UTF_8);
+            Assertions.assertEquals(RowLockTable.rowKey("r", "t", pk),
+                RowLockTable.rowKey("r", "t", bytes, 1, bytes.length - 1), pk);
+        }
+    }
+
+    @Test
+    public void testRandomOperations() {
+        // a single stripe that grows and removes with backward shifts, checked against a map
+        RowLockTable table = new RowLockTable(1);
+        Map<Long, Long> expected = new HashMap<>();
+        Random random = new Random(7);
+        for (int i = 0; i < 100000; i++) {
+            long rowKey = RowLockTable.rowKey("r", "t", String.valueOf(random.nextInt(2000)));
+            long transactionId = 1 + random.nextInt(3);
+            if (random.nextBoolean()) {
+                Long owner = expected.putIfAbsent(rowKey, transactionId);
+                Assertions.assertEquals(owner == null ? RowLockTable.NO_OWNER : owner,
+                    table.tryLock(rowKey, transactionId));
+            } else {
+                boolean owned = expected.remove(rowKey, transactionId);
+                Assertions.assertEquals(owned, table.unlock(rowKey, transactionId));
+            }
+        }
+        Assertions.assertEquals(expected.size(), table.size());
+        for (Map.Entry<Long, Long> entry : expected.entrySet()) {
+            Assertions.assertEquals(entry.getValue().longValue(), table.getOwner(entry.getKey()));
+        }
+    }
+}
@@ -0,0 +1,118 @@
+/*
+ *  Copyright 1999-2019 Seata.io Group.
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+package io.seata.server.session;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+/**
+ * The type Branch session index test.
+ */
+public class BranchSessionIndexTest {
+
+    /**
+     * Put, get and remove across growing and removed slots.
+     */
+    @Test
+    public void testPutGetRemove() {
+        BranchSessionIndex index = new BranchSessionIndex();
+        List<BranchSession> branches = new ArrayList<>();
+        for (long id = 1000; id < 3000; id++) {
+            BranchSession branchSession = newBranch(id);
+            branches.add(branchSession);
+            index.put(branchSession);
+        }
+        Assertions.assertEquals(2000, index.size());
+        for (BranchSession branchSession : branches) {
+            Assertions.assertSame(branchSession, index.get(branchSession.getBranchId()));
+        }
+        Assertions.assertNull(index.get(999));
+
+        for (int i = 0; i < branches.size(); i += 2) {
+            index.remove(branches.get(i));
+        }
+        Assertions.assertEquals(1000, index.size());
+        for (int i = 0; i < branches.size(); i++) {
+            BranchSession branchSession = branches.get(i);
+            Assertions.assertEquals(i % 2 == 0 ? null : branchSession, index.get(branchSession.getBranchId()));
+        }
+
+        // a branch not indexed leaves the one of the same id
+        BranchSession other = newBranch(1001);
+        index.remove(other);
+        Assertions.assertSame(branches.get(1), index.get(1001));
+        index.put(other);
+        Assertions.assertSame(other, index.get(1001));
+        Assertions.assertEquals(1000, index.size());
+
+        // removed slots are reused
+        for (int round = 0; round < 100; round++) {
+            BranchSession branchSession = newBranch(5000 + round);
+            index.put(branchSession);
+            index.remove(branchSession);
+        }
+        Assertions.assertEquals(1000, index.size());
+    }
+
+    /**
+     * Reads without the lock see every branch added before and none removed before.
+     *
+     * @throws Exception the exception
+     */
+    @Test
+    public void testConcurrentRead() throws Exception {
+        GlobalSession globalSession = new GlobalSession("demo-app", "my_test_tx_group", "test", 6000);
+        BranchSession stable = newBranch(1);
+        globalSession.add(stable);
+        AtomicBoolean failed = new AtomicBoolean();
+        AtomicBoolean running = new AtomicBoolean(true);
+        Thread reader = new Thread(() -> {
+            while (running.get()) {
+                if (globalSession.getBranch(1) != stable) {
+                    failed.set(true);
+                }
+            }
+        });
+        reader.start();
+        for (long id = 2; id < 20000; id++) {
+            BranchSession branchSession = newBranch(id);
+            globalSession.add(branchSession);
+            if (id % 3 == 0) {
+                globalSession.remove(branchSession);
+            }
+        }
+        running.set(false);
+        reader.join();
+        Assertions.assertFalse(failed.get());
+
+        List<BranchSession> sorted = globalSession.getSortedBranches();
+        for (int i = 1; i < sorted.size(); i++) {
+            Assertions.assertTrue(sorted.get(i - 1).getBranchId() < sorted.get(i).getBranchId());
+            Assertions.assertSame(sorted.get(i), globalSession.getBranch(sorted.get(i).getBranchId()));
+        }
+        Assertions.assertNull(globalSession.getBranch(3));
+    }
+
+    private static BranchSession newBranch(long branchId) {
+        BranchSession branchSession = new BranchSession();
+        branchSession.setBranchId(branchId);
+        return branchSession;
+    }
+}
@@ -15,9 +15,11 @@
  */
 package io.seata.server.session;
 
+import io.seata.core.lock.BinaryLockKey;
 import io.seata.core.model.BranchType;
 import io.seata.server.UUIDGenerator;
 import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
 import org.junit.jupiter.params.ParameterizedTest;
 import org.junit.jupiter.params.provider.Arguments;
 import org.junit.jupiter.params.provider.MethodSource;
@@ -53,6 +55,24 @@ public class BranchSessionTest {
 
     }
 
+    /**
+     * The lock key of a branch registered in the binary form is rendered when it is stored.
+     */
+    @Test
+    public void binaryLockKeyCodecTest() {
+        BranchSession branchSession = new BranchSession();
+        branchSession.setTransactionId(UUIDGenerator.generateUUID());
+        branchSession.setBranchId(2L);
+        branchSession.setResourceId("tb_1");
+        branchSession.setBranchType(BranchType.AT);
+        branchSession.setBinaryLockKey(BinaryLockKey.encode("t_1:1,2;t_2:3"));
+
+        BranchSession expected = new BranchSession();
+        expected.decode(branchSession.encode());
+        Assertions.assertEquals("t_1:1,2;t_2:3", expected.getLockKey());
+        Assertions.assertNull(expected.getBinaryLockKey());
+    }
+
     /**
      * Branch session provider object [ ] [ ].
      *
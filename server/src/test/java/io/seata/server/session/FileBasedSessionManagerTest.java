@@ -15,6 +15,9 @@
  */
 package io.seata.server.session;
 
+import java.io.File;
+import java.nio.file.Files;
+import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.Collection;
 import java.util.List;
@@ -25,6 +28,7 @@ import io.seata.core.model.BranchType;
 import io.seata.core.model.GlobalStatus;
 import org.junit.jupiter.api.Assertions;
 import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
 import org.junit.jupiter.params.ParameterizedTest;
 import org.junit.jupiter.params.provider.Arguments;
 import org.junit.jupiter.params.provider.MethodSource;
@@ -309,6 +313,68 @@ public class FileBasedSessionManagerTest {
         sessionManager.onEnd(globalSession);
     }
 
+    /**
+     * Reload test, the operations of every transaction are replayed in order across the reload threads.
+     *
+     * @throws Exception the exception
+     */
+    @Test
+    public void reloadTest() throws Exception {
+        File dir = Files.createTempDirectory("sessionStore").toFile();
+        try {
+            FileBasedSessionManager writer = new FileBasedSessionManager("reload.data", dir.getAbsolutePath());
+            writer.reload();
+            List<GlobalSession> liveSessions = new ArrayList<>();
+            for (int i = 0; i < 200; i++) {
+                GlobalSession globalSession = new GlobalSession("demo-app", "my_test_tx_group", "test", 6000);
+                writer.addGlobalSession(globalSession);
+                List<BranchSession> branchSessions = new ArrayList<>();
+                for (int j = 0; j < 3; j++) {
+                    BranchSession branchSession = new BranchSession();
+                    branchSession.setXid(globalSession.getXid());
+                    branchSession.setTransactionId(globalSession.getTransactionId());
+                    branchSession.setBranchId(i * 10L + j + 1);
+                    branchSession.setResourceId("tb_" + j);
+                    branchSession.setLockKey("t_" + i);
+                    branchSession.setBranchType(BranchType.AT);
+                    branchSession.setStatus(BranchStatus.Registered);
+                    writer.addBranchSession(globalSession, branchSession);
+                    branchSessions.add(branchSession);
+                }
+                globalSession.setStatus(GlobalStatus.Committing);
+                writer.updateGlobalSessionStatus(globalSession, GlobalStatus.Committing);
+                branchSessions.get(0).setStatus(BranchStatus.PhaseTwo_Committed);
+                writer.updateBranchSessionStatus(branchSessions.get(0), BranchStatus.PhaseTwo_Committed);
+                writer.removeBranchSession(globalSession, branchSessions.get(2));
+                if (i % 4 == 0) {
+                    writer.removeGlobalSession(globalSession);
+                } else {
+                    liveSessions.add(globalSession);
+                }
+            }
+            writer.destroy();
+
+            FileBasedSessionManager reader = new FileBasedSessionManager("reload.data", dir.getAbsolutePath());
+            reader.reload();
+            Assertions.assertEquals(liveSessions.size(), reader.allSessions().size());
+            for (GlobalSession expected : liveSessions) {
+                GlobalSession actual = reader.findGlobalSession(expected.getXid());
+                Assertions.assertNotNull(actual);
+                Assertions.assertEquals(GlobalStatus.Committing, actual.getStatus());
+                List<BranchSession> branches = actual.getSortedBranches();
+                Assertions.assertEquals(2, branches.size());
+                Assertions.assertEquals(BranchStatus.PhaseTwo_Committed, branches.get(0).getStatus());
+                Assertions.assertEquals(BranchStatus.Registered, branches.get(1).getStatus());
+            }
+            reader.destroy();
+        } finally {
+            for (File file : dir.listFiles()) {
+                file.delete();
+            }
+            dir.delete();
+        }
+    }
+
     /**
      * Global session provider object [ ] [ ].
      *
@@ -0,0 +1,69 @@
+/*
+ *  Copyright 1999-2019 Seata.io Group.
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+package io.seata.server.session;
+
+import java.util.List;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+/**
+ * The type Session timeout wheel test.
+ */
+public class SessionTimeoutWheelTest {
+
+    @Test
+    public void testExpire() {
+        SessionTimeoutWheel wheel = new SessionTimeoutWheel(10, 16);
+        long now = System.currentTimeMillis();
+        GlobalSession shortSession = newSession(1, now, 50);
+        GlobalSession longSession = newSession(2, now, 1000);
+        wheel.register(shortSession);
+        wheel.register(longSession);
+        Assertions.assertEquals(2, wheel.size());
+
+        Assertions.assertTrue(wheel.expire(now + 20).isEmpty());
+
+        List<GlobalSession> expired = wheel.expire(now + 60);
+        Assertions.assertEquals(1, expired.size());
+        Assertions.assertSame(shortSession, expired.get(0));
+        Assertions.assertEquals(-1, shortSession.getTimeoutTick());
+
+        // more than one round later
+        expired = wheel.expire(now + 1001);
+        Assertions.assertEquals(1, expired.size());
+        Assertions.assertSame(longSession, expired.get(0));
+        Assertions.assertEquals(0, wheel.size());
+    }
+
+    @Test
+    public void testCancel() {
+        SessionTimeoutWheel wheel = new SessionTimeoutWheel(10, 16);
+        long now = System.currentTimeMillis();
+        GlobalSession globalSession = newSession(1, now, 50);
+        wheel.register(globalSession);
+        wheel.cancel(globalSession);
+        Assertions.assertEquals(0, wheel.size());
+        Assertions.assertTrue(wheel.expire(now + 100).isEmpty());
+    }
+
+    private GlobalSession newSession(long transactionId, long beginTime, int timeout) {
+        GlobalSession globalSession = new GlobalSession("app", "group", "tx", timeout);
+        globalSession.setTransactionId(transactionId);
+        globalSession.setBeginTime(beginTime);
+        return globalSession;
+    }
+}
@@ -25,6 +25,7 @@ import io.seata.server.UUIDGenerator;
 import io.seata.server.session.BranchSession;
 import io.seata.server.session.GlobalSession;
 import io.seata.server.session.SessionCondition;
+import io.seata.server.session.SessionHelper;
 import io.seata.server.session.SessionManager;
 import io.seata.server.store.db.DatabaseTransactionStoreManager;
 import org.apache.commons.dbcp.BasicDataSource;
@@ -38,6 +39,9 @@ import java.sql.SQLException;
 import java.sql.Statement;
 import java.util.ArrayList;
 import java.util.Collection;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
 
 /**
  * The type Data base session manager test.
@@ -73,6 +77,8 @@ public class DataBaseSessionManagerTest {
         transactionStoreManager.setLogStore(logStoreDataBaseDAO);
 
         tempSessionManager.setTransactionStoreManager(transactionStoreManager);
+        //read back what is stored
+        tempSessionManager.setSessionCache(new GlobalSessionCache(0));
         sessionManager = tempSessionManager;
 
         prepareTable(dataSource);
@@ -561,6 +567,87 @@ public class DataBaseSessionManagerTest {
         }
     }
 
+    @Test
+    public void test_sessionCache() throws Exception {
+        DataBaseSessionManager cachedSessionManager = new DataBaseSessionManager();
+        DatabaseTransactionStoreManager transactionStoreManager = new DatabaseTransactionStoreManager();
+        transactionStoreManager.setLogQueryLimit(100);
+        transactionStoreManager.setLogStore(logStoreDataBaseDAO);
+        cachedSessionManager.setTransactionStoreManager(transactionStoreManager);
+        cachedSessionManager.setSessionCache(new GlobalSessionCache(10));
+
+        GlobalSession globalSession = GlobalSession.createGlobalSession("test",
+                "test", "test123", 100);
+        String xid = XID.generateXID(globalSession.getTransactionId());
+        globalSession.setXid(xid);
+        globalSession.setBeginTime(System.currentTimeMillis());
+        globalSession.setStatus(GlobalStatus.Begin);
+        cachedSessionManager.addGlobalSession(globalSession);
+
+        Assertions.assertSame(globalSession, cachedSessionManager.findGlobalSession(xid));
+        Collection<GlobalSession> rets = cachedSessionManager.findGlobalSessions(new SessionCondition(xid));
+        Assertions.assertSame(globalSession, new ArrayList<>(rets).get(0));
+
+        //a change written through another instance is read from db again
+        GlobalSession other = sessionManager.findGlobalSession(xid);
+        cachedSessionManager.updateGlobalSessionStatus(other, GlobalStatus.Committing);
+        GlobalSession globalSession_db = cachedSessionManager.findGlobalSession(xid);
+        Assertions.assertNotSame(globalSession, globalSession_db);
+        Assertions.assertEquals(GlobalStatus.Committing, globalSession_db.getStatus());
+
+        cachedSessionManager.removeGlobalSession(globalSession_db);
+        Assertions.assertNull(cachedSessionManager.findGlobalSession(xid));
+    }
+
+    @Test
+    public void test_readSessionByStatusPaged() throws Exception {
+        DatabaseTransactionStoreManager transactionStoreManager = new DatabaseTransactionStoreManager();
+        transactionStoreManager.setLogQueryLimit(2);
+        transactionStoreManager.setLogStore(logStoreDataBaseDAO);
+        GlobalStatus[] statuses = new GlobalStatus[] {GlobalStatus.TimeoutRollbackRetrying};
+
+        Set<String> xids = new HashSet<>();
+        for (int i = 0; i < 5; i++) {
+            GlobalSession globalSession = GlobalSession.createGlobalSession("test", "test", "test123", 100);
+            String xid = XID.generateXID(globalSession.getTransactionId());
+            globalSession.setXid(xid);
+            globalSession.setBeginTime(System.currentTimeMillis());
+            globalSession.setStatus(GlobalStatus.TimeoutRollbackRetrying);
+            sessionManager.addGlobalSession(globalSession);
+            BranchSession branchSession = SessionHelper.newBranchByGlobal(globalSession, BranchType.AT, "tb_1",
+                "t_1", "abc-123");
+            sessionManager.addBranchSession(globalSession, branchSession);
+            xids.add(xid);
+        }
+
+        //pages of 2, 2 and 1 sessions, then from the first page again
+        Set<String> read = new HashSet<>();
+        int[] pageSizes = {2, 2, 1};
+        for (int pageSize : pageSizes) {
+            List<GlobalSession> page = transactionStoreManager.readSession(statuses);
+            Assertions.assertEquals(pageSize, page.size());
+            for (GlobalSession globalSession : page) {
+                Assertions.assertTrue(read.add(globalSession.getXid()));
+                Assertions.assertEquals(1, globalSession.getSortedBranches().size());
+            }
+        }
+        Assertions.assertEquals(xids, read);
+        Assertions.assertEquals(2, transactionStoreManager.readSession(statuses).size());
+
+        Connection conn = null;
+        try {
+            conn = dataSource.getConnection();
+            for (String xid : xids) {
+                conn.createStatement().execute("delete from branch_table where xid= '" + xid + "'");
+                conn.createStatement().execute("delete from global_table where xid= '" + xid + "'");
+            }
+        } finally {
+            if (conn != null) {
+                conn.close();
+            }
+        }
+    }
+
     @Test
     public void test_transactionNameGreaterDbSize() throws Exception {
 
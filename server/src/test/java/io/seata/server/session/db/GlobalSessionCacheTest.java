@@ -0,0 +1,132 @@
+/*
+ *  Copyright 1999-2019 Seata.io Group.
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+package io.seata.server.session.db;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import io.seata.common.XID;
+import io.seata.core.model.BranchType;
+import io.seata.server.session.BranchSession;
+import io.seata.server.session.GlobalSession;
+import io.seata.server.session.SessionHelper;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+/**
+ * The type Global session cache test.
+ */
+public class GlobalSessionCacheTest {
+
+    /**
+     * Cached sessions are returned until removed.
+     */
+    @Test
+    public void testPutAndRemove() {
+        GlobalSessionCache cache = new GlobalSessionCache(10);
+        GlobalSession session = newSession(60000);
+        cache.put(session);
+        Assertions.assertSame(session, cache.get(session.getXid()));
+
+        cache.onWrite(session);
+        Assertions.assertSame(session, cache.get(session.getXid()));
+
+        cache.remove(session.getXid());
+        Assertions.assertNull(cache.get(session.getXid()));
+        Assertions.assertEquals(0, cache.size());
+    }
+
+    /**
+     * A change written through another instance drops the cached one.
+     */
+    @Test
+    public void testWriteThroughOtherInstance() {
+        GlobalSessionCache cache = new GlobalSessionCache(10);
+        GlobalSession session = newSession(60000);
+        BranchSession branchSession = SessionHelper.newBranchByGlobal(session, BranchType.AT, "resource", "t:1",
+            "client");
+        session.add(branchSession);
+        cache.put(session);
+
+        cache.onWrite(branchSession);
+        Assertions.assertSame(session, cache.get(session.getXid()));
+
+        BranchSession otherBranch = SessionHelper.newBranchByGlobal(session, BranchType.AT, "resource", "t:2",
+            "client");
+        cache.onWrite(otherBranch);
+        Assertions.assertNull(cache.get(session.getXid()));
+
+        cache.put(session);
+        GlobalSession readAgain = new GlobalSession(session.getApplicationId(), session.getTransactionServiceGroup(),
+            session.getTransactionName(), session.getTimeout());
+        readAgain.setXid(session.getXid());
+        cache.onWrite(readAgain);
+        Assertions.assertNull(cache.get(session.getXid()));
+    }
+
+    /**
+     * Sessions read from the db are replaced by the cached instances.
+     */
+    @Test
+    public void testResolve() {
+        GlobalSessionCache cache = new GlobalSessionCache(10);
+        GlobalSession session = newSession(60000);
+        cache.put(session);
+        GlobalSession read = new GlobalSession("test", "test", "test", 60000);
+        read.setXid(session.getXid());
+        GlobalSession other = newSession(60000);
+        List<GlobalSession> readSessions = new ArrayList<>();
+        readSessions.add(read);
+        readSessions.add(other);
+
+        List<GlobalSession> resolved = cache.resolve(readSessions);
+        Assertions.assertSame(session, resolved.get(0));
+        Assertions.assertSame(other, resolved.get(1));
+        Assertions.assertNull(cache.resolve(null));
+    }
+
+    /**
+     * A full cache drops timed out sessions, then stops caching.
+     */
+    @Test
+    public void testBounded() throws Exception {
+        GlobalSessionCache cache = new GlobalSessionCache(2);
+        GlobalSession timeout = newSession(1);
+        cache.put(timeout);
+        cache.put(newSession(60000));
+        Thread.sleep(10);
+
+        GlobalSession third = newSession(60000);
+        cache.put(third);
+        Assertions.assertEquals(2, cache.size());
+        Assertions.assertNull(cache.get(timeout.getXid()));
+        Assertions.assertSame(third, cache.get(third.getXid()));
+
+        GlobalSession fourth = newSession(60000);
+        cache.put(fourth);
+        Assertions.assertEquals(2, cache.size());
+        Assertions.assertNull(cache.get(fourth.getXid()));
+
+        Assertions.assertEquals(0, new GlobalSessionCache(0).size());
+    }
+
+    private static GlobalSession newSession(int timeout) {
+        GlobalSession session = GlobalSession.createGlobalSession("test", "test", "test", timeout);
+        session.setXid(XID.generateXID(session.getTransactionId()));
+        session.setBeginTime(System.currentTimeMillis());
+        return session;
+    }
+}
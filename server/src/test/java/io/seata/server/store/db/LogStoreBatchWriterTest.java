@@ -0,0 +1,191 @@
+/*
+ *  Copyright 1999-2019 Seata.io Group.
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+package io.seata.server.store.db;
+
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import io.seata.common.exception.StoreException;
+import io.seata.core.store.BranchTransactionDO;
+import io.seata.core.store.GlobalTransactionDO;
+import io.seata.core.store.LogStore;
+import io.seata.core.store.LogStoreOperation;
+import io.seata.core.store.LogStoreOperation.Type;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+/**
+ * The type Log store batch writer test.
+ */
+public class LogStoreBatchWriterTest {
+
+    /**
+     * Concurrent writes are committed in groups.
+     *
+     * @throws Exception the exception
+     */
+    @Test
+    public void testGroupCommit() throws Exception {
+        RecordingLogStore logStore = new RecordingLogStore();
+        LogStoreBatchWriter writer = new LogStoreBatchWriter(logStore, 16);
+        try {
+            int threads = 8;
+            int writesPerThread = 50;
+            CountDownLatch done = new CountDownLatch(threads);
+            AtomicInteger failures = new AtomicInteger();
+            for (int t = 0; t < threads; t++) {
+                int thread = t;
+                new Thread(() -> {
+                    try {
+                        for (int i = 0; i < writesPerThread; i++) {
+                            writer.write(insertGlobal("xid:" + thread + ":" + i));
+                        }
+                    } catch (Exception e) {
+                        failures.incrementAndGet();
+                    } finally {
+                        done.countDown();
+                    }
+                }).start();
+            }
+            Assertions.assertTrue(done.await(10, TimeUnit.SECONDS));
+            Assertions.assertEquals(0, failures.get());
+            Assertions.assertEquals(threads * writesPerThread, logStore.rows.size());
+            Assertions.assertTrue(logStore.batches.get() < threads * writesPerThread);
+            Assertions.assertEquals(0, writer.size());
+        } finally {
+            writer.shutdown();
+        }
+    }
+
+    /**
+     * A failed group is written one by one, the bad write fails only its caller.
+     *
+     * @throws Exception the exception
+     */
+    @Test
+    public void testFailedGroup() throws Exception {
+        RecordingLogStore logStore = new RecordingLogStore();
+        logStore.badXid = "bad";
+        LogStoreBatchWriter writer = new LogStoreBatchWriter(logStore, 16);
+        try {
+            Assertions.assertThrows(StoreException.class, () -> writer.write(insertGlobal("bad")));
+            writer.write(insertGlobal("good"));
+            Assertions.assertEquals(1, logStore.rows.size());
+            Assertions.assertEquals("good", logStore.rows.get(0));
+        } finally {
+            writer.shutdown();
+        }
+        Assertions.assertThrows(StoreException.class, () -> writer.write(insertGlobal("late")));
+    }
+
+    private static LogStoreOperation insertGlobal(String xid) {
+        GlobalTransactionDO globalTransactionDO = new GlobalTransactionDO();
+        globalTransactionDO.setXid(xid);
+        return LogStoreOperation.global(Type.GLOBAL_INSERT, globalTransactionDO);
+    }
+
+    private static class RecordingLogStore implements LogStore {
+
+        private final List<String> rows = new CopyOnWriteArrayList<>();
+
+        private final AtomicInteger batches = new AtomicInteger();
+
+        private volatile String badXid;
+
+        @Override
+        public void writeBatch(List<LogStoreOperation> operations) {
+            List<String> xids = new ArrayList<>();
+            for (LogStoreOperation operation : operations) {
+                if (operation.getGlobalTransactionDO().getXid().equals(badXid)) {
+                    throw new StoreException("bad row");
+                }
+                xids.add(operation.getGlobalTransactionDO().getXid());
+            }
+            batches.incrementAndGet();
+            rows.addAll(xids);
+        }
+
+        @Override
+        public boolean insertGlobalTransactionDO(GlobalTransactionDO globalTransactionDO) {
+            if (globalTransactionDO.getXid().equals(badXid)) {
+                throw new StoreException("bad row");
+            }
+            batches.incrementAndGet();
+            return rows.add(globalTransactionDO.getXid());
+        }
+
+        @Override
+        public GlobalTransactionDO queryGlobalTransactionDO(String xid) {
+            return null;
+        }
+
+        @Override
+        public GlobalTransactionDO queryGlobalTransactionDO(long transactionId) {
+            return null;
+        }
+
+        @Override
+        public List<GlobalTransactionDO> queryGlobalTransactionDO(int[] status, int limit) {
+            return null;
+        }
+
+        @Override
+        public List<GlobalTransactionDO> queryGlobalTransactionDO(int[] status, Date afterGmtModified,
+                                                                  String afterXid, int limit) {
+            return null;
+        }
+
+        @Override
+        public List<BranchTransactionDO> queryBranchTransactionDO(List<String> xids) {
+            return null;
+        }
+
+        @Override
+        public boolean updateGlobalTransactionDO(GlobalTransactionDO globalTransactionDO) {
+            return false;
+        }
+
+        @Override
+        public boolean deleteGlobalTransactionDO(GlobalTransactionDO globalTransactionDO) {
+            return false;
+        }
+
+        @Override
+        public List<BranchTransactionDO> queryBranchTransactionDO(String xid) {
+            return null;
+        }
+
+        @Override
+        public boolean insertBranchTransactionDO(BranchTransactionDO branchTransactionDO) {
+            return false;
+        }
+
+        @Override
+        public boolean updateBranchTransactionDO(BranchTransactionDO branchTransactionDO) {
+            return false;
+        }
+
+        @Override
+        public boolean deleteBranchTransactionDO(BranchTransactionDO branchTransactionDO) {
+            return false;
+        }
+    }
+}
@@ -20,6 +20,7 @@ import io.seata.server.session.BranchSession;
 import io.seata.server.session.GlobalSession;
 import io.seata.server.session.SessionManager;
 import io.seata.server.session.file.FileBasedSessionManager;
+import io.seata.server.store.FlushDiskMode;
 import io.seata.server.store.StoreConfig;
 import io.seata.server.store.TransactionStoreManager;
 import io.seata.server.store.TransactionWriteStore;
@@ -29,11 +30,14 @@ import org.junit.jupiter.api.Test;
 import org.mockito.Mockito;
 
 import java.io.File;
-import java.lang.reflect.Method;
 import java.nio.ByteBuffer;
 import java.util.ArrayList;
 import java.util.Collection;
 import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
 
 /**
  * @author ggndnn
@@ -65,43 +69,64 @@ public class FileTransactionStoreManagerTest {
             BranchSession loadedBranchSessionB = (BranchSession) list.get(1).getSessionRequest();
             Assertions.assertEquals(branchSessionB.getApplicationData(), loadedBranchSessionB.getApplicationData());
         } finally {
-            Assertions.assertTrue(seataFile.delete());
+            deleteStoreFiles(seataFile);
         }
     }
 
     @Test
-    public void testFindTimeoutAndSave() throws Exception {
+    public void testCheckpoint() throws Exception {
         File seataFile = Files.newTemporaryFile();
-        Method findTimeoutAndSaveMethod = FileTransactionStoreManager.class.getDeclaredMethod("findTimeoutAndSave");
-        findTimeoutAndSaveMethod.setAccessible(true);
         try {
-            List<GlobalSession> timeoutSessions = new ArrayList<>();
+            List<GlobalSession> liveSessions = new ArrayList<>();
+            SessionManager sessionManagerMock = Mockito.mock(SessionManager.class);
+            Mockito.when(sessionManagerMock.allSessions()).thenReturn(liveSessions);
+            FileTransactionStoreManager fileTransactionStoreManager = new FileTransactionStoreManager(seataFile.getAbsolutePath(), sessionManagerMock);
             for (int i = 0; i < 100; i++) {
                 GlobalSession globalSession = new GlobalSession("", "", "", 60000);
+                Assertions.assertTrue(fileTransactionStoreManager.writeSession(TransactionStoreManager.LogOperation.GLOBAL_ADD, globalSession));
                 BranchSession branchSessionA = Mockito.mock(BranchSession.class);
                 Mockito.when(branchSessionA.encode())
                         .thenReturn(createBigBranchSessionData(globalSession, (byte) 'A'));
-                Mockito.when(branchSessionA.getApplicationData())
-                        .thenReturn(new String(createBigApplicationData((byte) 'A')));
                 globalSession.addBranch(branchSessionA);
+                Assertions.assertTrue(fileTransactionStoreManager.writeSession(TransactionStoreManager.LogOperation.BRANCH_ADD, branchSessionA));
                 BranchSession branchSessionB = Mockito.mock(BranchSession.class);
                 Mockito.when(branchSessionB.encode())
                         .thenReturn(createBigBranchSessionData(globalSession, (byte) 'B'));
-                Mockito.when(branchSessionB.getApplicationData())
-                        .thenReturn(new String(createBigApplicationData((byte) 'B')));
                 globalSession.addBranch(branchSessionB);
-                timeoutSessions.add(globalSession);
+                Assertions.assertTrue(fileTransactionStoreManager.writeSession(TransactionStoreManager.LogOperation.BRANCH_ADD, branchSessionB));
+                liveSessions.add(globalSession);
             }
-            SessionManager sessionManagerMock = Mockito.mock(SessionManager.class);
-            Mockito.when(sessionManagerMock.findGlobalSessions(Mockito.any()))
-                    .thenReturn(timeoutSessions);
-            FileTransactionStoreManager fileTransactionStoreManager = new FileTransactionStoreManager(seataFile.getAbsolutePath(), sessionManagerMock);
-            Assertions.assertTrue((boolean) findTimeoutAndSaveMethod.invoke(fileTransactionStoreManager));
+            Assertions.assertTrue(listSegments(seataFile).size() > 1);
+            // the stored sessions have not been replayed yet
+            Assertions.assertFalse(fileTransactionStoreManager.checkpoint());
+            int replayed = 0;
+            while (fileTransactionStoreManager.hasRemaining(true)) {
+                replayed += fileTransactionStoreManager.readWriteStore(100, true).size();
+            }
+            while (fileTransactionStoreManager.hasRemaining(false)) {
+                replayed += fileTransactionStoreManager.readWriteStore(100, false).size();
+            }
+            Assertions.assertEquals(300, replayed);
+
+            Assertions.assertTrue(fileTransactionStoreManager.checkpoint());
+            // the segments rolled off are kept until the next checkpoint
+            Assertions.assertTrue(listSegments(seataFile).size() > 1);
+            Assertions.assertTrue(fileTransactionStoreManager.checkpoint());
+            List<File> segments = listSegments(seataFile);
+            Assertions.assertEquals(1, segments.size());
+            Assertions.assertEquals(fileTransactionStoreManager.getCheckpointSegmentNo(),
+                LogSegment.segmentNo(seataFile.getAbsolutePath(), segments.get(0)));
+
+            // replayed on top of the checkpoint
+            GlobalSession removed = liveSessions.remove(0);
+            Assertions.assertTrue(fileTransactionStoreManager.writeSession(TransactionStoreManager.LogOperation.GLOBAL_REMOVE, removed));
+            fileTransactionStoreManager.shutdown();
 
             FileBasedSessionManager sessionManager = new FileBasedSessionManager(seataFile.getName(), seataFile.getParent());
             sessionManager.reload();
             Collection<GlobalSession> globalSessions = sessionManager.allSessions();
-            Assertions.assertNotNull(globalSessions);
+            Assertions.assertEquals(99, globalSessions.size());
+            Assertions.assertNull(sessionManager.findGlobalSession(removed.getXid()));
             globalSessions.forEach(g -> {
                 Assertions.assertNotNull(g);
                 List<BranchSession> branches = g.getBranchSessions();
@@ -109,10 +134,106 @@ public class FileTransactionStoreManagerTest {
                 Assertions.assertEquals(new String(createBigApplicationData((byte) 'A')), branches.get(0).getApplicationData());
                 Assertions.assertEquals(new String(createBigApplicationData((byte) 'B')), branches.get(1).getApplicationData());
             });
+            sessionManager.destroy();
         } finally {
-            findTimeoutAndSaveMethod.setAccessible(false);
-            Assertions.assertTrue(seataFile.delete());
+            deleteStoreFiles(seataFile);
+        }
+    }
+
+    @Test
+    public void testCheckpointBeforeApplied() throws Exception {
+        File seataFile = Files.newTemporaryFile();
+        try {
+            List<GlobalSession> liveSessions = new ArrayList<>();
+            SessionManager sessionManagerMock = Mockito.mock(SessionManager.class);
+            Mockito.when(sessionManagerMock.allSessions()).thenReturn(liveSessions);
+            FileTransactionStoreManager fileTransactionStoreManager = new FileTransactionStoreManager(seataFile.getAbsolutePath(), sessionManagerMock);
+            while (fileTransactionStoreManager.hasRemaining(false)) {
+                fileTransactionStoreManager.readWriteStore(100, false);
+            }
+
+            GlobalSession kept = new GlobalSession("", "", "", 60000);
+            GlobalSession added = new GlobalSession("", "", "", 60000);
+            GlobalSession removed = new GlobalSession("", "", "", 60000);
+            Assertions.assertTrue(fileTransactionStoreManager.writeSession(TransactionStoreManager.LogOperation.GLOBAL_ADD, kept));
+            liveSessions.add(kept);
+            Assertions.assertTrue(fileTransactionStoreManager.writeSession(TransactionStoreManager.LogOperation.GLOBAL_ADD, removed));
+            liveSessions.add(removed);
+            // logged but not applied in memory yet when the checkpoint reads the sessions
+            Assertions.assertTrue(fileTransactionStoreManager.writeSession(TransactionStoreManager.LogOperation.GLOBAL_ADD, added));
+            Assertions.assertTrue(fileTransactionStoreManager.writeSession(TransactionStoreManager.LogOperation.GLOBAL_REMOVE, removed));
+            Assertions.assertTrue(fileTransactionStoreManager.checkpoint());
+            liveSessions.add(added);
+            liveSessions.remove(removed);
+            fileTransactionStoreManager.shutdown();
+
+            FileBasedSessionManager sessionManager = new FileBasedSessionManager(seataFile.getName(), seataFile.getParent());
+            sessionManager.reload();
+            Assertions.assertEquals(2, sessionManager.allSessions().size());
+            Assertions.assertNotNull(sessionManager.findGlobalSession(kept.getXid()));
+            Assertions.assertNotNull(sessionManager.findGlobalSession(added.getXid()));
+            Assertions.assertNull(sessionManager.findGlobalSession(removed.getXid()));
+            sessionManager.destroy();
+        } finally {
+            deleteStoreFiles(seataFile);
+        }
+    }
+
+    @Test
+    public void testSyncGroupCommit() throws Exception {
+        File seataFile = Files.newTemporaryFile();
+        int threadNum = 8;
+        int perThreadNum = 50;
+        ExecutorService executor = Executors.newFixedThreadPool(threadNum);
+        try {
+            FileTransactionStoreManager fileTransactionStoreManager = new FileTransactionStoreManager(
+                seataFile.getAbsolutePath(), null, FlushDiskMode.SYNC_MODEL);
+            CountDownLatch start = new CountDownLatch(1);
+            List<Future<Boolean>> futures = new ArrayList<>();
+            for (int i = 0; i < threadNum; i++) {
+                futures.add(executor.submit(() -> {
+                    start.await();
+                    boolean result = true;
+                    for (int j = 0; j < perThreadNum; j++) {
+                        GlobalSession globalSession = new GlobalSession("app", "group", "name", 60000);
+                        result &= fileTransactionStoreManager.writeSession(
+                            TransactionStoreManager.LogOperation.GLOBAL_ADD, globalSession);
+                    }
+                    return result;
+                }));
+            }
+            start.countDown();
+            for (Future<Boolean> future : futures) {
+                Assertions.assertTrue(future.get());
+            }
+            // every write returned after a force covering it, and the forces were shared
+            Assertions.assertTrue(fileTransactionStoreManager.getFlushCount() > 0);
+            Assertions.assertTrue(fileTransactionStoreManager.getFlushCount() <= threadNum * perThreadNum);
+            List<TransactionWriteStore> list = fileTransactionStoreManager.readWriteStore(threadNum * perThreadNum * 2, false);
+            Assertions.assertNotNull(list);
+            Assertions.assertEquals(threadNum * perThreadNum, list.size());
+            fileTransactionStoreManager.shutdown();
+        } finally {
+            executor.shutdownNow();
+            deleteStoreFiles(seataFile);
+        }
+    }
+
+    private List<File> listSegments(File seataFile) {
+        List<File> segments = new ArrayList<>();
+        for (File file : seataFile.getParentFile().listFiles()) {
+            if (LogSegment.segmentNo(seataFile.getAbsolutePath(), file) >= 0) {
+                segments.add(file);
+            }
+        }
+        return segments;
+    }
+
+    private void deleteStoreFiles(File seataFile) {
+        for (File segment : listSegments(seataFile)) {
+            Assertions.assertTrue(segment.delete());
         }
+        Assertions.assertTrue(seataFile.delete());
     }
 
     private byte[] createBigBranchSessionData(GlobalSession global, byte c) {
@@ -0,0 +1,47 @@
+/*
+ *  Copyright 1999-2019 Seata.io Group.
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+package io.seata.server.store.file;
+
+import java.io.File;
+
+import org.assertj.core.util.Files;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+/**
+ * The type Log segment test.
+ */
+public class LogSegmentTest {
+
+    /**
+     * A closed segment is unmapped, its file can be deleted at once and it can't be written anymore.
+     *
+     * @throws Exception the exception
+     */
+    @Test
+    public void testClose() throws Exception {
+        File seataFile = Files.newTemporaryFile();
+        LogSegment segment = LogSegment.create(seataFile.getAbsolutePath(), 1, 1024);
+        Assertions.assertTrue(segment.append(new byte[] {1}));
+        segment.force();
+        segment.close();
+        segment.close();
+        Assertions.assertThrows(IllegalStateException.class, () -> segment.append(new byte[] {1}));
+        Assertions.assertThrows(IllegalStateException.class, segment::force);
+        Assertions.assertTrue(segment.getFile().delete());
+        seataFile.delete();
+    }
+}
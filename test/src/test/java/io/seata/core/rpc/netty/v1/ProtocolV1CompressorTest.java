@@ -0,0 +1,87 @@
+/*
+ *  Copyright 1999-2019 Seata.io Group.
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+package io.seata.core.rpc.netty.v1;
+
+import io.netty.buffer.ByteBuf;
+import io.netty.buffer.Unpooled;
+import io.seata.core.codec.CodecType;
+import io.seata.core.codec.CompressorType;
+import io.seata.core.model.BranchType;
+import io.seata.core.protocol.ProtocolConstants;
+import io.seata.core.protocol.RpcMessage;
+import io.seata.core.protocol.transaction.BranchRegisterRequest;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+/**
+ * Bodies over the threshold go compressed, the ones under it raw.
+ */
+public class ProtocolV1CompressorTest {
+
+    private static final int COMPRESSOR_OFFSET = 11;
+
+    @Test
+    public void testCompress() {
+        for (CompressorType type : CompressorType.values()) {
+            BranchRegisterRequest big = buildRequest(2000);
+            ByteBuf frame = encode(type, big);
+            int rawLength = encode(CompressorType.NONE, big).readableBytes();
+            Assertions.assertEquals(type.getCode(), frame.getByte(COMPRESSOR_OFFSET));
+            if (type != CompressorType.NONE) {
+                Assertions.assertTrue(frame.readableBytes() < rawLength);
+            }
+            assertDecoded(big, frame);
+
+            BranchRegisterRequest small = buildRequest(1);
+            frame = encode(type, small);
+            Assertions.assertEquals(CompressorType.NONE.getCode(), frame.getByte(COMPRESSOR_OFFSET));
+            assertDecoded(small, frame);
+        }
+    }
+
+    private static ByteBuf encode(CompressorType type, BranchRegisterRequest request) {
+        RpcMessage rpcMessage = new RpcMessage();
+        rpcMessage.setId(1);
+        rpcMessage.setCodec(CodecType.SEATA.getCode());
+        rpcMessage.setCompressor(type.getCode());
+        rpcMessage.setMessageType(ProtocolConstants.MSGTYPE_RESQUEST);
+        rpcMessage.setBody(request);
+        ByteBuf out = Unpooled.buffer();
+        new ProtocolV1Encoder(1024).encode(null, rpcMessage, out);
+        return out;
+    }
+
+    private static void assertDecoded(BranchRegisterRequest expected, ByteBuf frame) {
+        RpcMessage rpcMessage = (RpcMessage)new ProtocolV1Decoder().decodeFrame(frame);
+        BranchRegisterRequest actual = (BranchRegisterRequest)rpcMessage.getBody();
+        Assertions.assertEquals(expected.getXid(), actual.getXid());
+        Assertions.assertEquals(expected.getLockKey(), actual.getLockKey());
+        Assertions.assertFalse(frame.isReadable());
+    }
+
+    private static BranchRegisterRequest buildRequest(int rows) {
+        StringBuilder lockKey = new StringBuilder("stock_tbl:");
+        for (int i = 0; i < rows; i++) {
+            lockKey.append(i == 0 ? "" : ",").append(i);
+        }
+        BranchRegisterRequest request = new BranchRegisterRequest();
+        request.setXid("127.0.0.1:8091:2000042948");
+        request.setBranchType(BranchType.AT);
+        request.setResourceId("jdbc:mysql://127.0.0.1:3306/seata");
+        request.setLockKey(lockKey.toString());
+        return request;
+    }
+}
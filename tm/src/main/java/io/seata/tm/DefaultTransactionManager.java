@@ -15,8 +15,12 @@
  */
 package io.seata.tm;
 
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.Executor;
 import java.util.concurrent.TimeoutException;
 
+import io.seata.common.util.FutureUtils;
 import io.seata.core.exception.TmTransactionException;
 import io.seata.core.exception.TransactionException;
 import io.seata.core.exception.TransactionExceptionCode;
@@ -73,6 +77,36 @@ public class DefaultTransactionManager implements TransactionManager {
         return response.getGlobalStatus();
     }
 
+    @Override
+    public CompletableFuture<String> beginAsync(String applicationId, String transactionServiceGroup, String name,
+                                                int timeout) {
+        GlobalBeginRequest request = new GlobalBeginRequest();
+        request.setTransactionName(name);
+        request.setTimeout(timeout);
+        return asyncCall(request).thenApply(r -> {
+            GlobalBeginResponse response = (GlobalBeginResponse)r;
+            if (response.getResultCode() == ResultCode.Failed) {
+                throw new CompletionException(
+                    new TmTransactionException(TransactionExceptionCode.BeginFailed, response.getMsg()));
+            }
+            return response.getXid();
+        });
+    }
+
+    @Override
+    public CompletableFuture<GlobalStatus> commitAsync(String xid) {
+        GlobalCommitRequest globalCommit = new GlobalCommitRequest();
+        globalCommit.setXid(xid);
+        return asyncCall(globalCommit).thenApply(response -> ((GlobalCommitResponse)response).getGlobalStatus());
+    }
+
+    @Override
+    public CompletableFuture<GlobalStatus> rollbackAsync(String xid) {
+        GlobalRollbackRequest globalRollback = new GlobalRollbackRequest();
+        globalRollback.setXid(xid);
+        return asyncCall(globalRollback).thenApply(response -> ((GlobalRollbackResponse)response).getGlobalStatus());
+    }
+
     @Override
     public GlobalStatus getStatus(String xid) throws TransactionException {
         GlobalStatusRequest queryGlobalStatus = new GlobalStatusRequest();
@@ -90,6 +124,11 @@ public class DefaultTransactionManager implements TransactionManager {
         return response.getGlobalStatus();
     }
 
+    @Override
+    public Executor getAsyncExecutor() {
+        return TmRpcClient.getInstance().getMessageExecutor();
+    }
+
     private AbstractTransactionResponse syncCall(AbstractTransactionRequest request) throws TransactionException {
         try {
             return (AbstractTransactionResponse)TmRpcClient.getInstance().sendMsgWithResponse(request);
@@ -97,4 +136,18 @@ public class DefaultTransactionManager implements TransactionManager {
             throw new TmTransactionException(TransactionExceptionCode.IO, "RPC timeout", toe);
         }
     }
+
+    private CompletableFuture<AbstractTransactionResponse> asyncCall(AbstractTransactionRequest request) {
+        return TmRpcClient.getInstance().sendMsgWithResponseAsync(request).handle((response, ex) -> {
+            if (ex == null) {
+                return (AbstractTransactionResponse)response;
+            }
+            Throwable cause = FutureUtils.unwrap(ex);
+            if (cause instanceof TimeoutException) {
+                throw new CompletionException(
+                    new TmTransactionException(TransactionExceptionCode.IO, "RPC timeout", cause));
+            }
+            throw new CompletionException(cause);
+        });
+    }
 }
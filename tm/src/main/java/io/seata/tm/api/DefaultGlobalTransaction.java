@@ -15,7 +15,11 @@
  */
 package io.seata.tm.api;
 
+import java.util.concurrent.CompletableFuture;
+import java.util.function.Supplier;
+
 import io.seata.common.exception.ShouldNeverHappenException;
+import io.seata.common.util.FutureUtils;
 import io.seata.config.ConfigurationFactory;
 import io.seata.core.constants.ConfigurationKeys;
 import io.seata.core.context.RootContext;
@@ -41,9 +45,9 @@ public class DefaultGlobalTransaction implements GlobalTransaction {
 
     private TransactionManager transactionManager;
 
-    private String xid;
+    private volatile String xid;
 
-    private GlobalStatus status;
+    private volatile GlobalStatus status;
 
     private GlobalTransactionRole role;
 
@@ -53,6 +57,10 @@ public class DefaultGlobalTransaction implements GlobalTransaction {
     private static final int ROLLBACK_RETRY_COUNT = ConfigurationFactory.getInstance().getInt(
         ConfigurationKeys.CLIENT_TM_ROLLBACK_RETRY_COUNT, 1);
 
+    private int commitRetryCount = COMMIT_RETRY_COUNT;
+
+    private int rollbackRetryCount = ROLLBACK_RETRY_COUNT;
+
     /**
      * Instantiates a new Default global transaction.
      */
@@ -120,7 +128,7 @@ public class DefaultGlobalTransaction implements GlobalTransaction {
         if (xid == null) {
             throw new IllegalStateException();
         }
-        int retry = COMMIT_RETRY_COUNT;
+        int retry = commitRetryCount;
         try {
             while (retry > 0) {
                 try {
@@ -160,7 +168,7 @@ public class DefaultGlobalTransaction implements GlobalTransaction {
             throw new IllegalStateException();
         }
 
-        int retry = ROLLBACK_RETRY_COUNT;
+        int retry = rollbackRetryCount;
         try {
             while (retry > 0) {
                 try {
@@ -186,6 +194,141 @@ public class DefaultGlobalTransaction implements GlobalTransaction {
         }
     }
 
+    @Override
+    public CompletableFuture<Void> beginAsync() {
+        return beginAsync(DEFAULT_GLOBAL_TX_TIMEOUT);
+    }
+
+    @Override
+    public CompletableFuture<Void> beginAsync(int timeout) {
+        return beginAsync(timeout, DEFAULT_GLOBAL_TX_NAME);
+    }
+
+    /**
+     * Begin a new global transaction without waiting for it. Unlike begin, the XID is not bound to the RootContext
+     * of any thread, the caller binds it where the branches run.
+     *
+     * @param timeout Given timeout in MILLISECONDS.
+     * @param name    Given name.
+     * @return the future
+     */
+    @Override
+    public CompletableFuture<Void> beginAsync(int timeout, String name) {
+        if (role != GlobalTransactionRole.Launcher) {
+            if (xid == null) {
+                return FutureUtils.failedFuture(new ShouldNeverHappenException());
+            }
+            if (LOGGER.isDebugEnabled()) {
+                LOGGER.debug("Ignore BeginAsync(): just involved in global transaction [" + xid + "]");
+            }
+            return CompletableFuture.completedFuture(null);
+        }
+        if (xid != null || RootContext.getXID() != null) {
+            return FutureUtils.failedFuture(new IllegalStateException());
+        }
+        return transactionManager.beginAsync(null, null, name, timeout).thenAccept(newXid -> {
+            xid = newXid;
+            status = GlobalStatus.Begin;
+            if (LOGGER.isInfoEnabled()) {
+                LOGGER.info("Begin new global transaction [" + newXid + "]");
+            }
+        });
+    }
+
+    @Override
+    public CompletableFuture<Void> commitAsync() {
+        if (role == GlobalTransactionRole.Participant) {
+            // Participant has no responsibility of committing
+            if (LOGGER.isDebugEnabled()) {
+                LOGGER.debug("Ignore CommitAsync(): just involved in global transaction [" + xid + "]");
+            }
+            return CompletableFuture.completedFuture(null);
+        }
+        if (xid == null) {
+            return FutureUtils.failedFuture(new IllegalStateException());
+        }
+        unbindIfBound();
+        return withRetry(() -> transactionManager.commitAsync(xid), commitRetryCount, "commit").thenAccept(s -> {
+            if (LOGGER.isInfoEnabled()) {
+                LOGGER.info("[" + xid + "] commit status:" + status);
+            }
+        });
+    }
+
+    @Override
+    public CompletableFuture<Void> rollbackAsync() {
+        if (role == GlobalTransactionRole.Participant) {
+            // Participant has no responsibility of committing
+            if (LOGGER.isDebugEnabled()) {
+                LOGGER.debug("Ignore RollbackAsync(): just involved in global transaction [" + xid + "]");
+            }
+            return CompletableFuture.completedFuture(null);
+        }
+        if (xid == null) {
+            return FutureUtils.failedFuture(new IllegalStateException());
+        }
+        unbindIfBound();
+        return withRetry(() -> transactionManager.rollbackAsync(xid), rollbackRetryCount, "rollback").thenAccept(
+            s -> {
+                if (LOGGER.isInfoEnabled()) {
+                    LOGGER.info("[" + xid + "] rollback status:" + status);
+                }
+            });
+    }
+
+    private CompletableFuture<Void> withRetry(Supplier<CompletableFuture<GlobalStatus>> action, int retry,
+                                              String operation) {
+        if (retry <= 0) {
+            return CompletableFuture.completedFuture(null);
+        }
+        return action.get().handle((result, ex) -> {
+            if (ex == null) {
+                status = result;
+                return null;
+            }
+            Throwable cause = FutureUtils.unwrap(ex);
+            LOGGER.error("Failed to report global {} [{}],Retry Countdown: {}, reason: {}", operation, this.getXid(),
+                retry, cause.getMessage());
+            return cause;
+        }).thenCompose(cause -> {
+            if (cause == null) {
+                return CompletableFuture.<Void>completedFuture(null);
+            }
+            if (retry == 1) {
+                return FutureUtils.<Void>failedFuture(
+                    new TransactionException("Failed to report global " + operation, cause));
+            }
+            // the failure completes on a netty or timer thread, the retry may block acquiring a channel
+            return CompletableFuture.<Void>completedFuture(null).thenComposeAsync(
+                v -> withRetry(action, retry - 1, operation), transactionManager.getAsyncExecutor());
+        });
+    }
+
+    /**
+     * Just for test
+     *
+     * @param commitRetryCount the commit retry count
+     */
+    void setCommitRetryCount(int commitRetryCount) {
+        this.commitRetryCount = commitRetryCount;
+    }
+
+    /**
+     * Just for test
+     *
+     * @param rollbackRetryCount the rollback retry count
+     */
+    void setRollbackRetryCount(int rollbackRetryCount) {
+        this.rollbackRetryCount = rollbackRetryCount;
+    }
+
+    private void unbindIfBound() {
+        // the caller hands the transaction over, its thread is not in it anymore
+        if (xid.equals(RootContext.getXID())) {
+            RootContext.unbind();
+        }
+    }
+
     @Override
     public GlobalStatus getStatus() throws TransactionException {
         if (xid == null) {
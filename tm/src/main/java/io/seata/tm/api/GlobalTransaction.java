@@ -15,6 +15,9 @@
  */
 package io.seata.tm.api;
 
+import java.util.concurrent.CompletableFuture;
+
+import io.seata.common.util.FutureUtils;
 import io.seata.core.exception.TransactionException;
 import io.seata.core.model.GlobalStatus;
 
@@ -95,4 +98,76 @@ public interface GlobalTransaction {
      */
     void globalReport(GlobalStatus globalStatus) throws TransactionException;
 
+    /**
+     * Begin a new global transaction with default timeout and name, without waiting for it.
+     *
+     * @return the future, failed with the TransactionException begin throws.
+     */
+    default CompletableFuture<Void> beginAsync() {
+        try {
+            begin();
+            return CompletableFuture.completedFuture(null);
+        } catch (TransactionException | RuntimeException ex) {
+            return FutureUtils.failedFuture(ex);
+        }
+    }
+
+    /**
+     * Begin a new global transaction with given timeout and default name, without waiting for it.
+     *
+     * @param timeout Global transaction timeout in MILLISECONDS
+     * @return the future, failed with the TransactionException begin throws.
+     */
+    default CompletableFuture<Void> beginAsync(int timeout) {
+        try {
+            begin(timeout);
+            return CompletableFuture.completedFuture(null);
+        } catch (TransactionException | RuntimeException ex) {
+            return FutureUtils.failedFuture(ex);
+        }
+    }
+
+    /**
+     * Begin a new global transaction with given timeout and given name, without waiting for it.
+     *
+     * @param timeout Given timeout in MILLISECONDS.
+     * @param name    Given name.
+     * @return the future, failed with the TransactionException begin throws.
+     */
+    default CompletableFuture<Void> beginAsync(int timeout, String name) {
+        try {
+            begin(timeout, name);
+            return CompletableFuture.completedFuture(null);
+        } catch (TransactionException | RuntimeException ex) {
+            return FutureUtils.failedFuture(ex);
+        }
+    }
+
+    /**
+     * Commit the global transaction without waiting for it.
+     *
+     * @return the future, failed with the TransactionException commit throws.
+     */
+    default CompletableFuture<Void> commitAsync() {
+        try {
+            commit();
+            return CompletableFuture.completedFuture(null);
+        } catch (TransactionException | RuntimeException ex) {
+            return FutureUtils.failedFuture(ex);
+        }
+    }
+
+    /**
+     * Rollback the global transaction without waiting for it.
+     *
+     * @return the future, failed with the TransactionException rollback throws.
+     */
+    default CompletableFuture<Void> rollbackAsync() {
+        try {
+            rollback();
+            return CompletableFuture.completedFuture(null);
+        } catch (TransactionException | RuntimeException ex) {
+            return FutureUtils.failedFuture(ex);
+        }
+    }
 }
@@ -0,0 +1,198 @@
+/*
+ *  Copyright 1999-2019 Seata.io Group.
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+package io.seata.tm.api;
+
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+
+import io.seata.common.exception.FrameworkErrorCode;
+import io.seata.common.exception.FrameworkException;
+
+import io.seata.core.context.RootContext;
+import io.seata.core.exception.TmTransactionException;
+import io.seata.core.exception.TransactionException;
+import io.seata.core.exception.TransactionExceptionCode;
+import io.seata.core.model.GlobalStatus;
+import io.seata.core.model.TransactionManager;
+import io.seata.tm.TransactionManagerHolder;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+/**
+ * The type Default global transaction test.
+ */
+public class DefaultGlobalTransactionTest {
+
+    private static final String DEFAULT_XID = "1234567890";
+
+    private AsyncTransactionManager transactionManager;
+
+    /**
+     * Init.
+     */
+    @BeforeEach
+    public void init() {
+        transactionManager = new AsyncTransactionManager();
+        TransactionManagerHolder.set(transactionManager);
+    }
+
+    /**
+     * Clean root context.
+     */
+    @AfterEach
+    public void cleanRootContext() {
+        RootContext.unbind();
+    }
+
+    /**
+     * The transaction goes on when the responses come, the calling thread never waits.
+     *
+     * @throws Exception the exception
+     */
+    @Test
+    public void testAsync() throws Exception {
+        DefaultGlobalTransaction tx = new DefaultGlobalTransaction();
+        CompletableFuture<Void> begin = tx.beginAsync();
+        Assertions.assertFalse(begin.isDone());
+        transactionManager.begin.complete(DEFAULT_XID);
+        begin.get();
+        Assertions.assertEquals(DEFAULT_XID, tx.getXid());
+        Assertions.assertNull(RootContext.getXID());
+
+        RootContext.bind(DEFAULT_XID);
+        CompletableFuture<Void> commit = tx.commitAsync();
+        Assertions.assertNull(RootContext.getXID());
+        Assertions.assertFalse(commit.isDone());
+        transactionManager.commit.complete(GlobalStatus.Committed);
+        commit.get();
+        Assertions.assertFalse(commit.isCompletedExceptionally());
+    }
+
+    /**
+     * A failed rollback fails the future with the exception the blocking rollback throws.
+     *
+     * @throws Exception the exception
+     */
+    @Test
+    public void testAsyncFailure() throws Exception {
+        DefaultGlobalTransaction tx = new DefaultGlobalTransaction();
+        Assertions.assertTrue(tx.rollbackAsync().isCompletedExceptionally());
+
+        transactionManager.begin.complete(DEFAULT_XID);
+        tx.beginAsync().get();
+        TmTransactionException cause = new TmTransactionException(TransactionExceptionCode.IO, "RPC timeout");
+        transactionManager.rollback.completeExceptionally(cause);
+        ExecutionException ex = Assertions.assertThrows(ExecutionException.class, () -> tx.rollbackAsync().get());
+        Assertions.assertTrue(ex.getCause() instanceof TransactionException);
+        Assertions.assertSame(cause, ex.getCause().getCause());
+    }
+
+    /**
+     * A commit failing on a channel error is retried on the executor of the transaction manager, not on the thread
+     * completing the failure.
+     *
+     * @throws Exception the exception
+     */
+    @Test
+    public void testAsyncRetry() throws Exception {
+        ExecutorService executor = Executors.newSingleThreadExecutor(r -> new Thread(r, "asyncRetry"));
+        CompletableFuture<GlobalStatus> firstAttempt = new CompletableFuture<>();
+        List<String> attemptThreads = new CopyOnWriteArrayList<>();
+        TransactionManagerHolder.set(new AsyncTransactionManager() {
+            @Override
+            public CompletableFuture<GlobalStatus> commitAsync(String xid) {
+                attemptThreads.add(Thread.currentThread().getName());
+                return attemptThreads.size() == 1 ? firstAttempt
+                    : CompletableFuture.completedFuture(GlobalStatus.Committed);
+            }
+
+            @Override
+            public Executor getAsyncExecutor() {
+                return executor;
+            }
+        });
+        try {
+            DefaultGlobalTransaction tx = new DefaultGlobalTransaction(DEFAULT_XID, GlobalStatus.Begin,
+                GlobalTransactionRole.Launcher);
+            tx.setCommitRetryCount(2);
+            CompletableFuture<Void> commit = tx.commitAsync();
+            firstAttempt.completeExceptionally(new FrameworkException(FrameworkErrorCode.NetConnect));
+            commit.get(5, TimeUnit.SECONDS);
+            Assertions.assertEquals(2, attemptThreads.size());
+            Assertions.assertEquals("asyncRetry", attemptThreads.get(1));
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    private static class AsyncTransactionManager implements TransactionManager {
+
+        private final CompletableFuture<String> begin = new CompletableFuture<>();
+
+        private final CompletableFuture<GlobalStatus> commit = new CompletableFuture<>();
+
+        private final CompletableFuture<GlobalStatus> rollback = new CompletableFuture<>();
+
+        @Override
+        public CompletableFuture<String> beginAsync(String applicationId, String transactionServiceGroup,
+                                                    String name, int timeout) {
+            return begin.thenApply(xid -> xid);
+        }
+
+        @Override
+        public CompletableFuture<GlobalStatus> commitAsync(String xid) {
+            return commit.thenApply(status -> status);
+        }
+
+        @Override
+        public CompletableFuture<GlobalStatus> rollbackAsync(String xid) {
+            return rollback.thenApply(status -> status);
+        }
+
+        @Override
+        public String begin(String applicationId, String transactionServiceGroup, String name, int timeout) {
+            throw new UnsupportedOperationException();
+        }
+
+        @Override
+        public GlobalStatus commit(String xid) {
+            throw new UnsupportedOperationException();
+        }
+
+        @Override
+        public GlobalStatus rollback(String xid) {
+            throw new UnsupportedOperationException();
+        }
+
+        @Override
+        public GlobalStatus getStatus(String xid) {
+            throw new UnsupportedOperationException();
+        }
+
+        @Override
+        public GlobalStatus globalReport(String xid, GlobalStatus globalStatus) {
+            throw new UnsupportedOperationException();
+        }
+    }
+}